@@ -0,0 +1,31 @@
+package io.deeplumen.ucp.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the shaded benchmark jar.
+ *
+ * <p>Accepts the regular JMH command line and always attaches the {@link GCProfiler}, so every run
+ * reports {@code gc.alloc.rate.norm} (bytes allocated per operation) next to throughput.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * java -jar target/benchmarks.jar                      # every suite
+ * java -jar target/benchmarks.jar Negotiation -p capabilities=20
+ * java -jar target/benchmarks.jar -rf json -rff results.json
+ * }</pre>
+ */
+public final class BenchmarkRunner {
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions cli = new CommandLineOptions(args);
+    new Runner(new OptionsBuilder().parent(cli).addProfiler(GCProfiler.class).build()).run();
+  }
+}
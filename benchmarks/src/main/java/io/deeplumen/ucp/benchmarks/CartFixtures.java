@@ -0,0 +1,198 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic checkout payloads shaped like the sample server's traffic.
+ *
+ * <p>Payloads are built as JSON trees rather than through model setters so the fixtures stay valid
+ * when the generated models change shape; benchmarks bind them to models with the mapper.
+ */
+public final class CartFixtures {
+  public static final String PROTOCOL_VERSION = "2026-01-11";
+
+  private static final String CAPABILITY_PREFIX = "dev.ucp.bench.capability_";
+
+  private CartFixtures() {}
+
+  /** Cart sizes exercised by every suite. */
+  public enum Cart {
+    SMALL(1),
+    MEDIUM(10),
+    LARGE(100);
+
+    public final int lineItems;
+
+    Cart(int lineItems) {
+      this.lineItems = lineItems;
+    }
+  }
+
+  /** Body of {@code POST /checkout-sessions}. */
+  public static ObjectNode createRequest(ObjectMapper mapper, Cart cart) {
+    ObjectNode root = mapper.createObjectNode();
+    root.put("currency", "USD");
+    ArrayNode lineItems = root.putArray("line_items");
+    for (int i = 0; i < cart.lineItems; i++) {
+      ObjectNode line = lineItems.addObject();
+      line.putObject("item").put("id", productId(i));
+      line.put("quantity", 1 + i % 3);
+    }
+    root.putObject("buyer").put("email", "buyer@example.com").put("full_name", "Jane Doe");
+    return root;
+  }
+
+  /** Body of {@code PUT /checkout-sessions/{id}}. */
+  public static ObjectNode updateRequest(ObjectMapper mapper, Cart cart) {
+    ObjectNode root = mapper.createObjectNode();
+    root.put("id", "chk_bench");
+    root.put("currency", "USD");
+    ArrayNode lineItems = root.putArray("line_items");
+    for (int i = 0; i < cart.lineItems; i++) {
+      ObjectNode line = lineItems.addObject();
+      line.put("id", "item_" + (i + 1));
+      line.putObject("item").put("id", productId(i));
+      line.put("quantity", 2 + i % 3);
+    }
+    return root;
+  }
+
+  /** Response body of a checkout that has a minted instrument. */
+  public static ObjectNode checkoutResponse(ObjectMapper mapper, Cart cart) {
+    ObjectNode root = mapper.createObjectNode();
+    ObjectNode ucp = root.putObject("ucp");
+    ucp.put("version", PROTOCOL_VERSION);
+    ucp.set("capabilities", capabilities(mapper, 2));
+    root.put("id", "chk_bench");
+    root.put("status", "ready_for_complete");
+    root.put("currency", "USD");
+    ArrayNode lineItems = root.putArray("line_items");
+    int subtotal = 0;
+    for (int i = 0; i < cart.lineItems; i++) {
+      int price = 1000 + 100 * (i % 20);
+      int quantity = 1 + i % 3;
+      ObjectNode line = lineItems.addObject();
+      line.put("id", "item_" + (i + 1));
+      ObjectNode item = line.putObject("item");
+      item.put("id", productId(i));
+      item.put("title", "Product " + i);
+      item.put("price", price);
+      item.put("image_url", "https://example.com/images/" + productId(i) + ".jpg");
+      line.put("quantity", quantity);
+      line.set("totals", totals(mapper, price * quantity, 0));
+      subtotal += price * quantity;
+    }
+    root.set("totals", totals(mapper, subtotal, 599));
+    ObjectNode payment = root.putObject("payment");
+    ObjectNode handler = payment.putArray("handlers").addObject();
+    handler.put("id", "mock_payment_handler");
+    handler.put("name", "dev.ucp.mock_payment");
+    handler.put("version", PROTOCOL_VERSION);
+    handler.put("spec", "https://ucp.dev/specs/mock");
+    handler.put("config_schema", "https://ucp.dev/schemas/mock.json");
+    handler
+        .putArray("instrument_schemas")
+        .add("https://ucp.dev/schemas/shopping/types/card_payment_instrument.json");
+    handler.putObject("config").putArray("supported_tokens").add("success_token").add("fail_token");
+    payment.put("selected_instrument_id", "inst_chk_bench");
+    ObjectNode instrument = payment.putArray("instruments").addObject();
+    instrument.put("id", "inst_chk_bench");
+    instrument.put("handler_id", "mock_payment_handler");
+    instrument.put("type", "card");
+    instrument.put("brand", "visa");
+    instrument.put("last_digits", "4242");
+    instrument.putObject("credential").put("type", "token").put("token", "success_token");
+    root.put("continue_url", "https://example.com/continue/chk_bench");
+    root.put("expires_at", "2026-01-11T12:00:00Z");
+    return root;
+  }
+
+  /**
+   * Capability declarations as they appear in a profile: {@code count} entries where every third
+   * one extends its predecessor.
+   */
+  public static ArrayNode capabilities(ObjectMapper mapper, int count) {
+    ArrayNode caps = mapper.createArrayNode();
+    for (int i = 0; i < count; i++) {
+      ObjectNode cap = caps.addObject();
+      cap.put("name", capabilityName(i));
+      cap.put("version", PROTOCOL_VERSION);
+      cap.put("spec", "https://ucp.dev/specification/" + i);
+      cap.put("schema", "https://ucp.dev/schemas/shopping/" + i + ".json");
+      if (i % 3 == 2) {
+        cap.put("extends", capabilityName(i - 1));
+      }
+    }
+    return caps;
+  }
+
+  /** The same declarations as generated models carry them in {@code List<Object>} fields. */
+  public static List<Object> capabilityMaps(int count) {
+    List<Object> caps = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Map<String, Object> cap = new LinkedHashMap<>();
+      cap.put("name", capabilityName(i));
+      cap.put("version", PROTOCOL_VERSION);
+      if (i % 3 == 2) {
+        cap.put("extends", capabilityName(i - 1));
+      }
+      caps.add(cap);
+    }
+    return caps;
+  }
+
+  /**
+   * Platform profile for a business declaring {@code count} capabilities: it advertises the
+   * even-numbered ones plus every extension, so some extensions lose their parent.
+   */
+  public static ObjectNode platformProfile(ObjectMapper mapper, int count) {
+    ObjectNode root = mapper.createObjectNode();
+    ArrayNode caps = root.putObject("ucp").putArray("capabilities");
+    for (JsonNode cap : capabilities(mapper, count)) {
+      int index = Integer.parseInt(cap.get("name").asText().substring(CAPABILITY_PREFIX.length()));
+      if (index % 2 == 0 || index % 3 == 2) {
+        caps.add(cap);
+      }
+    }
+    return root;
+  }
+
+  public static byte[] bytes(ObjectMapper mapper, JsonNode node) {
+    try {
+      return mapper.writeValueAsBytes(node);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String capabilityName(int i) {
+    return CAPABILITY_PREFIX + i;
+  }
+
+  private static String productId(int i) {
+    return "sku_" + (10_000 + i);
+  }
+
+  private static ArrayNode totals(ObjectMapper mapper, int subtotal, int shipping) {
+    ArrayNode totals = mapper.createArrayNode();
+    totals.addObject().put("type", "subtotal").put("amount", subtotal);
+    if (shipping > 0) {
+      totals
+          .addObject()
+          .put("type", "fulfillment")
+          .put("display_text", "Standard Shipping")
+          .put("amount", shipping);
+    }
+    totals.addObject().put("type", "total").put("amount", subtotal + shipping);
+    return totals;
+  }
+}
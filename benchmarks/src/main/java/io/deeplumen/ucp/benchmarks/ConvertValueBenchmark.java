@@ -0,0 +1,81 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutUpdateRequest;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ObjectMapper#convertValue} round trips: tree to model, as the sample controller binds
+ * request bodies, and model to tree to model, as callers copy or patch responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertValueBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public Cart cart;
+
+  private ObjectMapper mapper;
+  private JsonNode createTree;
+  private JsonNode updateTree;
+  private CheckoutResponse response;
+  private Map<String, Object> instrument;
+
+  @Setup
+  public void setup() throws IOException {
+    mapper = new ObjectMapper();
+    createTree = CartFixtures.createRequest(mapper, cart);
+    updateTree = CartFixtures.updateRequest(mapper, cart);
+    response = mapper.treeToValue(CartFixtures.checkoutResponse(mapper, cart), CheckoutResponse.class);
+    instrument =
+        Map.of(
+            "id", "inst_chk_bench",
+            "handler_id", "mock_payment_handler",
+            "type", "card",
+            "brand", "visa",
+            "last_digits", "4242",
+            "credential", Map.of("type", "token", "token", "success_token"));
+  }
+
+  @Benchmark
+  public CheckoutCreateRequest treeToCreateRequest() {
+    return mapper.convertValue(createTree, CheckoutCreateRequest.class);
+  }
+
+  @Benchmark
+  public CheckoutUpdateRequest treeToUpdateRequest() {
+    return mapper.convertValue(updateTree, CheckoutUpdateRequest.class);
+  }
+
+  @Benchmark
+  public CheckoutResponse responseRoundTrip() {
+    JsonNode tree = mapper.convertValue(response, JsonNode.class);
+    return mapper.convertValue(tree, CheckoutResponse.class);
+  }
+
+  @Benchmark
+  public Object instrumentToObject() {
+    return mapper.convertValue(instrument, Object.class);
+  }
+}
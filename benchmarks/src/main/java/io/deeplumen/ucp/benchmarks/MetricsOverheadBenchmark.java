@@ -0,0 +1,79 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.metrics.InMemoryMetrics;
+import io.deeplumen.ucp.metrics.Tags;
+import io.deeplumen.ucp.metrics.UcpMetrics;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the {@link UcpMetrics} instrumentation on the SDK's hot paths.
+ *
+ * <p>{@code timer} is a bare {@code start}/{@code stop} pair, {@code counter} one increment, and
+ * {@code serialize} {@link UcpJson#write} of a one-line checkout response with the codec's timer.
+ * {@code NOOP} is the default every SDK component starts with; its scores should match code with
+ * no instrumentation at all. {@code IN_MEMORY} records into {@link InMemoryMetrics}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+  public enum Metrics {
+    NOOP,
+    IN_MEMORY
+  }
+
+  @Param({"NOOP", "IN_MEMORY"})
+  public Metrics metrics;
+
+  private UcpMetrics.Timer timer;
+  private UcpMetrics.Counter counter;
+  private UcpJson json;
+  private JsonNode response;
+
+  @Setup
+  public void setup() {
+    UcpMetrics sink = metrics == Metrics.NOOP ? UcpMetrics.noop() : new InMemoryMetrics();
+    Tags tags = Tags.of(UcpMetrics.OPERATION, UcpMetrics.PRICING);
+    timer = sink.timer(UcpMetrics.OPERATIONS, tags);
+    counter = sink.counter(UcpMetrics.PROFILE_CACHE, tags);
+    ObjectMapper mapper = new ObjectMapper();
+    json = UcpJson.create(mapper).withMetrics(sink);
+    response = CartFixtures.checkoutResponse(mapper, Cart.SMALL);
+  }
+
+  @Benchmark
+  public long timer() {
+    long start = timer.start();
+    timer.stop(start);
+    return start;
+  }
+
+  @Benchmark
+  public void counter() {
+    counter.increment();
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return json.write(response);
+  }
+}
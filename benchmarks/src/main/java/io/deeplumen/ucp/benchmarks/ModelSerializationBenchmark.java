@@ -0,0 +1,82 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutUpdateRequest;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** {@link ObjectMapper} binding of the checkout payloads on the request/response hot path. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelSerializationBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public Cart cart;
+
+  private ObjectMapper mapper;
+  private byte[] createJson;
+  private byte[] updateJson;
+  private byte[] responseJson;
+  private CheckoutCreateRequest create;
+  private CheckoutUpdateRequest update;
+  private CheckoutResponse response;
+
+  @Setup
+  public void setup() throws IOException {
+    mapper = new ObjectMapper();
+    createJson = CartFixtures.bytes(mapper, CartFixtures.createRequest(mapper, cart));
+    updateJson = CartFixtures.bytes(mapper, CartFixtures.updateRequest(mapper, cart));
+    responseJson = CartFixtures.bytes(mapper, CartFixtures.checkoutResponse(mapper, cart));
+    create = mapper.readValue(createJson, CheckoutCreateRequest.class);
+    update = mapper.readValue(updateJson, CheckoutUpdateRequest.class);
+    response = mapper.readValue(responseJson, CheckoutResponse.class);
+  }
+
+  @Benchmark
+  public CheckoutCreateRequest readCreateRequest() throws IOException {
+    return mapper.readValue(createJson, CheckoutCreateRequest.class);
+  }
+
+  @Benchmark
+  public CheckoutUpdateRequest readUpdateRequest() throws IOException {
+    return mapper.readValue(updateJson, CheckoutUpdateRequest.class);
+  }
+
+  @Benchmark
+  public CheckoutResponse readCheckoutResponse() throws IOException {
+    return mapper.readValue(responseJson, CheckoutResponse.class);
+  }
+
+  @Benchmark
+  public byte[] writeCreateRequest() throws IOException {
+    return mapper.writeValueAsBytes(create);
+  }
+
+  @Benchmark
+  public byte[] writeUpdateRequest() throws IOException {
+    return mapper.writeValueAsBytes(update);
+  }
+
+  @Benchmark
+  public byte[] writeCheckoutResponse() throws IOException {
+    return mapper.writeValueAsBytes(response);
+  }
+}
@@ -0,0 +1,93 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.typed.CapabilityNegotiator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The sample controller's {@code /ucp/negotiation} logic.
+ *
+ * <p>{@code nestedLoop} is the original name-only intersection and serves as the baseline. The
+ * other benchmarks measure {@link CapabilityNegotiator}: indexing plus one negotiation, a repeated
+ * negotiation answered from the memo, and negotiations that rotate through more distinct platform
+ * lists than the memo holds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NegotiationBenchmark {
+  private static final int DISTINCT_PLATFORMS = 256;
+
+  @Param({"3", "20", "100"})
+  public int capabilities;
+
+  private ObjectMapper mapper;
+  private JsonNode businessCaps;
+  private JsonNode platformCaps;
+  private JsonNode[] rotatingPlatformCaps;
+  private CapabilityNegotiator negotiator;
+  private int next;
+
+  @Setup
+  public void setup() {
+    mapper = new ObjectMapper();
+    businessCaps = CartFixtures.capabilities(mapper, capabilities);
+    platformCaps = CartFixtures.platformProfile(mapper, capabilities).path("ucp").path("capabilities");
+    rotatingPlatformCaps = new JsonNode[DISTINCT_PLATFORMS];
+    for (int i = 0; i < DISTINCT_PLATFORMS; i++) {
+      ArrayNode caps = platformCaps.deepCopy();
+      ((ObjectNode) caps.addObject())
+          .put("name", "dev.ucp.bench.platform_only_" + i)
+          .put("version", CartFixtures.PROTOCOL_VERSION);
+      rotatingPlatformCaps[i] = caps;
+    }
+    negotiator = CapabilityNegotiator.of(businessCaps);
+  }
+
+  @Benchmark
+  public ArrayNode nestedLoop() {
+    ArrayNode intersection = mapper.createArrayNode();
+    for (JsonNode b : businessCaps) {
+      for (JsonNode p : platformCaps) {
+        if (b.path("name").asText().equals(p.path("name").asText())) {
+          intersection.add(b);
+        }
+      }
+    }
+    return intersection;
+  }
+
+  @Benchmark
+  public CapabilityNegotiator.Result indexAndNegotiate() {
+    return CapabilityNegotiator.of(businessCaps).negotiate(platformCaps);
+  }
+
+  @Benchmark
+  public CapabilityNegotiator.Result negotiateMemoHit() {
+    return negotiator.negotiate(platformCaps);
+  }
+
+  @Benchmark
+  public CapabilityNegotiator.Result negotiateMemoMiss() {
+    JsonNode caps = rotatingPlatformCaps[next];
+    next = (next + 1) & (DISTINCT_PLATFORMS - 1);
+    return negotiator.negotiate(caps);
+  }
+}
@@ -0,0 +1,69 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Binding a create-checkout body that carries an inline {@code _platform_profile}.
+ *
+ * <p>{@code treeThenConvert} is how the sample controller used to bind: parse to a tree, pick the
+ * profile out, then {@code convertValue} the tree. {@code ucpJson} binds in one pass through {@link
+ * UcpJson#readRequest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBindingBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public Cart cart;
+
+  private ObjectMapper mapper;
+  private UcpJson json;
+  private byte[] body;
+
+  @Setup
+  public void setup() {
+    mapper = new ObjectMapper();
+    json = UcpJson.create(mapper);
+    ObjectNode request = CartFixtures.createRequest(mapper, cart);
+    request.set(UcpJson.PLATFORM_PROFILE, CartFixtures.platformProfile(mapper, 3));
+    body = CartFixtures.bytes(mapper, request);
+  }
+
+  @Benchmark
+  public void treeThenConvert(Blackhole bh) throws IOException {
+    JsonNode tree = mapper.readTree(body);
+    bh.consume(tree.get(UcpJson.PLATFORM_PROFILE));
+    bh.consume(mapper.convertValue(tree, CheckoutCreateRequest.class));
+  }
+
+  @Benchmark
+  public void ucpJson(Blackhole bh) throws IOException {
+    UcpJson.Bound<CheckoutCreateRequest> bound =
+        json.readRequest(body, CheckoutCreateRequest.class, UcpJson.PLATFORM_PROFILE);
+    bh.consume(bound.field(UcpJson.PLATFORM_PROFILE));
+    bh.consume(bound.value());
+  }
+}
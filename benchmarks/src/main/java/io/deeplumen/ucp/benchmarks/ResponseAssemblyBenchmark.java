@@ -0,0 +1,147 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.models.discovery.Config;
+import io.deeplumen.ucp.models.discovery.PaymentHandlerResponse;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import io.deeplumen.ucp.models.schemas.shopping.PaymentResponse;
+import io.deeplumen.ucp.models.schemas.shopping.UCPCheckoutResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The sample {@code CheckoutService}'s response assembly; compare {@code gc.alloc.rate.norm}.
+ *
+ * <p>The {@code rebuilt} benchmarks are the original code, which built the {@code ucp} metadata
+ * with its capability maps and the continue URL on every {@code toResponse}, and a payment handler
+ * with its URIs for every new session. The {@code shared} benchmarks reuse fragments built once per
+ * protocol version and a continue URL built once per session, so only the per-session fields are
+ * allocated. {@code serialize*} adds writing the response through {@link UcpJson}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseAssemblyBenchmark {
+  private static final String ID = "chk_bench";
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public Cart cart;
+
+  private UcpJson json;
+  private CheckoutResponse session;
+  private UCPCheckoutResponse sharedMeta;
+  private List<PaymentHandlerResponse> sharedHandlers;
+  private URI sessionContinueUrl;
+  private long expiresAtMillis;
+
+  @Setup
+  public void setup() {
+    ObjectMapper mapper = new ObjectMapper();
+    json = UcpJson.create(mapper);
+    session =
+        mapper.convertValue(
+            CartFixtures.checkoutResponse(mapper, cart), CheckoutResponse.class);
+    sharedMeta = ucpMeta();
+    sharedHandlers = List.of(paymentHandler());
+    sessionContinueUrl = URI.create("https://example.com/continue/" + ID);
+    expiresAtMillis = System.currentTimeMillis();
+  }
+
+  @Benchmark
+  public CheckoutResponse toResponseRebuilt() {
+    CheckoutResponse resp = perSession();
+    resp.setUcp(ucpMeta());
+    resp.setContinueUrl(URI.create("https://example.com/continue/" + ID));
+    return resp;
+  }
+
+  @Benchmark
+  public CheckoutResponse toResponseShared() {
+    CheckoutResponse resp = perSession();
+    resp.setUcp(sharedMeta);
+    resp.setContinueUrl(sessionContinueUrl);
+    return resp;
+  }
+
+  @Benchmark
+  public byte[] serializeRebuilt() throws IOException {
+    return json.write(toResponseRebuilt());
+  }
+
+  @Benchmark
+  public byte[] serializeShared() throws IOException {
+    return json.write(toResponseShared());
+  }
+
+  @Benchmark
+  public PaymentResponse paymentSectionRebuilt() {
+    PaymentResponse payment = new PaymentResponse();
+    payment.setHandlers(List.of(paymentHandler()));
+    return payment;
+  }
+
+  @Benchmark
+  public PaymentResponse paymentSectionShared() {
+    PaymentResponse payment = new PaymentResponse();
+    payment.setHandlers(sharedHandlers);
+    return payment;
+  }
+
+  private CheckoutResponse perSession() {
+    CheckoutResponse resp = new CheckoutResponse();
+    resp.setId(ID);
+    resp.setStatus(session.getStatus());
+    resp.setCurrency("USD");
+    resp.setLineItems(session.getLineItems());
+    resp.setTotals(session.getTotals());
+    resp.setPayment(session.getPayment());
+    resp.setExpiresAt(new Date(expiresAtMillis));
+    return resp;
+  }
+
+  private static UCPCheckoutResponse ucpMeta() {
+    UCPCheckoutResponse meta = new UCPCheckoutResponse();
+    meta.setVersion(CartFixtures.PROTOCOL_VERSION);
+    meta.setCapabilities(
+        List.of(
+            Map.of("name", "dev.ucp.shopping.checkout", "version", CartFixtures.PROTOCOL_VERSION),
+            Map.of(
+                "name", "dev.ucp.shopping.fulfillment", "version", CartFixtures.PROTOCOL_VERSION)));
+    return meta;
+  }
+
+  private static PaymentHandlerResponse paymentHandler() {
+    PaymentHandlerResponse handler = new PaymentHandlerResponse();
+    handler.setId("mock_payment_handler");
+    handler.setName("dev.ucp.mock_payment");
+    handler.setVersion(CartFixtures.PROTOCOL_VERSION);
+    handler.setSpec(URI.create("https://ucp.dev/specs/mock"));
+    handler.setConfigSchema(URI.create("https://ucp.dev/schemas/mock.json"));
+    handler.setInstrumentSchemas(
+        List.of(URI.create("https://ucp.dev/schemas/shopping/types/card_payment_instrument.json")));
+    Config config = new Config();
+    config.setAdditionalProperty("supported_tokens", List.of("success_token", "fail_token"));
+    handler.setConfig(config);
+    return handler;
+  }
+}
@@ -0,0 +1,123 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.signing.RequestSignatureVerifier;
+import io.deeplumen.ucp.signing.RequestSigner;
+import io.deeplumen.ucp.signing.SigningKeys;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code Request-Signature} verification of a create-checkout body with a locally generated P-256
+ * key. JMH runs one thread by default, so the scores are verifications per second per core.
+ *
+ * <p>{@code naive} is verification done ad hoc: parse the JWK from the profile, canonicalize by
+ * re-serializing the parsed body, base64url it as a string and look up a {@link Signature} on every
+ * request. {@code verifier} goes through {@link RequestSignatureVerifier} with its key and header
+ * caches. {@code sign} is the client-side cost through {@link RequestSigner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureVerificationBenchmark {
+  private static final String KID = "bench_key";
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public Cart cart;
+
+  private ObjectMapper mapper;
+  private JsonNode profile;
+  private byte[] body;
+  private String signature;
+  private RequestSigner signer;
+  private RequestSignatureVerifier verifier;
+
+  @Setup
+  public void setup() throws Exception {
+    mapper = new ObjectMapper();
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"));
+    KeyPair pair = generator.generateKeyPair();
+    ObjectNode platformProfile = CartFixtures.platformProfile(mapper, 3);
+    platformProfile
+        .putArray(SigningKeys.PROFILE_FIELD)
+        .add(SigningKeys.toJwk(KID, (ECPublicKey) pair.getPublic()));
+    profile = platformProfile;
+    body = CartFixtures.bytes(mapper, CartFixtures.createRequest(mapper, cart));
+    signer = RequestSigner.create(KID, pair.getPrivate());
+    signature = signer.sign(body);
+    verifier = RequestSignatureVerifier.builder().build();
+    if (!naive() || !KID.equals(verifier.verify(signature, body, profile))) {
+      throw new IllegalStateException("fixture signature does not verify");
+    }
+  }
+
+  @Benchmark
+  public boolean naive() throws Exception {
+    String[] parts = signature.split("\\.");
+    JsonNode header = mapper.readTree(Base64.getUrlDecoder().decode(parts[0]));
+    JsonNode jwk = null;
+    for (JsonNode key : profile.get(SigningKeys.PROFILE_FIELD)) {
+      if (key.path("kid").asText().equals(header.path("kid").asText())) {
+        jwk = key;
+      }
+    }
+    AlgorithmParameters params = AlgorithmParameters.getInstance("EC");
+    params.init(new ECGenParameterSpec("secp256r1"));
+    ECPoint point =
+        new ECPoint(
+            new BigInteger(1, Base64.getUrlDecoder().decode(jwk.get("x").asText())),
+            new BigInteger(1, Base64.getUrlDecoder().decode(jwk.get("y").asText())));
+    PublicKey key =
+        KeyFactory.getInstance("EC")
+            .generatePublic(
+                new ECPublicKeySpec(point, params.getParameterSpec(ECParameterSpec.class)));
+    byte[] canonical = mapper.writeValueAsBytes(mapper.readTree(body));
+    String input =
+        parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(canonical);
+    Signature verify = Signature.getInstance("SHA256withECDSAinP1363Format");
+    verify.initVerify(key);
+    verify.update(input.getBytes(StandardCharsets.US_ASCII));
+    return verify.verify(Base64.getUrlDecoder().decode(parts[2]));
+  }
+
+  @Benchmark
+  public String verifier() {
+    return verifier.verify(signature, body, profile);
+  }
+
+  @Benchmark
+  public String sign() {
+    return signer.sign(body);
+  }
+}
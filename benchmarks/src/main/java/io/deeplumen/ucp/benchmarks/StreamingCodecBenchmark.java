@@ -0,0 +1,104 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reflective bean (de)serialization vs. the codecs generated by the SDK's {@code
+ * streaming-codecs} profile.
+ *
+ * <p>Needs an SDK built with {@code -Pstreaming-codecs}; setup fails otherwise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingCodecBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public Cart cart;
+
+  private ObjectReader reflectiveCreateReader;
+  private ObjectReader reflectiveResponseReader;
+  private ObjectWriter reflectiveResponseWriter;
+  private ObjectReader generatedCreateReader;
+  private ObjectReader generatedResponseReader;
+  private ObjectWriter generatedResponseWriter;
+  private byte[] createBody;
+  private byte[] responseBody;
+  private CheckoutResponse response;
+
+  @Setup
+  public void setup() throws IOException {
+    ObjectMapper reflective = new ObjectMapper();
+    ObjectMapper generated =
+        new ObjectMapper()
+            .registerModule(
+                UcpJson.streamingCodecs()
+                    .orElseThrow(
+                        () ->
+                            new IllegalStateException(
+                                "Build the SDK with -Pstreaming-codecs to run this suite")));
+
+    createBody = CartFixtures.bytes(reflective, CartFixtures.createRequest(reflective, cart));
+    responseBody = CartFixtures.bytes(reflective, CartFixtures.checkoutResponse(reflective, cart));
+    response = reflective.readValue(responseBody, CheckoutResponse.class);
+
+    reflectiveCreateReader = reflective.readerFor(CheckoutCreateRequest.class);
+    reflectiveResponseReader = reflective.readerFor(CheckoutResponse.class);
+    reflectiveResponseWriter = reflective.writerFor(CheckoutResponse.class);
+    generatedCreateReader = generated.readerFor(CheckoutCreateRequest.class);
+    generatedResponseReader = generated.readerFor(CheckoutResponse.class);
+    generatedResponseWriter = generated.writerFor(CheckoutResponse.class);
+  }
+
+  @Benchmark
+  public CheckoutCreateRequest readCreateReflective() throws IOException {
+    return reflectiveCreateReader.readValue(createBody);
+  }
+
+  @Benchmark
+  public CheckoutCreateRequest readCreateGenerated() throws IOException {
+    return generatedCreateReader.readValue(createBody);
+  }
+
+  @Benchmark
+  public CheckoutResponse readResponseReflective() throws IOException {
+    return reflectiveResponseReader.readValue(responseBody);
+  }
+
+  @Benchmark
+  public CheckoutResponse readResponseGenerated() throws IOException {
+    return generatedResponseReader.readValue(responseBody);
+  }
+
+  @Benchmark
+  public byte[] writeResponseReflective() throws IOException {
+    return reflectiveResponseWriter.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public byte[] writeResponseGenerated() throws IOException {
+    return generatedResponseWriter.writeValueAsBytes(response);
+  }
+}
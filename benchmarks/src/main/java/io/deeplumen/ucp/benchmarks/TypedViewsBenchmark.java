@@ -0,0 +1,76 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.typed.CapabilityRef;
+import io.deeplumen.ucp.typed.UcpTypedViews;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link UcpTypedViews#capabilityRefs} and {@link CapabilityRef#tryFrom} over both shapes a
+ * capability list takes at runtime: maps from model binding and {@code JsonNode}s from trees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypedViewsBenchmark {
+
+  @Param({"2", "10", "50"})
+  public int capabilities;
+
+  private List<Object> maps;
+  private List<Object> nodes;
+  private Object singleMap;
+  private Object singleNode;
+
+  @Setup
+  public void setup() {
+    ObjectMapper mapper = new ObjectMapper();
+    maps = CartFixtures.capabilityMaps(capabilities);
+    nodes = new ArrayList<>();
+    CartFixtures.capabilities(mapper, capabilities).forEach(nodes::add);
+    singleMap = maps.get(maps.size() - 1);
+    singleNode = nodes.get(nodes.size() - 1);
+  }
+
+  @Benchmark
+  public List<CapabilityRef> capabilityRefsFromMaps() {
+    return UcpTypedViews.capabilityRefs(maps);
+  }
+
+  @Benchmark
+  public List<CapabilityRef> capabilityRefsFromNodes() {
+    return UcpTypedViews.capabilityRefs(nodes);
+  }
+
+  @Benchmark
+  public Optional<CapabilityRef> tryFromMap() {
+    return CapabilityRef.tryFrom(singleMap);
+  }
+
+  @Benchmark
+  public Optional<CapabilityRef> tryFromNode() {
+    return CapabilityRef.tryFrom(singleNode);
+  }
+
+  @Benchmark
+  public List<Object> toRawCapabilities() {
+    return UcpTypedViews.toRawCapabilities(UcpTypedViews.capabilityRefs(maps));
+  }
+}
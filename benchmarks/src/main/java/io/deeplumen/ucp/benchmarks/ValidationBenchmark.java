@@ -0,0 +1,112 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import io.deeplumen.ucp.validation.UcpValidators;
+import io.deeplumen.ucp.validation.Violation;
+import io.deeplumen.ucp.validation.Violations;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Checkout create request validation: the SDK's generated validators on the raw body and on the
+ * bound model vs. Hibernate Validator on the bound model, plus rejecting a body whose last line
+ * item is invalid without binding it vs. binding it first. {@code bind} is the binding cost the
+ * streaming checks run ahead of.
+ *
+ * <p>Needs an SDK built with its generated validators; setup fails otherwise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public Cart cart;
+
+  private UcpJson codec;
+  private ValidatorFactory factory;
+  private Validator validator;
+  private byte[] validBody;
+  private byte[] invalidBody;
+  private CheckoutCreateRequest valid;
+
+  @Setup
+  public void setup() throws IOException {
+    if (!UcpValidators.isAvailable()) {
+      throw new IllegalStateException("Build the SDK with its validators to run this suite");
+    }
+    ObjectMapper mapper = new ObjectMapper();
+    codec = UcpJson.create(mapper);
+    factory = Validation.buildDefaultValidatorFactory();
+    validator = factory.getValidator();
+
+    ObjectNode request = CartFixtures.createRequest(mapper, cart);
+    validBody = CartFixtures.bytes(mapper, request);
+    ArrayNode lineItems = (ArrayNode) request.get("line_items");
+    ((ObjectNode) lineItems.get(lineItems.size() - 1)).put("quantity", 0);
+    invalidBody = CartFixtures.bytes(mapper, request);
+    valid = codec.read(validBody, CheckoutCreateRequest.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    factory.close();
+  }
+
+  @Benchmark
+  public CheckoutCreateRequest bind() throws IOException {
+    return codec.read(validBody, CheckoutCreateRequest.class);
+  }
+
+  @Benchmark
+  public List<Violation> generatedStreaming() throws IOException {
+    return codec.validate(validBody, CheckoutCreateRequest.class, Violations.Mode.COLLECT_ALL);
+  }
+
+  @Benchmark
+  public List<Violation> generatedTyped() {
+    return UcpValidators.validate(valid, Violations.Mode.COLLECT_ALL);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CheckoutCreateRequest>> hibernateValidator() {
+    return validator.validate(valid);
+  }
+
+  @Benchmark
+  public List<Violation> rejectStreamingFailFast() throws IOException {
+    return codec.validate(invalidBody, CheckoutCreateRequest.class, Violations.Mode.FAIL_FAST);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CheckoutCreateRequest>> rejectBindThenHibernate()
+      throws IOException {
+    return validator.validate(codec.read(invalidBody, CheckoutCreateRequest.class));
+  }
+}
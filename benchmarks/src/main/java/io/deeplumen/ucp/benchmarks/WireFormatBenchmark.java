@@ -0,0 +1,83 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.json.WireFormat;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Checkout payloads through {@link UcpJson} in each {@link WireFormat}: the server binding a create
+ * request (with {@code _platform_profile} capture) and writing the response, and the client writing
+ * the request and reading the response. {@link WireFormatSizes} prints the encoded sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public Cart cart;
+
+  @Param({"JSON", "CBOR", "SMILE"})
+  public WireFormat format;
+
+  private UcpJson codec;
+  private byte[] createBytes;
+  private byte[] responseBytes;
+  private CheckoutCreateRequest create;
+  private CheckoutResponse response;
+
+  @Setup
+  public void setup() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    UcpJson json = UcpJson.create(mapper);
+    codec = json.forFormat(format);
+    ObjectNode request = CartFixtures.createRequest(mapper, cart);
+    request.set(UcpJson.PLATFORM_PROFILE, CartFixtures.platformProfile(mapper, 3));
+    createBytes = json.transcode(CartFixtures.bytes(mapper, request), format);
+    JsonNode checkout = CartFixtures.checkoutResponse(mapper, cart);
+    responseBytes = json.transcode(CartFixtures.bytes(mapper, checkout), format);
+    create = codec.read(createBytes, CheckoutCreateRequest.class);
+    response = codec.read(responseBytes, CheckoutResponse.class);
+  }
+
+  @Benchmark
+  public UcpJson.Bound<CheckoutCreateRequest> serverReadCreateRequest() throws IOException {
+    return codec.readRequest(createBytes, CheckoutCreateRequest.class, UcpJson.PLATFORM_PROFILE);
+  }
+
+  @Benchmark
+  public byte[] serverWriteCheckoutResponse() throws IOException {
+    return codec.write(response);
+  }
+
+  @Benchmark
+  public byte[] clientWriteCreateRequest() throws IOException {
+    return codec.write(create);
+  }
+
+  @Benchmark
+  public CheckoutResponse clientReadCheckoutResponse() throws IOException {
+    return codec.read(responseBytes, CheckoutResponse.class);
+  }
+}
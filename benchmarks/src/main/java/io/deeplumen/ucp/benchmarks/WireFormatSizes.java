@@ -0,0 +1,64 @@
+package io.deeplumen.ucp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.json.WireFormat;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded size of the checkout payloads in each {@link WireFormat}, raw and gzip-compressed, next
+ * to the JSON size. Compressed sizes show what a binary format saves over JSON sent with {@code
+ * Content-Encoding: gzip}.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * java -cp target/benchmarks.jar io.deeplumen.ucp.benchmarks.WireFormatSizes
+ * }</pre>
+ */
+public final class WireFormatSizes {
+  private WireFormatSizes() {}
+
+  public static void main(String[] args) throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    UcpJson json = UcpJson.create(mapper);
+    System.out.printf(
+        "%-24s %-7s %-6s %9s %7s %9s %7s%n",
+        "payload", "cart", "format", "bytes", "vs json", "gzip", "vs json");
+    for (Cart cart : Cart.values()) {
+      report(json, "CheckoutCreateRequest", cart, CartFixtures.createRequest(mapper, cart));
+      report(json, "CheckoutResponse", cart, CartFixtures.checkoutResponse(mapper, cart));
+    }
+  }
+
+  private static void report(UcpJson json, String name, Cart cart, JsonNode payload)
+      throws IOException {
+    byte[] jsonBytes = json.write(payload);
+    int jsonGzip = gzip(jsonBytes);
+    for (WireFormat format : WireFormat.values()) {
+      byte[] bytes = json.transcode(jsonBytes, format);
+      int gzip = gzip(bytes);
+      System.out.printf(
+          "%-24s %-7s %-6s %9d %6.1f%% %9d %6.1f%%%n",
+          name,
+          cart,
+          format,
+          bytes.length,
+          100.0 * bytes.length / jsonBytes.length,
+          gzip,
+          100.0 * gzip / jsonGzip);
+    }
+  }
+
+  private static int gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.size();
+  }
+}
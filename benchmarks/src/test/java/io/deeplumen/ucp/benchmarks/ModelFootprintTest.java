@@ -0,0 +1,141 @@
+package io.deeplumen.ucp.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.benchmarks.CartFixtures.Cart;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import io.deeplumen.ucp.models.schemas.shopping.LineItemCreateRequest;
+import io.deeplumen.ucp.models.schemas.shopping.LineItemResponse;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Guards the lazily allocated {@code additionalProperties} maps of the generated models, measured
+ * with JOL: a model bound without extra properties must retain nothing beyond its own fields. An
+ * SDK built with {@code -Ducp.models.eagerAdditionalProperties=true} fails these checks by design.
+ */
+class ModelFootprintTest {
+  private static final String MODELS = "io.deeplumen.ucp.models.";
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  void modelWithoutExtraPropertiesRetainsOnlyItsShallowSize() throws IOException {
+    for (Class<?> type :
+        List.of(
+            CheckoutCreateRequest.class,
+            CheckoutResponse.class,
+            LineItemCreateRequest.class,
+            LineItemResponse.class)) {
+      Object model = mapper.readValue("{}", type);
+      assertEquals(
+          ClassLayout.parseInstance(model).instanceSize(),
+          GraphLayout.parseInstance(model).totalSize(),
+          type.getSimpleName());
+    }
+  }
+
+  @Test
+  void boundPayloadsAllocateMapsOnlyForExtraProperties() throws IOException {
+    for (Cart cart : Cart.values()) {
+      assertNoMaps(CartFixtures.createRequest(mapper, cart), CheckoutCreateRequest.class, cart);
+      assertNoMaps(CartFixtures.checkoutResponse(mapper, cart), CheckoutResponse.class, cart);
+    }
+  }
+
+  @Test
+  void extraPropertiesAreStillKept() throws IOException {
+    CheckoutCreateRequest request =
+        mapper.readValue("{\"x_partner_ref\":\"abc\"}", CheckoutCreateRequest.class);
+    assertEquals(Map.of("x_partner_ref", "abc"), request.getAdditionalProperties());
+    assertEquals(1, census(request)[1]);
+    assertEquals(0, census(request)[2]);
+  }
+
+  private void assertNoMaps(JsonNode payload, Class<?> type, Cart cart) throws IOException {
+    Object model = mapper.readValue(CartFixtures.bytes(mapper, payload), type);
+    int[] census = census(model);
+    String name = type.getSimpleName() + " " + cart;
+    assertTrue(census[0] > 1, name);
+    assertEquals(0, census[2], name + ": models with an empty additionalProperties map");
+  }
+
+  /**
+   * Returns {models, models with an allocated additionalProperties map, models whose allocated map
+   * is empty}.
+   */
+  private static int[] census(Object root) {
+    Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Object> pending = new ArrayDeque<>();
+    pending.push(root);
+    int models = 0;
+    int allocated = 0;
+    int empty = 0;
+    while (!pending.isEmpty()) {
+      Object value = pending.pop();
+      if (!seen.add(value)) {
+        continue;
+      }
+      if (value instanceof Collection<?> c) {
+        c.forEach(e -> push(pending, e));
+        continue;
+      }
+      if (value instanceof Map<?, ?> m) {
+        m.values().forEach(e -> push(pending, e));
+        continue;
+      }
+      if (!value.getClass().getName().startsWith(MODELS) || value.getClass().isEnum()) {
+        continue;
+      }
+      models++;
+      for (Field field : value.getClass().getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers())) {
+          continue;
+        }
+        Object child = read(field, value);
+        if (field.getName().equals("additionalProperties")) {
+          if (child != null) {
+            allocated++;
+            if (((Map<?, ?>) child).isEmpty()) {
+              empty++;
+            }
+          }
+          continue;
+        }
+        push(pending, child);
+      }
+    }
+    return new int[] {models, allocated, empty};
+  }
+
+  private static void push(Deque<Object> pending, Object value) {
+    if (value != null) {
+      pending.push(value);
+    }
+  }
+
+  private static Object read(Field field, Object owner) {
+    try {
+      field.setAccessible(true);
+      return field.get(owner);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+}
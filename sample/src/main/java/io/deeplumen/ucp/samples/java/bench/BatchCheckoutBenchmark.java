@@ -0,0 +1,151 @@
+package io.deeplumen.ucp.samples.java.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.client.BatchOperation;
+import io.deeplumen.ucp.client.BatchResult;
+import io.deeplumen.ucp.client.UcpClient;
+import io.deeplumen.ucp.helpers.UcpHeaders;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares creating checkouts one request at a time with creating them through {@code POST
+ * /checkout-sessions:batch}, against a running sample server.
+ *
+ * <p>Both phases create {@code checkouts} sessions with at most {@code concurrency} requests in
+ * flight; the batched phase packs {@code batchSize} creates into each request. The server is
+ * addressed through {@code UCP_SAMPLE_BASEURL} and the product through {@code
+ * UCP_SAMPLE_ITEM_ID}, as for {@code SimpleClient}. Start the server with {@code
+ * --ucp.inventory.enabled=false} so that stock does not run out mid-run.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * mvn -DskipTests compile exec:java \
+ *   -Dexec.mainClass=io.deeplumen.ucp.samples.java.bench.BatchCheckoutBenchmark \
+ *   -Dexec.args="20000 50 16"
+ * }</pre>
+ */
+public final class BatchCheckoutBenchmark {
+  private BatchCheckoutBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    int checkouts = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+    String baseUrl = System.getenv().getOrDefault("UCP_SAMPLE_BASEURL", "http://localhost:8080");
+    String itemId = System.getenv().getOrDefault("UCP_SAMPLE_ITEM_ID", "bouquet_roses");
+
+    ObjectMapper mapper = new ObjectMapper();
+    CheckoutCreateRequest request =
+        mapper.convertValue(
+            Map.of(
+                "currency", "USD",
+                "line_items", List.of(Map.of("item", Map.of("id", itemId), "quantity", 1)),
+                "payment", Map.of("handlers", List.of(), "instruments", List.of())),
+            CheckoutCreateRequest.class);
+    try (UcpClient client =
+        UcpClient.builder(URI.create(baseUrl))
+            .json(UcpJson.create(mapper))
+            .agentProfile(baseUrl + "/profiles/platform.json", "2026-01-11")
+            .header(UcpHeaders.REQUEST_SIGNATURE, "test")
+            .build()) {
+      // Warm up connections, the profile cache and both code paths.
+      single(client, request, Math.min(checkouts, 1_000), concurrency);
+      batched(client, request, Math.min(checkouts, 1_000), batchSize, concurrency);
+
+      report("single", checkouts, checkouts, single(client, request, checkouts, concurrency));
+      int requests = (checkouts + batchSize - 1) / batchSize;
+      report(
+          "batch of " + batchSize,
+          checkouts,
+          requests,
+          batched(client, request, checkouts, batchSize, concurrency));
+    }
+  }
+
+  private static Run single(
+      UcpClient client, CheckoutCreateRequest request, int checkouts, int concurrency)
+      throws InterruptedException {
+    Semaphore inFlight = new Semaphore(concurrency);
+    AtomicLong failures = new AtomicLong();
+    List<CompletableFuture<?>> calls = new ArrayList<>(checkouts);
+    long start = System.nanoTime();
+    for (int i = 0; i < checkouts; i++) {
+      inFlight.acquire();
+      calls.add(
+          client
+              .createCheckout(request)
+              .whenComplete(
+                  (checkout, error) -> {
+                    if (error != null) {
+                      failures.incrementAndGet();
+                    }
+                    inFlight.release();
+                  }));
+    }
+    CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0]))
+        .exceptionally(e -> null)
+        .join();
+    return new Run(System.nanoTime() - start, failures.get());
+  }
+
+  private static Run batched(
+      UcpClient client,
+      CheckoutCreateRequest request,
+      int checkouts,
+      int batchSize,
+      int concurrency)
+      throws InterruptedException {
+    Semaphore inFlight = new Semaphore(concurrency);
+    AtomicLong failures = new AtomicLong();
+    List<CompletableFuture<?>> calls = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int offset = 0; offset < checkouts; offset += batchSize) {
+      int size = Math.min(batchSize, checkouts - offset);
+      List<BatchOperation> operations = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        operations.add(BatchOperation.create(Integer.toString(offset + i), request));
+      }
+      inFlight.acquire();
+      AtomicLong delivered = new AtomicLong();
+      calls.add(
+          client
+              .batch(
+                  operations,
+                  result -> {
+                    delivered.incrementAndGet();
+                    if (!result.isSuccess()) {
+                      failures.incrementAndGet();
+                    }
+                  })
+              .whenComplete(
+                  (ignored, error) -> {
+                    if (error != null) {
+                      failures.addAndGet(size - delivered.get());
+                    }
+                    inFlight.release();
+                  }));
+    }
+    CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0]))
+        .exceptionally(e -> null)
+        .join();
+    return new Run(System.nanoTime() - start, failures.get());
+  }
+
+  private static void report(String mode, int checkouts, int requests, Run run) {
+    double seconds = run.nanos() / 1e9;
+    System.out.printf(
+        "%-12s %,d checkouts in %,d requests, %.2f s (%,.0f checkouts/s), %,d failed%n",
+        mode, checkouts, requests, seconds, checkouts / seconds, run.failures());
+  }
+
+  private record Run(long nanos, long failures) {}
+}
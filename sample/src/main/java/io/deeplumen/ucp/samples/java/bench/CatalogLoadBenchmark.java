@@ -0,0 +1,121 @@
+package io.deeplumen.ucp.samples.java.bench;
+
+import io.deeplumen.ucp.samples.java.catalog.CatalogSnapshot;
+import io.deeplumen.ucp.samples.java.catalog.ProductCatalog;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures loading, lookup and hot swap of a large product catalog.
+ *
+ * <p>Writes a synthetic catalog CSV of {@code skus} rows, loads it into a {@link CatalogSnapshot}
+ * and reports load time, off-heap size and heap growth, then times random lookups of known and
+ * unknown ids through {@link ProductCatalog} while a second snapshot is swapped in.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * mvn -DskipTests compile exec:java \
+ *   -Dexec.mainClass=io.deeplumen.ucp.samples.java.bench.CatalogLoadBenchmark \
+ *   -Dexec.args="1000000"
+ * }</pre>
+ */
+public final class CatalogLoadBenchmark {
+
+  private CatalogLoadBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    int skus = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+    Path csv = Files.createTempFile("ucp-catalog-bench", ".csv");
+    try {
+      write(csv, skus);
+      System.out.printf("catalog csv: %,d rows, %,d MB%n", skus, Files.size(csv) >> 20);
+
+      long heapBefore = usedHeap();
+      long start = System.nanoTime();
+      CatalogSnapshot snapshot = load(csv, "v1");
+      double loadSeconds = (System.nanoTime() - start) / 1e9;
+      long heapAfter = usedHeap();
+      System.out.printf(
+          "loaded %,d products in %.2f s (%,.0f rows/s), off-heap %,d MB, heap +%,d MB%n",
+          snapshot.size(),
+          loadSeconds,
+          snapshot.size() / loadSeconds,
+          snapshot.offHeapBytes() >> 20,
+          Math.max(0, heapAfter - heapBefore) >> 20);
+
+      ProductCatalog catalog = new ProductCatalog(snapshot, 10_000);
+      lookup(catalog, skus, lookups, 0);
+      lookup(catalog, skus, lookups, 10);
+
+      start = System.nanoTime();
+      CatalogSnapshot next = load(csv, "v2");
+      catalog.swap(next);
+      System.out.printf(
+          "reloaded and swapped in %.2f s; now serving %s%n",
+          (System.nanoTime() - start) / 1e9, catalog.snapshot().version());
+    } finally {
+      Files.deleteIfExists(csv);
+    }
+  }
+
+  private static void lookup(ProductCatalog catalog, int skus, int lookups, int unknownPercent) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long hits = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < lookups; i++) {
+      String id =
+          random.nextInt(100) < unknownPercent
+              ? "unknown_" + random.nextInt(1_000_000)
+              : sku(random.nextInt(skus));
+      if (catalog.resolve(id).category() != null) {
+        hits++;
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf(
+        "%,d lookups (%d%% unknown) in %.2f s: %,.0f lookups/s, %,d fallbacks cached%n",
+        hits, unknownPercent, seconds, lookups / seconds, catalog.fallbackCount());
+  }
+
+  private static CatalogSnapshot load(Path csv, String version) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+      return CatalogSnapshot.load(reader, version);
+    }
+  }
+
+  private static void write(Path csv, int skus) throws IOException {
+    String[] categories = {"bouquets", "pots", "plants", "seeds", "tools"};
+    try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+      out.write("id,title,price,currency,image_url,category,promotion_id\n");
+      for (int i = 0; i < skus; i++) {
+        out.write(sku(i));
+        out.write(",Product ");
+        out.write(Integer.toString(i));
+        out.write(',');
+        out.write(Integer.toString(500 + i % 10_000));
+        out.write(",USD,https://example.com/images/");
+        out.write(sku(i));
+        out.write(".jpg,");
+        out.write(categories[i % categories.length]);
+        out.write(i % 10 == 0 ? ",promo_spring\n" : ",\n");
+      }
+    }
+  }
+
+  private static String sku(int i) {
+    return "sku_" + i;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,109 @@
+package io.deeplumen.ucp.samples.java.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutUpdateRequest;
+import io.deeplumen.ucp.samples.java.catalog.ProductCatalog;
+import io.deeplumen.ucp.samples.java.data.DataLoader;
+import io.deeplumen.ucp.samples.java.inventory.InventoryLedger;
+import io.deeplumen.ucp.samples.java.pricing.PricingEngine;
+import io.deeplumen.ucp.samples.java.service.CheckoutService;
+import io.deeplumen.ucp.samples.java.service.CheckoutSessionStore;
+import io.deeplumen.ucp.samples.java.service.InMemoryCheckoutSessionStore;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Measures changing one line of a large cart: a full {@code PUT} update carrying every line, a
+ * merge patch naming only that line, and the same patch answered with a delta.
+ *
+ * <p>Each round alternates the quantity of the last of {@code lines} lines and serializes the
+ * response, so the figures include building and writing what a client would receive.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * mvn -DskipTests compile exec:java \
+ *   -Dexec.mainClass=io.deeplumen.ucp.samples.java.bench.CheckoutPatchBenchmark \
+ *   -Dexec.args="500 20000"
+ * }</pre>
+ */
+public final class CheckoutPatchBenchmark {
+
+  private CheckoutPatchBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    int lines = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+    ObjectMapper mapper = new ObjectMapper();
+    CheckoutService service =
+        new CheckoutService(
+            new ProductCatalog("", 0, Duration.ZERO),
+            new PricingEngine(new DataLoader(), ""),
+            new InventoryLedger(List.of()),
+            mapper,
+            new InMemoryCheckoutSessionStore(
+                16, CheckoutSessionStore.OverflowPolicy.REJECT, Duration.ofSeconds(1)),
+            Duration.ofDays(1));
+    JsonNode profile = mapper.createObjectNode();
+
+    ObjectNode create = mapper.createObjectNode().put("currency", "USD");
+    ArrayNode lineItems = create.putArray("line_items");
+    for (int i = 0; i < lines; i++) {
+      lineItems.addObject().put("quantity", 1).putObject("item").put("id", "bouquet_roses");
+    }
+    String id =
+        service
+            .createCheckout(profile, mapper.convertValue(create, CheckoutCreateRequest.class))
+            .getId();
+    String lastId = "item_" + lines;
+
+    // Both a full update and the one-line patch for each of the two alternating quantities.
+    CheckoutUpdateRequest[] puts = new CheckoutUpdateRequest[2];
+    JsonNode[] patches = new JsonNode[2];
+    for (int q = 0; q < 2; q++) {
+      ObjectNode put = create.deepCopy().put("id", id);
+      ((ObjectNode) put.get("line_items").get(lines - 1)).put("quantity", q + 1);
+      puts[q] = mapper.convertValue(put, CheckoutUpdateRequest.class);
+      ObjectNode patch = mapper.createObjectNode();
+      patch.putObject("line_items").putObject(lastId).put("quantity", q + 1);
+      patches[q] = patch;
+    }
+
+    for (int pass = 0; pass < 2; pass++) {
+      boolean report = pass == 1;
+      time(
+          report, "put full update", rounds, mapper,
+          q -> service.updateCheckout(id, profile, puts[q]));
+      time(
+          report, "merge patch", rounds, mapper,
+          q -> service.patchCheckout(id, profile, patches[q]));
+      time(
+          report, "merge patch, delta", rounds, mapper,
+          q -> service.patchCheckoutDelta(id, patches[q]));
+    }
+  }
+
+  private static void time(
+      boolean report, String name, int rounds, ObjectMapper mapper, Round round) throws Exception {
+    long bytes = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      bytes += mapper.writeValueAsBytes(round.run(i & 1)).length;
+    }
+    double micros = (System.nanoTime() - start) / 1e3 / rounds;
+    if (report) {
+      System.out.printf(
+          "%-20s %,10.1f us/op %,10d response bytes%n", name, micros, bytes / rounds);
+    }
+  }
+
+  private interface Round {
+    /** Runs one round with the first or second of the alternating quantities. */
+    Object run(int variant);
+  }
+}
@@ -0,0 +1,138 @@
+package io.deeplumen.ucp.samples.java.bench;
+
+import io.deeplumen.ucp.samples.java.data.StockLevel;
+import io.deeplumen.ucp.samples.java.inventory.InsufficientStockException;
+import io.deeplumen.ucp.samples.java.inventory.InventoryLedger;
+import io.deeplumen.ucp.samples.java.inventory.Reservation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Measures {@link InventoryLedger} under many concurrent checkouts of one hot SKU.
+ *
+ * <p>The first phase runs {@code threads} checkouts in a loop for {@code seconds}: each reserves
+ * one to three units of the hot SKU and then either completes (commit) or abandons (release) the
+ * checkout. The second phase is a flash sale: {@code stock} units and every thread reserving until
+ * the SKU is sold out, after which the units sold must equal the stock exactly.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * mvn -DskipTests compile exec:java \
+ *   -Dexec.mainClass=io.deeplumen.ucp.samples.java.bench.InventoryContentionBenchmark \
+ *   -Dexec.args="2000 10 100000"
+ * }</pre>
+ */
+public final class InventoryContentionBenchmark {
+  private static final String HOT = "hot_sku";
+
+  private InventoryContentionBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    long stock = args.length > 2 ? Long.parseLong(args[2]) : 100_000;
+
+    steadyState(threads, seconds);
+    flashSale(threads, stock);
+  }
+
+  private static void steadyState(int threads, int seconds) throws InterruptedException {
+    InventoryLedger ledger =
+        new InventoryLedger(
+            List.of(
+                new StockLevel(HOT, "store_1", Long.MAX_VALUE / 4),
+                new StockLevel("cold_sku", "store_1", Long.MAX_VALUE / 4)));
+    AtomicLong checkouts = new AtomicLong();
+    long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+    run(
+        threads,
+        id -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          long done = 0;
+          while (System.nanoTime() < deadline) {
+            Reservation reservation =
+                ledger.reserve("chk_" + id, null, Map.of(HOT, 1 + random.nextInt(3)));
+            if (random.nextInt(4) == 0) {
+              ledger.release(reservation);
+            } else {
+              ledger.commit(reservation);
+            }
+            done++;
+          }
+          checkouts.addAndGet(done);
+        });
+    InventoryLedger.Stats stats = ledger.stats();
+    System.out.printf(
+        "steady state: %,d threads, %,d checkouts in %d s (%,.0f checkouts/s), "
+            + "%.3f CAS retries per checkout%n",
+        threads,
+        checkouts.get(),
+        seconds,
+        checkouts.get() / (double) seconds,
+        stats.casRetries() / (double) Math.max(1, checkouts.get()));
+  }
+
+  private static void flashSale(int threads, long stock) throws InterruptedException {
+    InventoryLedger ledger = new InventoryLedger(List.of(new StockLevel(HOT, "store_1", stock)));
+    AtomicLong sold = new AtomicLong();
+    long start = System.nanoTime();
+    run(
+        threads,
+        id -> {
+          long units = 0;
+          while (true) {
+            try {
+              Reservation reservation = ledger.reserve("chk_" + id, null, Map.of(HOT, 1));
+              ledger.commit(reservation);
+              units++;
+            } catch (InsufficientStockException e) {
+              break;
+            }
+          }
+          sold.addAndGet(units);
+        });
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf(
+        "flash sale: %,d units sold to %,d threads in %.2f s, %,d left, %s%n",
+        sold.get(),
+        threads,
+        seconds,
+        ledger.available(HOT),
+        sold.get() == stock && ledger.available(HOT) == 0 ? "no oversell" : "MISMATCH");
+  }
+
+  private static void run(int threads, IntConsumer body) throws InterruptedException {
+    CountDownLatch ready = new CountDownLatch(threads);
+    CountDownLatch go = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      int id = i;
+      Thread worker =
+          new Thread(
+              () -> {
+                ready.countDown();
+                try {
+                  go.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  return;
+                }
+                body.accept(id);
+              },
+              "checkout-" + i);
+      worker.start();
+      workers.add(worker);
+    }
+    ready.await();
+    go.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package io.deeplumen.ucp.samples.java.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.samples.java.catalog.ProductCatalog;
+import io.deeplumen.ucp.samples.java.data.DataLoader;
+import io.deeplumen.ucp.samples.java.inventory.InventoryLedger;
+import io.deeplumen.ucp.samples.java.pricing.PricingEngine;
+import io.deeplumen.ucp.samples.java.service.CheckoutService;
+import io.deeplumen.ucp.samples.java.service.CheckoutSessionStore;
+import io.deeplumen.ucp.samples.java.service.InMemoryCheckoutSessionStore;
+import io.deeplumen.ucp.samples.java.service.JournaledCheckoutSessionStore;
+import io.deeplumen.ucp.samples.java.service.JournaledCheckoutSessionStore.Durability;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long the journaled session store takes to rebuild its index after a restart.
+ *
+ * <p>Writes {@code events} state transitions spread over {@code sessions} live checkouts through
+ * {@link CheckoutService}, closes the store without a snapshot, then times the replay into a fresh
+ * store.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * mvn -DskipTests compile exec:java \
+ *   -Dexec.mainClass=io.deeplumen.ucp.samples.java.bench.JournalRecoveryBenchmark \
+ *   -Dexec.args="10000000 100000 /tmp/ucp-journal"
+ * }</pre>
+ */
+public final class JournalRecoveryBenchmark {
+
+  private JournalRecoveryBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    long events = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+    int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+    Path dir =
+        args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("ucp-journal-bench");
+    int segmentSize = 256 << 20;
+    deleteRecursively(dir);
+
+    ObjectMapper mapper = new ObjectMapper();
+    DataLoader loader = new DataLoader();
+    ProductCatalog catalog = new ProductCatalog("", 0, Duration.ZERO);
+    JsonNode profile = mapper.createObjectNode();
+
+    long writeStart = System.nanoTime();
+    try (JournaledCheckoutSessionStore store = open(mapper, dir, segmentSize, sessions)) {
+      CheckoutService service =
+          new CheckoutService(
+              catalog,
+              new PricingEngine(loader, ""),
+              new InventoryLedger(List.of()),
+              mapper,
+              store,
+              Duration.ofDays(1));
+      String[] ids = new String[sessions];
+      long written = 0;
+      for (int i = 0; i < sessions && written < events; i++, written++) {
+        ids[i] = service.createCheckout(profile, null).getId();
+      }
+      int live = (int) Math.min(sessions, written);
+      for (int i = 0; written < events; i++, written++) {
+        String id = ids[i % live];
+        if ((i & 7) == 7) {
+          service.mintInstrument(id, profile);
+        } else {
+          service.updateCheckout(id, profile, null);
+        }
+      }
+    }
+    double writeSeconds = (System.nanoTime() - writeStart) / 1e9;
+    System.out.printf(
+        "wrote %,d events in %.2f s (%,.0f events/s), journal %,d MB%n",
+        events, writeSeconds, events / writeSeconds, directorySize(dir) >> 20);
+
+    long recoverStart = System.nanoTime();
+    int recovered;
+    try (JournaledCheckoutSessionStore store = open(mapper, dir, segmentSize, sessions)) {
+      recovered = store.size();
+    }
+    double recoverSeconds = (System.nanoTime() - recoverStart) / 1e9;
+    System.out.printf(
+        "recovered %,d sessions from %,d events in %.2f s (%,.0f events/s)%n",
+        recovered, events, recoverSeconds, events / recoverSeconds);
+    deleteRecursively(dir);
+  }
+
+  private static JournaledCheckoutSessionStore open(
+      ObjectMapper mapper, Path dir, int segmentSize, int sessions) throws Exception {
+    return new JournaledCheckoutSessionStore(
+        new InMemoryCheckoutSessionStore(
+            sessions, CheckoutSessionStore.OverflowPolicy.REJECT, Duration.ofSeconds(1)),
+        mapper,
+        dir,
+        segmentSize,
+        Durability.ASYNC,
+        Duration.ZERO);
+  }
+
+  private static long directorySize(Path dir) throws Exception {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.mapToLong(p -> p.toFile().length()).sum();
+    }
+  }
+
+  private static void deleteRecursively(Path dir) throws Exception {
+    if (!Files.exists(dir)) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(p);
+      }
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package io.deeplumen.ucp.samples.java.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.deeplumen.ucp.client.UcpClient;
+import io.deeplumen.ucp.concurrent.VirtualThreads;
+import io.deeplumen.ucp.helpers.UcpHeaders;
+import io.deeplumen.ucp.helpers.UcpRoutes;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of a running sample server whose requests block on a slow downstream, for comparing the
+ * default platform-thread Tomcat pool with virtual threads ({@code mvn -Pjava21 spring-boot:run}).
+ *
+ * <p>The benchmark serves platform profiles itself and answers every fetch after {@code delayMs}.
+ * Each request is an empty merge patch ({@code PATCH /checkout-sessions/{id}} with {@code {}})
+ * naming a profile URL that was never seen before, so the server misses its profile cache and the
+ * request thread waits out the full delay in {@code extractPlatformProfile}; checkout reads do not
+ * resolve the profile and would not block. {@code concurrency} requests are kept in flight for
+ * {@code seconds} after a warm-up of the same length, and throughput and latency percentiles are
+ * reported. With platform threads throughput levels off near {@code server.tomcat.threads.max /
+ * delay}; with virtual threads it keeps growing with {@code concurrency} until the CPU is busy.
+ *
+ * <p>The server is addressed through {@code UCP_SAMPLE_BASEURL} and the product through {@code
+ * UCP_SAMPLE_ITEM_ID}, as for {@code SimpleClient}. Keep the delay below the server's {@code
+ * ucp.profiles.request-wait} (default 500 ms) and {@code ucp.profiles.read-timeout}; past either,
+ * requests stop waiting for the profile and the latencies only show that cap.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * mvn -DskipTests compile exec:java \
+ *   -Dexec.mainClass=io.deeplumen.ucp.samples.java.bench.ThreadModelLoadBenchmark \
+ *   -Dexec.args="1000 20 200"
+ * }</pre>
+ */
+public final class ThreadModelLoadBenchmark {
+  private static final byte[] PROFILE =
+      "{\"ucp\":{\"version\":\"2026-01-11\",\"capabilities\":[]}}".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] EMPTY_PATCH = "{}".getBytes(StandardCharsets.UTF_8);
+  private static final String MERGE_PATCH = "application/merge-patch+json";
+
+  private ThreadModelLoadBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    long delayMs = args.length > 2 ? Long.parseLong(args[2]) : 200;
+    String baseUrl = System.getenv().getOrDefault("UCP_SAMPLE_BASEURL", "http://localhost:8080");
+    String itemId = System.getenv().getOrDefault("UCP_SAMPLE_ITEM_ID", "bouquet_roses");
+
+    ExecutorService profileThreads =
+        VirtualThreads.isAvailable()
+            ? VirtualThreads.newThreadPerTaskExecutor("slow-profile-")
+            : Executors.newCachedThreadPool(
+                r -> {
+                  Thread t = new Thread(r, "slow-profile");
+                  t.setDaemon(true);
+                  return t;
+                });
+    HttpServer profiles = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+    profiles.setExecutor(profileThreads);
+    profiles.createContext(
+        "/profiles/",
+        exchange -> {
+          try {
+            Thread.sleep(delayMs);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          exchange.getResponseHeaders().set("Content-Type", "application/json");
+          exchange.getResponseHeaders().set("Cache-Control", "max-age=0");
+          exchange.sendResponseHeaders(200, PROFILE.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(PROFILE);
+          }
+        });
+    profiles.start();
+    String profileBase = "http://127.0.0.1:" + profiles.getAddress().getPort() + "/profiles/";
+
+    try {
+      String checkoutId = createCheckout(baseUrl, itemId);
+      HttpClient http =
+          HttpClient.newBuilder()
+              .version(HttpClient.Version.HTTP_1_1)
+              .connectTimeout(Duration.ofSeconds(5))
+              .build();
+      URI uri = URI.create(baseUrl + UcpRoutes.checkoutSessionById(checkoutId));
+      AtomicLong sequence = new AtomicLong();
+      System.out.printf(
+          "%,d in flight, %d ms downstream delay, %d s per phase%n", concurrency, delayMs, seconds);
+      run(http, uri, profileBase, sequence, concurrency, seconds);
+      report(run(http, uri, profileBase, sequence, concurrency, seconds));
+    } finally {
+      profiles.stop(0);
+      profileThreads.shutdownNow();
+    }
+  }
+
+  private static String createCheckout(String baseUrl, String itemId) {
+    ObjectMapper mapper = new ObjectMapper();
+    CheckoutCreateRequest request =
+        mapper.convertValue(
+            Map.of(
+                "currency", "USD",
+                "line_items", List.of(Map.of("item", Map.of("id", itemId), "quantity", 1)),
+                "payment", Map.of("handlers", List.of(), "instruments", List.of())),
+            CheckoutCreateRequest.class);
+    try (UcpClient client =
+        UcpClient.builder(URI.create(baseUrl))
+            .json(UcpJson.create(mapper))
+            .agentProfile(baseUrl + "/profiles/platform.json", "2026-01-11")
+            .header(UcpHeaders.REQUEST_SIGNATURE, "test")
+            .build()) {
+      return client.createCheckout(request).join().getId();
+    }
+  }
+
+  private static Run run(
+      HttpClient http,
+      URI uri,
+      String profileBase,
+      AtomicLong sequence,
+      int concurrency,
+      int seconds)
+      throws InterruptedException {
+    Semaphore inFlight = new Semaphore(concurrency);
+    LatencyLog latencies = new LatencyLog();
+    AtomicLong failures = new AtomicLong();
+    long start = System.nanoTime();
+    long end = start + TimeUnit.SECONDS.toNanos(seconds);
+    while (System.nanoTime() - end < 0) {
+      if (!inFlight.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+        continue;
+      }
+      String profileUrl = profileBase + sequence.incrementAndGet() + ".json";
+      HttpRequest request =
+          HttpRequest.newBuilder(uri)
+              .timeout(Duration.ofSeconds(30))
+              .header(UcpHeaders.UCP_AGENT, UcpHeaders.ucpAgent(profileUrl, "2026-01-11"))
+              .header(UcpHeaders.REQUEST_SIGNATURE, "test")
+              .header("Content-Type", MERGE_PATCH)
+              .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(EMPTY_PATCH))
+              .build();
+      long sent = System.nanoTime();
+      http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+          .whenComplete(
+              (response, error) -> {
+                if (error != null || response.statusCode() != 200) {
+                  failures.incrementAndGet();
+                } else {
+                  latencies.add(System.nanoTime() - sent);
+                }
+                inFlight.release();
+              });
+    }
+    inFlight.acquire(concurrency);
+    long elapsed = System.nanoTime() - start;
+    return new Run(elapsed, latencies.sorted(), failures.get());
+  }
+
+  private static void report(Run run) {
+    long[] sorted = run.latencies();
+    double seconds = run.nanos() / 1e9;
+    System.out.printf(
+        "%,d requests in %.1f s (%,.0f req/s), %,d failed%n",
+        sorted.length, seconds, sorted.length / seconds, run.failures());
+    if (sorted.length > 0) {
+      System.out.printf(
+          "latency p50 %,d ms, p90 %,d ms, p99 %,d ms, max %,d ms%n",
+          percentile(sorted, 0.50),
+          percentile(sorted, 0.90),
+          percentile(sorted, 0.99),
+          sorted[sorted.length - 1] / 1_000_000);
+    }
+  }
+
+  private static long percentile(long[] sorted, double p) {
+    return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1_000_000;
+  }
+
+  private static final class LatencyLog {
+    private long[] values = new long[1 << 16];
+    private int size;
+
+    synchronized void add(long nanos) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = nanos;
+    }
+
+    synchronized long[] sorted() {
+      long[] copy = Arrays.copyOf(values, size);
+      Arrays.sort(copy);
+      return copy;
+    }
+  }
+
+  private record Run(long nanos, long[] latencies, long failures) {}
+}
@@ -0,0 +1,398 @@
+package io.deeplumen.ucp.samples.java.catalog;
+
+import io.deeplumen.ucp.samples.java.data.Product;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable version of the product catalog, stored column by column in direct (off-heap)
+ * buffers.
+ *
+ * <p>Variable-length strings (id, title, image URL) live back to back in a single UTF-8 pool and
+ * are referenced from {@code long} columns as {@code offset << 32 | length}. Low-cardinality
+ * columns (currency, category, promotion) are dictionary-encoded into {@code int} columns. Lookup
+ * by id goes through an open-addressing hash table of (hash, row) pairs, compared against the
+ * pooled id bytes only on a hash match, so the heap only holds the small dictionaries regardless
+ * of catalog size. {@link Product} records are materialized on lookup.
+ *
+ * <p>Snapshots are built in one streaming pass over the CSV and never change afterwards, so any
+ * number of threads may read one concurrently.
+ */
+public final class CatalogSnapshot {
+  private static final int MAX_LOAD_PERCENT = 50;
+
+  private final String version;
+  private final int size;
+  private final ByteBuffer strings;
+  private final LongBuffer ids;
+  private final LongBuffer titles;
+  private final LongBuffer images;
+  private final IntBuffer prices;
+  private final IntBuffer currencies;
+  private final IntBuffer categories;
+  private final IntBuffer promotions;
+  private final String[] dictionary;
+  private final IntBuffer index;
+  private final int indexMask;
+  private final long offHeapBytes;
+  private final Product defaultProduct;
+
+  private CatalogSnapshot(String version, Builder b) {
+    this.version = version;
+    this.size = b.size;
+    this.strings = b.strings.trimmed();
+    this.ids = b.ids.trimmed().asLongBuffer();
+    this.titles = b.titles.trimmed().asLongBuffer();
+    this.images = b.images.trimmed().asLongBuffer();
+    this.prices = b.prices.trimmed().asIntBuffer();
+    this.currencies = b.currencies.trimmed().asIntBuffer();
+    this.categories = b.categories.trimmed().asIntBuffer();
+    this.promotions = b.promotions.trimmed().asIntBuffer();
+    this.dictionary = b.dictionary.toArray(new String[0]);
+
+    int capacity = Integer.highestOneBit(Math.max(2, size * (100 / MAX_LOAD_PERCENT)) - 1) << 1;
+    ByteBuffer slots = allocate((long) capacity * 2 * Integer.BYTES);
+    this.index = slots.asIntBuffer();
+    this.indexMask = capacity - 1;
+    for (int row = 0; row < size; row++) {
+      long ref = ids.get(row);
+      int hash = hash(strings, offset(ref), length(ref));
+      int slot = hash & indexMask;
+      while (index.get(2 * slot + 1) != 0) {
+        slot = (slot + 1) & indexMask;
+      }
+      index.put(2 * slot, hash);
+      index.put(2 * slot + 1, row + 1);
+    }
+
+    this.offHeapBytes =
+        (long) strings.capacity()
+            + (long) size * (3 * Long.BYTES + 4 * Integer.BYTES)
+            + slots.capacity();
+    this.defaultProduct = size > 0 ? product(0) : null;
+  }
+
+  /**
+   * Reads a catalog CSV with the header {@code id,title,price,currency,image_url,category} and an
+   * optional {@code promotion_id} column. Columns are matched by header name; rows with fewer
+   * fields than the header, or an unparsable price, are skipped.
+   */
+  public static CatalogSnapshot load(BufferedReader reader, String version) throws IOException {
+    String header = reader.readLine();
+    Builder builder = new Builder();
+    if (header == null) {
+      return new CatalogSnapshot(version, builder);
+    }
+    String[] columns = header.split(",", -1);
+    int id = column(columns, "id", true);
+    int title = column(columns, "title", true);
+    int price = column(columns, "price", true);
+    int currency = column(columns, "currency", true);
+    int image = column(columns, "image_url", true);
+    int category = column(columns, "category", true);
+    int promotion = column(columns, "promotion_id", false);
+    String[] fields = new String[columns.length];
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.isBlank() || split(line, fields) < columns.length - (promotion < 0 ? 0 : 1)) {
+        continue;
+      }
+      int cents;
+      try {
+        cents = Integer.parseInt(fields[price]);
+      } catch (NumberFormatException e) {
+        continue;
+      }
+      builder.add(
+          fields[id],
+          fields[title],
+          cents,
+          fields[currency],
+          fields[image],
+          fields[category],
+          promotion >= 0 ? fields[promotion] : null);
+    }
+    return new CatalogSnapshot(version, builder);
+  }
+
+  public String version() {
+    return version;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** Bytes held in direct buffers: string pool, columns and index. */
+  public long offHeapBytes() {
+    return offHeapBytes;
+  }
+
+  /** First product of the catalog file, or {@code null} for an empty catalog. */
+  public Product defaultProduct() {
+    return defaultProduct;
+  }
+
+  /** Returns the product with {@code id}, or {@code null}. */
+  public Product find(String id) {
+    int row = row(id);
+    return row < 0 ? null : product(row);
+  }
+
+  /** Returns whether a product with {@code id} exists, without materializing it. */
+  public boolean contains(String id) {
+    return row(id) >= 0;
+  }
+
+  private int row(String id) {
+    if (id == null || size == 0) {
+      return -1;
+    }
+    byte[] utf8 = isAscii(id) ? null : id.getBytes(StandardCharsets.UTF_8);
+    int hash = utf8 == null ? hashAscii(id) : hash(ByteBuffer.wrap(utf8), 0, utf8.length);
+    for (int slot = hash & indexMask; ; slot = (slot + 1) & indexMask) {
+      int entry = index.get(2 * slot + 1);
+      if (entry == 0) {
+        return -1;
+      }
+      // The stored hash sits next to the row number, so colliding probes skip the pool.
+      if (index.get(2 * slot) != hash) {
+        continue;
+      }
+      long ref = ids.get(entry - 1);
+      if (utf8 == null ? equalsAscii(ref, id) : equalsBytes(ref, utf8)) {
+        return entry - 1;
+      }
+    }
+  }
+
+  private Product product(int row) {
+    String image = string(images.get(row));
+    int promotion = promotions.get(row);
+    return new Product(
+        string(ids.get(row)),
+        string(titles.get(row)),
+        prices.get(row),
+        dictionary[currencies.get(row)],
+        image.isEmpty() ? null : URI.create(image),
+        dictionary[categories.get(row)],
+        promotion < 0 ? null : dictionary[promotion]);
+  }
+
+  private String string(long ref) {
+    byte[] bytes = new byte[length(ref)];
+    strings.get(offset(ref), bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private boolean equalsAscii(long ref, String id) {
+    int length = length(ref);
+    if (length != id.length()) {
+      return false;
+    }
+    int offset = offset(ref);
+    for (int i = 0; i < length; i++) {
+      if (strings.get(offset + i) != (byte) id.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean equalsBytes(long ref, byte[] id) {
+    int length = length(ref);
+    if (length != id.length) {
+      return false;
+    }
+    int offset = offset(ref);
+    for (int i = 0; i < length; i++) {
+      if (strings.get(offset + i) != id[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isAscii(String s) {
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // FNV-1a over the UTF-8 bytes with a murmur3 finalizer; ASCII ids hash their chars directly.
+  private static int hash(ByteBuffer bytes, int offset, int length) {
+    int h = 0x811c9dc5;
+    for (int i = 0; i < length; i++) {
+      h = (h ^ (bytes.get(offset + i) & 0xff)) * 0x01000193;
+    }
+    return mix(h);
+  }
+
+  private static int hashAscii(String s) {
+    int h = 0x811c9dc5;
+    for (int i = 0; i < s.length(); i++) {
+      h = (h ^ s.charAt(i)) * 0x01000193;
+    }
+    return mix(h);
+  }
+
+  private static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    return h ^ (h >>> 16);
+  }
+
+  private static int offset(long ref) {
+    return (int) (ref >>> 32);
+  }
+
+  private static int length(long ref) {
+    return (int) ref;
+  }
+
+  private static int column(String[] columns, String name, boolean required) {
+    for (int i = 0; i < columns.length; i++) {
+      if (columns[i].trim().equals(name)) {
+        return i;
+      }
+    }
+    if (required) {
+      throw new IllegalArgumentException("catalog CSV is missing column " + name);
+    }
+    return -1;
+  }
+
+  /** Splits {@code line} on commas into {@code fields}, trimmed; returns the field count. */
+  private static int split(String line, String[] fields) {
+    int count = 0;
+    int start = 0;
+    while (count < fields.length) {
+      int comma = line.indexOf(',', start);
+      int end = comma < 0 ? line.length() : comma;
+      fields[count++] = line.substring(start, end).trim();
+      if (comma < 0) {
+        break;
+      }
+      start = comma + 1;
+    }
+    for (int i = count; i < fields.length; i++) {
+      fields[i] = "";
+    }
+    return count;
+  }
+
+  private static ByteBuffer allocate(long bytes) {
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalStateException("catalog column exceeds 2 GB");
+    }
+    return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+  }
+
+  /** Accumulates rows into growable direct buffers. */
+  private static final class Builder {
+    final Column strings = new Column(1 << 16);
+    final Column ids = new Column(1 << 12);
+    final Column titles = new Column(1 << 12);
+    final Column images = new Column(1 << 12);
+    final Column prices = new Column(1 << 11);
+    final Column currencies = new Column(1 << 11);
+    final Column categories = new Column(1 << 11);
+    final Column promotions = new Column(1 << 11);
+    final List<String> dictionary = new ArrayList<>();
+    final Map<String, Integer> codes = new HashMap<>();
+    int size;
+
+    void add(
+        String id,
+        String title,
+        int price,
+        String currency,
+        String image,
+        String category,
+        String promotion) {
+      ids.putLong(string(id));
+      titles.putLong(string(title));
+      images.putLong(string(image));
+      prices.putInt(price);
+      currencies.putInt(code(currency));
+      categories.putInt(code(category));
+      promotions.putInt(promotion == null || promotion.isEmpty() ? -1 : code(promotion));
+      size++;
+    }
+
+    private long string(String s) {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      long offset = strings.position();
+      strings.putBytes(bytes);
+      return offset << 32 | bytes.length;
+    }
+
+    private int code(String value) {
+      return codes.computeIfAbsent(
+          value,
+          v -> {
+            dictionary.add(v);
+            return dictionary.size() - 1;
+          });
+    }
+  }
+
+  /** Append-only direct buffer that doubles when full. */
+  private static final class Column {
+    private ByteBuffer buffer;
+
+    Column(int initialBytes) {
+      buffer = allocate(initialBytes);
+    }
+
+    int position() {
+      return buffer.position();
+    }
+
+    void putLong(long value) {
+      ensure(Long.BYTES).putLong(value);
+    }
+
+    void putInt(int value) {
+      ensure(Integer.BYTES).putInt(value);
+    }
+
+    void putBytes(byte[] bytes) {
+      ensure(bytes.length).put(bytes);
+    }
+
+    /** Copies the written bytes into an exactly sized buffer. */
+    ByteBuffer trimmed() {
+      ByteBuffer exact = allocate(Math.max(1, buffer.position()));
+      exact.put(buffer.flip()).flip();
+      buffer = null;
+      return exact;
+    }
+
+    private ByteBuffer ensure(int bytes) {
+      if (buffer.remaining() < bytes) {
+        long needed = (long) buffer.position() + bytes;
+        ByteBuffer grown =
+            allocate(Math.max(needed, Math.min(Integer.MAX_VALUE, 2L * buffer.capacity())));
+        grown.put(buffer.flip());
+        buffer = grown;
+      }
+      return buffer;
+    }
+  }
+}
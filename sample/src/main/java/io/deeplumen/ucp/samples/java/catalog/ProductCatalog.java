@@ -0,0 +1,221 @@
+package io.deeplumen.ucp.samples.java.catalog;
+
+import io.deeplumen.ucp.samples.java.data.Product;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Product lookup over the current {@link CatalogSnapshot}, with bounded fallbacks for unknown ids.
+ *
+ * <p>The catalog is read from {@code ucp.catalog.path} (a CSV file) or, when unset, from the
+ * bundled flower shop data. Readers go through a single {@link AtomicReference}; {@link #reload()}
+ * builds the next snapshot off to the side and swaps it in, so lookups never block on a reload
+ * and each lookup sees one consistent catalog version. With {@code ucp.catalog.reload-interval}
+ * set, the file is polled and reloaded when its modification time changes.
+ *
+ * <p>Unknown ids resolve to a fallback product priced like the default product. Fallbacks are kept
+ * in an LRU map of at most {@code ucp.catalog.fallback-size} entries, so agents sending arbitrary
+ * ids cannot grow the heap; the map is cleared on every swap.
+ */
+@Component
+public class ProductCatalog implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(ProductCatalog.class);
+  private static final String BUNDLED = "test_data/flower_shop/products.csv";
+  private static final int FALLBACK_PRICE = 1000;
+  private static final String FALLBACK_CURRENCY = "USD";
+  private static final String FALLBACK_CATEGORY = "misc";
+
+  private final Path path;
+  private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+  private final Map<String, Product> fallbacks;
+  private final int maxFallbacks;
+  private final ScheduledExecutorService reloader;
+  private volatile FileTime loadedModified;
+
+  @Autowired
+  public ProductCatalog(
+      @Value("${ucp.catalog.path:}") String path,
+      @Value("${ucp.catalog.fallback-size:10000}") int fallbackSize,
+      @Value("${ucp.catalog.reload-interval:0s}") Duration reloadInterval)
+      throws IOException {
+    this.path = path == null || path.isBlank() ? null : Path.of(path);
+    this.maxFallbacks = Math.max(0, fallbackSize);
+    this.fallbacks =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Product> eldest) {
+            return size() > maxFallbacks;
+          }
+        };
+    reload();
+    if (this.path != null && reloadInterval.toMillis() > 0) {
+      this.reloader =
+          Executors.newSingleThreadScheduledExecutor(
+              r -> {
+                Thread t = new Thread(r, "product-catalog-reload");
+                t.setDaemon(true);
+                return t;
+              });
+      long millis = reloadInterval.toMillis();
+      reloader.scheduleWithFixedDelay(
+          this::reloadIfModified, millis, millis, TimeUnit.MILLISECONDS);
+    } else {
+      this.reloader = null;
+    }
+  }
+
+  /** Catalog over an already built snapshot; no file source and no polling. */
+  public ProductCatalog(CatalogSnapshot snapshot, int fallbackSize) {
+    this.path = null;
+    this.maxFallbacks = Math.max(0, fallbackSize);
+    this.fallbacks =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Product> eldest) {
+            return size() > maxFallbacks;
+          }
+        };
+    this.reloader = null;
+    swap(snapshot);
+  }
+
+  /** The snapshot lookups currently read. */
+  public CatalogSnapshot snapshot() {
+    return current.get();
+  }
+
+  /** Returns the catalog product with {@code id}, or {@code null}. */
+  public Product find(String id) {
+    return current.get().find(id);
+  }
+
+  /**
+   * Returns the first product of the catalog, or a fallback product if the catalog is empty.
+   * Computed once per snapshot.
+   */
+  public Product defaultProduct() {
+    Product product = current.get().defaultProduct();
+    return product != null ? product : fallback("default");
+  }
+
+  /**
+   * Returns the catalog product with {@code id}, the default product for a blank id, or a bounded
+   * fallback for an unknown one.
+   */
+  public Product resolve(String id) {
+    CatalogSnapshot snapshot = current.get();
+    if (id == null || id.isBlank()) {
+      Product product = snapshot.defaultProduct();
+      return product != null ? product : fallback("default");
+    }
+    Product product = snapshot.find(id);
+    return product != null ? product : fallback(id);
+  }
+
+  /** Reloads the catalog from its source and swaps it in. */
+  public void reload() throws IOException {
+    CatalogSnapshot next;
+    if (path != null) {
+      FileTime modified = Files.getLastModifiedTime(path);
+      try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+        next = CatalogSnapshot.load(reader, path.getFileName() + "@" + modified);
+      }
+      loadedModified = modified;
+    } else {
+      try (BufferedReader reader =
+          new BufferedReader(
+              new InputStreamReader(
+                  new ClassPathResource(BUNDLED).getInputStream(), StandardCharsets.UTF_8))) {
+        next = CatalogSnapshot.load(reader, "classpath:" + BUNDLED + "@" + Instant.now());
+      }
+    }
+    swap(next);
+    log.info(
+        "Loaded product catalog {}: {} products, {} KB off-heap",
+        next.version(),
+        next.size(),
+        next.offHeapBytes() >> 10);
+  }
+
+  /** Makes {@code next} the catalog every subsequent lookup reads. */
+  public void swap(CatalogSnapshot next) {
+    current.set(next);
+    // Fallbacks derive their price from the previous default product and may now be real.
+    synchronized (fallbacks) {
+      fallbacks.clear();
+    }
+  }
+
+  /** Number of fallback products currently cached. */
+  public int fallbackCount() {
+    synchronized (fallbacks) {
+      return fallbacks.size();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (reloader != null) {
+      reloader.shutdownNow();
+    }
+  }
+
+  private Product fallback(String id) {
+    synchronized (fallbacks) {
+      Product cached = fallbacks.get(id);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    Product seed = current.get().defaultProduct();
+    Product product =
+        new Product(
+            id,
+            "Item " + id,
+            seed != null ? seed.priceCents() : FALLBACK_PRICE,
+            seed != null ? seed.currency() : FALLBACK_CURRENCY,
+            null,
+            FALLBACK_CATEGORY,
+            null);
+    if (maxFallbacks > 0) {
+      synchronized (fallbacks) {
+        Product raced = fallbacks.putIfAbsent(id, product);
+        if (raced != null) {
+          return raced;
+        }
+      }
+    }
+    return product;
+  }
+
+  private void reloadIfModified() {
+    try {
+      FileTime modified = Files.getLastModifiedTime(path);
+      if (!modified.equals(loadedModified)) {
+        reload();
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn(
+          "Product catalog reload from {} failed; keeping {}", path, current.get().version(), e);
+    }
+  }
+}
@@ -4,13 +4,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.client.UcpClient;
+import io.deeplumen.ucp.helpers.UcpHeaders;
+import io.deeplumen.ucp.json.UcpJson;
 import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
 import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -29,16 +28,22 @@ public class SimpleClient {
     String apiKey = System.getenv().getOrDefault("UCP_API_KEY", "test");
     String itemId1 = System.getenv().getOrDefault("UCP_SAMPLE_ITEM_ID", "bouquet_roses");
     ObjectMapper mapper = new ObjectMapper();
-    HttpClient httpClient = HttpClient.newHttpClient();
+    try (UcpClient client =
+        UcpClient.builder(URI.create(baseUrl))
+            .json(UcpJson.create(mapper))
+            .agentProfile(profileUrl, version)
+            .apiKey(apiKey)
+            .header(UcpHeaders.REQUEST_SIGNATURE, "test")
+            .build()) {
+      run(client, mapper, itemId1);
+    }
+  }
 
+  private static void run(UcpClient client, ObjectMapper mapper, String itemId1)
+      throws Exception {
     // 1) Discovery
-    HttpRequest discoveryReq =
-        HttpRequest.newBuilder(URI.create(baseUrl + "/.well-known/ucp")).GET().build();
-    HttpResponse<String> discoveryResp =
-        httpClient.send(discoveryReq, HttpResponse.BodyHandlers.ofString());
-    System.out.println("Discovery status: " + discoveryResp.statusCode());
-    System.out.println("Discovery profile:\n" + discoveryResp.body());
-    JsonNode discoveryJson = mapper.readTree(discoveryResp.body());
+    JsonNode discoveryJson = client.discovery().join();
+    System.out.println("Discovery profile:\n" + discoveryJson.toPrettyString());
     ArrayNode handlers =
         discoveryJson.path("payment").path("handlers").isArray()
             ? (ArrayNode) discoveryJson.path("payment").path("handlers")
@@ -66,17 +71,7 @@ public class SimpleClient {
 
     CheckoutCreateRequest createRequest =
         mapper.convertValue(createPayload, CheckoutCreateRequest.class);
-    CheckoutResponse checkout =
-        postJson(
-            httpClient,
-            mapper,
-            URI.create(baseUrl + "/checkout-sessions"),
-            createRequest,
-            201,
-            profileUrl,
-            version,
-            apiKey,
-            CheckoutResponse.class);
+    CheckoutResponse checkout = client.createCheckout(createRequest).join();
     System.out.println("Checkout id: " + checkout.getId());
     System.out.println("Checkout response:\n" + mapper.writeValueAsString(checkout));
 
@@ -97,47 +92,8 @@ public class SimpleClient {
             .put("ip", "127.0.0.1")
             .put("client", "java")
             .put("timestamp", Instant.now().toString()));
-    CheckoutResponse paid =
-        postJson(
-            httpClient,
-            mapper,
-            URI.create(baseUrl + "/checkout-sessions/" + checkout.getId() + "/complete"),
-            completePayload,
-            200,
-            profileUrl,
-            version,
-            apiKey,
-            CheckoutResponse.class);
+    CheckoutResponse paid = client.completeCheckout(checkout.getId(), completePayload).join();
     System.out.println("Payment success: " + (paid.getStatus() == CheckoutResponse.Status.COMPLETED));
     System.out.println("Payment response:\n" + mapper.writeValueAsString(paid));
   }
-
-  private static <T> T postJson(
-      HttpClient httpClient,
-      ObjectMapper mapper,
-      URI uri,
-      Object payload,
-      int expectedStatus,
-      String profileUrl,
-      String version,
-      String apiKey,
-      Class<T> responseType)
-      throws Exception {
-    String json = payload == null ? "{}" : mapper.writeValueAsString(payload);
-    HttpRequest request =
-        HttpRequest.newBuilder(uri)
-            .header("Content-Type", "application/json")
-            .header("UCP-Agent", "profile=\"" + profileUrl + "\"; version=\"" + version + "\"")
-            .header("Request-Signature", "test")
-            .header("Idempotency-Key", UUID.randomUUID().toString())
-            .header("Request-Id", UUID.randomUUID().toString())
-            .header("X-API-Key", apiKey)
-            .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
-            .build();
-    HttpResponse<String> resp = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-    if (resp.statusCode() != expectedStatus) {
-      throw new IllegalStateException("Unexpected status " + resp.statusCode() + ": " + resp.body());
-    }
-    return mapper.readValue(resp.body(), responseType);
-  }
 }
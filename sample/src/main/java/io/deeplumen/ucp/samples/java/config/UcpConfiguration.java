@@ -0,0 +1,135 @@
+package io.deeplumen.ucp.samples.java.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.json.WireFormat;
+import io.deeplumen.ucp.metrics.InMemoryMetrics;
+import io.deeplumen.ucp.metrics.UcpMetrics;
+import io.deeplumen.ucp.profile.PlatformProfileResolver;
+import io.deeplumen.ucp.samples.java.metrics.MicrometerUcpMetrics;
+import io.deeplumen.ucp.samples.java.service.CheckoutSessionStore;
+import io.deeplumen.ucp.samples.java.service.InMemoryCheckoutSessionStore;
+import io.deeplumen.ucp.samples.java.service.JournaledCheckoutSessionStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+/** Wires SDK components used by the sample server. */
+@Configuration
+public class UcpConfiguration {
+  private static final Logger log = LoggerFactory.getLogger(UcpConfiguration.class);
+
+  /**
+   * Metrics for SDK components and the server, chosen by {@code ucp.metrics.exporter}. {@code
+   * MICROMETER} records into the application's {@link MeterRegistry} bean; without one nothing
+   * would publish the meters, so it falls back to {@code TEXT} with a warning.
+   */
+  @Bean
+  public UcpMetrics ucpMetrics(
+      @Value("${ucp.metrics.exporter:NONE}") MetricsExporter exporter,
+      ObjectProvider<MeterRegistry> registry) {
+    return switch (exporter) {
+      case NONE -> UcpMetrics.noop();
+      case TEXT -> new InMemoryMetrics();
+      case MICROMETER -> {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+          log.warn(
+              "ucp.metrics.exporter=MICROMETER but there is no MeterRegistry bean; "
+                  + "serving metrics as text on /metrics instead");
+          yield new InMemoryMetrics();
+        }
+        yield new MicrometerUcpMetrics(meterRegistry);
+      }
+    };
+  }
+
+  @Bean
+  public UcpJson ucpJson(ObjectMapper mapper, UcpMetrics metrics) {
+    return UcpJson.create(mapper).withMetrics(metrics);
+  }
+
+  /**
+   * CBOR converter for endpoints that return models or trees rather than pre-serialized bytes, over
+   * the codec's CBOR mapper so it shares the JSON mapper's configuration.
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(UcpJson json) {
+    return new MappingJackson2CborHttpMessageConverter(json.forFormat(WireFormat.CBOR).mapper());
+  }
+
+  /** Smile counterpart of {@link #cborHttpMessageConverter}. */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(UcpJson json) {
+    return new MappingJackson2SmileHttpMessageConverter(json.forFormat(WireFormat.SMILE).mapper());
+  }
+
+  @Bean
+  public PlatformProfileResolver platformProfileResolver(
+      ObjectMapper mapper,
+      UcpMetrics metrics,
+      @Value("${ucp.profiles.connect-timeout:1s}") Duration connectTimeout,
+      @Value("${ucp.profiles.read-timeout:2s}") Duration readTimeout,
+      @Value("${ucp.profiles.default-ttl:5m}") Duration defaultTtl,
+      @Value("${ucp.profiles.negative-ttl:30s}") Duration negativeTtl,
+      @Value("${ucp.profiles.cache-size:1024}") int cacheSize,
+      @Value("${ucp.profiles.max-size:1MB}") DataSize maxSize) {
+    return PlatformProfileResolver.builder()
+        .mapper(mapper)
+        .connectTimeout(connectTimeout)
+        .readTimeout(readTimeout)
+        .defaultTtl(defaultTtl)
+        .negativeTtl(negativeTtl)
+        .maxEntries(cacheSize)
+        .maxProfileBytes(maxSize.toBytes())
+        .metrics(metrics)
+        .build();
+  }
+
+  @Bean
+  public CheckoutSessionStore checkoutSessionStore(
+      ObjectMapper mapper,
+      @Value("${ucp.sessions.max-live:1000000}") int maxLive,
+      @Value("${ucp.sessions.overflow-policy:EVICT_OLDEST}")
+          CheckoutSessionStore.OverflowPolicy overflowPolicy,
+      @Value("${ucp.sessions.expiry-tick:1s}") Duration expiryTick,
+      @Value("${ucp.sessions.journal.dir:}") String journalDir,
+      @Value("${ucp.sessions.journal.segment-size:64MB}") DataSize segmentSize,
+      @Value("${ucp.sessions.journal.sync:GROUP_COMMIT}")
+          JournaledCheckoutSessionStore.Durability durability,
+      @Value("${ucp.sessions.journal.snapshot-interval:5m}") Duration snapshotInterval)
+      throws IOException {
+    InMemoryCheckoutSessionStore store =
+        new InMemoryCheckoutSessionStore(maxLive, overflowPolicy, expiryTick);
+    if (journalDir.isBlank()) {
+      return store;
+    }
+    return new JournaledCheckoutSessionStore(
+        store,
+        mapper,
+        Path.of(journalDir),
+        Math.toIntExact(segmentSize.toBytes()),
+        durability,
+        snapshotInterval);
+  }
+
+  /** Where {@link UcpMetrics} are recorded. */
+  public enum MetricsExporter {
+    /** Nothing is recorded. */
+    NONE,
+    /** In memory, served as text by {@code GET /metrics}. */
+    TEXT,
+    /** Into Micrometer. */
+    MICROMETER
+  }
+}
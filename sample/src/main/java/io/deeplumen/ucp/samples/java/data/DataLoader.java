@@ -4,29 +4,83 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
 @Component
 public class DataLoader {
-  private final Map<String, Product> products = new HashMap<>();
+  private static final String DATA_DIR = "test_data/flower_shop/";
+
+  private final List<Promotion> promotions = new ArrayList<>();
+  private final List<ShippingRate> shippingRates = new ArrayList<>();
+  private final List<StockLevel> inventory = new ArrayList<>();
 
   public DataLoader() throws IOException {
-    loadProducts();
+    loadPromotions();
+    loadShippingRates();
+    loadInventory();
+  }
+
+  public List<Promotion> getPromotions() {
+    return Collections.unmodifiableList(promotions);
+  }
+
+  /** Shipping rates in file order; the first one is the default. */
+  public List<ShippingRate> getShippingRates() {
+    return Collections.unmodifiableList(shippingRates);
+  }
+
+  /** Stock per product and location in file order. */
+  public List<StockLevel> getInventory() {
+    return Collections.unmodifiableList(inventory);
+  }
+
+  private void loadPromotions() throws IOException {
+    readRows(
+        "promotions.csv",
+        5,
+        parts ->
+            promotions.add(
+                new Promotion(
+                    parts[0].trim(),
+                    parts[1].trim(),
+                    Promotion.DiscountType.valueOf(parts[2].trim().toUpperCase(Locale.ROOT)),
+                    Long.parseLong(parts[3].trim()),
+                    parts[4].trim())));
   }
 
-  public Map<String, Product> getProducts() {
-    return Collections.unmodifiableMap(products);
+  private void loadShippingRates() throws IOException {
+    readRows(
+        "shipping_rates.csv",
+        3,
+        parts ->
+            shippingRates.add(
+                new ShippingRate(
+                    parts[0].trim(), parts[1].trim(), Long.parseLong(parts[2].trim()))));
   }
 
-  private void loadProducts() throws IOException {
-    ClassPathResource resource =
-        new ClassPathResource("test_data/flower_shop/products.csv");
+  private void loadInventory() throws IOException {
+    readRows(
+        "inventory.csv",
+        3,
+        parts ->
+            inventory.add(
+                new StockLevel(
+                    parts[0].trim(), parts[1].trim(), Long.parseLong(parts[2].trim()))));
+  }
+
+  private static void readRows(String file, int minColumns, Consumer<String[]> row)
+      throws IOException {
+    ClassPathResource resource = new ClassPathResource(DATA_DIR + file);
+    if (!resource.exists()) {
+      return;
+    }
     try (InputStream is = resource.getInputStream();
          BufferedReader reader =
              new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
@@ -38,15 +92,8 @@ public class DataLoader {
       while ((line = reader.readLine()) != null) {
         if (line.isBlank()) continue;
         String[] parts = line.split(",", -1);
-        if (parts.length < 7) continue;
-        String id = parts[0].trim();
-        String title = parts[1].trim();
-        int price = Integer.parseInt(parts[2].trim());
-        String currency = parts[3].trim();
-        String imageRaw = parts[4].trim();
-        URI image = imageRaw.isBlank() ? null : URI.create(imageRaw);
-        String category = parts[5].trim();
-        products.put(id, new Product(id, title, price, currency, image, category));
+        if (parts.length < minColumns) continue;
+        row.accept(parts);
       }
     }
   }
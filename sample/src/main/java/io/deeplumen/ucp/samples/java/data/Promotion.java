@@ -0,0 +1,18 @@
+package io.deeplumen.ucp.samples.java.data;
+
+/**
+ * Row of {@code promotions.csv}.
+ *
+ * <p>{@code amount} is a percentage for {@link DiscountType#PERCENT} and cents off each unit for
+ * {@link DiscountType#FIXED}. {@code appliesTo} is {@code all} or a product category.
+ */
+public record Promotion(
+    String id, String description, DiscountType discountType, long amount, String appliesTo) {
+
+  public static final String APPLIES_TO_ALL = "all";
+
+  public enum DiscountType {
+    PERCENT,
+    FIXED
+  }
+}
@@ -0,0 +1,4 @@
+package io.deeplumen.ucp.samples.java.data;
+
+/** Row of {@code shipping_rates.csv}; {@code flatFee} is in cents. */
+public record ShippingRate(String id, String description, long flatFee) {}
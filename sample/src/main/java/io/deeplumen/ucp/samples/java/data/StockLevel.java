@@ -0,0 +1,4 @@
+package io.deeplumen.ucp.samples.java.data;
+
+/** Row of {@code inventory.csv}: units of a product on hand at one location. */
+public record StockLevel(String productId, String locationId, long stock) {}
@@ -0,0 +1,22 @@
+package io.deeplumen.ucp.samples.java.inventory;
+
+/** Raised when a checkout asks for more units of a product than remain unreserved. */
+public class InsufficientStockException extends IllegalStateException {
+  private final String productId;
+
+  public InsufficientStockException(String productId, long requested, long available) {
+    super(
+        "insufficient stock for "
+            + productId
+            + " ("
+            + requested
+            + " requested, "
+            + available
+            + " available)");
+    this.productId = productId;
+  }
+
+  public String productId() {
+    return productId;
+  }
+}
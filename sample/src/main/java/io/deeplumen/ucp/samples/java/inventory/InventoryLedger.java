@@ -0,0 +1,311 @@
+package io.deeplumen.ucp.samples.java.inventory;
+
+import io.deeplumen.ucp.samples.java.data.DataLoader;
+import io.deeplumen.ucp.samples.java.data.StockLevel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Unreserved stock per (product, location), reserved and returned without locks.
+ *
+ * <p>Each (product, location) row of {@code inventory.csv} gets a fixed slot in one {@link
+ * AtomicLongArray}; the product id is resolved to its slots once per line through an immutable map,
+ * and everything after that is array indexing and {@code compareAndSet}. Slots are spaced a cache
+ * line apart so that a hot SKU does not slow down its neighbours through false sharing.
+ *
+ * <p>A reservation takes units from a product's locations in file order and is all-or-nothing: if
+ * any line cannot be covered, the units taken so far are put back and {@link
+ * InsufficientStockException} is thrown. Stock can never go negative, so concurrent checkouts
+ * cannot oversell. Products without an inventory row are not tracked and are always available.
+ */
+@Component
+public class InventoryLedger {
+  // 8 longs = 64 bytes: one counter per cache line.
+  private static final int STRIDE = 8;
+
+  private final Map<String, int[]> slotsByProduct;
+  private final String[] productOfSlot;
+  private final AtomicLongArray available;
+  private final LongAdder reserved = new LongAdder();
+  private final LongAdder committed = new LongAdder();
+  private final LongAdder released = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+  private final LongAdder casRetries = new LongAdder();
+
+  @Autowired
+  public InventoryLedger(
+      DataLoader loader, @Value("${ucp.inventory.enabled:true}") boolean enabled) {
+    this(enabled ? loader.getInventory() : List.of());
+  }
+
+  public InventoryLedger(List<StockLevel> stock) {
+    Map<String, Integer> slotByKey = new HashMap<>();
+    Map<String, List<Integer>> slots = new HashMap<>();
+    List<String> products = new ArrayList<>();
+    List<Long> initial = new ArrayList<>();
+    for (StockLevel level : stock) {
+      String key = level.productId() + '\0' + level.locationId();
+      Integer slot = slotByKey.get(key);
+      if (slot == null) {
+        slot = products.size();
+        slotByKey.put(key, slot);
+        products.add(level.productId());
+        initial.add(0L);
+        slots.computeIfAbsent(level.productId(), p -> new ArrayList<>()).add(slot);
+      }
+      initial.set(slot, initial.get(slot) + Math.max(0, level.stock()));
+    }
+    Map<String, int[]> bySlot = new HashMap<>();
+    slots.forEach(
+        (product, list) ->
+            bySlot.put(product, list.stream().mapToInt(Integer::intValue).toArray()));
+    this.slotsByProduct = Map.copyOf(bySlot);
+    this.productOfSlot = products.toArray(new String[0]);
+    this.available = new AtomicLongArray(Math.max(1, products.size()) * STRIDE);
+    for (int slot = 0; slot < initial.size(); slot++) {
+      available.set(slot * STRIDE, initial.get(slot));
+    }
+  }
+
+  /** Whether {@code productId} has inventory rows; untracked products are never out of stock. */
+  public boolean tracks(String productId) {
+    return slotsByProduct.containsKey(productId);
+  }
+
+  /** Unreserved units of {@code productId} across locations, or -1 if it is not tracked. */
+  public long available(String productId) {
+    int[] slots = slotsByProduct.get(productId);
+    if (slots == null) {
+      return -1;
+    }
+    long units = 0;
+    for (int slot : slots) {
+      units += available.get(slot * STRIDE);
+    }
+    return units;
+  }
+
+  /**
+   * Holds {@code quantities} (product id to units) for {@code checkoutId}, adjusting {@code held}
+   * if the checkout already holds a reservation. Only the difference to {@code held} is taken or
+   * returned, so shrinking or keeping a line never fails. On success {@code held} is superseded by
+   * the returned reservation, which is {@code null} when nothing tracked is held; on failure {@code
+   * held} is left untouched.
+   *
+   * @throws InsufficientStockException if a tracked product lacks the additional units
+   */
+  public Reservation reserve(
+      String checkoutId, Reservation held, Map<String, ? extends Number> quantities) {
+    if (held != null && !held.isHeld()) {
+      held = null;
+    }
+    Entries next = new Entries();
+    if (held != null) {
+      for (int i = 0; i < held.slots.length; i++) {
+        next.add(held.slots[i], held.quantities[i]);
+      }
+    }
+    Entries taken = new Entries();
+    Entries returned = new Entries();
+    for (Map.Entry<String, ? extends Number> line : quantities.entrySet()) {
+      String productId = line.getKey();
+      int[] slots = slotsByProduct.get(productId);
+      if (slots == null) {
+        continue;
+      }
+      long wanted = Math.max(0, line.getValue().longValue());
+      long have = next.total(slots);
+      if (wanted > have && !take(slots, wanted - have, taken)) {
+        giveBack(taken);
+        rejections.increment();
+        throw new InsufficientStockException(productId, wanted, have + available(productId));
+      } else if (wanted < have) {
+        next.shrink(slots, have - wanted, returned);
+      }
+    }
+    for (int i = 0; i < next.size; i++) {
+      if (next.quantities[i] > 0 && !quantities.containsKey(productOfSlot[next.slots[i]])) {
+        returned.add(next.slots[i], next.quantities[i]);
+        next.quantities[i] = 0;
+      }
+    }
+    for (int i = 0; i < taken.size; i++) {
+      next.add(taken.slots[i], taken.quantities[i]);
+    }
+    if (held != null && !held.transition(Reservation.SUPERSEDED)) {
+      // Released concurrently by expiry: its units are back already; undo what this call took.
+      giveBack(taken);
+      return null;
+    }
+    giveBack(returned);
+    reserved.add(taken.units());
+    released.add(returned.units());
+    return next.toReservation(checkoutId);
+  }
+
+  /**
+   * Marks {@code reservation}'s units as sold; they are not returned afterwards. Returns {@code
+   * false}, selling nothing, if it was released or superseded first; a {@code null} reservation
+   * holds nothing tracked and always commits.
+   */
+  public boolean commit(Reservation reservation) {
+    if (reservation == null) {
+      return true;
+    }
+    if (!reservation.transition(Reservation.COMMITTED)) {
+      return false;
+    }
+    committed.add(reservation.units());
+    return true;
+  }
+
+  /** Returns {@code reservation}'s units to stock; a no-op if it was committed or released. */
+  public void release(Reservation reservation) {
+    if (reservation != null && reservation.transition(Reservation.RELEASED)) {
+      for (int i = 0; i < reservation.slots.length; i++) {
+        available.getAndAdd(reservation.slots[i] * STRIDE, reservation.quantities[i]);
+      }
+      released.add(reservation.units());
+    }
+  }
+
+  public Stats stats() {
+    return new Stats(
+        reserved.sum(), committed.sum(), released.sum(), rejections.sum(), casRetries.sum());
+  }
+
+  // Takes units from the product's locations in order; records what it took in {@code taken}.
+  private boolean take(int[] slots, long units, Entries taken) {
+    long remaining = units;
+    long retries = 0;
+    for (int slot : slots) {
+      int index = slot * STRIDE;
+      while (remaining > 0) {
+        long current = available.get(index);
+        if (current <= 0) {
+          break;
+        }
+        long take = Math.min(current, remaining);
+        if (available.compareAndSet(index, current, current - take)) {
+          taken.add(slot, take);
+          remaining -= take;
+        } else {
+          retries++;
+        }
+      }
+      if (remaining == 0) {
+        break;
+      }
+    }
+    if (retries > 0) {
+      casRetries.add(retries);
+    }
+    return remaining == 0;
+  }
+
+  private void giveBack(Entries entries) {
+    for (int i = 0; i < entries.size; i++) {
+      if (entries.quantities[i] > 0) {
+        available.getAndAdd(entries.slots[i] * STRIDE, entries.quantities[i]);
+      }
+    }
+  }
+
+  /** Cumulative unit counters; {@code casRetries} counts lost {@code compareAndSet} races. */
+  public record Stats(
+      long reservedUnits,
+      long committedUnits,
+      long releasedUnits,
+      long rejections,
+      long casRetries) {}
+
+  /** Small growable list of (slot, quantity) pairs; carts hold a handful of lines. */
+  private static final class Entries {
+    int[] slots = new int[4];
+    long[] quantities = new long[4];
+    int size;
+
+    void add(int slot, long quantity) {
+      for (int i = 0; i < size; i++) {
+        if (slots[i] == slot) {
+          quantities[i] += quantity;
+          return;
+        }
+      }
+      if (size == slots.length) {
+        slots = Arrays.copyOf(slots, size * 2);
+        quantities = Arrays.copyOf(quantities, size * 2);
+      }
+      slots[size] = slot;
+      quantities[size++] = quantity;
+    }
+
+    long total(int[] productSlots) {
+      long total = 0;
+      for (int i = 0; i < size; i++) {
+        if (contains(productSlots, slots[i])) {
+          total += quantities[i];
+        }
+      }
+      return total;
+    }
+
+    // Drops units of one product, latest locations first, recording them in {@code returned}.
+    void shrink(int[] productSlots, long units, Entries returned) {
+      for (int i = size - 1; i >= 0 && units > 0; i--) {
+        if (contains(productSlots, slots[i]) && quantities[i] > 0) {
+          long drop = Math.min(units, quantities[i]);
+          quantities[i] -= drop;
+          returned.add(slots[i], drop);
+          units -= drop;
+        }
+      }
+    }
+
+    long units() {
+      long units = 0;
+      for (int i = 0; i < size; i++) {
+        units += quantities[i];
+      }
+      return units;
+    }
+
+    Reservation toReservation(String checkoutId) {
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        if (quantities[i] > 0) {
+          count++;
+        }
+      }
+      if (count == 0) {
+        return null;
+      }
+      int[] outSlots = new int[count];
+      long[] outQuantities = new long[count];
+      for (int i = 0, j = 0; i < size; i++) {
+        if (quantities[i] > 0) {
+          outSlots[j] = slots[i];
+          outQuantities[j++] = quantities[i];
+        }
+      }
+      return new Reservation(checkoutId, outSlots, outQuantities);
+    }
+
+    private static boolean contains(int[] values, int value) {
+      for (int v : values) {
+        if (v == value) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
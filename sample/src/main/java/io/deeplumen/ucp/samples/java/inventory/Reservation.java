@@ -0,0 +1,51 @@
+package io.deeplumen.ucp.samples.java.inventory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Units of stock held against one checkout, as (slot, quantity) pairs of an {@link
+ * InventoryLedger}.
+ *
+ * <p>A reservation is held until it is committed, released, or superseded by an adjusted
+ * reservation; each transition happens at most once, so releasing a reservation from both a cancel
+ * and the session's expiry returns its units only once.
+ */
+public final class Reservation {
+  static final int HELD = 0;
+  static final int COMMITTED = 1;
+  static final int RELEASED = 2;
+  static final int SUPERSEDED = 3;
+
+  private final String checkoutId;
+  final int[] slots;
+  final long[] quantities;
+  private final AtomicInteger state = new AtomicInteger(HELD);
+
+  Reservation(String checkoutId, int[] slots, long[] quantities) {
+    this.checkoutId = checkoutId;
+    this.slots = slots;
+    this.quantities = quantities;
+  }
+
+  public String checkoutId() {
+    return checkoutId;
+  }
+
+  /** Total units held across all products and locations. */
+  public long units() {
+    long units = 0;
+    for (long quantity : quantities) {
+      units += quantity;
+    }
+    return units;
+  }
+
+  /** Whether the units are still held, i.e. neither committed, released nor superseded. */
+  public boolean isHeld() {
+    return state.get() == HELD;
+  }
+
+  boolean transition(int to) {
+    return state.compareAndSet(HELD, to);
+  }
+}
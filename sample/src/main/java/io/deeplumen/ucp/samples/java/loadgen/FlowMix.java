@@ -0,0 +1,107 @@
+package io.deeplumen.ucp.samples.java.loadgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted flows to replay, parsed from a specification such as {@code
+ * discovery+negotiation:10,create+update+mint_instrument+complete:60,create+cancel:30}: each flow
+ * is a {@code +}-separated list of steps followed by its integer weight. Steps that act on a
+ * checkout must come after a {@code create} in the same flow.
+ */
+final class FlowMix {
+  static final String DEFAULT =
+      "discovery+negotiation:10,create+update+mint_instrument+complete:60,create+update+cancel:30";
+
+  private final List<Flow> flows;
+  private final int[] cumulative;
+
+  private FlowMix(List<Flow> flows) {
+    this.flows = List.copyOf(flows);
+    this.cumulative = new int[flows.size()];
+    int total = 0;
+    for (int i = 0; i < flows.size(); i++) {
+      total = Math.addExact(total, flows.get(i).weight());
+      cumulative[i] = total;
+    }
+  }
+
+  static FlowMix parse(String spec) {
+    List<Flow> flows = new ArrayList<>();
+    for (String entry : spec.split(",")) {
+      if (entry.isBlank()) {
+        continue;
+      }
+      int colon = entry.lastIndexOf(':');
+      if (colon < 0) {
+        throw new IllegalArgumentException("flow without weight: " + entry);
+      }
+      int weight = Integer.parseInt(entry.substring(colon + 1).trim());
+      if (weight <= 0) {
+        throw new IllegalArgumentException("flow weight must be positive: " + entry);
+      }
+      List<Step> steps = new ArrayList<>();
+      boolean created = false;
+      for (String name : entry.substring(0, colon).split("\\+")) {
+        Step step = Step.parse(name);
+        if (step.needsCheckout && !created) {
+          throw new IllegalArgumentException(
+              step.label() + " needs an earlier create in flow: " + entry);
+        }
+        created |= step == Step.CREATE;
+        steps.add(step);
+      }
+      flows.add(new Flow(steps, weight));
+    }
+    if (flows.isEmpty()) {
+      throw new IllegalArgumentException("empty mix: " + spec);
+    }
+    return new FlowMix(flows);
+  }
+
+  List<Flow> flows() {
+    return flows;
+  }
+
+  /** Picks a flow with probability proportional to its weight. */
+  Flow pick(SplittableRandom random) {
+    int ticket = random.nextInt(cumulative[cumulative.length - 1]);
+    for (int i = 0; i < cumulative.length; i++) {
+      if (ticket < cumulative[i]) {
+        return flows.get(i);
+      }
+    }
+    throw new AssertionError();
+  }
+
+  /** The mix in the same syntax it was parsed from. */
+  @Override
+  public String toString() {
+    StringBuilder out = new StringBuilder();
+    for (Flow flow : flows) {
+      if (out.length() > 0) {
+        out.append(',');
+      }
+      out.append(flow.name()).append(':').append(flow.weight());
+    }
+    return out.toString();
+  }
+
+  record Flow(List<Step> steps, int weight) {
+    Flow {
+      steps = List.copyOf(steps);
+    }
+
+    String name() {
+      StringBuilder name = new StringBuilder();
+      for (Step step : steps) {
+        if (name.length() > 0) {
+          name.append('+');
+        }
+        name.append(step.label());
+      }
+      return name.toString();
+    }
+  }
+}
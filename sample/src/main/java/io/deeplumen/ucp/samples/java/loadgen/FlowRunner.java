@@ -0,0 +1,197 @@
+package io.deeplumen.ucp.samples.java.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.client.UcpClient;
+import io.deeplumen.ucp.client.UcpClientException;
+import io.deeplumen.ucp.helpers.UcpHeaders;
+import io.deeplumen.ucp.helpers.UcpRoutes;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutUpdateRequest;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs one {@link FlowMix.Flow} at a time against the server, step after step, and records each
+ * step into a {@link LoadRecorder}. Discovery, create, update, complete and cancel go through the
+ * SDK's {@link UcpClient}; negotiation and mint-instrument, which the client does not cover, are
+ * posted directly on the same {@link HttpClient}.
+ */
+final class FlowRunner {
+  private static final String NEGOTIATION = "/ucp/negotiation";
+  private static final byte[] EMPTY_BODY = {'{', '}'};
+
+  private final UcpClient client;
+  private final HttpClient http;
+  private final URI baseUri;
+  private final String ucpAgent;
+  private final byte[] platformProfile;
+  private final ObjectMapper mapper;
+  private final List<String> items;
+  private final Map<String, CheckoutCreateRequest> createRequests = new HashMap<>();
+  private final ObjectNode completion;
+
+  FlowRunner(
+      UcpClient client,
+      HttpClient http,
+      URI baseUri,
+      String ucpAgent,
+      byte[] platformProfile,
+      ObjectMapper mapper,
+      List<String> items) {
+    this.client = client;
+    this.http = http;
+    this.baseUri = baseUri;
+    this.ucpAgent = ucpAgent;
+    this.platformProfile = platformProfile;
+    this.mapper = mapper;
+    this.items = List.copyOf(items);
+    for (String item : this.items) {
+      createRequests.put(
+          item,
+          mapper.convertValue(
+              Map.of(
+                  "currency", "USD",
+                  "line_items", List.of(Map.of("item", Map.of("id", item), "quantity", 1)),
+                  "payment", Map.of("handlers", List.of(), "instruments", List.of())),
+              CheckoutCreateRequest.class));
+    }
+    ObjectNode instrument = mapper.createObjectNode();
+    instrument.put("id", "instr_loadgen");
+    instrument.put("handler_id", "mock_payment_handler");
+    instrument.put("type", "card");
+    instrument.put("brand", "Visa");
+    instrument.put("last_digits", "4242");
+    instrument.set(
+        "credential", mapper.createObjectNode().put("type", "token").put("token", "success_token"));
+    this.completion = mapper.createObjectNode();
+    completion.set("payment_data", instrument);
+    completion.set(
+        "risk_signals", mapper.createObjectNode().put("ip", "127.0.0.1").put("client", "loadgen"));
+  }
+
+  /**
+   * Starts {@code flow}, whose first step was due at {@code intendedNanos}. The product and the
+   * updated quantity are drawn from {@code random} before this returns, so the caller may keep
+   * using it. The future completes with {@code false} once a step fails and never exceptionally.
+   */
+  CompletableFuture<Boolean> run(
+      FlowMix.Flow flow, long intendedNanos, SplittableRandom random, LoadRecorder recorder) {
+    State state =
+        new State(flow, recorder, items.get(random.nextInt(items.size())), 1 + random.nextInt(3));
+    return step(state, 0, intendedNanos)
+        .whenComplete((completed, error) -> recorder.flowDone(Boolean.TRUE.equals(completed)));
+  }
+
+  private CompletableFuture<Boolean> step(State state, int index, long intendedNanos) {
+    if (index == state.flow.steps().size()) {
+      return CompletableFuture.completedFuture(true);
+    }
+    Step step = state.flow.steps().get(index);
+    LoadRecorder.StepStats stats = state.recorder.step(step);
+    long sent = System.nanoTime();
+    CompletableFuture<String> call;
+    try {
+      call = send(step, state);
+    } catch (RuntimeException e) {
+      call = CompletableFuture.failedFuture(e);
+    }
+    return call.handle(
+            (checkoutId, error) -> {
+              long done = System.nanoTime();
+              if (error != null) {
+                stats.failure(cause(error));
+                return -1L;
+              }
+              if (checkoutId != null) {
+                state.checkoutId = checkoutId;
+              }
+              stats.success(done - sent, done - intendedNanos);
+              return done;
+            })
+        .thenCompose(
+            done ->
+                done < 0
+                    ? CompletableFuture.completedFuture(false)
+                    : step(state, index + 1, done));
+  }
+
+  /** Sends one step; the future holds the checkout id for {@link Step#CREATE}. */
+  private CompletableFuture<String> send(Step step, State state) {
+    String checkoutId = state.checkoutId;
+    return switch (step) {
+      case DISCOVERY -> client.discovery().thenApply(profile -> null);
+      case NEGOTIATION -> post(NEGOTIATION, platformProfile);
+      case CREATE ->
+          client.createCheckout(createRequests.get(state.item)).thenApply(CheckoutResponse::getId);
+      case UPDATE -> client.updateCheckout(checkoutId, update(state)).thenApply(checkout -> null);
+      case MINT_INSTRUMENT ->
+          post(UcpRoutes.checkoutSessionById(checkoutId) + "/mint-instrument", EMPTY_BODY);
+      case COMPLETE -> client.completeCheckout(checkoutId, completion).thenApply(checkout -> null);
+      case CANCEL -> client.cancelCheckout(checkoutId).thenApply(checkout -> null);
+    };
+  }
+
+  private CheckoutUpdateRequest update(State state) {
+    return mapper.convertValue(
+        Map.of(
+            "id", state.checkoutId,
+            "currency", "USD",
+            "line_items",
+                List.of(Map.of("item", Map.of("id", state.item), "quantity", state.quantity)),
+            "payment", Map.of("handlers", List.of(), "instruments", List.of())),
+        CheckoutUpdateRequest.class);
+  }
+
+  private CompletableFuture<String> post(String path, byte[] body) {
+    HttpRequest request =
+        HttpRequest.newBuilder(baseUri.resolve(path))
+            .header("Content-Type", "application/json")
+            .header(UcpHeaders.UCP_AGENT, ucpAgent)
+            .header(UcpHeaders.REQUEST_SIGNATURE, "test")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+    return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+        .thenApply(
+            response -> {
+              if (response.statusCode() / 100 != 2) {
+                throw new UcpClientException("POST", path, response.statusCode(), response.body());
+              }
+              return null;
+            });
+  }
+
+  private static String cause(Throwable error) {
+    Throwable cause = error;
+    while (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause instanceof UcpClientException e
+        ? "http_" + e.statusCode()
+        : cause.getClass().getSimpleName();
+  }
+
+  private static final class State {
+    final FlowMix.Flow flow;
+    final LoadRecorder recorder;
+    final String item;
+    final int quantity;
+    volatile String checkoutId;
+
+    State(FlowMix.Flow flow, LoadRecorder recorder, String item, int quantity) {
+      this.flow = flow;
+      this.recorder = recorder;
+      this.item = item;
+      this.quantity = quantity;
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package io.deeplumen.ucp.samples.java.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.client.RetryPolicy;
+import io.deeplumen.ucp.client.UcpClient;
+import io.deeplumen.ucp.concurrent.VirtualThreads;
+import io.deeplumen.ucp.helpers.UcpHeaders;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.metrics.LatencyHistogram;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for a running sample server that replays a weighted mix of complete checkout
+ * flows (discovery, negotiation, create, update, mint-instrument, complete, cancel) and reports
+ * throughput and latency percentiles per step.
+ *
+ * <p>In {@code open} mode flows arrive at a constant {@code --rate}, whether or not earlier ones
+ * have finished, as independent shoppers would. Latencies are measured from each flow's scheduled
+ * arrival, so a stalled server shows up in the percentiles instead of silently slowing the load
+ * down (coordinated omission). In {@code closed} mode {@code --concurrency} workers run flows back
+ * to back, and response times are corrected against the mean service times of the warm-up phase;
+ * see {@link LoadRecorder}.
+ *
+ * <p>Flows, products and quantities are drawn from {@code --seed}, so two runs with the same
+ * options send the same sequence of flows. Each run is written as JSON with its options, the Java
+ * runtime, the SDK and server protocol versions and the per-step results, for comparing releases
+ * of the SDK or the server on the same machine. No external services are involved: the server is
+ * addressed through {@code UCP_SAMPLE_BASEURL} and agents identify with {@code UCP_PROFILE_URL}
+ * and {@code UCP_AGENT_VERSION}, as for {@code SimpleClient}. Start the server with {@code
+ * --ucp.inventory.enabled=false} so that stock does not run out mid-run.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * mvn -DskipTests compile exec:java \
+ *   -Dexec.mainClass=io.deeplumen.ucp.samples.java.loadgen.LoadGenerator \
+ *   -Dexec.args="--mode=open --rate=200 --duration=60 --label=server-0.4.0"
+ * }</pre>
+ */
+public final class LoadGenerator {
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+  private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99_9"};
+
+  private LoadGenerator() {}
+
+  public static void main(String[] args) throws Exception {
+    LoadOptions options;
+    try {
+      options = LoadOptions.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.print(LoadOptions.USAGE);
+      System.exit(2);
+      return;
+    }
+    String baseUrl = System.getenv().getOrDefault("UCP_SAMPLE_BASEURL", "http://localhost:8080");
+    String profileUrl =
+        System.getenv().getOrDefault("UCP_PROFILE_URL", baseUrl + "/profiles/platform.json");
+    String version = System.getenv().getOrDefault("UCP_AGENT_VERSION", "2026-01-11");
+
+    ObjectMapper mapper = new ObjectMapper();
+    HttpClient http =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    HttpResponse<byte[]> profile =
+        http.send(
+            HttpRequest.newBuilder(URI.create(profileUrl)).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+    if (profile.statusCode() != 200) {
+      throw new IllegalStateException(
+          "GET " + profileUrl + " returned HTTP " + profile.statusCode());
+    }
+    try (UcpClient client =
+        UcpClient.builder(URI.create(baseUrl))
+            .httpClient(http)
+            .json(UcpJson.create(mapper))
+            .wireFormat(options.format())
+            .agentProfile(profileUrl, version)
+            .header(UcpHeaders.REQUEST_SIGNATURE, "test")
+            .requestTimeout(Duration.ofSeconds(30))
+            .retry(RetryPolicy.none())
+            .build()) {
+      JsonNode discovery = client.discovery().join();
+      FlowRunner runner =
+          new FlowRunner(
+              client,
+              http,
+              URI.create(baseUrl),
+              UcpHeaders.ucpAgent(profileUrl, version),
+              profile.body(),
+              mapper,
+              options.items());
+      SplittableRandom seed = new SplittableRandom(options.seed());
+      SplittableRandom warmupRandom = seed.split();
+      SplittableRandom random = seed.split();
+
+      System.out.printf(
+          "%s loop against %s, mix %s%n",
+          options.mode().name().toLowerCase(Locale.ROOT), baseUrl, options.mix());
+      LoadRecorder warmup = new LoadRecorder(null);
+      if (options.warmupSeconds() > 0) {
+        System.out.printf("warm-up %d s%n", options.warmupSeconds());
+        run(runner, options, warmupRandom, warmup, options.warmupSeconds());
+      }
+      LoadRecorder recorder =
+          new LoadRecorder(
+              options.mode() == LoadOptions.Mode.CLOSED ? warmup.meanServiceTimes() : null);
+      System.out.printf("recording %d s%n", options.durationSeconds());
+      Instant started = Instant.now();
+      run(runner, options, random, recorder, options.durationSeconds());
+
+      print(recorder);
+      ObjectNode results = results(mapper, options, started, baseUrl, discovery, recorder);
+      Path out = options.out().toAbsolutePath();
+      Files.createDirectories(out.getParent());
+      mapper.writerWithDefaultPrettyPrinter().writeValue(out.toFile(), results);
+      System.out.println("results written to " + out);
+    }
+  }
+
+  private static void run(
+      FlowRunner runner,
+      LoadOptions options,
+      SplittableRandom random,
+      LoadRecorder recorder,
+      int seconds)
+      throws InterruptedException {
+    recorder.start();
+    if (options.mode() == LoadOptions.Mode.OPEN) {
+      openLoop(runner, options, random, recorder, seconds);
+    } else {
+      closedLoop(runner, options, random, recorder, seconds);
+    }
+    recorder.stop();
+  }
+
+  /**
+   * Starts flow {@code i} at {@code start + i / rate}. When the generator falls behind, either
+   * because {@code --max-in-flight} flows are still running or because the thread was descheduled,
+   * late flows start at once and keep their scheduled time as the base of their latency.
+   */
+  private static void openLoop(
+      FlowRunner runner,
+      LoadOptions options,
+      SplittableRandom random,
+      LoadRecorder recorder,
+      int seconds)
+      throws InterruptedException {
+    Semaphore inFlight = new Semaphore(options.maxInFlight());
+    long start = System.nanoTime();
+    long flows = (long) (seconds * options.rate());
+    for (long i = 0; i < flows; i++) {
+      long intended = start + (long) (i * 1e9 / options.rate());
+      for (long wait = intended - System.nanoTime(); wait > 0; ) {
+        LockSupport.parkNanos(wait);
+        wait = intended - System.nanoTime();
+      }
+      inFlight.acquire();
+      runner
+          .run(options.mix().pick(random), intended, random, recorder)
+          .whenComplete((completed, error) -> inFlight.release());
+    }
+    inFlight.acquire(options.maxInFlight());
+  }
+
+  private static void closedLoop(
+      FlowRunner runner,
+      LoadOptions options,
+      SplittableRandom random,
+      LoadRecorder recorder,
+      int seconds)
+      throws InterruptedException {
+    AtomicInteger count = new AtomicInteger();
+    ExecutorService workers =
+        VirtualThreads.isAvailable()
+            ? VirtualThreads.newThreadPerTaskExecutor("loadgen-")
+            : Executors.newFixedThreadPool(
+                options.concurrency(),
+                r -> {
+                  Thread t = new Thread(r, "loadgen-" + count.incrementAndGet());
+                  t.setDaemon(true);
+                  return t;
+                });
+    long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    for (int w = 0; w < options.concurrency(); w++) {
+      SplittableRandom workerRandom = random.split();
+      workers.execute(
+          () -> {
+            while (System.nanoTime() - end < 0) {
+              long start = System.nanoTime();
+              runner.run(options.mix().pick(workerRandom), start, workerRandom, recorder).join();
+            }
+          });
+    }
+    workers.shutdown();
+    workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+  }
+
+  private static void print(LoadRecorder recorder) {
+    double seconds = recorder.elapsedNanos() / 1e9;
+    System.out.printf(
+        "%,d flows completed, %,d failed in %.1f s%n",
+        recorder.flowsCompleted(), recorder.flowsFailed(), seconds);
+    System.out.printf(
+        "%-16s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+        "step", "ok", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+        "svc p99");
+    for (LoadRecorder.StepStats stats : recorder.steps()) {
+      if (stats.count() == 0 && stats.errorCount() == 0) {
+        continue;
+      }
+      LatencyHistogram.Snapshot response = stats.response.snapshot();
+      System.out.printf(
+          "%-16s %,9d %,7d %,9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+          stats.step.label(),
+          stats.count(),
+          stats.errorCount(),
+          stats.count() / seconds,
+          millis(response.valueAtPercentile(50)),
+          millis(response.valueAtPercentile(90)),
+          millis(response.valueAtPercentile(99)),
+          millis(response.valueAtPercentile(99.9)),
+          millis(response.max()),
+          millis(stats.service.snapshot().valueAtPercentile(99)));
+      if (stats.errorCount() > 0) {
+        System.out.println("                 errors " + stats.errors());
+      }
+    }
+  }
+
+  private static ObjectNode results(
+      ObjectMapper mapper,
+      LoadOptions options,
+      Instant started,
+      String baseUrl,
+      JsonNode discovery,
+      LoadRecorder recorder) {
+    ObjectNode results = mapper.createObjectNode();
+    results.put("label", options.label());
+    results.put("started_at", started.toString());
+
+    ObjectNode config = results.putObject("options");
+    config.put("mode", options.mode().name().toLowerCase(Locale.ROOT));
+    config.put("rate", options.rate());
+    config.put("max_in_flight", options.maxInFlight());
+    config.put("concurrency", options.concurrency());
+    config.put("warmup_seconds", options.warmupSeconds());
+    config.put("duration_seconds", options.durationSeconds());
+    config.put("mix", options.mix().toString());
+    config.set("items", mapper.valueToTree(options.items()));
+    config.put("seed", options.seed());
+    config.put("format", options.format().mediaType());
+
+    ObjectNode environment = results.putObject("environment");
+    environment.put("base_url", baseUrl);
+    environment.put("server_ucp_version", discovery.path("ucp").path("version").asText(null));
+    environment.put("sdk_version", implementationVersion(UcpClient.class));
+    environment.put("java_version", System.getProperty("java.version"));
+    environment.put("java_vm", System.getProperty("java.vm.name"));
+    environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+    environment.put("available_processors", Runtime.getRuntime().availableProcessors());
+
+    double seconds = recorder.elapsedNanos() / 1e9;
+    results.put("elapsed_seconds", seconds);
+    ObjectNode flows = results.putObject("flows");
+    flows.put("completed", recorder.flowsCompleted());
+    flows.put("failed", recorder.flowsFailed());
+    flows.put("per_second", recorder.flowsCompleted() / seconds);
+
+    ArrayNode steps = results.putArray("steps");
+    for (LoadRecorder.StepStats stats : recorder.steps()) {
+      if (stats.count() == 0 && stats.errorCount() == 0) {
+        continue;
+      }
+      ObjectNode step = steps.addObject();
+      step.put("step", stats.step.label());
+      step.put("ok", stats.count());
+      step.put("errors", stats.errorCount());
+      step.set("errors_by_cause", mapper.valueToTree(stats.errors()));
+      step.put("per_second", stats.count() / seconds);
+      step.set("response_ms", latencies(mapper, stats.response.snapshot()));
+      step.set("service_ms", latencies(mapper, stats.service.snapshot()));
+    }
+    return results;
+  }
+
+  private static ObjectNode latencies(ObjectMapper mapper, LatencyHistogram.Snapshot snapshot) {
+    ObjectNode latencies = mapper.createObjectNode();
+    latencies.put("count", snapshot.count());
+    latencies.put("mean", millis(snapshot.mean()));
+    for (int i = 0; i < PERCENTILES.length; i++) {
+      latencies.put(PERCENTILE_NAMES[i], millis(snapshot.valueAtPercentile(PERCENTILES[i])));
+    }
+    latencies.put("max", millis(snapshot.max()));
+    return latencies;
+  }
+
+  private static String implementationVersion(Class<?> type) {
+    String version = type.getPackage().getImplementationVersion();
+    return version != null ? version : "unknown";
+  }
+
+  private static double millis(double nanos) {
+    return Math.round(nanos / 1e3) / 1e3;
+  }
+}
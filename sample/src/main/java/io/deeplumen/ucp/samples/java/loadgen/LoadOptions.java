@@ -0,0 +1,113 @@
+package io.deeplumen.ucp.samples.java.loadgen;
+
+import io.deeplumen.ucp.json.WireFormat;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** Command-line options of {@link LoadGenerator}, given as {@code --name=value}. */
+record LoadOptions(
+    Mode mode,
+    double rate,
+    int concurrency,
+    int maxInFlight,
+    int warmupSeconds,
+    int durationSeconds,
+    FlowMix mix,
+    List<String> items,
+    long seed,
+    WireFormat format,
+    String label,
+    Path out) {
+
+  static final String USAGE =
+      """
+      options (all optional):
+        --mode=open|closed     constant flow arrival rate, or workers running flows back to back
+                               (default: open)
+        --rate=N               open loop: flows started per second (default: 50)
+        --max-in-flight=N      open loop: flows under way before arrivals queue (default: 1000)
+        --concurrency=N        closed loop: workers (default: 16)
+        --warmup=SECONDS       unrecorded warm-up phase (default: 10)
+        --duration=SECONDS     recorded phase (default: 30)
+        --mix=SPEC             weighted flows (default: %s)
+        --items=ID,...         product ids drawn per flow (default: bouquet_roses,pot_ceramic)
+        --seed=N               seed for flow, product and quantity choices (default: 1)
+        --format=FORMAT        body format of client calls: json, cbor or smile (default: json)
+        --label=NAME           name of the run in the results, e.g. a release (default: run)
+        --out=FILE             JSON results (default: target/loadgen/<label>-<time>.json)
+      """
+          .formatted(FlowMix.DEFAULT);
+
+  private static final List<String> KNOWN =
+      List.of(
+          "mode",
+          "rate",
+          "concurrency",
+          "max-in-flight",
+          "warmup",
+          "duration",
+          "mix",
+          "items",
+          "seed",
+          "format",
+          "label",
+          "out");
+
+  enum Mode {
+    OPEN,
+    CLOSED
+  }
+
+  LoadOptions {
+    if (!(rate > 0) || concurrency <= 0 || maxInFlight <= 0) {
+      throw new IllegalArgumentException("rate, concurrency and max-in-flight must be positive");
+    }
+    if (warmupSeconds < 0 || durationSeconds <= 0) {
+      throw new IllegalArgumentException("warmup must not be negative and duration positive");
+    }
+    items = List.copyOf(items);
+  }
+
+  static LoadOptions parse(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    for (String arg : args) {
+      int eq = arg.indexOf('=');
+      if (!arg.startsWith("--") || eq < 0) {
+        throw new IllegalArgumentException("expected --name=value but got " + arg);
+      }
+      values.put(arg.substring(2, eq), arg.substring(eq + 1));
+    }
+    String label = values.getOrDefault("label", "run");
+    String defaultOut =
+        "target/loadgen/"
+            + label
+            + "-"
+            + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+            + ".json";
+    LoadOptions options =
+        new LoadOptions(
+            Mode.valueOf(values.getOrDefault("mode", "open").toUpperCase(Locale.ROOT)),
+            Double.parseDouble(values.getOrDefault("rate", "50")),
+            Integer.parseInt(values.getOrDefault("concurrency", "16")),
+            Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+            Integer.parseInt(values.getOrDefault("warmup", "10")),
+            Integer.parseInt(values.getOrDefault("duration", "30")),
+            FlowMix.parse(values.getOrDefault("mix", FlowMix.DEFAULT)),
+            Arrays.asList(values.getOrDefault("items", "bouquet_roses,pot_ceramic").split(",")),
+            Long.parseLong(values.getOrDefault("seed", "1")),
+            WireFormat.valueOf(values.getOrDefault("format", "json").toUpperCase(Locale.ROOT)),
+            label,
+            Path.of(values.getOrDefault("out", defaultOut)));
+    values.keySet().removeAll(KNOWN);
+    if (!values.isEmpty()) {
+      throw new IllegalArgumentException("unknown options: " + values.keySet());
+    }
+    return options;
+  }
+}
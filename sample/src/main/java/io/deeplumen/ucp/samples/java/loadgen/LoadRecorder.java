@@ -0,0 +1,133 @@
+package io.deeplumen.ucp.samples.java.loadgen;
+
+import io.deeplumen.ucp.metrics.LatencyHistogram;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-step latencies and errors of one load phase. Safe for concurrent recording.
+ *
+ * <p>Every success is recorded twice. The service time runs from sending the request to receiving
+ * the response. The response time runs from when the request should have been sent: its scheduled
+ * arrival for the first step of an open-loop flow, the previous step's completion otherwise. In
+ * open-loop runs this already accounts for coordinated omission, since a stalled server delays the
+ * actual sends but not the schedule. Closed-loop workers never fall behind a schedule, so response
+ * times there are corrected the way HdrHistogram's {@code recordValueWithExpectedInterval} does:
+ * a response slower than the step's expected interval also records the responses that would have
+ * been sent meanwhile, at that interval.
+ */
+final class LoadRecorder {
+  private final Map<Step, StepStats> steps = new EnumMap<>(Step.class);
+  private final LongAdder flowsCompleted = new LongAdder();
+  private final LongAdder flowsFailed = new LongAdder();
+  private volatile long startNanos = System.nanoTime();
+  private volatile long endNanos;
+
+  /**
+   * @param expectedIntervals nanoseconds between requests per step for the closed-loop correction,
+   *     or {@code null} to record response times as measured
+   */
+  LoadRecorder(Map<Step, Long> expectedIntervals) {
+    for (Step step : Step.values()) {
+      long interval = expectedIntervals != null ? expectedIntervals.getOrDefault(step, 0L) : 0;
+      steps.put(step, new StepStats(step, interval));
+    }
+  }
+
+  void start() {
+    startNanos = System.nanoTime();
+  }
+
+  void stop() {
+    endNanos = System.nanoTime();
+  }
+
+  long elapsedNanos() {
+    return (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+  }
+
+  StepStats step(Step step) {
+    return steps.get(step);
+  }
+
+  Collection<StepStats> steps() {
+    return steps.values();
+  }
+
+  void flowDone(boolean completed) {
+    (completed ? flowsCompleted : flowsFailed).increment();
+  }
+
+  long flowsCompleted() {
+    return flowsCompleted.sum();
+  }
+
+  long flowsFailed() {
+    return flowsFailed.sum();
+  }
+
+  /** Mean service time per step, as expected intervals for a closed-loop phase after this one. */
+  Map<Step, Long> meanServiceTimes() {
+    Map<Step, Long> means = new EnumMap<>(Step.class);
+    for (StepStats stats : steps.values()) {
+      LatencyHistogram.Snapshot service = stats.service.snapshot();
+      if (service.count() > 0) {
+        means.put(stats.step, Math.round(service.mean()));
+      }
+    }
+    return means;
+  }
+
+  static final class StepStats {
+    final Step step;
+    final LatencyHistogram service = new LatencyHistogram();
+    final LatencyHistogram response = new LatencyHistogram();
+    private final long expectedInterval;
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private StepStats(Step step, long expectedInterval) {
+      this.step = step;
+      this.expectedInterval = expectedInterval;
+    }
+
+    void success(long serviceNanos, long responseNanos) {
+      service.record(serviceNanos);
+      response.record(responseNanos);
+      if (expectedInterval > 0) {
+        for (long missed = responseNanos - expectedInterval;
+            missed >= expectedInterval;
+            missed -= expectedInterval) {
+          response.record(missed);
+        }
+      }
+    }
+
+    /** Counts a failure under {@code cause}, e.g. {@code http_503} or an exception name. */
+    void failure(String cause) {
+      errors.computeIfAbsent(cause, k -> new LongAdder()).increment();
+    }
+
+    /** Successful calls; backfilled response times are not counted. */
+    long count() {
+      return service.count();
+    }
+
+    long errorCount() {
+      long total = 0;
+      for (LongAdder count : errors.values()) {
+        total += count.sum();
+      }
+      return total;
+    }
+
+    Map<String, Long> errors() {
+      Map<String, Long> copy = new TreeMap<>();
+      errors.forEach((cause, count) -> copy.put(cause, count.sum()));
+      return copy;
+    }
+  }
+}
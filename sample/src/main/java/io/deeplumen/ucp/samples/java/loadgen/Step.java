@@ -0,0 +1,34 @@
+package io.deeplumen.ucp.samples.java.loadgen;
+
+import java.util.Locale;
+
+/** One call of the checkout flow, as named in a {@code --mix} specification. */
+enum Step {
+  DISCOVERY(false),
+  NEGOTIATION(false),
+  CREATE(false),
+  UPDATE(true),
+  MINT_INSTRUMENT(true),
+  COMPLETE(true),
+  CANCEL(true);
+
+  /** Whether the step acts on the checkout created by an earlier {@link #CREATE}. */
+  final boolean needsCheckout;
+
+  Step(boolean needsCheckout) {
+    this.needsCheckout = needsCheckout;
+  }
+
+  String label() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  /** Parses {@code mint_instrument} or {@code mint-instrument}, in any case. */
+  static Step parse(String name) {
+    try {
+      return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("unknown step: " + name);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package io.deeplumen.ucp.samples.java.metrics;
+
+import io.deeplumen.ucp.metrics.InMemoryMetrics;
+import io.deeplumen.ucp.metrics.UcpMetrics;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Plain-text dump of all meters when {@code ucp.metrics.exporter=TEXT}; 404 otherwise. */
+@RestController
+public class MetricsController {
+  private final UcpMetrics metrics;
+
+  public MetricsController(UcpMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @GetMapping(value = "/metrics", produces = MediaType.TEXT_PLAIN_VALUE)
+  public ResponseEntity<String> metrics() {
+    if (metrics instanceof InMemoryMetrics inMemory) {
+      return ResponseEntity.ok(inMemory.dump());
+    }
+    return ResponseEntity.notFound().build();
+  }
+}
@@ -0,0 +1,63 @@
+package io.deeplumen.ucp.samples.java.metrics;
+
+import io.deeplumen.ucp.metrics.Tags;
+import io.deeplumen.ucp.metrics.UcpMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UcpMetrics} backed by a Micrometer {@link MeterRegistry}, so SDK and server meters reach
+ * whatever backend the registry publishes to. Timers publish percentile histograms.
+ *
+ * <p>Meters are cached per name and tags, so asking for one again does not go through Micrometer's
+ * builders. Micrometer's {@code Timer} and {@code Counter} are spelled out in full because the
+ * inherited {@link UcpMetrics.Timer} and {@link UcpMetrics.Counter} shadow them here.
+ */
+public final class MicrometerUcpMetrics implements UcpMetrics {
+  private final MeterRegistry registry;
+  private final ConcurrentHashMap<Id, Timer> timers = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Id, Counter> counters = new ConcurrentHashMap<>();
+
+  public MicrometerUcpMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public Timer timer(String name, Tags tags) {
+    return timers.computeIfAbsent(
+        new Id(name, tags),
+        id -> {
+          io.micrometer.core.instrument.Timer timer =
+              io.micrometer.core.instrument.Timer.builder(name)
+                  .tags(keyValues(tags))
+                  .publishPercentileHistogram()
+                  .register(registry);
+          return nanos -> timer.record(nanos, TimeUnit.NANOSECONDS);
+        });
+  }
+
+  @Override
+  public Counter counter(String name, Tags tags) {
+    return counters.computeIfAbsent(
+        new Id(name, tags),
+        id -> {
+          io.micrometer.core.instrument.Counter counter =
+              io.micrometer.core.instrument.Counter.builder(name)
+                  .tags(keyValues(tags))
+                  .register(registry);
+          return amount -> counter.increment(amount);
+        });
+  }
+
+  private static String[] keyValues(Tags tags) {
+    String[] keyValues = new String[tags.size() * 2];
+    for (int i = 0; i < tags.size(); i++) {
+      keyValues[2 * i] = tags.key(i);
+      keyValues[2 * i + 1] = tags.value(i);
+    }
+    return keyValues;
+  }
+
+  private record Id(String name, Tags tags) {}
+}
@@ -0,0 +1,102 @@
+package io.deeplumen.ucp.samples.java.metrics;
+
+import io.deeplumen.ucp.helpers.UcpCapabilities;
+import io.deeplumen.ucp.helpers.UcpHeaders;
+import io.deeplumen.ucp.metrics.Tags;
+import io.deeplumen.ucp.metrics.UcpMetrics;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Times every request into {@link UcpMetrics#SERVER_REQUESTS}, tagged with the matched route
+ * pattern (not the raw path, so checkout ids do not multiply series), method, status, the protocol
+ * version from {@code UCP-Agent} and the capability the route belongs to. Streaming responses are
+ * timed until the stream completes. The filter is skipped entirely while metrics are off.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+  private static final Pattern VERSION = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+
+  private final UcpMetrics metrics;
+
+  public RequestMetricsFilter(UcpMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return metrics == UcpMetrics.noop();
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    long start = System.nanoTime();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      if (request.isAsyncStarted()) {
+        request
+            .getAsyncContext()
+            .addListener(
+                new AsyncListener() {
+                  @Override
+                  public void onComplete(AsyncEvent event) {
+                    record(request, response, start);
+                  }
+
+                  @Override
+                  public void onTimeout(AsyncEvent event) {}
+
+                  @Override
+                  public void onError(AsyncEvent event) {}
+
+                  @Override
+                  public void onStartAsync(AsyncEvent event) {}
+                });
+      } else {
+        record(request, response, start);
+      }
+    }
+  }
+
+  private void record(HttpServletRequest request, HttpServletResponse response, long start) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String route = pattern != null ? pattern.toString() : "unmatched";
+    Tags tags =
+        Tags.of(
+            UcpMetrics.ROUTE, route,
+            UcpMetrics.METHOD, request.getMethod(),
+            UcpMetrics.STATUS, Integer.toString(response.getStatus()),
+            UcpMetrics.VERSION, version(request.getHeader(UcpHeaders.UCP_AGENT)),
+            UcpMetrics.CAPABILITY, capability(route));
+    metrics.timer(UcpMetrics.SERVER_REQUESTS, tags).record(System.nanoTime() - start);
+  }
+
+  /** The declared version, bucketed so arbitrary header values cannot create new series. */
+  private static String version(String ucpAgent) {
+    return UcpHeaders.agentVersion(ucpAgent)
+        .map(version -> VERSION.matcher(version).matches() ? version : "other")
+        .orElse(null);
+  }
+
+  private static String capability(String route) {
+    if (route.startsWith("/checkout-sessions") || route.startsWith("/ucp/checkout")) {
+      return UcpCapabilities.SHOPPING_CHECKOUT;
+    }
+    if (route.startsWith("/webhooks/")) {
+      return UcpCapabilities.SHOPPING_ORDER;
+    }
+    return null;
+  }
+}
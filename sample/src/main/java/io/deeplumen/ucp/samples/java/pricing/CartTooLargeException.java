@@ -0,0 +1,8 @@
+package io.deeplumen.ucp.samples.java.pricing;
+
+/** Raised when an amount no longer fits the protocol's 32-bit minor-unit amount fields. */
+public class CartTooLargeException extends ArithmeticException {
+  public CartTooLargeException(String what, long amount) {
+    super(what + " of " + amount + " exceeds the largest representable amount");
+  }
+}
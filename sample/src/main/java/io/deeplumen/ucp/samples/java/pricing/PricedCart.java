@@ -0,0 +1,187 @@
+package io.deeplumen.ucp.samples.java.pricing;
+
+import io.deeplumen.ucp.models.schemas.shopping.LineItemResponse;
+import io.deeplumen.ucp.models.schemas.shopping.TotalResponse;
+import io.deeplumen.ucp.models.schemas.shopping.TotalResponse.Type;
+import io.deeplumen.ucp.samples.java.data.ShippingRate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Priced lines of one checkout with running cart totals.
+ *
+ * <p>Adding, replacing or removing a line adjusts the {@code long} sums by that line's
+ * contribution only. The rendered line-item list and cart totals are built on the first read after
+ * a change and then returned as-is, so reading an unchanged cart does no pricing work. The
+ * returned lists and their models are shared between reads and must not be modified.
+ *
+ * <p>Lines are addressed by position or by line item id. The id index is kept up to date by
+ * appends and rebuilt on the first lookup after lines were removed or re-identified, so a patch
+ * touching a few lines of a large cart does not scan it.
+ *
+ * <p>Not thread-safe; {@link io.deeplumen.ucp.samples.java.service.CheckoutService} only touches a
+ * cart while holding its session's lock.
+ */
+public final class PricedCart {
+  private final ShippingRate shipping;
+  private final ArrayList<PricedLine> lines = new ArrayList<>();
+  private long subtotal;
+  private long discount;
+  // Position by line item id; null until the first lookup after lines moved.
+  private HashMap<String, Integer> positions;
+  // Highest n of the item_<n> ids seen, so generated ids never reuse a removed line's id.
+  private int lastLineNumber;
+
+  private List<LineItemResponse> lineItems;
+  private List<TotalResponse> totals;
+
+  PricedCart(ShippingRate shipping) {
+    this.shipping = shipping;
+  }
+
+  public int size() {
+    return lines.size();
+  }
+
+  public PricedLine line(int index) {
+    return lines.get(index);
+  }
+
+  public void add(PricedLine line) {
+    lines.add(line);
+    if (positions != null) {
+      positions.putIfAbsent(id(line), lines.size() - 1);
+    }
+    number(line);
+    apply(line, 1);
+  }
+
+  /** Replaces the line at {@code index}; replacing a line with itself is free. */
+  public void set(int index, PricedLine line) {
+    PricedLine previous = lines.set(index, line);
+    if (previous != line) {
+      if (!Objects.equals(id(previous), id(line))) {
+        positions = null;
+      }
+      number(line);
+      apply(previous, -1);
+      apply(line, 1);
+    }
+  }
+
+  /** Drops every line from {@code size} on. */
+  public void truncate(int size) {
+    if (lines.size() > size) {
+      positions = null;
+    }
+    while (lines.size() > size) {
+      apply(lines.remove(lines.size() - 1), -1);
+    }
+  }
+
+  /** Drops the lines whose id is in {@code lineIds}, keeping the others in order. */
+  public void remove(Set<String> lineIds) {
+    if (lineIds.isEmpty()) {
+      return;
+    }
+    int kept = 0;
+    for (int i = 0; i < lines.size(); i++) {
+      PricedLine line = lines.get(i);
+      if (lineIds.contains(id(line))) {
+        apply(line, -1);
+      } else {
+        lines.set(kept++, line);
+      }
+    }
+    lines.subList(kept, lines.size()).clear();
+    positions = null;
+  }
+
+  /** Position of the line with id {@code lineId}, or -1 if the cart has none. */
+  public int indexOf(String lineId) {
+    if (positions == null) {
+      positions = new HashMap<>(lines.size() * 2);
+      for (int i = 0; i < lines.size(); i++) {
+        positions.putIfAbsent(id(lines.get(i)), i);
+      }
+    }
+    Integer index = positions.get(lineId);
+    return index != null ? index : -1;
+  }
+
+  /** An {@code item_<n>} id no line of this cart has had; add its line before calling again. */
+  public String nextLineId() {
+    return "item_" + (lastLineNumber + 1);
+  }
+
+  public long subtotal() {
+    return subtotal;
+  }
+
+  public long discount() {
+    return discount;
+  }
+
+  public long shippingFee() {
+    return shipping != null && !lines.isEmpty() ? shipping.flatFee() : 0;
+  }
+
+  public long total() {
+    return subtotal - discount + shippingFee();
+  }
+
+  public List<LineItemResponse> lineItems() {
+    if (lineItems == null) {
+      List<LineItemResponse> items = new ArrayList<>(lines.size());
+      for (PricedLine line : lines) {
+        items.add(line.lineItem());
+      }
+      lineItems = Collections.unmodifiableList(items);
+    }
+    return lineItems;
+  }
+
+  public List<TotalResponse> totals() {
+    if (totals == null) {
+      List<TotalResponse> rendered = new ArrayList<>(4);
+      rendered.add(PricingEngine.total(Type.SUBTOTAL, null, subtotal));
+      if (discount > 0) {
+        rendered.add(PricingEngine.total(Type.ITEMS_DISCOUNT, "Promotions", discount));
+      }
+      if (shipping != null && !lines.isEmpty()) {
+        rendered.add(
+            PricingEngine.total(Type.FULFILLMENT, shipping.description(), shipping.flatFee()));
+      }
+      rendered.add(PricingEngine.total(Type.TOTAL, null, total()));
+      totals = List.copyOf(rendered);
+    }
+    return totals;
+  }
+
+  private static String id(PricedLine line) {
+    return line.lineItem().getId();
+  }
+
+  private void number(PricedLine line) {
+    String id = id(line);
+    if (id == null || !id.startsWith("item_")) {
+      return;
+    }
+    try {
+      lastLineNumber = Math.max(lastLineNumber, Integer.parseInt(id.substring("item_".length())));
+    } catch (NumberFormatException e) {
+      // Not a generated id.
+    }
+  }
+
+  private void apply(PricedLine line, int sign) {
+    subtotal = Math.addExact(subtotal, sign * line.subtotal());
+    discount = Math.addExact(discount, sign * line.discount());
+    lineItems = null;
+    totals = null;
+  }
+}
@@ -0,0 +1,16 @@
+package io.deeplumen.ucp.samples.java.pricing;
+
+import io.deeplumen.ucp.models.schemas.shopping.LineItemResponse;
+
+/**
+ * A priced line item and the amounts it contributes to its cart, in minor units.
+ *
+ * <p>{@code lineItem} already carries its rendered totals.
+ */
+public record PricedLine(
+    String productId, int quantity, long subtotal, long discount, LineItemResponse lineItem) {
+
+  public long total() {
+    return subtotal - discount;
+  }
+}
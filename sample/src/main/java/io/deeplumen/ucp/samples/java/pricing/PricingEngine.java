@@ -0,0 +1,98 @@
+package io.deeplumen.ucp.samples.java.pricing;
+
+import io.deeplumen.ucp.models.schemas.shopping.LineItemResponse;
+import io.deeplumen.ucp.models.schemas.shopping.TotalResponse;
+import io.deeplumen.ucp.models.schemas.shopping.TotalResponse.Type;
+import io.deeplumen.ucp.samples.java.data.DataLoader;
+import io.deeplumen.ucp.samples.java.data.Product;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prices line items against the {@link PricingRules} compiled from the shop's promotions and
+ * shipping rates.
+ *
+ * <p>Amounts are accumulated as {@code long} minor units and only narrowed to the protocol's
+ * {@code int} amount fields when rendered; an amount that does not fit raises {@link
+ * CartTooLargeException} instead of wrapping.
+ */
+@Component
+public class PricingEngine {
+  private final PricingRules rules;
+
+  public PricingEngine(
+      DataLoader loader, @Value("${ucp.pricing.shipping-rate:}") String shippingRate) {
+    this.rules =
+        PricingRules.compile(loader.getPromotions(), loader.getShippingRates(), shippingRate);
+  }
+
+  public PricedCart newCart() {
+    return new PricedCart(rules.shipping());
+  }
+
+  /**
+   * Prices {@code quantity} units of {@code product} and sets the resulting totals on {@code
+   * lineItem}.
+   */
+  public PricedLine price(LineItemResponse lineItem, Product product, int quantity) {
+    long subtotal = Math.multiplyExact((long) product.priceCents(), quantity);
+    PricingRules.Discount discount = rules.discountFor(product);
+    long off = discount != null ? discount.apply(subtotal, quantity) : 0;
+    TotalResponse subtotalLine = total(Type.SUBTOTAL, null, subtotal);
+    TotalResponse totalLine = total(Type.TOTAL, null, subtotal - off);
+    lineItem.setTotals(
+        off > 0
+            ? List.of(subtotalLine, total(Type.DISCOUNT, discount.displayText(), off), totalLine)
+            : List.of(subtotalLine, totalLine));
+    return new PricedLine(product.id(), quantity, subtotal, off, lineItem);
+  }
+
+  /**
+   * Rebuilds a cart from line items that were priced earlier (for example restored from the
+   * session journal), taking each line's amounts from its rendered totals instead of repricing.
+   */
+  public PricedCart restore(List<LineItemResponse> lineItems) {
+    PricedCart cart = newCart();
+    if (lineItems == null) {
+      return cart;
+    }
+    for (LineItemResponse lineItem : lineItems) {
+      long subtotal = 0;
+      long discount = 0;
+      if (lineItem.getTotals() != null) {
+        for (TotalResponse total : lineItem.getTotals()) {
+          if (total.getAmount() == null) {
+            continue;
+          }
+          if (total.getType() == Type.SUBTOTAL) {
+            subtotal = total.getAmount();
+          } else if (total.getType() == Type.DISCOUNT) {
+            discount = total.getAmount();
+          }
+        }
+      }
+      String productId = lineItem.getItem() != null ? lineItem.getItem().getId() : null;
+      int quantity = lineItem.getQuantity() != null ? lineItem.getQuantity() : 0;
+      cart.add(new PricedLine(productId, quantity, subtotal, discount, lineItem));
+    }
+    return cart;
+  }
+
+  static TotalResponse total(Type type, String displayText, long amount) {
+    TotalResponse total = new TotalResponse();
+    total.setType(type);
+    if (displayText != null) {
+      total.setDisplayText(displayText);
+    }
+    total.setAmount(toAmount(type, amount));
+    return total;
+  }
+
+  private static int toAmount(Type type, long amount) {
+    if (amount > Integer.MAX_VALUE || amount < Integer.MIN_VALUE) {
+      throw new CartTooLargeException(type.value(), amount);
+    }
+    return (int) amount;
+  }
+}
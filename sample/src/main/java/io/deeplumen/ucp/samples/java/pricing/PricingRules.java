@@ -0,0 +1,97 @@
+package io.deeplumen.ucp.samples.java.pricing;
+
+import io.deeplumen.ucp.samples.java.data.Product;
+import io.deeplumen.ucp.samples.java.data.Promotion;
+import io.deeplumen.ucp.samples.java.data.ShippingRate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Promotions and shipping rates compiled into immutable lookups.
+ *
+ * <p>Each promotion is compiled to its {@link Discount} once and keyed by promotion id, so pricing
+ * a line is a map lookup plus a scope check against the product's category. Rules do not depend
+ * on the catalog, which may be swapped without recompiling them.
+ */
+public final class PricingRules {
+  private final Map<String, Compiled> promotions;
+  private final ShippingRate shipping;
+
+  private PricingRules(Map<String, Compiled> promotions, ShippingRate shipping) {
+    this.promotions = promotions;
+    this.shipping = shipping;
+  }
+
+  /**
+   * Compiles {@code promotions} and selects the shipping rate. {@code shippingRateId} selects the
+   * rate charged per cart; blank selects the first rate.
+   */
+  public static PricingRules compile(
+      List<Promotion> promotions, List<ShippingRate> shippingRates, String shippingRateId) {
+    Map<String, Compiled> compiled = new HashMap<>();
+    for (Promotion promotion : promotions) {
+      compiled.put(promotion.id(), new Compiled(promotion, Discount.of(promotion)));
+    }
+    return new PricingRules(Map.copyOf(compiled), selectShipping(shippingRates, shippingRateId));
+  }
+
+  /**
+   * Discount applicable to {@code product}, or {@code null}. A product gets its {@code
+   * promotionId}'s discount when the promotion applies to all products or to its category.
+   */
+  public Discount discountFor(Product product) {
+    Compiled compiled = product.promotionId() != null ? promotions.get(product.promotionId()) : null;
+    return compiled != null && appliesTo(compiled.promotion(), product) ? compiled.discount() : null;
+  }
+
+  /** Rate charged per cart, or {@code null} when no shipping rates are configured. */
+  public ShippingRate shipping() {
+    return shipping;
+  }
+
+  private static boolean appliesTo(Promotion promotion, Product product) {
+    String scope = promotion.appliesTo();
+    return scope == null
+        || scope.isBlank()
+        || Promotion.APPLIES_TO_ALL.equalsIgnoreCase(scope)
+        || scope.equalsIgnoreCase(product.category());
+  }
+
+  private static ShippingRate selectShipping(List<ShippingRate> rates, String id) {
+    if (rates.isEmpty()) {
+      return null;
+    }
+    if (id == null || id.isBlank()) {
+      return rates.get(0);
+    }
+    for (ShippingRate rate : rates) {
+      if (rate.id().equals(id)) {
+        return rate;
+      }
+    }
+    throw new IllegalArgumentException("unknown shipping rate: " + id);
+  }
+
+  private record Compiled(Promotion promotion, Discount discount) {}
+
+  /** A compiled promotion: percent off the line, or a fixed amount off each unit. */
+  public record Discount(
+      String promotionId, String displayText, Promotion.DiscountType type, long amount) {
+
+    static Discount of(Promotion promotion) {
+      return new Discount(
+          promotion.id(), promotion.description(), promotion.discountType(), promotion.amount());
+    }
+
+    /** Discount on a line of {@code quantity} units with the given subtotal, never above it. */
+    public long apply(long subtotal, int quantity) {
+      long off =
+          switch (type) {
+            case PERCENT -> Math.multiplyExact(subtotal, amount) / 100;
+            case FIXED -> Math.multiplyExact(amount, (long) quantity);
+          };
+      return Math.min(Math.max(off, 0), subtotal);
+    }
+  }
+}
@@ -2,84 +2,354 @@ package io.deeplumen.ucp.samples.java.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.deeplumen.ucp.models.discovery.PaymentHandlerResponse;
+import io.deeplumen.ucp.metrics.Tags;
+import io.deeplumen.ucp.metrics.UcpMetrics;
 import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
 import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
 import io.deeplumen.ucp.models.schemas.shopping.CheckoutUpdateRequest;
 import io.deeplumen.ucp.models.schemas.shopping.ItemResponse;
 import io.deeplumen.ucp.models.schemas.shopping.LineItemCreateRequest;
 import io.deeplumen.ucp.models.schemas.shopping.LineItemResponse;
+import io.deeplumen.ucp.models.schemas.shopping.LineItemUpdateRequest;
 import io.deeplumen.ucp.models.schemas.shopping.PaymentResponse;
-import io.deeplumen.ucp.models.schemas.shopping.TotalResponse;
-import io.deeplumen.ucp.models.schemas.shopping.TotalResponse.Type;
-import io.deeplumen.ucp.models.schemas.shopping.UCPCheckoutResponse;
-import io.deeplumen.ucp.samples.java.data.DataLoader;
+import io.deeplumen.ucp.samples.java.catalog.ProductCatalog;
 import io.deeplumen.ucp.samples.java.data.Product;
+import io.deeplumen.ucp.samples.java.inventory.InsufficientStockException;
+import io.deeplumen.ucp.samples.java.inventory.InventoryLedger;
+import io.deeplumen.ucp.samples.java.inventory.Reservation;
+import io.deeplumen.ucp.samples.java.pricing.PricedCart;
+import io.deeplumen.ucp.samples.java.pricing.PricedLine;
+import io.deeplumen.ucp.samples.java.pricing.PricingEngine;
 import java.net.URI;
-import java.time.Instant;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class CheckoutService {
-  private final Map<String, CheckoutSession> sessions = new HashMap<>();
-  private final Map<String, Product> products;
+  private static final Logger log = LoggerFactory.getLogger(CheckoutService.class);
+
+  private final CheckoutSessionStore sessions;
+  private final ProductCatalog catalog;
+  private final PricingEngine pricing;
+  private final InventoryLedger inventory;
   private final ObjectMapper mapper;
+  private final long sessionTtlMillis;
+  private final List<Consumer<CheckoutResponse>> orderListeners = new CopyOnWriteArrayList<>();
+  private final UcpMetrics.Timer sessionLookupTimer;
+  private final UcpMetrics.Timer pricingTimer;
+  private final ResponseFragments fragments = new ResponseFragments(PROTOCOL_VERSION);
 
   private static final String PROTOCOL_VERSION = "2026-01-11";
+  // Prefixes ETags so that versions restarting after a journal recovery never match old ones.
+  private static final String ETAG_EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+  public CheckoutService(
+      ProductCatalog catalog,
+      PricingEngine pricing,
+      InventoryLedger inventory,
+      ObjectMapper mapper,
+      CheckoutSessionStore sessions,
+      Duration sessionTtl) {
+    this(catalog, pricing, inventory, mapper, sessions, sessionTtl, UcpMetrics.noop());
+  }
 
-  public CheckoutService(DataLoader loader, ObjectMapper mapper) {
-    this.products = new HashMap<>(loader.getProducts());
+  @Autowired
+  public CheckoutService(
+      ProductCatalog catalog,
+      PricingEngine pricing,
+      InventoryLedger inventory,
+      ObjectMapper mapper,
+      CheckoutSessionStore sessions,
+      @Value("${ucp.sessions.ttl:1h}") Duration sessionTtl,
+      UcpMetrics metrics) {
+    this.catalog = catalog;
+    this.pricing = pricing;
+    this.inventory = inventory;
     this.mapper = mapper;
+    this.sessions = sessions;
+    this.sessionTtlMillis = sessionTtl.toMillis();
+    this.sessionLookupTimer =
+        metrics.timer(
+            UcpMetrics.OPERATIONS, Tags.of(UcpMetrics.OPERATION, UcpMetrics.SESSION_LOOKUP));
+    this.pricingTimer =
+        metrics.timer(UcpMetrics.OPERATIONS, Tags.of(UcpMetrics.OPERATION, UcpMetrics.PRICING));
+    // Expired and evicted sessions give their stock back; completed ones already committed it.
+    sessions.addRemovalListener(session -> inventory.release(session.reservation));
+    // Stock counters are not persisted: re-hold stock for open sessions restored from a journal.
+    sessions.forEach(this::restoreReservation);
   }
 
   public CheckoutResponse createCheckout(JsonNode platformProfile, CheckoutCreateRequest req) {
     String id = "chk_" + UUID.randomUUID().toString().substring(0, 8);
-    List<LineItemResponse> lineItems =
-        buildLineItems(req != null ? req.getLineItems() : null);
+    long pricingStart = pricingTimer.start();
+    PricedCart cart = buildCart(req != null ? req.getLineItems() : null);
+    pricingTimer.stop(pricingStart);
+    Reservation reservation = inventory.reserve(id, null, quantities(cart));
     PaymentResponse payment = buildPaymentSection();
     CheckoutSession session =
-        new CheckoutSession(id, lineItems, payment, CheckoutResponse.Status.INCOMPLETE);
-    sessions.put(id, session);
-    return toResponse(session, platformProfile);
+        new CheckoutSession(
+            id, cart.lineItems(), payment, CheckoutResponse.Status.INCOMPLETE, nextExpiry());
+    session.cart = cart;
+    session.reservation = reservation;
+    try {
+      sessions.put(session);
+    } catch (RuntimeException e) {
+      inventory.release(reservation);
+      throw e;
+    }
+    session.lock.lock();
+    try {
+      changed(CheckoutSessionStore.Transition.CREATE, session);
+      return toResponse(session, platformProfile);
+    } finally {
+      session.lock.unlock();
+    }
   }
 
   public CheckoutResponse getCheckout(String checkoutId, JsonNode platformProfile) {
-    CheckoutSession session = sessions.get(checkoutId);
-    if (session == null) {
-      throw new IllegalArgumentException("checkout not found");
+    CheckoutSession session = requireSession(checkoutId);
+    session.lock.lock();
+    try {
+      return toResponse(session, platformProfile);
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  /**
+   * The response of {@link #getCheckout} serialized by {@code serializer}, built once per session
+   * version. Until the session next changes, later calls return the same snapshot from a volatile
+   * read, without taking the session's lock or rebuilding the response.
+   *
+   * @throws IllegalArgumentException if the checkout does not exist
+   */
+  public CheckoutSnapshot getCheckoutSnapshot(
+      String checkoutId, Function<? super CheckoutResponse, byte[]> serializer) {
+    CheckoutSession session = requireSession(checkoutId);
+    CheckoutSnapshot snapshot = session.snapshot;
+    if (snapshot != null && snapshot.version() == session.version) {
+      return snapshot;
+    }
+    session.lock.lock();
+    try {
+      snapshot = session.snapshot;
+      if (snapshot == null || snapshot.version() != session.version) {
+        long version = session.version;
+        byte[] body = serializer.apply(toResponse(session, null));
+        snapshot = new CheckoutSnapshot(version, "\"" + ETAG_EPOCH + "-" + version + "\"", body);
+        session.snapshot = snapshot;
+      }
+      return snapshot;
+    } finally {
+      session.lock.unlock();
     }
-    return toResponse(session, platformProfile);
   }
 
   public CheckoutResponse updateCheckout(
       String checkoutId, JsonNode platformProfile, CheckoutUpdateRequest req) {
-    CheckoutSession session = sessions.get(checkoutId);
-    if (session == null) {
-      throw new IllegalArgumentException("checkout not found");
+    CheckoutSession session = requireSession(checkoutId);
+    session.lock.lock();
+    try {
+      requireOpen(session);
+      if (req != null && req.getLineItems() != null && !req.getLineItems().isEmpty()) {
+        PricedCart cart = cart(session);
+        long pricingStart = pricingTimer.start();
+        try {
+          updateCart(cart, req.getLineItems(), new LineChanges());
+        } catch (RuntimeException e) {
+          // The cart may be half updated; rebuilt from the unchanged session.lineItems on next use.
+          session.cart = null;
+          throw e;
+        } finally {
+          pricingTimer.stop(pricingStart);
+        }
+        commitLines(session, cart);
+      }
+      session.status = CheckoutResponse.Status.READY_FOR_COMPLETE;
+      extendExpiry(session);
+      changed(CheckoutSessionStore.Transition.UPDATE, session);
+      return toResponse(session, platformProfile);
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  /**
+   * Applies an RFC 7396 merge patch to the session in place and returns the full checkout.
+   *
+   * <p>{@code line_items} may be an object keyed by line item id, which merges into the lines with
+   * those ids: {@code null} removes a line, {@code quantity} and {@code item.id} change it, and an
+   * unknown id adds a line under that id. Only the named lines are repriced. An array replaces the
+   * whole list as in {@link #updateCheckout}, still reusing the lines it names by id; {@code null}
+   * empties the cart. Members the session does not hold are ignored, as they are by updates.
+   *
+   * @throws IllegalArgumentException if the checkout does not exist
+   * @throws CheckoutStateException if the checkout is already completed or canceled
+   * @throws InvalidPatchException if the patch is not an object or has invalid line items
+   */
+  public CheckoutResponse patchCheckout(
+      String checkoutId, JsonNode platformProfile, JsonNode patch) {
+    CheckoutSession session = requireSession(checkoutId);
+    session.lock.lock();
+    try {
+      patch(session, patch);
+      return toResponse(session, platformProfile);
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  /**
+   * Applies a merge patch like {@link #patchCheckout} and returns only what it changed, itself as a
+   * merge patch over the previous response: {@code status} if it changed, {@code line_items} keyed
+   * by id with each added or repriced line and {@code null} for removed ones, the cart {@code
+   * totals} when lines changed, and the new {@code expires_at}. Line order is not part of the
+   * delta; fetch the checkout after an array patch that reordered lines.
+   *
+   * @throws IllegalArgumentException if the checkout does not exist
+   * @throws CheckoutStateException if the checkout is already completed or canceled
+   * @throws InvalidPatchException if the patch is not an object or has invalid line items
+   */
+  public Map<String, Object> patchCheckoutDelta(String checkoutId, JsonNode patch) {
+    CheckoutSession session = requireSession(checkoutId);
+    session.lock.lock();
+    try {
+      CheckoutResponse.Status status = session.status;
+      LineChanges changes = patch(session, patch);
+      Map<String, Object> delta = new LinkedHashMap<>();
+      if (session.status != status) {
+        delta.put("status", session.status);
+      }
+      if (!changes.isEmpty()) {
+        Map<String, Object> lines = new LinkedHashMap<>();
+        for (String id : changes.removed()) {
+          lines.put(id, null);
+        }
+        for (PricedLine line : changes.changed()) {
+          lines.put(line.lineItem().getId(), line.lineItem());
+        }
+        delta.put("line_items", lines);
+        delta.put("totals", cart(session).totals());
+      }
+      delta.put("expires_at", new Date(session.expiresAtMillis));
+      return delta;
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  private LineChanges patch(CheckoutSession session, JsonNode patch) {
+    requireOpen(session);
+    if (patch == null || !patch.isObject()) {
+      throw new InvalidPatchException("merge patch must be a JSON object");
     }
-    if (req != null && req.getLineItems() != null && !req.getLineItems().isEmpty()) {
-      session.lineItems = buildLineItemsFromUpdate(req.getLineItems());
+    LineChanges changes = new LineChanges();
+    JsonNode lineItems = patch.get("line_items");
+    if (lineItems != null) {
+      PricedCart cart = cart(session);
+      long pricingStart = pricingTimer.start();
+      try {
+        if (lineItems.isObject()) {
+          patchCart(cart, lineItems, changes);
+        } else if (lineItems.isArray() || lineItems.isNull()) {
+          List<LineItemUpdateRequest> reqItems =
+              lineItems.isNull()
+                  ? List.of()
+                  : List.of(mapper.convertValue(lineItems, LineItemUpdateRequest[].class));
+          updateCart(cart, reqItems, changes);
+        } else {
+          throw new InvalidPatchException(
+              "line_items must be an object keyed by line item id, an array or null");
+        }
+      } catch (IllegalArgumentException | InvalidPatchException | ArithmeticException e) {
+        // The cart may be half patched; rebuilt from the unchanged session.lineItems on next use.
+        session.cart = null;
+        throw e instanceof IllegalArgumentException ? new InvalidPatchException(e.getMessage()) : e;
+      } finally {
+        pricingTimer.stop(pricingStart);
+      }
+      if (!changes.isEmpty()) {
+        commitLines(session, cart);
+      }
     }
     session.status = CheckoutResponse.Status.READY_FOR_COMPLETE;
-    return toResponse(session, platformProfile);
+    extendExpiry(session);
+    changed(CheckoutSessionStore.Transition.UPDATE, session);
+    return changes;
+  }
+
+  /** Re-holds stock for {@code cart} and makes it the session's line items. */
+  private void commitLines(CheckoutSession session, PricedCart cart) {
+    try {
+      session.reservation = inventory.reserve(session.id, session.reservation, quantities(cart));
+    } catch (InsufficientStockException e) {
+      // Rebuilt from the unchanged session.lineItems on next use.
+      session.cart = null;
+      throw e;
+    }
+    session.lineItems = cart.lineItems();
   }
 
+  /**
+   * Cancels the checkout and returns the stock it holds.
+   *
+   * @throws IllegalArgumentException if the checkout does not exist
+   * @throws CheckoutStateException if the checkout is completed; its order stands
+   */
   public CheckoutResponse cancelCheckout(String checkoutId, JsonNode platformProfile) {
-    CheckoutSession session = sessions.get(checkoutId);
-    if (session == null) throw new IllegalArgumentException("checkout not found");
-    session.status = CheckoutResponse.Status.CANCELED;
-    return toResponse(session, platformProfile);
+    CheckoutSession session = requireSession(checkoutId);
+    session.lock.lock();
+    try {
+      if (session.status == CheckoutResponse.Status.COMPLETED) {
+        throw new CheckoutStateException(checkoutId, session.status);
+      }
+      session.status = CheckoutResponse.Status.CANCELED;
+      inventory.release(session.reservation);
+      session.reservation = null;
+      changed(CheckoutSessionStore.Transition.CANCEL, session);
+      return toResponse(session, platformProfile);
+    } finally {
+      session.lock.unlock();
+    }
   }
 
+  /**
+   * Selects a mock card instrument for the checkout.
+   *
+   * @throws IllegalArgumentException if the checkout does not exist
+   * @throws CheckoutStateException if the checkout is already completed or canceled
+   */
   public CheckoutResponse mintInstrument(String checkoutId, JsonNode platformProfile) {
-    CheckoutSession session = sessions.get(checkoutId);
-    if (session == null) throw new IllegalArgumentException("checkout not found");
+    CheckoutSession session = requireSession(checkoutId);
+    session.lock.lock();
+    try {
+      requireOpen(session);
+      return mintInstrument(session, platformProfile);
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  private CheckoutResponse mintInstrument(CheckoutSession session, JsonNode platformProfile) {
+    String checkoutId = session.id;
     Map<String, Object> instrument = new HashMap<>();
     instrument.put("id", "inst_" + checkoutId);
     instrument.put("handler_id", "mock_payment_handler");
@@ -94,12 +364,58 @@ public class CheckoutService {
     session.payment.getInstruments().add(mapper.convertValue(instrument, Object.class));
     session.payment.setSelectedInstrumentId("inst_" + checkoutId);
     session.status = CheckoutResponse.Status.READY_FOR_COMPLETE;
+    extendExpiry(session);
+    changed(CheckoutSessionStore.Transition.MINT_INSTRUMENT, session);
     return toResponse(session, platformProfile);
   }
 
+  /**
+   * Completes the checkout, selling the stock it holds and issuing its order.
+   *
+   * @throws IllegalArgumentException if the checkout does not exist
+   * @throws CheckoutStateException if the checkout is already completed or canceled, or its stock
+   *     was released while completing it
+   * @throws InsufficientStockException if the checkout holds no stock and too little is left
+   */
   public CheckoutResponse completeCheckout(String checkoutId, JsonNode paymentPayload) {
-    CheckoutSession session = sessions.get(checkoutId);
-    if (session == null) throw new IllegalArgumentException("checkout not found");
+    CheckoutSession session = requireSession(checkoutId);
+    session.lock.lock();
+    try {
+      return completeCheckout(session, paymentPayload);
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  /**
+   * Registers a callback invoked with the response of every completed checkout, which carries the
+   * new order. Called on the request thread with the session's lock held, so listeners must hand
+   * the work off rather than do it; the response is not changed afterwards and may be read later.
+   */
+  public void addOrderListener(Consumer<CheckoutResponse> listener) {
+    orderListeners.add(listener);
+  }
+
+  /** Counters of the underlying session store. */
+  public CheckoutSessionStore.Stats sessionStats() {
+    return sessions.stats();
+  }
+
+  private CheckoutResponse completeCheckout(CheckoutSession session, JsonNode paymentPayload) {
+    String checkoutId = session.id;
+    requireOpen(session);
+    if (session.reservation == null || !session.reservation.isHeld()) {
+      // Restored without stock or released by expiry: hold the units again before selling them.
+      session.reservation = inventory.reserve(checkoutId, null, quantities(cart(session)));
+    }
+    if (!inventory.commit(session.reservation)) {
+      // Expiry released it after the check above, without the session lock; hold it once more.
+      session.reservation = inventory.reserve(checkoutId, null, quantities(cart(session)));
+      if (!inventory.commit(session.reservation)) {
+        session.reservation = null;
+        throw new CheckoutStateException("checkout " + checkoutId + " lost its stock to expiry");
+      }
+    }
     session.status = CheckoutResponse.Status.COMPLETED;
 
     if (paymentPayload != null && paymentPayload.has("payment_data")) {
@@ -113,14 +429,27 @@ public class CheckoutService {
       session.payment.getInstruments().clear();
       session.payment.getInstruments().add(mapper.convertValue(paymentData, Object.class));
     }
+    changed(CheckoutSessionStore.Transition.COMPLETE, session);
 
     CheckoutResponse resp = toResponse(session, mapper.createObjectNode());
     resp.setStatus(CheckoutResponse.Status.COMPLETED);
+    // Listeners may read the response after the lock is released; detach it from the session.
+    resp.setPayment(
+        new PaymentResponse()
+            .withHandlers(session.payment.getHandlers())
+            .withSelectedInstrumentId(session.payment.getSelectedInstrumentId())
+            .withInstruments(
+                session.payment.getInstruments() != null
+                    ? List.copyOf(session.payment.getInstruments())
+                    : null));
     var order = new io.deeplumen.ucp.models.schemas.shopping.OrderConfirmation();
     String orderId = "order_" + checkoutId;
     order.setId(orderId);
     order.setPermalinkUrl(URI.create("https://example.com/orders/" + orderId));
     resp.setOrder(order);
+    for (Consumer<CheckoutResponse> listener : orderListeners) {
+      listener.accept(resp);
+    }
     return resp;
   }
 
@@ -129,82 +458,263 @@ public class CheckoutService {
     resp.setId(session.id);
     resp.setStatus(session.status);
     resp.setCurrency("USD");
-    resp.setLineItems(session.lineItems);
-    resp.setTotals(buildTotals(session.lineItems));
+    PricedCart cart = cart(session);
+    resp.setLineItems(cart.lineItems());
+    resp.setTotals(cart.totals());
     resp.setPayment(session.payment);
-    resp.setUcp(buildUcpMeta());
-    resp.setContinueUrl(URI.create("https://example.com/continue/" + session.id));
-    resp.setExpiresAt(Date.from(Instant.now().plusSeconds(3600)));
+    resp.setUcp(fragments.ucpMeta);
+    if (session.continueUrl == null) {
+      session.continueUrl = URI.create("https://example.com/continue/" + session.id);
+    }
+    resp.setContinueUrl(session.continueUrl);
+    resp.setExpiresAt(new Date(session.expiresAtMillis));
     return resp;
   }
 
-  private UCPCheckoutResponse buildUcpMeta() {
-    UCPCheckoutResponse ucpMeta = new UCPCheckoutResponse();
-    ucpMeta.setVersion(PROTOCOL_VERSION);
-    ucpMeta.setCapabilities(capabilitiesForResponse());
-    return ucpMeta;
+  private PricedCart cart(CheckoutSession session) {
+    if (session.cart == null) {
+      long start = pricingTimer.start();
+      session.cart = pricing.restore(session.lineItems);
+      pricingTimer.stop(start);
+    }
+    return session.cart;
+  }
+
+  /** Units per product id across the cart's lines. */
+  private static Map<String, Long> quantities(PricedCart cart) {
+    Map<String, Long> quantities = new LinkedHashMap<>();
+    for (int i = 0; i < cart.size(); i++) {
+      PricedLine line = cart.line(i);
+      if (line.productId() != null) {
+        quantities.merge(line.productId(), (long) line.quantity(), Long::sum);
+      }
+    }
+    return quantities;
+  }
+
+  /** Rejects changes to a completed or canceled session, whose lock is held. */
+  private static void requireOpen(CheckoutSession session) {
+    if (session.status == CheckoutResponse.Status.COMPLETED
+        || session.status == CheckoutResponse.Status.CANCELED) {
+      throw new CheckoutStateException(session.id, session.status);
+    }
+  }
+
+  private void restoreReservation(CheckoutSession session) {
+    session.lock.lock();
+    try {
+      if (session.status == CheckoutResponse.Status.COMPLETED
+          || session.status == CheckoutResponse.Status.CANCELED) {
+        return;
+      }
+      try {
+        session.reservation = inventory.reserve(session.id, null, quantities(cart(session)));
+      } catch (InsufficientStockException e) {
+        log.warn("Restored checkout {} holds no stock: {}", session.id, e.getMessage());
+      }
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  private CheckoutSession requireSession(String checkoutId) {
+    long start = sessionLookupTimer.start();
+    CheckoutSession session = sessions.get(checkoutId);
+    sessionLookupTimer.stop(start);
+    if (session == null) {
+      throw new IllegalArgumentException("checkout not found");
+    }
+    return session;
+  }
+
+  /**
+   * Records a transition of {@code session}, whose lock is held, and retires its cached response.
+   * The version is bumped after the change, so a concurrent {@link #getCheckoutSnapshot} reader
+   * sees either the previous snapshot or the new state, never a mix.
+   */
+  private void changed(CheckoutSessionStore.Transition transition, CheckoutSession session) {
+    session.version++;
+    session.snapshot = null;
+    sessions.record(transition, session);
+  }
+
+  private long nextExpiry() {
+    return System.currentTimeMillis() + sessionTtlMillis;
   }
 
-  private List<Object> capabilitiesForResponse() {
-    return List.of(
-        Map.of("name", "dev.ucp.shopping.checkout", "version", PROTOCOL_VERSION),
-        Map.of("name", "dev.ucp.shopping.fulfillment", "version", PROTOCOL_VERSION));
+  private void extendExpiry(CheckoutSession session) {
+    session.expiresAtMillis = nextExpiry();
+    sessions.touch(session);
   }
 
   private PaymentResponse buildPaymentSection() {
     PaymentResponse payment = new PaymentResponse();
-    PaymentHandlerResponse handler = new PaymentHandlerResponse();
-    handler.setId("mock_payment_handler");
-    handler.setName("dev.ucp.mock_payment");
-    handler.setVersion(PROTOCOL_VERSION);
-    handler.setSpec(URI.create("https://ucp.dev/specs/mock"));
-    handler.setConfigSchema(URI.create("https://ucp.dev/schemas/mock.json"));
-    handler.setInstrumentSchemas(
-        List.of(URI.create("https://ucp.dev/schemas/shopping/types/card_payment_instrument.json")));
-    var config = new io.deeplumen.ucp.models.discovery.Config();
-    config.setAdditionalProperty("supported_tokens", List.of("success_token", "fail_token"));
-    handler.setConfig(config);
-    payment.setHandlers(List.of(handler));
+    payment.setHandlers(fragments.paymentHandlers);
     return payment;
   }
 
-  private List<LineItemResponse> buildLineItems(List<LineItemCreateRequest> reqItems) {
-    List<LineItemResponse> result = new ArrayList<>();
+  private PricedCart buildCart(List<LineItemCreateRequest> reqItems) {
+    PricedCart cart = pricing.newCart();
     if (reqItems == null || reqItems.isEmpty()) {
-      Product p = products.values().stream().findFirst().orElseThrow();
-      result.add(buildLineItem("item_1", p, 1));
-      return result;
+      Product p = catalog.defaultProduct();
+      cart.add(priceLine("item_1", p, 1));
+      return cart;
     }
     int idx = 1;
     for (LineItemCreateRequest req : reqItems) {
-      String productId =
-          req.getItem() != null
-              ? req.getItem().getId()
-              : products.keySet().stream().findFirst().orElse(null);
-      Product p = resolveProduct(productId);
-      int qty = req.getQuantity() != null ? req.getQuantity() : 1;
-      result.add(buildLineItem("item_" + idx++, p, qty));
+      if (req == null) {
+        throw new InvalidPatchException("line item " + (idx - 1) + " must be an object");
+      }
+      Product p = catalog.resolve(req.getItem() != null ? req.getItem().getId() : null);
+      int qty = quantity(req.getQuantity(), idx - 1);
+      cart.add(priceLine("item_" + idx++, p, qty));
     }
-    return result;
+    return cart;
   }
 
-  private List<LineItemResponse> buildLineItemsFromUpdate(
-      List<io.deeplumen.ucp.models.schemas.shopping.LineItemUpdateRequest> reqItems) {
-    List<LineItemResponse> result = new ArrayList<>();
-    int idx = 1;
-    for (var req : reqItems) {
-      String productId =
-          req.getItem() != null
-              ? req.getItem().getId()
-              : products.keySet().stream().findFirst().orElse(null);
-      Product p = resolveProduct(productId);
-      int qty = req.getQuantity() != null ? req.getQuantity() : 1;
-      result.add(buildLineItem("item_" + idx++, p, qty));
+  /** A requested line quantity: 1 when absent. */
+  private static int quantity(Integer quantity, int index) {
+    if (quantity == null) {
+      return 1;
+    }
+    if (quantity < 1) {
+      throw new InvalidPatchException("line_items/" + index + "/quantity must be at least 1");
     }
-    return result.isEmpty() ? buildLineItems(null) : result;
+    return quantity;
   }
 
-  private LineItemResponse buildLineItem(String id, Product p, int qty) {
+  /**
+   * Replaces {@code cart}'s lines with an update's line items, in their order. An item with an
+   * {@code id} stands for the line with that id, an item without one for the line at its position;
+   * such a line keeps its priced line if its product and quantity are unchanged. Items naming no
+   * line are added with a new id. Only changed, added or removed lines adjust the cart totals.
+   */
+  private void updateCart(
+      PricedCart cart, List<LineItemUpdateRequest> reqItems, LineChanges changes) {
+    // The lines as they were: slots are overwritten below while later items may still name them.
+    PricedLine[] before = new PricedLine[cart.size()];
+    Map<String, PricedLine> byId = new HashMap<>(before.length * 2);
+    for (int i = 0; i < before.length; i++) {
+      before[i] = cart.line(i);
+      byId.putIfAbsent(before[i].lineItem().getId(), before[i]);
+    }
+    Set<String> named = new HashSet<>();
+    for (LineItemUpdateRequest req : reqItems) {
+      if (req != null && req.getId() != null) {
+        named.add(req.getId());
+      }
+    }
+    int idx = 0;
+    for (LineItemUpdateRequest req : reqItems) {
+      if (req == null) {
+        throw new InvalidPatchException("line item " + idx + " must be an object");
+      }
+      // Each line is taken once, and a line named by id anywhere is not taken by position.
+      PricedLine current = null;
+      if (req.getId() != null) {
+        current = byId.remove(req.getId());
+      } else if (idx < before.length && !named.contains(before[idx].lineItem().getId())) {
+        current = byId.remove(before[idx].lineItem().getId());
+      }
+      Product p = catalog.resolve(req.getItem() != null ? req.getItem().getId() : null);
+      int qty = quantity(req.getQuantity(), idx);
+      PricedLine line = current;
+      if (current == null || !p.id().equals(current.productId()) || qty != current.quantity()) {
+        String id = current != null ? current.lineItem().getId() : cart.nextLineId();
+        line = priceLine(id, p, qty);
+        changes.changed().add(line);
+      }
+      if (idx < cart.size()) {
+        cart.set(idx, line);
+      } else {
+        cart.add(line);
+      }
+      idx++;
+    }
+    cart.truncate(idx);
+    Set<String> kept = new HashSet<>(idx * 2);
+    for (int i = 0; i < cart.size(); i++) {
+      kept.add(cart.line(i).lineItem().getId());
+    }
+    for (PricedLine line : before) {
+      if (!kept.contains(line.lineItem().getId())) {
+        changes.removed().add(line.lineItem().getId());
+      }
+    }
+  }
+
+  /**
+   * Merges a {@code line_items} patch keyed by line item id into {@code cart}, touching only the
+   * lines it names.
+   */
+  private void patchCart(PricedCart cart, JsonNode lineItems, LineChanges changes) {
+    Set<String> removed = new HashSet<>();
+    for (Iterator<Map.Entry<String, JsonNode>> it = lineItems.fields(); it.hasNext(); ) {
+      Map.Entry<String, JsonNode> entry = it.next();
+      String id = entry.getKey();
+      JsonNode patch = entry.getValue();
+      int index = cart.indexOf(id);
+      if (patch.isNull()) {
+        // Removing a line that is not there is a no-op, as for any absent member.
+        if (index >= 0) {
+          removed.add(id);
+        }
+        continue;
+      }
+      if (!patch.isObject()) {
+        throw new InvalidPatchException("line_items/" + id + " must be an object or null");
+      }
+      PricedLine current = index >= 0 ? cart.line(index) : null;
+      String productId = current != null ? current.productId() : null;
+      int qty = current != null ? current.quantity() : 1;
+      JsonNode item = patch.get("item");
+      if (item != null) {
+        JsonNode itemId = item.get("id");
+        if (!item.isObject() || (itemId != null && !itemId.isTextual())) {
+          throw new InvalidPatchException("line_items/" + id + "/item must have a string id");
+        }
+        if (itemId != null) {
+          productId = itemId.textValue();
+        }
+      }
+      JsonNode quantity = patch.get("quantity");
+      if (quantity != null) {
+        if (!quantity.isIntegralNumber()
+            || !quantity.canConvertToInt()
+            || quantity.intValue() < 1) {
+          throw new InvalidPatchException("line_items/" + id + "/quantity must be at least 1");
+        }
+        qty = quantity.intValue();
+      }
+      if (current != null
+          && Objects.equals(productId, current.productId())
+          && qty == current.quantity()) {
+        continue;
+      }
+      PricedLine line = priceLine(id, catalog.resolve(productId), qty);
+      if (index >= 0) {
+        cart.set(index, line);
+      } else {
+        cart.add(line);
+      }
+      changes.changed().add(line);
+    }
+    cart.remove(removed);
+    changes.removed().addAll(removed);
+  }
+
+  /** Lines a patch or update repriced or added, and the ids of the lines it removed. */
+  private record LineChanges(List<PricedLine> changed, List<String> removed) {
+    LineChanges() {
+      this(new ArrayList<>(), new ArrayList<>());
+    }
+
+    boolean isEmpty() {
+      return changed.isEmpty() && removed.isEmpty();
+    }
+  }
+
+  private PricedLine priceLine(String id, Product p, int qty) {
     LineItemResponse li = new LineItemResponse();
     li.setId(id);
     ItemResponse item = new ItemResponse();
@@ -216,77 +726,6 @@ public class CheckoutService {
     }
     li.setItem(item);
     li.setQuantity(qty);
-    li.setTotals(buildLineTotals(p.priceCents() * qty));
-    return li;
-  }
-
-  private List<TotalResponse> buildLineTotals(int amount) {
-    TotalResponse subtotal = new TotalResponse();
-    subtotal.setType(Type.SUBTOTAL);
-    subtotal.setAmount(amount);
-    TotalResponse total = new TotalResponse();
-    total.setType(Type.TOTAL);
-    total.setAmount(amount);
-    return List.of(subtotal, total);
-  }
-
-  private List<TotalResponse> buildTotals(List<LineItemResponse> lineItems) {
-    int subtotalAmount =
-        lineItems.stream()
-            .mapToInt(
-                li ->
-                    li.getTotals().stream()
-                        .filter(t -> t.getType() == Type.TOTAL)
-                        .mapToInt(TotalResponse::getAmount)
-                        .findFirst()
-                        .orElse(0))
-            .sum();
-    int shipping = 599;
-    TotalResponse subtotal = new TotalResponse();
-    subtotal.setType(Type.SUBTOTAL);
-    subtotal.setAmount(subtotalAmount);
-    TotalResponse fulfillment = new TotalResponse();
-    fulfillment.setType(Type.FULFILLMENT);
-    fulfillment.setDisplayText("Standard Shipping");
-    fulfillment.setAmount(shipping);
-    TotalResponse total = new TotalResponse();
-    total.setType(Type.TOTAL);
-    total.setAmount(subtotalAmount + shipping);
-    return List.of(subtotal, fulfillment, total);
-  }
-
-  private Product resolveProduct(String productId) {
-    if (productId == null || productId.isBlank()) {
-      return products.values().stream().findFirst().orElseThrow();
-    }
-    Product product = products.get(productId);
-    if (product != null) {
-      return product;
-    }
-    Product seed = products.values().stream().findFirst().orElse(null);
-    int price = seed != null ? seed.priceCents() : 1000;
-    String currency = seed != null ? seed.currency() : "USD";
-    Product fallback =
-        new Product(productId, "Item " + productId, price, currency, null, "misc");
-    products.put(productId, fallback);
-    return fallback;
-  }
-
-  private static class CheckoutSession {
-    final String id;
-    List<LineItemResponse> lineItems;
-    PaymentResponse payment;
-    CheckoutResponse.Status status;
-
-    CheckoutSession(
-        String id,
-        List<LineItemResponse> lineItems,
-        PaymentResponse payment,
-        CheckoutResponse.Status status) {
-      this.id = id;
-      this.lineItems = lineItems;
-      this.payment = payment;
-      this.status = status;
-    }
+    return pricing.price(li, p, qty);
   }
 }
@@ -0,0 +1,63 @@
+package io.deeplumen.ucp.samples.java.service;
+
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import io.deeplumen.ucp.models.schemas.shopping.LineItemResponse;
+import io.deeplumen.ucp.models.schemas.shopping.PaymentResponse;
+import io.deeplumen.ucp.samples.java.inventory.Reservation;
+import io.deeplumen.ucp.samples.java.pricing.PricedCart;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mutable state of one checkout session.
+ *
+ * <p>Fields are guarded by {@link #lock}; {@link CheckoutService} holds it for the duration of
+ * every read-modify-write so concurrent requests for the same checkout are serialized. It is a
+ * {@link ReentrantLock} rather than the session's monitor because the holder may wait for a journal
+ * fsync, which would pin a virtual thread to its carrier under {@code synchronized}.
+ */
+public final class CheckoutSession {
+  final ReentrantLock lock = new ReentrantLock();
+  final String id;
+  List<LineItemResponse> lineItems;
+  // Priced view of lineItems; null until first needed for sessions restored from the journal.
+  PricedCart cart;
+  // Stock held for the cart; volatile because expiry releases it without the lock.
+  volatile Reservation reservation;
+  PaymentResponse payment;
+  CheckoutResponse.Status status;
+  volatile long expiresAtMillis;
+  // Built on first response; constant for the session.
+  URI continueUrl;
+  // Incremented under the lock by every transition; read without it to validate snapshot.
+  volatile long version;
+  // Serialized response at some version, or null; see CheckoutService#getCheckoutSnapshot.
+  volatile CheckoutSnapshot snapshot;
+
+  CheckoutSession(
+      String id,
+      List<LineItemResponse> lineItems,
+      PaymentResponse payment,
+      CheckoutResponse.Status status,
+      long expiresAtMillis) {
+    this.id = id;
+    this.lineItems = lineItems;
+    this.payment = payment;
+    this.status = status;
+    this.expiresAtMillis = expiresAtMillis;
+  }
+
+  public String id() {
+    return id;
+  }
+
+  /** Wall-clock expiry in epoch milliseconds. */
+  public long expiresAtMillis() {
+    return expiresAtMillis;
+  }
+
+  boolean isExpired(long nowMillis) {
+    return expiresAtMillis <= nowMillis;
+  }
+}
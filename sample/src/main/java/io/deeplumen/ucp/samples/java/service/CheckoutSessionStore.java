@@ -0,0 +1,66 @@
+package io.deeplumen.ucp.samples.java.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Storage for live checkout sessions.
+ *
+ * <p>Implementations must be safe for concurrent use, must stop returning a session once its
+ * {@link CheckoutSession#expiresAtMillis() expiry} has passed, and must enforce a bound on the
+ * number of live sessions according to their {@link OverflowPolicy}.
+ */
+public interface CheckoutSessionStore {
+
+  /** Returns the live session with {@code id}, or {@code null} if it is unknown or expired. */
+  CheckoutSession get(String id);
+
+  /**
+   * Stores a new session.
+   *
+   * @throws SessionStoreFullException if the store is full and its policy is {@link
+   *     OverflowPolicy#REJECT}
+   */
+  void put(CheckoutSession session);
+
+  /** Re-schedules expiry after the session's {@code expiresAtMillis} was changed. */
+  void touch(CheckoutSession session);
+
+  /** Removes the session with {@code id}, returning it if it was live. */
+  CheckoutSession remove(String id);
+
+  /**
+   * Records a state transition of a stored session. Called with the session's lock held, after the
+   * mutation was applied. Durable stores persist the new state before returning.
+   */
+  default void record(Transition transition, CheckoutSession session) {}
+
+  /** Registers a callback invoked whenever a live session leaves the store for any reason. */
+  void addRemovalListener(Consumer<CheckoutSession> listener);
+
+  /** Visits every live session. */
+  void forEach(Consumer<CheckoutSession> action);
+
+  int size();
+
+  Stats stats();
+
+  /** Session state transitions reported through {@link #record}. */
+  enum Transition {
+    CREATE,
+    UPDATE,
+    MINT_INSTRUMENT,
+    COMPLETE,
+    CANCEL
+  }
+
+  /** What to do when a new session arrives while the store holds its maximum. */
+  enum OverflowPolicy {
+    /** Refuse the new session with {@link SessionStoreFullException}. */
+    REJECT,
+    /** Evict the live session closest to expiry to make room. */
+    EVICT_OLDEST
+  }
+
+  /** Point-in-time counters. */
+  record Stats(long hits, long misses, long evictions, long expirations, int size) {}
+}
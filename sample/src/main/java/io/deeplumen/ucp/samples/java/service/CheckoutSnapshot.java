@@ -0,0 +1,7 @@
+package io.deeplumen.ucp.samples.java.service;
+
+/**
+ * Serialized response of a checkout at one session {@code version}, with the strong {@code etag}
+ * derived from it. The body is shared between requests and must not be modified.
+ */
+public record CheckoutSnapshot(long version, String etag, byte[] body) {}
@@ -0,0 +1,14 @@
+package io.deeplumen.ucp.samples.java.service;
+
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+
+/** Raised when a checkout's status does not allow the requested transition. */
+public class CheckoutStateException extends IllegalStateException {
+  public CheckoutStateException(String checkoutId, CheckoutResponse.Status status) {
+    super("checkout " + checkoutId + " is " + status.value());
+  }
+
+  public CheckoutStateException(String message) {
+    super(message);
+  }
+}
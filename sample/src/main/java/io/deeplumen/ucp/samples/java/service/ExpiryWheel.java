@@ -0,0 +1,131 @@
+package io.deeplumen.ucp.samples.java.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Hashed timing wheel over session expiry times.
+ *
+ * <p>Each bucket covers one tick. Scheduling is a lock-free append to the bucket of the session's
+ * deadline, and every session has exactly one entry. A session whose deadline lies more than one
+ * rotation ahead, or whose deadline was extended after it was scheduled, is carried over when its
+ * bucket comes round, so extending a deadline needs no wheel operation at all. Deadlines may only
+ * move forward. Entries of sessions that are no longer live are dropped when their bucket is
+ * processed. Only one thread may call {@link #advance}.
+ *
+ * <p>{@link #evictEarliest} resumes from the tick where the previous eviction found its session,
+ * lowered whenever a session is scheduled before it, so evicting on every insert into a full store
+ * does not rescan the empty and drained buckets ahead of the earliest deadline.
+ */
+final class ExpiryWheel {
+  private final long tickMillis;
+  private final int mask;
+  private final AtomicReferenceArray<Queue<CheckoutSession>> buckets;
+  private volatile long processedTick;
+  // No bucket before this tick holds an evictable session; only a hint, the scan still wraps.
+  private final AtomicLong evictFrom;
+  // Bucket swapped out by the previous tick; re-drained once to pick up racing appends.
+  private Queue<CheckoutSession> previous = new ConcurrentLinkedQueue<>();
+
+  ExpiryWheel(long tickMillis, int size, long nowMillis) {
+    if (Integer.bitCount(size) != 1) {
+      throw new IllegalArgumentException("wheel size must be a power of two");
+    }
+    this.tickMillis = tickMillis;
+    this.mask = size - 1;
+    this.buckets = new AtomicReferenceArray<>(size);
+    for (int i = 0; i < size; i++) {
+      buckets.set(i, new ConcurrentLinkedQueue<>());
+    }
+    this.processedTick = nowMillis / tickMillis;
+    this.evictFrom = new AtomicLong(processedTick + 1);
+  }
+
+  void schedule(CheckoutSession session) {
+    add(Math.max(session.expiresAtMillis / tickMillis, processedTick + 1), session);
+  }
+
+  private void add(long tick, CheckoutSession session) {
+    buckets.get((int) (tick & mask)).add(session);
+    if (tick < evictFrom.get()) {
+      evictFrom.accumulateAndGet(tick, Math::min);
+    }
+  }
+
+  /**
+   * Processes every tick up to {@code nowMillis}, passing sessions whose deadline has passed to
+   * {@code expire}. Entries for which {@code live} is false are discarded.
+   */
+  void advance(long nowMillis, Predicate<CheckoutSession> live, Consumer<CheckoutSession> expire) {
+    long target = nowMillis / tickMillis;
+    long tick = processedTick;
+    long limit = Math.min(target, tick + mask + 1);
+    while (tick < limit) {
+      tick++;
+      int idx = (int) (tick & mask);
+      Queue<CheckoutSession> due = buckets.getAndSet(idx, new ConcurrentLinkedQueue<>());
+      processedTick = tick;
+      drain(previous, tick, nowMillis, live, expire);
+      drain(due, tick, nowMillis, live, expire);
+      previous = due;
+    }
+    processedTick = Math.max(processedTick, target);
+  }
+
+  private void drain(
+      Queue<CheckoutSession> due,
+      long tick,
+      long nowMillis,
+      Predicate<CheckoutSession> live,
+      Consumer<CheckoutSession> expire) {
+    for (CheckoutSession session; (session = due.poll()) != null; ) {
+      if (!live.test(session)) {
+        continue;
+      }
+      if (session.isExpired(nowMillis)) {
+        expire.accept(session);
+      } else if (session.expiresAtMillis / tickMillis <= tick) {
+        // Deadline falls inside this tick but later than "now": keep it for the next tick.
+        add(tick + 1, session);
+      } else {
+        schedule(session);
+      }
+    }
+  }
+
+  /**
+   * Evicts the live session closest to its deadline, scanning forward from the earliest tick that
+   * may hold one. Returns {@code false} when nothing could be evicted.
+   */
+  boolean evictEarliest(Predicate<CheckoutSession> live, Predicate<CheckoutSession> evict) {
+    long from = evictFrom.get();
+    long start = Math.max(from, processedTick + 1);
+    for (long tick = start; tick <= start + mask; tick++) {
+      Queue<CheckoutSession> bucket = buckets.get((int) (tick & mask));
+      for (CheckoutSession session : bucket) {
+        if (!live.test(session)) {
+          bucket.remove(session);
+          continue;
+        }
+        long due = session.expiresAtMillis / tickMillis;
+        if (due > tick) {
+          // Extended since it was scheduled: move it to its own bucket if that is still ahead in
+          // this scan, so later evictions do not step over it here again.
+          if (due <= start + mask && bucket.remove(session)) {
+            add(Math.max(due, processedTick + 1), session);
+          }
+          continue;
+        }
+        if (bucket.remove(session) && evict.test(session)) {
+          evictFrom.compareAndSet(from, tick);
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
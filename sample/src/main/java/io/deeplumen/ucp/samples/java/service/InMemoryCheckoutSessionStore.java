@@ -0,0 +1,171 @@
+package io.deeplumen.ucp.samples.java.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Default {@link CheckoutSessionStore}: a {@link ConcurrentHashMap} plus an {@link ExpiryWheel}.
+ *
+ * <p>Reads and writes are lock-free (the map is internally striped). Expired sessions are evicted by
+ * a single daemon thread that advances the wheel once per tick; {@link #get} also treats a session
+ * past its deadline as missing, so expiry is exact even between ticks. The store keeps no per-entry
+ * timer objects, which keeps the footprint of millions of idle carts to the map entry, one queue
+ * node and the session itself.
+ */
+public class InMemoryCheckoutSessionStore implements CheckoutSessionStore, AutoCloseable {
+  private static final int WHEEL_SIZE = 4096;
+
+  private final ConcurrentHashMap<String, CheckoutSession> sessions;
+  private final ExpiryWheel wheel;
+  private final int maxSessions;
+  private final OverflowPolicy overflowPolicy;
+  private final ScheduledExecutorService ticker;
+  private final AtomicInteger size = new AtomicInteger();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+  private final List<Consumer<CheckoutSession>> removalListeners = new CopyOnWriteArrayList<>();
+
+  public InMemoryCheckoutSessionStore(
+      int maxSessions, OverflowPolicy overflowPolicy, Duration tick) {
+    if (maxSessions < 1) {
+      throw new IllegalArgumentException("maxSessions must be positive");
+    }
+    this.maxSessions = maxSessions;
+    this.overflowPolicy = overflowPolicy;
+    this.sessions = new ConcurrentHashMap<>(Math.min(maxSessions, 1 << 16));
+    long tickMillis = Math.max(1, tick.toMillis());
+    this.wheel = new ExpiryWheel(tickMillis, WHEEL_SIZE, System.currentTimeMillis());
+    this.ticker =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread t = new Thread(r, "checkout-session-expiry");
+              t.setDaemon(true);
+              return t;
+            });
+    ticker.scheduleAtFixedRate(this::expire, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public CheckoutSession get(String id) {
+    CheckoutSession session = sessions.get(id);
+    if (session == null) {
+      misses.increment();
+      return null;
+    }
+    if (session.isExpired(System.currentTimeMillis())) {
+      if (evict(session)) {
+        expirations.increment();
+      }
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return session;
+  }
+
+  @Override
+  public void put(CheckoutSession session) {
+    // Claim a slot before inserting, so concurrent puts cannot all pass the capacity check.
+    for (int n = size.get(); ; n = size.get()) {
+      if (n < maxSessions) {
+        if (size.compareAndSet(n, n + 1)) {
+          break;
+        }
+        continue;
+      }
+      if (overflowPolicy == OverflowPolicy.REJECT) {
+        throw new SessionStoreFullException(maxSessions);
+      }
+      if (!wheel.evictEarliest(this::isLive, this::evict)) {
+        throw new SessionStoreFullException(maxSessions);
+      }
+      evictions.increment();
+    }
+    if (sessions.put(session.id, session) != null) {
+      // Replaced a session with the same id, which already held a slot.
+      size.decrementAndGet();
+    }
+    wheel.schedule(session);
+  }
+
+  @Override
+  public void touch(CheckoutSession session) {
+    // Deadlines only move forward; the wheel carries the existing entry over when it comes due.
+  }
+
+  @Override
+  public CheckoutSession remove(String id) {
+    CheckoutSession removed = sessions.remove(id);
+    if (removed != null) {
+      size.decrementAndGet();
+      notifyRemoved(removed);
+    }
+    return removed;
+  }
+
+  @Override
+  public void addRemovalListener(Consumer<CheckoutSession> listener) {
+    removalListeners.add(listener);
+  }
+
+  @Override
+  public void forEach(Consumer<CheckoutSession> action) {
+    sessions.values().forEach(action);
+  }
+
+  @Override
+  public int size() {
+    return size.get();
+  }
+
+  @Override
+  public Stats stats() {
+    return new Stats(
+        hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size.get());
+  }
+
+  @Override
+  public void close() {
+    ticker.shutdownNow();
+  }
+
+  private void expire() {
+    wheel.advance(
+        System.currentTimeMillis(),
+        this::isLive,
+        session -> {
+          if (evict(session)) {
+            expirations.increment();
+          }
+        });
+  }
+
+  private boolean isLive(CheckoutSession session) {
+    return sessions.get(session.id) == session;
+  }
+
+  private boolean evict(CheckoutSession session) {
+    if (sessions.remove(session.id, session)) {
+      size.decrementAndGet();
+      notifyRemoved(session);
+      return true;
+    }
+    return false;
+  }
+
+  private void notifyRemoved(CheckoutSession session) {
+    for (Consumer<CheckoutSession> listener : removalListeners) {
+      listener.accept(session);
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package io.deeplumen.ucp.samples.java.service;
+
+/**
+ * Raised when a create, update or merge patch sets a checkout member to a value the session cannot
+ * hold.
+ */
+public class InvalidPatchException extends RuntimeException {
+  public InvalidPatchException(String message) {
+    super(message);
+  }
+}
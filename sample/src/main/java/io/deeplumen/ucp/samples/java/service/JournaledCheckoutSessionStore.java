@@ -0,0 +1,209 @@
+package io.deeplumen.ucp.samples.java.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import io.deeplumen.ucp.models.schemas.shopping.LineItemResponse;
+import io.deeplumen.ucp.models.schemas.shopping.PaymentResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link CheckoutSessionStore} that keeps sessions in an {@link InMemoryCheckoutSessionStore} and
+ * journals every state transition to a {@link SessionJournal} on local disk.
+ *
+ * <p>On startup the in-memory index is rebuilt from the newest snapshot plus the journal tail;
+ * sessions that expired while the server was down are dropped. A background task periodically
+ * writes a compacted snapshot so the journal, and therefore recovery time, stays bounded.
+ *
+ * <p>With {@link Durability#GROUP_COMMIT} a transition returns only after its record is on disk;
+ * concurrent transitions share one {@code fsync}. {@link Durability#ASYNC} returns immediately and
+ * relies on the journal's background flush.
+ */
+public class JournaledCheckoutSessionStore implements CheckoutSessionStore, AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(JournaledCheckoutSessionStore.class);
+
+  private final InMemoryCheckoutSessionStore delegate;
+  private final ObjectMapper mapper;
+  private final Durability durability;
+  private final SessionJournal journal;
+  private final ScheduledExecutorService snapshots;
+
+  public JournaledCheckoutSessionStore(
+      InMemoryCheckoutSessionStore delegate,
+      ObjectMapper mapper,
+      Path directory,
+      int segmentSize,
+      Durability durability,
+      Duration snapshotInterval)
+      throws IOException {
+    this.delegate = delegate;
+    this.mapper = mapper;
+    this.durability = durability;
+    long started = System.nanoTime();
+    long now = System.currentTimeMillis();
+    this.journal = SessionJournal.open(directory, segmentSize, (id, type, payload) -> {
+      CheckoutSession session = decode(payload);
+      if (!session.isExpired(now)) {
+        delegate.put(session);
+      }
+    });
+    log.info(
+        "Recovered {} checkout sessions from {} in {} ms",
+        delegate.size(),
+        directory,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    delegate.addRemovalListener(
+        session -> journal.append(SessionJournal.REMOVE, session.id, new byte[0]));
+    this.snapshots =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread t = new Thread(r, "checkout-journal-snapshot");
+              t.setDaemon(true);
+              return t;
+            });
+    long intervalMillis = snapshotInterval.toMillis();
+    if (intervalMillis > 0) {
+      snapshots.scheduleWithFixedDelay(
+          this::snapshotQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public CheckoutSession get(String id) {
+    return delegate.get(id);
+  }
+
+  @Override
+  public void put(CheckoutSession session) {
+    delegate.put(session);
+  }
+
+  @Override
+  public void touch(CheckoutSession session) {
+    delegate.touch(session);
+  }
+
+  @Override
+  public CheckoutSession remove(String id) {
+    return delegate.remove(id);
+  }
+
+  @Override
+  public void record(Transition transition, CheckoutSession session) {
+    CompletableFuture<Void> durable =
+        journal.append((byte) (transition.ordinal() + 1), session.id, encode(session));
+    if (durability == Durability.GROUP_COMMIT) {
+      durable.join();
+    }
+  }
+
+  @Override
+  public void addRemovalListener(Consumer<CheckoutSession> listener) {
+    delegate.addRemovalListener(listener);
+  }
+
+  @Override
+  public void forEach(Consumer<CheckoutSession> action) {
+    delegate.forEach(action);
+  }
+
+  @Override
+  public int size() {
+    return delegate.size();
+  }
+
+  @Override
+  public Stats stats() {
+    return delegate.stats();
+  }
+
+  /** Writes a compacted snapshot of all live sessions and drops the journal segments it covers. */
+  public void snapshot() throws IOException {
+    journal.snapshot(
+        writer ->
+            delegate.forEach(
+                session -> {
+                  byte[] payload;
+                  session.lock.lock();
+                  try {
+                    payload = encode(session);
+                  } finally {
+                    session.lock.unlock();
+                  }
+                  try {
+                    writer.add(session.id, payload);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                }));
+  }
+
+  @Override
+  public void close() {
+    snapshots.shutdownNow();
+    journal.close();
+    delegate.close();
+  }
+
+  private void snapshotQuietly() {
+    try {
+      snapshot();
+    } catch (IOException | RuntimeException e) {
+      log.warn("Checkout journal snapshot failed", e);
+    }
+  }
+
+  private byte[] encode(CheckoutSession session) {
+    try {
+      return mapper.writeValueAsBytes(
+          new SessionState(
+              session.id,
+              session.status,
+              session.expiresAtMillis,
+              session.lineItems,
+              session.payment));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private CheckoutSession decode(ByteBuffer payload) {
+    try {
+      SessionState state =
+          mapper.readValue(new ByteBufferBackedInputStream(payload), SessionState.class);
+      return new CheckoutSession(
+          state.id(), state.lineItems(), state.payment(), state.status(), state.expiresAt());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** When a recorded transition is acknowledged. */
+  public enum Durability {
+    /** After the record is forced to disk; concurrent transitions share one {@code fsync}. */
+    GROUP_COMMIT,
+    /** Immediately; the record reaches disk with the next background flush. */
+    ASYNC
+  }
+
+  /** Journal payload: the full session state after a transition. */
+  record SessionState(
+      @JsonProperty("id") String id,
+      @JsonProperty("status") CheckoutResponse.Status status,
+      @JsonProperty("expires_at") long expiresAt,
+      @JsonProperty("line_items") List<LineItemResponse> lineItems,
+      @JsonProperty("payment") PaymentResponse payment) {}
+}
@@ -0,0 +1,43 @@
+package io.deeplumen.ucp.samples.java.service;
+
+import io.deeplumen.ucp.helpers.UcpCapabilities;
+import io.deeplumen.ucp.models.discovery.Config;
+import io.deeplumen.ucp.models.discovery.PaymentHandlerResponse;
+import io.deeplumen.ucp.models.schemas.shopping.UCPCheckoutResponse;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parts of a checkout response that depend only on the protocol version and the merchant's payment
+ * configuration: the {@code ucp} metadata block and the payment handlers. They are built once and
+ * shared by every response and session, so {@code toResponse} only allocates the per-session
+ * fields. The generated models are mutable; nothing may modify these instances after construction.
+ */
+final class ResponseFragments {
+  final UCPCheckoutResponse ucpMeta;
+  final List<PaymentHandlerResponse> paymentHandlers;
+
+  ResponseFragments(String protocolVersion) {
+    UCPCheckoutResponse meta = new UCPCheckoutResponse();
+    meta.setVersion(protocolVersion);
+    meta.setCapabilities(
+        List.of(
+            Map.of("name", UcpCapabilities.SHOPPING_CHECKOUT, "version", protocolVersion),
+            Map.of("name", UcpCapabilities.SHOPPING_FULFILLMENT, "version", protocolVersion)));
+    this.ucpMeta = meta;
+
+    PaymentHandlerResponse handler = new PaymentHandlerResponse();
+    handler.setId("mock_payment_handler");
+    handler.setName("dev.ucp.mock_payment");
+    handler.setVersion(protocolVersion);
+    handler.setSpec(URI.create("https://ucp.dev/specs/mock"));
+    handler.setConfigSchema(URI.create("https://ucp.dev/schemas/mock.json"));
+    handler.setInstrumentSchemas(
+        List.of(URI.create("https://ucp.dev/schemas/shopping/types/card_payment_instrument.json")));
+    Config config = new Config();
+    config.setAdditionalProperty("supported_tokens", List.of("success_token", "fail_token"));
+    handler.setConfig(config);
+    this.paymentHandlers = List.of(handler);
+  }
+}
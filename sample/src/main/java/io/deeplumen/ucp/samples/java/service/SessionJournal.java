@@ -0,0 +1,415 @@
+package io.deeplumen.ucp.samples.java.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, segmented, memory-mapped log of checkout session records.
+ *
+ * <p>Record layout (big-endian):
+ *
+ * <pre>
+ * int   length    bytes after the crc field; 0 marks the unwritten tail of a segment
+ * int   crc32c    over everything after this field
+ * long  seq       monotonically increasing sequence number
+ * byte  type      record type
+ * short idLength  followed by the UTF-8 session id
+ * ...   payload   remaining bytes
+ * </pre>
+ *
+ * <p>Segments are pre-sized files named after the sequence number of their first record. Appends
+ * are serialized by one lock and only copy bytes into the mapped buffer; a dedicated flusher thread
+ * forces dirty ranges to disk and completes the futures of every append that landed before the
+ * force began (group commit), so one {@code fsync} covers all concurrent writers.
+ *
+ * <p>Snapshots are full record files named after the highest sequence number they cover. Writing
+ * one deletes every segment whose records are all covered by it. Recovery reads the newest snapshot
+ * and all remaining segments in parallel, keeping the highest-sequence record per session.
+ */
+public final class SessionJournal implements AutoCloseable {
+  public static final byte REMOVE = 100;
+  public static final byte SNAPSHOT = 101;
+
+  private static final int HEADER = 4 + 4;
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String SNAPSHOT_SUFFIX = ".snap";
+
+  private final Path directory;
+  private final int segmentSize;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition dirty = lock.newCondition();
+  private final Thread flusher;
+
+  // Guarded by lock.
+  private Segment current;
+  private long nextSeq;
+  private int flushedPosition;
+  private boolean hasUnflushed;
+  private CompletableFuture<Void> pendingBatch = new CompletableFuture<>();
+  private volatile boolean closed;
+
+  private SessionJournal(Path directory, int segmentSize, long nextSeq) throws IOException {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.nextSeq = nextSeq;
+    this.current = Segment.create(directory, nextSeq, segmentSize);
+    this.flusher = new Thread(this::flushLoop, "checkout-journal-flusher");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  /**
+   * Opens the journal in {@code directory}, passing every recovered record to {@code sink} before
+   * the journal accepts appends. New records always go to a fresh segment.
+   */
+  public static SessionJournal open(Path directory, int segmentSize, RecordSink sink)
+      throws IOException {
+    Files.createDirectories(directory);
+    long maxSeq = recover(directory, sink);
+    return new SessionJournal(directory, segmentSize, maxSeq + 1);
+  }
+
+  /**
+   * Appends a record and returns a future that completes once it is durable. The record is visible
+   * to recovery only after that future completes.
+   */
+  public CompletableFuture<Void> append(byte type, String id, byte[] payload) {
+    byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+    int length = 8 + 1 + 2 + idBytes.length + payload.length;
+    if (HEADER + length > segmentSize) {
+      throw new IllegalArgumentException("journal record larger than a segment: " + length);
+    }
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("journal is closed");
+      }
+      if (current.buffer.remaining() < HEADER + length) {
+        roll();
+      }
+      long seq = nextSeq++;
+      write(current.buffer, seq, type, idBytes, payload, 0, payload.length);
+      hasUnflushed = true;
+      dirty.signal();
+      return pendingBatch;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Highest sequence number handed out so far. */
+  public long lastSequence() {
+    lock.lock();
+    try {
+      return nextSeq - 1;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes a compacted snapshot. {@code writer} receives a {@link SnapshotWriter} and must add the
+   * current state of every live session. Segments fully covered by the snapshot are deleted.
+   */
+  public void snapshot(SnapshotContents writer) throws IOException {
+    long coveredSeq = lastSequence();
+    Path tmp = directory.resolve(name(coveredSeq, SNAPSHOT_SUFFIX) + ".tmp");
+    try (FileChannel channel =
+        FileChannel.open(
+            tmp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      SnapshotWriter out = new SnapshotWriter(channel, coveredSeq);
+      writer.writeTo(out);
+      out.flush();
+      channel.force(true);
+    }
+    Path target = directory.resolve(name(coveredSeq, SNAPSHOT_SUFFIX));
+    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    for (Path old : list(directory, SNAPSHOT_SUFFIX)) {
+      if (startSeq(old) < coveredSeq) {
+        Files.deleteIfExists(old);
+      }
+    }
+    List<Path> segments = list(directory, SEGMENT_SUFFIX);
+    for (int i = 0; i + 1 < segments.size(); i++) {
+      if (startSeq(segments.get(i + 1)) <= coveredSeq + 1 && !isCurrent(segments.get(i))) {
+        Files.deleteIfExists(segments.get(i));
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      dirty.signal();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    current.buffer.force();
+  }
+
+  private boolean isCurrent(Path segment) {
+    lock.lock();
+    try {
+      return segment.equals(current.path);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void roll() throws IOException {
+    current.buffer.force();
+    current = Segment.create(directory, nextSeq, segmentSize);
+    flushedPosition = 0;
+  }
+
+  private void flushLoop() {
+    while (true) {
+      CompletableFuture<Void> batch;
+      MappedByteBuffer buffer;
+      int from;
+      int to;
+      lock.lock();
+      try {
+        while (!hasUnflushed && !closed) {
+          dirty.awaitUninterruptibly();
+        }
+        if (!hasUnflushed) {
+          pendingBatch.complete(null);
+          return;
+        }
+        batch = pendingBatch;
+        pendingBatch = new CompletableFuture<>();
+        buffer = current.buffer;
+        from = flushedPosition;
+        to = buffer.position();
+        flushedPosition = to;
+        hasUnflushed = false;
+      } finally {
+        lock.unlock();
+      }
+      try {
+        buffer.force(from, to - from);
+        batch.complete(null);
+      } catch (RuntimeException e) {
+        batch.completeExceptionally(e);
+      }
+    }
+  }
+
+  private static void write(
+      ByteBuffer buffer,
+      long seq,
+      byte type,
+      byte[] id,
+      byte[] payload,
+      int payloadOffset,
+      int payloadLength) {
+    int length = 8 + 1 + 2 + id.length + payloadLength;
+    int start = buffer.position();
+    buffer.position(start + HEADER);
+    buffer.putLong(seq).put(type).putShort((short) id.length).put(id);
+    buffer.put(payload, payloadOffset, payloadLength);
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.duplicate().position(start + HEADER).limit(buffer.position()));
+    // Length goes last so a torn write is never mistaken for a complete record.
+    buffer.putInt(start + 4, (int) crc.getValue());
+    buffer.putInt(start, length);
+  }
+
+  private static long recover(Path directory, RecordSink sink) throws IOException {
+    List<Path> snapshots = list(directory, SNAPSHOT_SUFFIX);
+    List<Path> files = new ArrayList<>();
+    if (!snapshots.isEmpty()) {
+      files.add(snapshots.get(snapshots.size() - 1));
+    }
+    files.addAll(list(directory, SEGMENT_SUFFIX));
+    List<Map<String, Record>> scanned =
+        files.parallelStream().map(SessionJournal::scan).collect(Collectors.toList());
+    Map<String, Record> latest = new HashMap<>();
+    long maxSeq = snapshots.isEmpty() ? 0 : startSeq(snapshots.get(snapshots.size() - 1));
+    for (Map<String, Record> records : scanned) {
+      for (Record record : records.values()) {
+        maxSeq = Math.max(maxSeq, record.seq);
+        latest.merge(record.id, record, (a, b) -> a.seq >= b.seq ? a : b);
+      }
+    }
+    latest.values().parallelStream()
+        .filter(record -> record.type != REMOVE)
+        .forEach(record -> sink.accept(record.id, record.type, record.payload()));
+    return maxSeq;
+  }
+
+  private static Map<String, Record> scan(Path file) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      Map<String, Record> records = new HashMap<>();
+      while (buffer.remaining() >= HEADER) {
+        int start = buffer.position();
+        int length = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining() - 4) {
+          break;
+        }
+        int crc = buffer.getInt();
+        CRC32C check = new CRC32C();
+        check.update(buffer.duplicate().limit(start + HEADER + length));
+        if ((int) check.getValue() != crc) {
+          break;
+        }
+        long seq = buffer.getLong();
+        byte type = buffer.get();
+        byte[] id = new byte[buffer.getShort()];
+        buffer.get(id);
+        int payloadOffset = buffer.position();
+        int end = start + HEADER + length;
+        Record record =
+            new Record(new String(id, StandardCharsets.UTF_8), seq, type, buffer, payloadOffset, end);
+        records.merge(record.id, record, (a, b) -> a.seq >= b.seq ? a : b);
+        buffer.position(end);
+      }
+      return records;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static List<Path> list(Path directory, String suffix) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(p -> p.getFileName().toString().endsWith(suffix))
+          .sorted((a, b) -> Long.compare(startSeq(a), startSeq(b)))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static long startSeq(Path file) {
+    String name = file.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.indexOf('.')));
+  }
+
+  private static String name(long seq, String suffix) {
+    return String.format("%020d%s", seq, suffix);
+  }
+
+  /** Receives recovered records; called concurrently from several threads. */
+  @FunctionalInterface
+  public interface RecordSink {
+    void accept(String id, byte type, ByteBuffer payload);
+  }
+
+  /** Produces the contents of a snapshot. */
+  @FunctionalInterface
+  public interface SnapshotContents {
+    void writeTo(SnapshotWriter writer) throws IOException;
+  }
+
+  /** Buffered writer for snapshot records. Not thread-safe. */
+  public static final class SnapshotWriter {
+    private final FileChannel channel;
+    private final long seq;
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+
+    private SnapshotWriter(FileChannel channel, long seq) {
+      this.channel = channel;
+      this.seq = seq;
+    }
+
+    public void add(String id, byte[] payload) throws IOException {
+      byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+      int size = HEADER + 8 + 1 + 2 + idBytes.length + payload.length;
+      if (buffer.remaining() < size) {
+        flush();
+        if (buffer.capacity() < size) {
+          buffer = ByteBuffer.allocate(size);
+        }
+      }
+      write(buffer, seq, SNAPSHOT, idBytes, payload, 0, payload.length);
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+
+  private static final class Segment {
+    final Path path;
+    final MappedByteBuffer buffer;
+
+    private Segment(Path path, MappedByteBuffer buffer) {
+      this.path = path;
+      this.buffer = buffer;
+    }
+
+    static Segment create(Path directory, long firstSeq, int size) throws IOException {
+      Path path = directory.resolve(name(firstSeq, SEGMENT_SUFFIX));
+      // A file of that name can only be a segment left empty by a previous run; start it over.
+      try (FileChannel channel =
+          FileChannel.open(
+              path,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE)) {
+        return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+      }
+    }
+  }
+
+  private static final class Record {
+    final String id;
+    final long seq;
+    final byte type;
+    final ByteBuffer source;
+    final int from;
+    final int to;
+
+    Record(String id, long seq, byte type, ByteBuffer source, int from, int to) {
+      this.id = id;
+      this.seq = seq;
+      this.type = type;
+      this.source = source;
+      this.from = from;
+      this.to = to;
+    }
+
+    ByteBuffer payload() {
+      return source.duplicate().limit(to).position(from).slice();
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package io.deeplumen.ucp.samples.java.service;
+
+/** Raised when a new checkout session cannot be stored because the store is at capacity. */
+public class SessionStoreFullException extends IllegalStateException {
+  public SessionStoreFullException(int maxSessions) {
+    super("checkout session store is full (" + maxSessions + " live sessions)");
+  }
+}
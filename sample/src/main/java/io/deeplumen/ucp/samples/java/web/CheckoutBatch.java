@@ -0,0 +1,195 @@
+package io.deeplumen.ucp.samples.java.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.deeplumen.ucp.concurrent.VirtualThreads;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parsing, scheduling and result encoding for {@code POST /checkout-sessions:batch}.
+ *
+ * <p>A batch body is {@code {"operations": [...]}} where each operation is {@code {"id", "op",
+ * "checkout_id", "idempotency_key", "body"}} and {@code op} is {@code create}, {@code update} or
+ * {@code get}. The envelope is read with a streaming parser and each operation's {@code body} is
+ * sliced out of the request bytes by offset, so operation bodies reach the single-call handlers
+ * exactly as sent, without being parsed into a tree and written back.
+ *
+ * <p>Operations run concurrently on a fixed pool of {@code ucp.batch.parallelism} threads, or on a
+ * virtual thread each when {@code spring.threads.virtual.enabled} is set on Java 21 and no
+ * parallelism is configured. Results are NDJSON lines, {@code {"id": ..., "status": ..., "body":
+ * ...}}, handed out in completion order.
+ */
+@Component
+public class CheckoutBatch implements AutoCloseable {
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  private final ExecutorService executor;
+  private final int maxOperations;
+
+  public CheckoutBatch(
+      @Value("${ucp.batch.parallelism:0}") int parallelism,
+      @Value("${ucp.batch.max-operations:1000}") int maxOperations,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    this.maxOperations = Math.max(1, maxOperations);
+    if (parallelism <= 0 && virtualThreads && VirtualThreads.isAvailable()) {
+      this.executor = VirtualThreads.newThreadPerTaskExecutor("checkout-batch-");
+      return;
+    }
+    int threads =
+        parallelism > 0 ? parallelism : 4 * Runtime.getRuntime().availableProcessors();
+    AtomicInteger count = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            threads,
+            r -> {
+              Thread t = new Thread(r, "checkout-batch-" + count.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            });
+  }
+
+  public int maxOperations() {
+    return maxOperations;
+  }
+
+  /** Reads the operations of a batch body; throws on malformed JSON or an unknown {@code op}. */
+  public static List<Operation> parse(byte[] body) throws IOException {
+    List<Operation> operations = new ArrayList<>();
+    try (JsonParser parser = FACTORY.createParser(body)) {
+      expect(parser.nextToken(), JsonToken.START_OBJECT, parser);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        if (!"operations".equals(field)) {
+          parser.skipChildren();
+          continue;
+        }
+        expect(value, JsonToken.START_ARRAY, parser);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          operations.add(operation(parser, body, operations.size()));
+        }
+      }
+    }
+    return operations;
+  }
+
+  /**
+   * Runs {@code handler} for every operation on the batch pool and returns one future per
+   * operation, completing with its encoded result line.
+   */
+  public List<CompletableFuture<byte[]>> submit(
+      List<Operation> operations, Function<Operation, Result> handler) {
+    List<CompletableFuture<byte[]>> lines = new ArrayList<>(operations.size());
+    for (Operation operation : operations) {
+      lines.add(
+          CompletableFuture.supplyAsync(() -> handler.apply(operation), executor)
+              .exceptionally(e -> new Result(500, null))
+              .thenApply(result -> encode(operation.id(), result)));
+    }
+    return lines;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /** Encodes one NDJSON result line; {@code body} is copied verbatim. */
+  static byte[] encode(String id, Result result) {
+    ByteArrayOutputStream out =
+        new ByteArrayOutputStream(64 + (result.body() != null ? result.body().length : 0));
+    out.writeBytes("{\"id\":\"".getBytes(StandardCharsets.US_ASCII));
+    out.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(id));
+    out.writeBytes(("\",\"status\":" + result.status()).getBytes(StandardCharsets.US_ASCII));
+    if (result.body() != null) {
+      out.writeBytes(",\"body\":".getBytes(StandardCharsets.US_ASCII));
+      out.writeBytes(result.body());
+    }
+    out.writeBytes("}\n".getBytes(StandardCharsets.US_ASCII));
+    return out.toByteArray();
+  }
+
+  private static Operation operation(JsonParser parser, byte[] source, int index)
+      throws IOException {
+    expect(parser.currentToken(), JsonToken.START_OBJECT, parser);
+    String id = null;
+    Kind kind = null;
+    String checkoutId = null;
+    String idempotencyKey = null;
+    byte[] body = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      switch (field) {
+        case "id" -> id = parser.getValueAsString();
+        case "op" -> kind = Kind.of(parser.getValueAsString());
+        case "checkout_id" -> checkoutId = parser.getValueAsString();
+        case "idempotency_key" -> idempotencyKey = parser.getValueAsString();
+        case "body" -> {
+          if (value == JsonToken.START_OBJECT) {
+            int start = (int) parser.currentTokenLocation().getByteOffset();
+            parser.skipChildren();
+            int end = (int) parser.currentLocation().getByteOffset();
+            body = Arrays.copyOfRange(source, start, end);
+          } else {
+            parser.skipChildren();
+          }
+        }
+        default -> parser.skipChildren();
+      }
+    }
+    if (kind == null) {
+      throw new IOException("batch operation " + index + " has no valid \"op\"");
+    }
+    return new Operation(
+        id != null ? id : Integer.toString(index), kind, checkoutId, idempotencyKey, body);
+  }
+
+  private static void expect(JsonToken actual, JsonToken expected, JsonParser parser)
+      throws IOException {
+    if (actual != expected) {
+      throw new IOException(
+          "expected " + expected + " but found " + actual + " at " + parser.currentLocation());
+    }
+  }
+
+  /** Operation kinds accepted in a batch. */
+  public enum Kind {
+    CREATE,
+    UPDATE,
+    GET;
+
+    static Kind of(String value) {
+      if (value == null) {
+        return null;
+      }
+      try {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+  }
+
+  /** One batch entry; {@code body} holds the raw bytes of its {@code body} member, if any. */
+  public record Operation(
+      String id, Kind kind, String checkoutId, String idempotencyKey, byte[] body) {}
+
+  /** Status and serialized body of one executed operation. */
+  public record Result(int status, byte[] body) {}
+}
@@ -0,0 +1,205 @@
+package io.deeplumen.ucp.samples.java.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.typed.CapabilityNegotiator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parses the business discovery profile once and serves it as pre-serialized bytes.
+ *
+ * <p>The only per-request difference in the discovery document is the REST endpoint, which is
+ * derived from the scheme/host/port the request arrived on. Each distinct base URL gets its own
+ * {@link Document} holding the JSON bytes, an optional gzip encoding, and a strong ETag for each
+ * encoding. The number of cached base URLs is bounded so arbitrary {@code Host} headers cannot grow
+ * the heap.
+ *
+ * <p>Call {@link #reload()} after changing the profile; documents and the capability negotiator are
+ * rebuilt from the new profile and unchanged content keeps its ETag. With {@code
+ * ucp.discovery.reload-interval} set, the profile is re-read on that interval and swapped in when
+ * its content changed.
+ */
+@Component
+public class DiscoveryDocumentCache implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(DiscoveryDocumentCache.class);
+
+  private final ObjectMapper mapper;
+  private final Resource location;
+  private final int maxEntries;
+  private final boolean gzip;
+  private final ScheduledExecutorService reloader;
+  private volatile Snapshot snapshot;
+
+  public DiscoveryDocumentCache(
+      ObjectMapper mapper,
+      @Value("${ucp.discovery.profile:classpath:discovery_profile.json}") Resource location,
+      @Value("${ucp.discovery.cache-size:32}") int maxEntries,
+      @Value("${ucp.discovery.gzip:true}") boolean gzip,
+      @Value("${ucp.discovery.reload-interval:0s}") Duration reloadInterval)
+      throws IOException {
+    this.mapper = mapper;
+    this.location = location;
+    this.maxEntries = Math.max(1, maxEntries);
+    this.gzip = gzip;
+    this.snapshot = load();
+    if (reloadInterval.toMillis() > 0) {
+      this.reloader =
+          Executors.newSingleThreadScheduledExecutor(
+              r -> {
+                Thread t = new Thread(r, "discovery-profile-reload");
+                t.setDaemon(true);
+                return t;
+              });
+      long millis = reloadInterval.toMillis();
+      reloader.scheduleWithFixedDelay(this::reloadIfChanged, millis, millis, TimeUnit.MILLISECONDS);
+    } else {
+      this.reloader = null;
+    }
+  }
+
+  /** Returns the parsed business profile. Callers must treat the tree as read-only. */
+  public JsonNode profile() {
+    return snapshot.profile;
+  }
+
+  /** Returns the negotiator indexed over the business capabilities of the current profile. */
+  public CapabilityNegotiator negotiator() {
+    return snapshot.negotiator;
+  }
+
+  /** Returns the discovery document advertising {@code baseUrl} as the REST endpoint. */
+  public Document document(String baseUrl) {
+    Snapshot current = snapshot;
+    Document document = current.documents.get(baseUrl);
+    if (document != null) {
+      return document;
+    }
+    document = render(current.profile, baseUrl);
+    if (current.documents.size() >= maxEntries) {
+      Iterator<String> it = current.documents.keySet().iterator();
+      if (it.hasNext()) {
+        current.documents.remove(it.next());
+      }
+    }
+    Document raced = current.documents.putIfAbsent(baseUrl, document);
+    return raced != null ? raced : document;
+  }
+
+  /** Re-reads the profile from its configured location and drops all rendered documents. */
+  public void reload() throws IOException {
+    snapshot = load();
+  }
+
+  @Override
+  public void close() {
+    if (reloader != null) {
+      reloader.shutdownNow();
+    }
+  }
+
+  // Keeps the rendered documents while the profile is unchanged; a failed read keeps serving the
+  // current profile.
+  private void reloadIfChanged() {
+    try {
+      Snapshot next = load();
+      if (!next.profile.equals(snapshot.profile)) {
+        snapshot = next;
+        log.info("Reloaded discovery profile from {}", location);
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("Discovery profile reload from {} failed: {}", location, e.toString());
+    }
+  }
+
+  private Snapshot load() throws IOException {
+    try (InputStream in = location.getInputStream()) {
+      return new Snapshot(mapper.readTree(in));
+    }
+  }
+
+  private Document render(JsonNode profile, String baseUrl) {
+    JsonNode copy = profile.deepCopy();
+    JsonNode rest = copy.path("ucp").path("services").path("dev.ucp.shopping").path("rest");
+    if (copy.has("ucp") && rest instanceof ObjectNode restNode) {
+      restNode.put("endpoint", baseUrl);
+    }
+    try {
+      byte[] json = mapper.writeValueAsBytes(copy);
+      String etag = etag(json);
+      return gzip
+          ? new Document(json, gzip(json), etag, gzipEtag(etag))
+          : new Document(json, null, etag, null);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static byte[] gzip(byte[] json) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2 + 32);
+    try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+      gz.write(json);
+    }
+    return out.toByteArray();
+  }
+
+  private static String etag(byte[] json) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+      return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // A strong validator names one exact representation, so the gzip bytes get a tag of their own.
+  private static String gzipEtag(String etag) {
+    return etag.substring(0, etag.length() - 1) + "-gzip\"";
+  }
+
+  /**
+   * Pre-serialized discovery document for one base URL; {@code gzip} and {@code gzipEtag} are
+   * {@code null} when gzip is disabled.
+   */
+  public record Document(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+
+    /**
+     * Evaluates an {@code If-None-Match} header against this document (weak comparison, as required
+     * for {@code If-None-Match}). Either encoding's tag matches, since both carry the same content.
+     */
+    public boolean matches(String ifNoneMatch) {
+      return ETags.matches(ifNoneMatch, etag)
+          || (gzipEtag != null && ETags.matches(ifNoneMatch, gzipEtag));
+    }
+  }
+
+  private static final class Snapshot {
+    final JsonNode profile;
+    final CapabilityNegotiator negotiator;
+    final Map<String, Document> documents = new ConcurrentHashMap<>();
+
+    Snapshot(JsonNode profile) {
+      this.profile = profile;
+      this.negotiator = CapabilityNegotiator.of(profile.path("ucp").path("capabilities"));
+    }
+  }
+}
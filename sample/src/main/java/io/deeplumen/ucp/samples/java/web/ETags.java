@@ -0,0 +1,29 @@
+package io.deeplumen.ucp.samples.java.web;
+
+/** Entity-tag comparison for conditional requests. */
+final class ETags {
+  private ETags() {}
+
+  /**
+   * Evaluates an {@code If-None-Match} header against {@code etag} (weak comparison, as required
+   * for {@code If-None-Match}).
+   */
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals("*")) {
+        return true;
+      }
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,189 @@
+package io.deeplumen.ucp.samples.java.web;
+
+import io.deeplumen.ucp.json.WireFormat;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replays responses of mutating requests that carry an {@code Idempotency-Key}.
+ *
+ * <p>Entries are scoped by API key and idempotency key and remember a SHA-256 fingerprint of the
+ * operation and request body. The first request for a key runs the handler; concurrent duplicates
+ * wait for that same computation, up to a bound after which they get {@link
+ * IdempotencyInProgressException}, and later duplicates receive the stored status and bytes without
+ * touching the checkout service. Reusing a key with a different body is rejected with {@link
+ * IdempotencyConflictException}. Server errors are never stored, so a retry after a 5xx runs again.
+ *
+ * <p>The cache is bounded by entry count and TTL. Entries share one TTL, so insertion order is
+ * expiry order and a FIFO queue is enough to evict both expired and surplus entries. Surplus
+ * eviction skips entries whose request is still running, so their duplicates keep waiting on them
+ * instead of running the handler again; the count may exceed the bound by the requests in flight.
+ */
+@Component
+public class IdempotencyCache {
+
+  private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+  private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final long ttlMillis;
+  private final int maxEntries;
+  private final long waitMillis;
+
+  public IdempotencyCache(
+      @Value("${ucp.idempotency.ttl:24h}") Duration ttl,
+      @Value("${ucp.idempotency.max-entries:100000}") int maxEntries,
+      @Value("${ucp.idempotency.wait:10s}") Duration wait) {
+    this.ttlMillis = ttl.toMillis();
+    this.maxEntries = Math.max(1, maxEntries);
+    this.waitMillis = wait.toMillis();
+  }
+
+  /**
+   * Runs {@code handler} at most once per ({@code apiKey}, {@code idempotencyKey}) and returns its
+   * response, or the stored response of an earlier identical request. Without an idempotency key
+   * the handler simply runs.
+   *
+   * @param operation method and target of the request, e.g. {@code "POST /checkout-sessions"}
+   * @throws IdempotencyConflictException if the key was used for a different request
+   * @throws IdempotencyInProgressException if the first request with the key is still running after
+   *     the wait bound
+   */
+  public Outcome execute(
+      String apiKey,
+      String idempotencyKey,
+      String operation,
+      byte[] body,
+      Supplier<StoredResponse> handler) {
+    if (idempotencyKey == null || idempotencyKey.isBlank()) {
+      return new Outcome(handler.get(), false);
+    }
+    Key key = new Key(apiKey != null ? apiKey : "", idempotencyKey);
+    byte[] fingerprint = fingerprint(operation, body);
+    long now = System.currentTimeMillis();
+    Entry fresh = new Entry(key, fingerprint, now + ttlMillis);
+    while (true) {
+      Entry existing = entries.putIfAbsent(key, fresh);
+      if (existing == null) {
+        break;
+      }
+      if (existing.expiresAtMillis <= now && entries.remove(key, existing)) {
+        continue;
+      }
+      if (!MessageDigest.isEqual(existing.fingerprint, fingerprint)) {
+        throw new IdempotencyConflictException(idempotencyKey);
+      }
+      try {
+        return new Outcome(existing.response.get(waitMillis, TimeUnit.MILLISECONDS), true);
+      } catch (ExecutionException e) {
+        throw e.getCause() instanceof RuntimeException cause
+            ? cause
+            : new CompletionException(e.getCause());
+      } catch (TimeoutException e) {
+        throw new IdempotencyInProgressException(idempotencyKey);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IdempotencyInProgressException(idempotencyKey);
+      }
+    }
+    insertionOrder.add(fresh);
+    evict(now);
+    StoredResponse response;
+    try {
+      response = handler.get();
+    } catch (RuntimeException | Error e) {
+      entries.remove(key, fresh);
+      fresh.response.completeExceptionally(e);
+      throw e;
+    }
+    if (response.status() >= 500) {
+      entries.remove(key, fresh);
+    }
+    fresh.response.complete(response);
+    return new Outcome(response, false);
+  }
+
+  /** Number of remembered keys, including in-flight ones. */
+  public int size() {
+    return entries.size();
+  }
+
+  private void evict(long now) {
+    for (Iterator<Entry> it = insertionOrder.iterator(); it.hasNext(); ) {
+      Entry entry = it.next();
+      boolean stale = entries.get(entry.key) != entry;
+      if (!stale && entry.expiresAtMillis > now) {
+        if (entries.size() <= maxEntries) {
+          return;
+        }
+        if (!entry.response.isDone()) {
+          continue;
+        }
+      }
+      it.remove();
+      entries.remove(entry.key, entry);
+    }
+  }
+
+  private static byte[] fingerprint(String operation, byte[] body) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(operation.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      if (body != null) {
+        digest.update(body);
+      }
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Status, serialized body and body format of a handled request. */
+  public record StoredResponse(int status, byte[] body, WireFormat format) {}
+
+  /** Response to send, and whether it was replayed rather than computed for this request. */
+  public record Outcome(StoredResponse response, boolean replayed) {}
+
+  /** Thrown when an idempotency key is reused for a request with a different fingerprint. */
+  public static class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String idempotencyKey) {
+      super("Idempotency-Key reused with a different request: " + idempotencyKey);
+    }
+  }
+
+  /** Thrown when a duplicate gives up waiting for the first request with its idempotency key. */
+  public static class IdempotencyInProgressException extends RuntimeException {
+    public IdempotencyInProgressException(String idempotencyKey) {
+      super("A request with this Idempotency-Key is still in progress: " + idempotencyKey);
+    }
+  }
+
+  private record Key(String apiKey, String idempotencyKey) {}
+
+  private static final class Entry {
+    final Key key;
+    final byte[] fingerprint;
+    final long expiresAtMillis;
+    final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+
+    Entry(Key key, byte[] fingerprint, long expiresAtMillis) {
+      this.key = key;
+      this.fingerprint = fingerprint;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+}
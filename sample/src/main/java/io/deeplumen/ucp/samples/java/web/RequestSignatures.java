@@ -0,0 +1,134 @@
+package io.deeplumen.ucp.samples.java.web;
+
+import io.deeplumen.ucp.helpers.UcpHeaders;
+import io.deeplumen.ucp.profile.PlatformProfileResolver;
+import io.deeplumen.ucp.signing.RequestSignatureVerifier;
+import io.deeplumen.ucp.signing.SignatureVerificationException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code Request-Signature} checks for mutating routes, in {@code ucp.signatures.mode} {@code
+ * OFF}, {@code LOG} (verify and log failures) or {@code ENFORCE} (reject failures with 401).
+ *
+ * <p>Signatures are verified against the {@code signing_keys} of the profile named in {@code
+ * UCP-Agent}, never against a {@code _platform_profile} carried in the body, since a request
+ * cannot vouch for itself. {@link #start} kicks off profile resolution and verification on a
+ * dedicated pool and returns immediately; the controller binds the body meanwhile and calls {@link
+ * Check#await} before it changes any state.
+ */
+@Component
+public class RequestSignatures implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(RequestSignatures.class);
+
+  private final PlatformProfileResolver profiles;
+  private final Mode mode;
+  private final ExecutorService executor;
+  private final RequestSignatureVerifier verifier;
+
+  public RequestSignatures(
+      PlatformProfileResolver profiles,
+      @Value("${ucp.signatures.mode:OFF}") Mode mode,
+      @Value("${ucp.signatures.threads:0}") int threads,
+      @Value("${ucp.signatures.key-cache-size:1024}") int keyCacheSize) {
+    this.profiles = profiles;
+    this.mode = mode;
+    AtomicInteger count = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+            r -> {
+              Thread t = new Thread(r, "request-signature-" + count.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            });
+    this.verifier =
+        RequestSignatureVerifier.builder().maxKeys(keyCacheSize).executor(executor).build();
+  }
+
+  /** Starts verifying {@code signature} over {@code body}; a no-op when the mode is {@code OFF}. */
+  public Check start(String signature, String ucpAgent, byte[] body) {
+    if (mode == Mode.OFF) {
+      return Check.SKIPPED;
+    }
+    String profileUrl = UcpHeaders.agentProfileUrl(ucpAgent).orElse(null);
+    CompletableFuture<String> verification =
+        profileUrl == null
+            ? CompletableFuture.failedFuture(
+                new SignatureVerificationException("no UCP-Agent profile to verify against"))
+            : verifier.verifyAsync(signature, body, profiles.resolve(profileUrl));
+    return new Check(mode, verification, profileUrl);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /** How failed signatures are treated. */
+  public enum Mode {
+    OFF,
+    LOG,
+    ENFORCE
+  }
+
+  /** A verification in progress. */
+  public static final class Check {
+    static final Check SKIPPED = new Check(Mode.OFF, null, null);
+
+    private final Mode mode;
+    private final CompletableFuture<String> verification;
+    private final String profileUrl;
+    private volatile boolean done;
+
+    private Check(Mode mode, CompletableFuture<String> verification, String profileUrl) {
+      this.mode = mode;
+      this.verification = verification;
+      this.profileUrl = profileUrl;
+      this.done = verification == null;
+    }
+
+    /**
+     * Waits for the verification. Failures are logged once; in {@code ENFORCE} mode they throw.
+     *
+     * @throws SignatureRejectedException if the signature is missing or invalid and the mode is
+     *     {@code ENFORCE}
+     */
+    public void await() {
+      if (done && mode != Mode.ENFORCE) {
+        return;
+      }
+      String failure;
+      try {
+        verification.join();
+        done = true;
+        return;
+      } catch (CompletionException | CancellationException e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        failure = cause.getMessage();
+      }
+      if (!done) {
+        done = true;
+        log.warn("Request-Signature rejected for profile {}: {}", profileUrl, failure);
+      }
+      if (mode == Mode.ENFORCE) {
+        throw new SignatureRejectedException(failure);
+      }
+    }
+  }
+
+  /** Signature missing or invalid while {@code ucp.signatures.mode=ENFORCE}; answered with 401. */
+  public static final class SignatureRejectedException extends IllegalStateException {
+    SignatureRejectedException(String message) {
+      super(message);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package io.deeplumen.ucp.samples.java.web;
+
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.validation.UcpValidators;
+import io.deeplumen.ucp.validation.Violation;
+import io.deeplumen.ucp.validation.Violations;
+import java.io.IOException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Schema checks for request bodies, in {@code ucp.validation.mode} {@code OFF}, {@code FAIL_FAST}
+ * (reject with the first violation) or {@code COLLECT_ALL} (reject with every violation).
+ *
+ * <p>Bodies are checked by the SDK's generated validators straight from the request bytes, before
+ * the controller binds them, so an invalid payload costs one streaming pass and no model
+ * allocation.
+ */
+@Component
+public class RequestValidation {
+  private static final Logger log = LoggerFactory.getLogger(RequestValidation.class);
+
+  private final Violations.Mode mode;
+
+  public RequestValidation(@Value("${ucp.validation.mode:OFF}") Mode mode) {
+    if (mode != Mode.OFF && !UcpValidators.isAvailable()) {
+      log.warn("ucp.validation.mode={} but the SDK has no generated validators; skipping", mode);
+      mode = Mode.OFF;
+    }
+    this.mode = mode == Mode.OFF ? null : Violations.Mode.valueOf(mode.name());
+  }
+
+  /**
+   * Checks {@code body} as a {@code type} document read with {@code in}; a no-op when the mode is
+   * {@code OFF}. Empty bodies are left to the binder.
+   *
+   * @throws InvalidRequestException if the body violates the schema
+   * @throws IOException if the body is not well-formed
+   */
+  public void check(UcpJson in, byte[] body, Class<?> type) throws IOException {
+    if (mode == null || body == null) {
+      return;
+    }
+    List<Violation> violations = in.validate(body, type, mode);
+    if (!violations.isEmpty()) {
+      throw new InvalidRequestException(violations);
+    }
+  }
+
+  public enum Mode {
+    OFF,
+    FAIL_FAST,
+    COLLECT_ALL
+  }
+
+  /** Body that violates its schema while validation is on; answered with 400 and the violations. */
+  public static final class InvalidRequestException extends RuntimeException {
+    private final transient List<Violation> violations;
+
+    InvalidRequestException(List<Violation> violations) {
+      super(violations.toString());
+      this.violations = violations;
+    }
+
+    public List<Violation> violations() {
+      return violations;
+    }
+  }
+}
@@ -2,16 +2,42 @@ package io.deeplumen.ucp.samples.java.web;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.deeplumen.ucp.helpers.UcpHeaders;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.json.WireFormat;
+import io.deeplumen.ucp.metrics.Tags;
+import io.deeplumen.ucp.metrics.UcpMetrics;
 import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
 import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
 import io.deeplumen.ucp.models.schemas.shopping.CheckoutUpdateRequest;
+import io.deeplumen.ucp.profile.PlatformProfileResolver;
+import io.deeplumen.ucp.samples.java.inventory.InsufficientStockException;
 import io.deeplumen.ucp.samples.java.service.CheckoutService;
+import io.deeplumen.ucp.samples.java.service.CheckoutSnapshot;
+import io.deeplumen.ucp.samples.java.service.CheckoutStateException;
+import io.deeplumen.ucp.samples.java.service.InvalidPatchException;
+import io.deeplumen.ucp.samples.java.service.SessionStoreFullException;
+import io.deeplumen.ucp.typed.CapabilityNegotiator;
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -23,39 +49,86 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
-@RequestMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(
+    produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      UcpController.SMILE
+    })
 public class UcpController {
 
-  private static final Pattern PROFILE_PATTERN =
-      Pattern.compile("profile=\"([^\"]+)\"|profile=([^;]+)");
-
   private final CheckoutService checkoutService;
+  private final DiscoveryDocumentCache discoveryCache;
+  private final PlatformProfileResolver profileResolver;
+  private final IdempotencyCache idempotencyCache;
+  private final CheckoutBatch batch;
+  private final RequestSignatures signatures;
+  private final RequestValidation validation;
+  private final UcpJson json;
   private final ObjectMapper mapper;
+  private final UcpMetrics.Timer negotiateTimer;
+  private final long profileWaitMillis;
+
+  private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+  private static final String NDJSON = "application/x-ndjson";
+  private static final String PREFER = "Prefer";
+  private static final String PREFERENCE_APPLIED = "Preference-Applied";
+  private static final String RETURN_MINIMAL = "return=minimal";
+  static final String SMILE = "application/x-jackson-smile";
 
-  public UcpController(CheckoutService checkoutService, ObjectMapper mapper) {
+  public UcpController(
+      CheckoutService checkoutService,
+      DiscoveryDocumentCache discoveryCache,
+      PlatformProfileResolver profileResolver,
+      IdempotencyCache idempotencyCache,
+      CheckoutBatch batch,
+      RequestSignatures signatures,
+      RequestValidation validation,
+      UcpJson json,
+      ObjectMapper mapper,
+      UcpMetrics metrics,
+      @Value("${ucp.profiles.request-wait:500ms}") Duration profileWait) {
     this.checkoutService = checkoutService;
+    this.discoveryCache = discoveryCache;
+    this.profileResolver = profileResolver;
+    this.idempotencyCache = idempotencyCache;
+    this.batch = batch;
+    this.signatures = signatures;
+    this.validation = validation;
+    this.json = json;
     this.mapper = mapper;
+    this.negotiateTimer =
+        metrics.timer(UcpMetrics.OPERATIONS, Tags.of(UcpMetrics.OPERATION, UcpMetrics.NEGOTIATE));
+    this.profileWaitMillis = profileWait.toMillis();
   }
 
   @GetMapping("/.well-known/ucp")
-  public ResponseEntity<JsonNode> discovery(HttpServletRequest request) throws IOException {
-    JsonNode profile =
-        mapper.readTree(new ClassPathResource("discovery_profile.json").getInputStream());
-    if (profile.has("ucp")) {
-      String base =
-          request.getScheme()
-              + "://"
-              + request.getServerName()
-              + (request.getServerPort() == 80 || request.getServerPort() == 443
-                  ? ""
-                  : ":" + request.getServerPort());
-      ((com.fasterxml.jackson.databind.node.ObjectNode)
-              profile.path("ucp").path("services").path("dev.ucp.shopping").path("rest"))
-          .put("endpoint", base);
+  public ResponseEntity<byte[]> discovery(
+      HttpServletRequest request,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    DiscoveryDocumentCache.Document document = discoveryCache.document(baseUrl(request));
+    boolean gzipped = document.gzip() != null && acceptsGzip(acceptEncoding);
+    String etag = gzipped ? document.gzipEtag() : document.etag();
+    if (document.matches(ifNoneMatch)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(etag)
+          .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+          .build();
     }
-    return ResponseEntity.ok(profile);
+    ResponseEntity.BodyBuilder ok =
+        ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(etag)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzipped) {
+      return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(document.gzip());
+    }
+    return ok.body(document.json());
   }
 
   @GetMapping("/profiles/platform.json")
@@ -66,88 +139,350 @@ public class UcpController {
   }
 
   @PostMapping("/ucp/negotiation")
-  public ResponseEntity<JsonNode> negotiate(@RequestBody JsonNode platformProfile)
-      throws IOException {
-    JsonNode business =
-        mapper.readTree(new ClassPathResource("discovery_profile.json").getInputStream());
-    JsonNode businessCaps = business.path("ucp").path("capabilities");
-    JsonNode platformCaps = platformProfile.path("ucp").path("capabilities");
-    com.fasterxml.jackson.databind.node.ArrayNode intersection = mapper.createArrayNode();
-    for (JsonNode b : businessCaps) {
-      for (JsonNode p : platformCaps) {
-        if (b.path("name").asText().equals(p.path("name").asText())) {
-          intersection.add(b);
-        }
-      }
+  public ResponseEntity<JsonNode> negotiate(@RequestBody JsonNode platformProfile) {
+    long start = negotiateTimer.start();
+    CapabilityNegotiator.Result result =
+        discoveryCache.negotiator().negotiate(platformProfile.path("ucp").path("capabilities"));
+    negotiateTimer.stop(start);
+    ArrayNode intersection = mapper.createArrayNode();
+    for (Object capability : result.raw()) {
+      intersection.add((JsonNode) capability);
     }
     return ResponseEntity.ok(mapper.createObjectNode().set("capabilities", intersection));
   }
 
   @PostMapping("/checkout-sessions")
-  public ResponseEntity<CheckoutResponse> createCheckout(
+  public ResponseEntity<byte[]> createCheckout(
       @RequestHeader(value = "UCP-Agent", required = false) String ucpAgent,
       @RequestHeader(value = "Request-Signature", required = false) String requestSignature,
       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
       @RequestHeader(value = "Request-Id", required = false) String requestId,
       @RequestHeader(value = "X-API-Key", required = false) String apiKey,
-      @RequestBody(required = false) JsonNode body)
-      throws IOException {
-    JsonNode platformProfile = extractPlatformProfile(ucpAgent, body);
-    CheckoutCreateRequest req =
-        body != null ? mapper.convertValue(body, CheckoutCreateRequest.class) : null;
-    CheckoutResponse response = checkoutService.createCheckout(platformProfile, req);
-    return ResponseEntity.status(201).body(response);
+      @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestBody(required = false) byte[] body) {
+    return createCheckout(
+        ucpAgent,
+        signatures.start(requestSignature, ucpAgent, body),
+        idempotencyKey,
+        apiKey,
+        body,
+        requestCodec(contentType),
+        responseCodec(accept));
+  }
+
+  private ResponseEntity<byte[]> createCheckout(
+      String ucpAgent,
+      RequestSignatures.Check signature,
+      String idempotencyKey,
+      String apiKey,
+      byte[] body,
+      UcpJson in,
+      UcpJson out) {
+    return idempotent(
+        apiKey,
+        idempotencyKey,
+        "POST /checkout-sessions",
+        body,
+        signature,
+        out,
+        () -> {
+          check(in, body, CheckoutCreateRequest.class);
+          UcpJson.Bound<CheckoutCreateRequest> req = bind(in, body, CheckoutCreateRequest.class);
+          signature.await();
+          JsonNode platformProfile =
+              extractPlatformProfile(ucpAgent, req.field(UcpJson.PLATFORM_PROFILE));
+          try {
+            CheckoutResponse response =
+                checkoutService.createCheckout(platformProfile, req.value());
+            return ResponseEntity.status(201).body(response);
+          } catch (InvalidPatchException e) {
+            return ResponseEntity.unprocessableEntity().build();
+          } catch (SessionStoreFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+          }
+        });
   }
 
+  /**
+   * Serves the checkout from its cached snapshot, rebuilt only after the session changed. The
+   * {@code ETag} names the session version, so a poll whose {@code If-None-Match} still matches
+   * gets 304 without a body. Snapshots are JSON; a binary format asked for in {@code Accept} is
+   * transcoded from it and gets an {@code ETag} of its own.
+   */
   @GetMapping("/checkout-sessions/{checkoutId}")
-  public ResponseEntity<CheckoutResponse> getCheckout(
+  public ResponseEntity<byte[]> getCheckout(
       @PathVariable("checkoutId") String checkoutId,
-      @RequestHeader(value = "UCP-Agent", required = false) String ucpAgent)
-      throws IOException {
+      @RequestHeader(value = "UCP-Agent", required = false) String ucpAgent,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    // Snapshots do not depend on the platform profile, so polls never resolve it.
+    CheckoutSnapshot snapshot;
     try {
-      JsonNode platformProfile = extractPlatformProfile(ucpAgent, null);
-      return ResponseEntity.ok(checkoutService.getCheckout(checkoutId, platformProfile));
+      snapshot = checkoutService.getCheckoutSnapshot(checkoutId, this::write);
     } catch (IllegalArgumentException e) {
       return ResponseEntity.notFound().build();
     }
+    WireFormat format = responseCodec(accept).format();
+    String etag = etag(snapshot.etag(), format);
+    if (ETags.matches(ifNoneMatch, etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(etag)
+          .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+          .build();
+    }
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(format.mediaType()))
+        .eTag(etag)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+        .body(transcode(json, snapshot.body(), format));
   }
 
   @PutMapping("/checkout-sessions/{checkoutId}")
-  public ResponseEntity<CheckoutResponse> updateCheckout(
+  public ResponseEntity<byte[]> updateCheckout(
       @PathVariable("checkoutId") String checkoutId,
       @RequestHeader(value = "UCP-Agent", required = false) String ucpAgent,
       @RequestHeader(value = "Request-Signature", required = false) String requestSignature,
       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
       @RequestHeader(value = "Request-Id", required = false) String requestId,
       @RequestHeader(value = "X-API-Key", required = false) String apiKey,
-      @RequestBody(required = false) JsonNode body)
-      throws IOException {
+      @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestBody(required = false) byte[] body) {
+    return updateCheckout(
+        checkoutId,
+        ucpAgent,
+        signatures.start(requestSignature, ucpAgent, body),
+        idempotencyKey,
+        apiKey,
+        body,
+        requestCodec(contentType),
+        responseCodec(accept));
+  }
+
+  private ResponseEntity<byte[]> updateCheckout(
+      String checkoutId,
+      String ucpAgent,
+      RequestSignatures.Check signature,
+      String idempotencyKey,
+      String apiKey,
+      byte[] body,
+      UcpJson in,
+      UcpJson out) {
+    return idempotent(
+        apiKey,
+        idempotencyKey,
+        "PUT /checkout-sessions/" + checkoutId,
+        body,
+        signature,
+        out,
+        () -> {
+          check(in, body, CheckoutUpdateRequest.class);
+          UcpJson.Bound<CheckoutUpdateRequest> req = bind(in, body, CheckoutUpdateRequest.class);
+          signature.await();
+          try {
+            JsonNode platformProfile =
+                extractPlatformProfile(ucpAgent, req.field(UcpJson.PLATFORM_PROFILE));
+            return ResponseEntity.ok(
+                checkoutService.updateCheckout(checkoutId, platformProfile, req.value()));
+          } catch (InvalidPatchException e) {
+            return ResponseEntity.unprocessableEntity().build();
+          } catch (CheckoutStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+          } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+          }
+        });
+  }
+
+  /**
+   * Applies an RFC 7396 merge patch ({@code application/merge-patch+json}, or any negotiated wire
+   * format) to the checkout in place; see {@link CheckoutService#patchCheckout}. With {@code
+   * Prefer: return=minimal} the response carries only what changed, as a merge patch over the
+   * previous response, and {@code Preference-Applied: return=minimal}.
+   */
+  @PatchMapping({"/checkout-sessions/{checkoutId}", "/ucp/checkout/{checkoutId}"})
+  public ResponseEntity<byte[]> patchCheckout(
+      @PathVariable("checkoutId") String checkoutId,
+      @RequestHeader(value = "UCP-Agent", required = false) String ucpAgent,
+      @RequestHeader(value = "Request-Signature", required = false) String requestSignature,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      @RequestHeader(value = "Request-Id", required = false) String requestId,
+      @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+      @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = PREFER, required = false) String prefer,
+      @RequestBody(required = false) byte[] body) {
+    UcpJson in = requestCodec(contentType);
+    RequestSignatures.Check signature = signatures.start(requestSignature, ucpAgent, body);
+    boolean minimal = prefer != null && prefer.toLowerCase(Locale.ROOT).contains(RETURN_MINIMAL);
+    ResponseEntity<byte[]> response =
+        idempotent(
+            apiKey,
+            idempotencyKey,
+            // A replay asking for the other representation is a different request.
+            "PATCH /checkout-sessions/" + checkoutId + (minimal ? " " + RETURN_MINIMAL : ""),
+            body,
+            signature,
+            responseCodec(accept),
+            () -> {
+              // Merge patches are partial documents: no schema check, members are checked as
+              // they are applied.
+              JsonNode patch = bindTree(in, body);
+              if (patch == null) {
+                patch = mapper.createObjectNode();
+              }
+              signature.await();
+              try {
+                JsonNode inlineProfile =
+                    patch instanceof ObjectNode object
+                        ? object.remove(UcpJson.PLATFORM_PROFILE)
+                        : null;
+                if (minimal) {
+                  return ResponseEntity.ok(checkoutService.patchCheckoutDelta(checkoutId, patch));
+                }
+                JsonNode platformProfile = extractPlatformProfile(ucpAgent, inlineProfile);
+                return ResponseEntity.ok(
+                    checkoutService.patchCheckout(checkoutId, platformProfile, patch));
+              } catch (InvalidPatchException e) {
+                return ResponseEntity.unprocessableEntity().build();
+              } catch (CheckoutStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+              } catch (IllegalArgumentException e) {
+                return ResponseEntity.notFound().build();
+              }
+            });
+    if (!minimal || !response.getStatusCode().is2xxSuccessful()) {
+      return response;
+    }
+    return ResponseEntity.status(response.getStatusCode())
+        .headers(response.getHeaders())
+        .header(PREFERENCE_APPLIED, RETURN_MINIMAL)
+        .body(response.getBody());
+  }
+
+  /**
+   * Runs many create, update and get operations from one body in parallel and streams one NDJSON
+   * result line per operation as it completes. Each operation goes through the same handler as its
+   * single-call endpoint, including idempotency when it carries an {@code idempotency_key}; the
+   * request headers apply to every operation.
+   */
+  @PostMapping(value = "/checkout-sessions:batch", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> batchCheckouts(
+      @RequestHeader(value = "UCP-Agent", required = false) String ucpAgent,
+      @RequestHeader(value = "Request-Signature", required = false) String requestSignature,
+      @RequestHeader(value = "Request-Id", required = false) String requestId,
+      @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+      @RequestBody(required = false) byte[] body) {
+    List<CheckoutBatch.Operation> operations;
     try {
-      JsonNode platformProfile = extractPlatformProfile(ucpAgent, body);
-      CheckoutUpdateRequest req =
-          body != null ? mapper.convertValue(body, CheckoutUpdateRequest.class) : null;
-      return ResponseEntity.ok(
-          checkoutService.updateCheckout(checkoutId, platformProfile, req));
-    } catch (IllegalArgumentException e) {
-      return ResponseEntity.notFound().build();
+      operations = CheckoutBatch.parse(body != null ? body : new byte[0]);
+    } catch (IOException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (operations.size() > batch.maxOperations()) {
+      return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+    }
+    // One signature covers the whole batch body; operations reuse the finished check.
+    RequestSignatures.Check signature = signatures.start(requestSignature, ucpAgent, body);
+    try {
+      signature.await();
+    } catch (RequestSignatures.SignatureRejectedException e) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+    // Resolve the agent profile once up front; the operations then hit the resolver's cache.
+    extractPlatformProfile(ucpAgent, null);
+    List<CompletableFuture<byte[]>> results =
+        batch.submit(operations, op -> runBatchOperation(op, ucpAgent, signature, apiKey));
+    BlockingQueue<byte[]> completed = new LinkedBlockingQueue<>();
+    results.forEach(result -> result.thenAccept(completed::add));
+    StreamingResponseBody stream =
+        out -> {
+          for (int i = 0; i < results.size(); i++) {
+            try {
+              out.write(completed.take());
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              results.forEach(result -> result.cancel(false));
+              return;
+            }
+            out.flush();
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(stream);
+  }
+
+  private CheckoutBatch.Result runBatchOperation(
+      CheckoutBatch.Operation op,
+      String ucpAgent,
+      RequestSignatures.Check signature,
+      String apiKey) {
+    ResponseEntity<?> response =
+        switch (op.kind()) {
+          case CREATE -> createCheckout(
+              ucpAgent, signature, op.idempotencyKey(), apiKey, op.body(), json, json);
+          case UPDATE -> op.checkoutId() == null
+              ? ResponseEntity.badRequest().build()
+              : updateCheckout(
+                  op.checkoutId(),
+                  ucpAgent,
+                  signature,
+                  op.idempotencyKey(),
+                  apiKey,
+                  op.body(),
+                  json,
+                  json);
+          case GET -> {
+            if (op.checkoutId() == null) {
+              yield ResponseEntity.badRequest().build();
+            }
+            yield getCheckout(op.checkoutId(), ucpAgent, null, null);
+          }
+        };
+    Object responseBody = response.getBody();
+    try {
+      byte[] bytes =
+          responseBody == null
+              ? null
+              : responseBody instanceof byte[] raw ? raw : json.write(responseBody);
+      return new CheckoutBatch.Result(response.getStatusCode().value(), bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
   }
 
   @PostMapping("/checkout-sessions/{checkoutId}/complete")
-  public ResponseEntity<CheckoutResponse> completeCheckout(
+  public ResponseEntity<byte[]> completeCheckout(
       @PathVariable("checkoutId") String checkoutId,
       @RequestHeader(value = "UCP-Agent", required = false) String ucpAgent,
       @RequestHeader(value = "Request-Signature", required = false) String requestSignature,
       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
       @RequestHeader(value = "Request-Id", required = false) String requestId,
-      @RequestBody(required = false) JsonNode body)
-      throws IOException {
-    try {
-      CheckoutResponse response = checkoutService.completeCheckout(checkoutId, body);
-      return ResponseEntity.ok(response);
-    } catch (IllegalArgumentException e) {
-      return ResponseEntity.notFound().build();
-    }
+      @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+      @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestBody(required = false) byte[] body) {
+    UcpJson in = requestCodec(contentType);
+    RequestSignatures.Check signature = signatures.start(requestSignature, ucpAgent, body);
+    return idempotent(
+        apiKey,
+        idempotencyKey,
+        "POST /checkout-sessions/" + checkoutId + "/complete",
+        body,
+        signature,
+        responseCodec(accept),
+        () -> {
+          JsonNode payload = bindTree(in, body);
+          signature.await();
+          try {
+            CheckoutResponse response = checkoutService.completeCheckout(checkoutId, payload);
+            return ResponseEntity.ok(response);
+          } catch (CheckoutStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+          } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+          }
+        });
   }
 
   @PostMapping("/checkout-sessions/{checkoutId}/cancel")
@@ -158,6 +493,8 @@ public class UcpController {
     try {
       JsonNode platformProfile = extractPlatformProfile(ucpAgent, null);
       return ResponseEntity.ok(checkoutService.cancelCheckout(checkoutId, platformProfile));
+    } catch (CheckoutStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
     } catch (IllegalArgumentException e) {
       return ResponseEntity.notFound().build();
     }
@@ -170,8 +507,12 @@ public class UcpController {
       @RequestBody(required = false) JsonNode body)
       throws IOException {
     try {
-      JsonNode platformProfile = extractPlatformProfile(ucpAgent, body);
+      JsonNode platformProfile =
+          extractPlatformProfile(
+              ucpAgent, body != null ? body.get(UcpJson.PLATFORM_PROFILE) : null);
       return ResponseEntity.ok(checkoutService.mintInstrument(checkoutId, platformProfile));
+    } catch (CheckoutStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
     } catch (IllegalArgumentException e) {
       return ResponseEntity.notFound().build();
     }
@@ -180,28 +521,26 @@ public class UcpController {
   @PostMapping("/webhooks/partners/{partnerId}/events/order")
   public ResponseEntity<Map<String, Object>> orderWebhook(
       @PathVariable("partnerId") String partnerId,
+      @RequestHeader(value = "UCP-Agent", required = false) String ucpAgent,
       @RequestHeader(value = "Request-Signature", required = false) String requestSignature,
       @RequestHeader(value = "X-API-Key", required = false) String apiKey,
-      @RequestBody(required = false) Map<String, Object> body) {
+      @RequestBody(required = false) byte[] body) {
+    try {
+      signatures.start(requestSignature, ucpAgent, body).await();
+    } catch (RequestSignatures.SignatureRejectedException e) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
     return ResponseEntity.ok(Map.of("received", true, "partner_id", partnerId));
   }
 
   // Compatibility aliases
   @PostMapping("/ucp/checkout")
-  public ResponseEntity<CheckoutResponse> createCheckoutCompat(
-      @RequestHeader(value = "UCP-Agent", required = false) String ucpAgent,
-      @RequestBody(required = false) JsonNode body)
-      throws IOException {
-    return createCheckout(ucpAgent, null, null, null, null, body);
-  }
-
-  @PatchMapping("/ucp/checkout/{checkoutId}")
-  public ResponseEntity<CheckoutResponse> updateCheckoutCompat(
-      @PathVariable("checkoutId") String checkoutId,
+  public ResponseEntity<byte[]> createCheckoutCompat(
       @RequestHeader(value = "UCP-Agent", required = false) String ucpAgent,
-      @RequestBody(required = false) JsonNode body)
-      throws IOException {
-    return updateCheckout(checkoutId, ucpAgent, null, null, null, null, body);
+      @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestBody(required = false) byte[] body) {
+    return createCheckout(ucpAgent, null, null, null, null, contentType, accept, body);
   }
 
   @PostMapping("/ucp/checkout/{checkoutId}/mint_instrument")
@@ -214,11 +553,12 @@ public class UcpController {
   }
 
   @PostMapping("/ucp/checkout/{checkoutId}/complete")
-  public ResponseEntity<CheckoutResponse> completeCheckoutCompat(
+  public ResponseEntity<byte[]> completeCheckoutCompat(
       @PathVariable("checkoutId") String checkoutId,
-      @RequestBody(required = false) JsonNode body)
-      throws IOException {
-    return completeCheckout(checkoutId, null, null, null, null, body);
+      @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestBody(required = false) byte[] body) {
+    return completeCheckout(checkoutId, null, null, null, null, null, contentType, accept, body);
   }
 
   @PostMapping("/webhooks/orders")
@@ -227,38 +567,205 @@ public class UcpController {
     return ResponseEntity.ok(Map.of("received", true, "body", body));
   }
 
-  private JsonNode extractPlatformProfile(String ucpAgentHeader, JsonNode body)
-      throws IOException {
-    if (body != null && body.has("_platform_profile")) {
-      return body.get("_platform_profile");
+  /**
+   * Runs {@code handler} through the idempotency cache. Responses are serialized here, with {@code
+   * out}, so that replays return exactly the bytes of the original response; a replay that asks for
+   * another format gets the stored response transcoded.
+   */
+  private ResponseEntity<byte[]> idempotent(
+      String apiKey,
+      String idempotencyKey,
+      String operation,
+      byte[] body,
+      RequestSignatures.Check signature,
+      UcpJson out,
+      Supplier<ResponseEntity<?>> handler) {
+    IdempotencyCache.Outcome outcome;
+    try {
+      outcome =
+          idempotencyCache.execute(
+              apiKey, idempotencyKey, operation, body, () -> serialize(out, handler.get()));
+      // Replays never ran the handler; they must not bypass the signature check either.
+      signature.await();
+    } catch (RequestSignatures.SignatureRejectedException e) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    } catch (IdempotencyCache.IdempotencyConflictException e) {
+      return ResponseEntity.unprocessableEntity().build();
+    } catch (IdempotencyCache.IdempotencyInProgressException e) {
+      // The first request with the key is still running; not stored, so a later retry replays it.
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .header(HttpHeaders.RETRY_AFTER, "1")
+          .build();
+    } catch (ArithmeticException e) {
+      // CartTooLargeException or an overflow while summing cart amounts.
+      return ResponseEntity.unprocessableEntity().build();
+    } catch (InsufficientStockException e) {
+      // Not cached: a retry with the same key may succeed once stock is released.
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    } catch (MalformedBodyException e) {
+      return ResponseEntity.badRequest().build();
+    } catch (RequestValidation.InvalidRequestException e) {
+      return ResponseEntity.badRequest()
+          .contentType(MediaType.parseMediaType(out.format().mediaType()))
+          .body(write(out, Map.of("violations", e.violations())));
+    }
+    IdempotencyCache.StoredResponse response = outcome.response();
+    ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.status());
+    if (outcome.replayed()) {
+      builder.header(IDEMPOTENT_REPLAYED, "true");
+    }
+    if (response.body() == null) {
+      return builder.build();
+    }
+    return builder
+        .contentType(MediaType.parseMediaType(out.format().mediaType()))
+        .body(transcode(json.forFormat(response.format()), response.body(), out.format()));
+  }
+
+  /**
+   * Codec for a request body by its {@code Content-Type}; unrecognized types are read as JSON.
+   * Answers 415 for a binary format whose Jackson module is missing.
+   */
+  private UcpJson requestCodec(String contentType) {
+    try {
+      return json.forFormat(WireFormat.forContentType(contentType));
+    } catch (UnsupportedOperationException e) {
+      throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, e.getMessage());
+    }
+  }
+
+  /** Codec for the response format negotiated from {@code Accept}; JSON unless asked otherwise. */
+  private UcpJson responseCodec(String accept) {
+    return json.forFormat(WireFormat.negotiate(accept));
+  }
+
+  /** Schema check ahead of {@link #bind}, when {@code ucp.validation.mode} is on. */
+  private void check(UcpJson in, byte[] body, Class<?> type) {
+    try {
+      validation.check(in, body, type);
+    } catch (IOException e) {
+      throw new MalformedBodyException(e);
+    }
+  }
+
+  private <T> UcpJson.Bound<T> bind(UcpJson in, byte[] body, Class<T> type) {
+    try {
+      return in.readRequest(body, type, UcpJson.PLATFORM_PROFILE);
+    } catch (IOException e) {
+      throw new MalformedBodyException(e);
+    }
+  }
+
+  private JsonNode bindTree(UcpJson in, byte[] body) {
+    try {
+      return body == null || body.length == 0 ? null : in.readTree(body);
+    } catch (IOException e) {
+      throw new MalformedBodyException(e);
+    }
+  }
+
+  private static byte[] transcode(UcpJson from, byte[] body, WireFormat format) {
+    try {
+      return from.transcode(body, format);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** The snapshot's {@code etag} for the representation in {@code format}. */
+  private static String etag(String etag, WireFormat format) {
+    if (format == WireFormat.JSON) {
+      return etag;
     }
-    String url = extractProfileUrl(ucpAgentHeader);
+    return etag.substring(0, etag.length() - 1)
+        + "-"
+        + format.name().toLowerCase(Locale.ROOT)
+        + "\"";
+  }
+
+  private byte[] write(Object value) {
+    return write(json, value);
+  }
+
+  private static byte[] write(UcpJson codec, Object value) {
+    try {
+      return codec.write(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static IdempotencyCache.StoredResponse serialize(
+      UcpJson out, ResponseEntity<?> response) {
+    try {
+      byte[] bytes = response.hasBody() ? out.write(response.getBody()) : null;
+      return new IdempotencyCache.StoredResponse(
+          response.getStatusCode().value(), bytes, out.format());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The inline profile, else the one named in {@code UCP-Agent}. A request waits at most {@code
+   * ucp.profiles.request-wait} for a profile that is not cached and then goes on with the default;
+   * the fetch carries on and caches the profile for later requests.
+   */
+  private JsonNode extractPlatformProfile(String ucpAgentHeader, JsonNode inlineProfile) {
+    if (inlineProfile != null) {
+      return inlineProfile;
+    }
+    String url = UcpHeaders.agentProfileUrl(ucpAgentHeader).orElse(null);
     if (url != null) {
-      try (var in = new java.net.URL(url).openStream()) {
-        return mapper.readTree(in);
-      } catch (IOException e) {
+      try {
+        // resolve() hands out a copy, so the timeout ends this wait and not the shared fetch.
+        return profileResolver
+            .resolve(url)
+            .orTimeout(profileWaitMillis, TimeUnit.MILLISECONDS)
+            .join();
+      } catch (CompletionException | CancellationException e) {
         return mapper.createObjectNode();
       }
     }
     return mapper.createObjectNode();
   }
 
-  private String extractProfileUrl(String ucpAgentHeader) {
-    if (ucpAgentHeader == null) {
-      return null;
-    }
-    Matcher matcher = PROFILE_PATTERN.matcher(ucpAgentHeader);
-    if (!matcher.find()) {
-      return null;
+  private static String baseUrl(HttpServletRequest request) {
+    int port = request.getServerPort();
+    return request.getScheme()
+        + "://"
+        + request.getServerName()
+        + (port == 80 || port == 443 ? "" : ":" + port);
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
     }
-    String quoted = matcher.group(1);
-    if (quoted != null && !quoted.isBlank()) {
-      return quoted;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+        continue;
+      }
+      for (int i = 1; i < parts.length; i++) {
+        String param = parts[i].trim();
+        if (param.startsWith("q=")) {
+          try {
+            return Double.parseDouble(param.substring(2)) > 0;
+          } catch (NumberFormatException e) {
+            return false;
+          }
+        }
+      }
+      return true;
     }
-    String unquoted = matcher.group(2);
-    if (unquoted != null) {
-      return unquoted.trim();
+    return false;
+  }
+
+  /** Request body that does not decode into the target model; answered with 400. */
+  private static final class MalformedBodyException extends RuntimeException {
+    MalformedBodyException(IOException cause) {
+      super(cause);
     }
-    return null;
   }
 }
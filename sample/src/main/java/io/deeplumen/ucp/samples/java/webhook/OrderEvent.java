@@ -0,0 +1,33 @@
+package io.deeplumen.ucp.samples.java.webhook;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * One order lifecycle event as delivered to partners.
+ *
+ * <p>{@code json} is the complete, already serialized event object ({@code {"id", "type",
+ * "created_at", "data"}}); the dispatcher only concatenates these bytes into batch bodies and
+ * never looks inside them again.
+ */
+public record OrderEvent(String id, String type, long createdAtMillis, byte[] json) {
+  public static final String ORDER_CREATED = "order.created";
+
+  void writeTo(DataOutput out) throws IOException {
+    out.writeUTF(id);
+    out.writeUTF(type);
+    out.writeLong(createdAtMillis);
+    out.writeInt(json.length);
+    out.write(json);
+  }
+
+  static OrderEvent readFrom(DataInput in) throws IOException {
+    String id = in.readUTF();
+    String type = in.readUTF();
+    long createdAtMillis = in.readLong();
+    byte[] json = new byte[in.readInt()];
+    in.readFully(json);
+    return new OrderEvent(id, type, createdAtMillis, json);
+  }
+}
@@ -0,0 +1,39 @@
+package io.deeplumen.ucp.samples.java.webhook;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Outbound webhook delivery state: per-partner queue depth, lag and counters, and the most recent
+ * dead letters without their payloads.
+ */
+@RestController
+public class WebhookController {
+  private final WebhookDispatcher dispatcher;
+
+  public WebhookController(WebhookDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  @GetMapping("/webhooks/outbound")
+  public ResponseEntity<Map<String, Object>> outbound() {
+    List<Map<String, Object>> deadLetters = new ArrayList<>();
+    for (WebhookDispatcher.DeadLetter deadLetter : dispatcher.deadLetters()) {
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("partner_id", deadLetter.partnerId());
+      entry.put("event_id", deadLetter.event().id());
+      entry.put("type", deadLetter.event().type());
+      entry.put(
+          "created_at", Instant.ofEpochMilli(deadLetter.event().createdAtMillis()).toString());
+      entry.put("reason", deadLetter.reason());
+      deadLetters.add(entry);
+    }
+    return ResponseEntity.ok(Map.of("partners", dispatcher.stats(), "dead_letters", deadLetters));
+  }
+}
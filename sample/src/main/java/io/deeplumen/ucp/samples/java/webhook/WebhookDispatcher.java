@@ -0,0 +1,526 @@
+package io.deeplumen.ucp.samples.java.webhook;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.deeplumen.ucp.helpers.UcpHeaders;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import io.deeplumen.ucp.samples.java.service.CheckoutService;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes order lifecycle events to registered partner webhook URLs.
+ *
+ * <p>{@link #publish} never waits on the network, and normally not on encoding or disk either: it
+ * hands the checkout to the dispatcher's thread, which encodes the event and offers it to each
+ * partner's bounded in-memory queue. Only when that hand-off queue is full does the caller encode
+ * and enqueue the event itself. When a partner's queue is full the event goes to that partner's
+ * spill file under {@code ucp.webhooks.spill-dir} (a page-cache write), or is counted as dropped if
+ * no spill directory is configured. Once a partner has spilled, its new events keep going to the
+ * spill file until the sender has caught up, so delivery stays roughly in publication order.
+ *
+ * <p>One scheduler thread drives all partners. Events are sent in batches of up to {@code
+ * batchSize} ({@code {"events": [...]}}), after waiting {@code linger} for a batch to fill, with at
+ * most {@code maxInFlight} batches outstanding per partner; a slow partner therefore backs up into
+ * its own queue and spill file without holding up others. Connection failures, 408, 429 and 5xx
+ * are retried with jittered exponential backoff and the same {@code Idempotency-Key}; a batch
+ * that exhausts {@code maxAttempts} or gets another 4xx is dead-lettered: kept in memory (the
+ * newest {@code deadLetterSize}) and, with a spill directory, appended to {@code
+ * <partner>.dead-letter.ndjson}.
+ */
+@Component
+public class WebhookDispatcher implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(WebhookDispatcher.class);
+  private static final Pattern PARTNER_ID = Pattern.compile("[A-Za-z0-9_.-]+");
+  private static final byte[] BATCH_START = "{\"events\":[".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] BATCH_END = "]}".getBytes(StandardCharsets.US_ASCII);
+
+  private final UcpJson json;
+  private final Settings settings;
+  private final HttpClient http;
+  private final ScheduledExecutorService scheduler;
+  private final Map<String, Partner> partners = new ConcurrentHashMap<>();
+  private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+  private final BlockingQueue<Pending> intake;
+  private final AtomicBoolean intakeScheduled = new AtomicBoolean();
+
+  @Autowired
+  public WebhookDispatcher(
+      CheckoutService checkouts,
+      UcpJson json,
+      @Value("${ucp.webhooks.partners:}") String partners,
+      @Value("${ucp.webhooks.queue-capacity:10000}") int queueCapacity,
+      @Value("${ucp.webhooks.spill-dir:}") String spillDir,
+      @Value("${ucp.webhooks.batch-size:100}") int batchSize,
+      @Value("${ucp.webhooks.linger:20ms}") Duration linger,
+      @Value("${ucp.webhooks.max-in-flight:4}") int maxInFlight,
+      @Value("${ucp.webhooks.max-attempts:8}") int maxAttempts,
+      @Value("${ucp.webhooks.initial-backoff:500ms}") Duration initialBackoff,
+      @Value("${ucp.webhooks.max-backoff:1m}") Duration maxBackoff,
+      @Value("${ucp.webhooks.request-timeout:10s}") Duration requestTimeout,
+      @Value("${ucp.webhooks.dead-letter-size:1000}") int deadLetterSize)
+      throws IOException {
+    this(
+        json,
+        new Settings(
+            queueCapacity,
+            spillDir.isBlank() ? null : Path.of(spillDir),
+            batchSize,
+            linger,
+            maxInFlight,
+            maxAttempts,
+            initialBackoff,
+            maxBackoff,
+            requestTimeout,
+            deadLetterSize));
+    for (String entry : partners.split(",")) {
+      int eq = entry.indexOf('=');
+      if (!entry.isBlank()) {
+        if (eq < 0) {
+          throw new IllegalArgumentException("expected partnerId=url in ucp.webhooks.partners");
+        }
+        register(entry.substring(0, eq).trim(), URI.create(entry.substring(eq + 1).trim()));
+      }
+    }
+    checkouts.addOrderListener(order -> publish(OrderEvent.ORDER_CREATED, order));
+  }
+
+  public WebhookDispatcher(UcpJson json, Settings settings) throws IOException {
+    this.json = json;
+    this.settings = settings;
+    this.intake = new ArrayBlockingQueue<>(Math.max(1, settings.queueCapacity()));
+    this.http = HttpClient.newBuilder().connectTimeout(settings.requestTimeout()).build();
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread t = new Thread(r, "webhook-dispatcher");
+              t.setDaemon(true);
+              return t;
+            });
+    if (settings.spillDir() != null) {
+      Files.createDirectories(settings.spillDir());
+    }
+  }
+
+  /**
+   * Starts delivering events to {@code url} for {@code partnerId}. Events spilled for this partner
+   * by an earlier run are picked up again.
+   */
+  public void register(String partnerId, URI url) throws IOException {
+    if (!PARTNER_ID.matcher(partnerId).matches()) {
+      throw new IllegalArgumentException("invalid partner id: " + partnerId);
+    }
+    WebhookSpill spill =
+        settings.spillDir() != null
+            ? new WebhookSpill(settings.spillDir().resolve(partnerId + ".spill"))
+            : null;
+    Partner partner = new Partner(partnerId, url, spill);
+    if (partners.putIfAbsent(partnerId, partner) != null) {
+      if (spill != null) {
+        spill.close();
+      }
+      throw new IllegalStateException("partner already registered: " + partnerId);
+    }
+    partner.wake();
+  }
+
+  /**
+   * Queues an event of {@code type} carrying {@code checkout} for every registered partner. The
+   * event is encoded later on the dispatcher's thread, so {@code checkout} must not be changed
+   * afterwards. Never blocks on delivery and never throws; failures to encode are logged.
+   */
+  public void publish(String type, CheckoutResponse checkout) {
+    if (partners.isEmpty()) {
+      return;
+    }
+    if (intake.offer(new Pending(type, checkout))) {
+      if (intakeScheduled.compareAndSet(false, true)) {
+        try {
+          scheduler.execute(this::drainIntake);
+        } catch (RuntimeException e) {
+          // Shut down; close() encodes what is left in the intake.
+        }
+      }
+      return;
+    }
+    // The dispatcher thread is behind: encode here rather than grow the intake without bound.
+    encodeAndPublish(type, checkout);
+  }
+
+  private void drainIntake() {
+    intakeScheduled.set(false);
+    for (Pending pending; (pending = intake.poll()) != null; ) {
+      encodeAndPublish(pending.type(), pending.checkout());
+    }
+  }
+
+  private void encodeAndPublish(String type, CheckoutResponse checkout) {
+    OrderEvent event;
+    try {
+      event = encode(type, checkout);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Dropping {} event for checkout {}: {}", type, checkout.getId(), e.toString());
+      return;
+    }
+    publish(event);
+  }
+
+  /** Queues {@code event} for every registered partner. */
+  public void publish(OrderEvent event) {
+    for (Partner partner : partners.values()) {
+      partner.offer(event);
+    }
+  }
+
+  /** Per-partner queue depth, delivery lag and delivery counters. */
+  public List<Stats> stats() {
+    List<Stats> stats = new ArrayList<>(partners.size());
+    long now = System.currentTimeMillis();
+    for (Partner partner : partners.values()) {
+      stats.add(partner.stats(now));
+    }
+    return stats;
+  }
+
+  /** The most recently dead-lettered batches, oldest first. */
+  public List<DeadLetter> deadLetters() {
+    synchronized (deadLetters) {
+      return List.copyOf(deadLetters);
+    }
+  }
+
+  /**
+   * Stops delivery. With a spill directory, queued and unacknowledged events are written to the
+   * spill files so that the next run delivers them.
+   */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    try {
+      scheduler.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    drainIntake();
+    for (Partner partner : partners.values()) {
+      partner.close();
+    }
+  }
+
+  private OrderEvent encode(String type, CheckoutResponse checkout) throws IOException {
+    String id = "evt_" + UUID.randomUUID();
+    long now = System.currentTimeMillis();
+    byte[] data = json.write(checkout);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(128 + data.length);
+    out.writeBytes(("{\"id\":\"" + id + "\",\"type\":\"").getBytes(StandardCharsets.US_ASCII));
+    out.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(type));
+    out.writeBytes(
+        ("\",\"created_at\":\"" + Instant.ofEpochMilli(now) + "\",\"data\":")
+            .getBytes(StandardCharsets.US_ASCII));
+    out.writeBytes(data);
+    out.write('}');
+    return new OrderEvent(id, type, now, out.toByteArray());
+  }
+
+  private long backoffMillis(int attempt) {
+    long max = settings.maxBackoff().toMillis();
+    long ceiling = settings.initialBackoff().toMillis() << Math.min(attempt - 1, 30);
+    ceiling = Math.min(max, ceiling < 0 ? max : ceiling);
+    return ceiling <= 1 ? ceiling : ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+  }
+
+  private void deadLetter(Partner partner, Batch batch, String reason) {
+    log.warn(
+        "Dead-lettering {} events for partner {} after {} attempts: {}",
+        batch.events().size(),
+        partner.id,
+        batch.attempt(),
+        reason);
+    synchronized (deadLetters) {
+      for (OrderEvent event : batch.events()) {
+        if (deadLetters.size() == Math.max(1, settings.deadLetterSize())) {
+          deadLetters.removeFirst();
+        }
+        deadLetters.addLast(new DeadLetter(partner.id, event, reason));
+      }
+    }
+    if (settings.spillDir() != null) {
+      ByteArrayOutputStream lines = new ByteArrayOutputStream();
+      for (OrderEvent event : batch.events()) {
+        lines.writeBytes(event.json());
+        lines.write('\n');
+      }
+      try {
+        Files.write(
+            settings.spillDir().resolve(partner.id + ".dead-letter.ndjson"),
+            lines.toByteArray(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND);
+      } catch (IOException e) {
+        log.error("Could not write dead letters for partner {}", partner.id, e);
+      }
+    }
+  }
+
+  /** Delivery state of one partner. Fields without synchronization are owned by the scheduler. */
+  private final class Partner {
+    final String id;
+    final URI url;
+    final BlockingQueue<OrderEvent> queue;
+    final WebhookSpill spill;
+    final AtomicBoolean drainScheduled = new AtomicBoolean();
+    final Set<Batch> unacknowledged = Collections.newSetFromMap(new IdentityHashMap<>());
+    volatile int inFlight;
+    final LongAdder published = new LongAdder();
+    final LongAdder spilled = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+    final LongAdder delivered = new LongAdder();
+    final LongAdder retries = new LongAdder();
+    final LongAdder deadLettered = new LongAdder();
+    final LongAccumulator maxLagMillis = new LongAccumulator(Math::max, 0);
+
+    Partner(String id, URI url, WebhookSpill spill) {
+      this.id = id;
+      this.url = url;
+      this.queue = new ArrayBlockingQueue<>(Math.max(1, settings.queueCapacity()));
+      this.spill = spill;
+    }
+
+    // Request threads.
+    void offer(OrderEvent event) {
+      published.increment();
+      if ((spill == null || spill.size() == 0) && queue.offer(event)) {
+        wake();
+        return;
+      }
+      if (spill != null) {
+        try {
+          spill.append(event);
+          spilled.increment();
+          wake();
+          return;
+        } catch (IOException e) {
+          log.warn("Could not spill event {} for partner {}: {}", event.id(), id, e.toString());
+        }
+      }
+      dropped.increment();
+    }
+
+    void wake() {
+      if (drainScheduled.compareAndSet(false, true)) {
+        try {
+          scheduler.schedule(this::drain, settings.linger().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+          // Shut down; close() moves queued events to the spill file.
+        }
+      }
+    }
+
+    // Scheduler thread from here on.
+    void drain() {
+      drainScheduled.set(false);
+      while (inFlight < settings.maxInFlight()) {
+        List<OrderEvent> events = nextBatch();
+        if (events.isEmpty()) {
+          return;
+        }
+        Batch batch = new Batch(UUID.randomUUID().toString(), events, 1);
+        inFlight++;
+        unacknowledged.add(batch);
+        send(batch);
+      }
+    }
+
+    List<OrderEvent> nextBatch() {
+      int size = Math.max(1, settings.batchSize());
+      List<OrderEvent> events = new ArrayList<>(Math.min(size, 256));
+      queue.drainTo(events, size);
+      if (events.size() < size && spill != null && spill.size() > 0) {
+        try {
+          events.addAll(spill.poll(size - events.size()));
+        } catch (IOException e) {
+          log.error("Could not read spilled events for partner {}", id, e);
+        }
+      }
+      return events;
+    }
+
+    void send(Batch batch) {
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      body.writeBytes(BATCH_START);
+      for (int i = 0; i < batch.events().size(); i++) {
+        if (i > 0) {
+          body.write(',');
+        }
+        body.writeBytes(batch.events().get(i).json());
+      }
+      body.writeBytes(BATCH_END);
+      HttpRequest request =
+          HttpRequest.newBuilder(url)
+              .timeout(settings.requestTimeout())
+              .header("Content-Type", "application/json")
+              .header(UcpHeaders.IDEMPOTENCY_KEY, batch.id())
+              .header(UcpHeaders.REQUEST_ID, UUID.randomUUID().toString())
+              .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+              .build();
+      http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+          .whenCompleteAsync(
+              (response, error) ->
+                  completed(batch, error == null ? response.statusCode() : -1, error),
+              scheduler);
+    }
+
+    void completed(Batch batch, int status, Throwable error) {
+      if (status >= 200 && status < 300) {
+        long now = System.currentTimeMillis();
+        for (OrderEvent event : batch.events()) {
+          maxLagMillis.accumulate(now - event.createdAtMillis());
+        }
+        delivered.add(batch.events().size());
+        finished(batch);
+        return;
+      }
+      boolean retryable = error != null || status == 408 || status == 429 || status >= 500;
+      if (retryable && batch.attempt() < settings.maxAttempts()) {
+        retries.increment();
+        Batch next = new Batch(batch.id(), batch.events(), batch.attempt() + 1);
+        unacknowledged.remove(batch);
+        unacknowledged.add(next);
+        scheduler.schedule(
+            () -> send(next), backoffMillis(batch.attempt()), TimeUnit.MILLISECONDS);
+        return;
+      }
+      deadLettered.add(batch.events().size());
+      deadLetter(this, batch, error != null ? error.toString() : "HTTP " + status);
+      finished(batch);
+    }
+
+    void finished(Batch batch) {
+      unacknowledged.remove(batch);
+      inFlight--;
+      drain();
+    }
+
+    Stats stats(long now) {
+      OrderEvent oldest = queue.peek();
+      return new Stats(
+          id,
+          queue.size(),
+          spill != null ? spill.size() : 0,
+          inFlight,
+          published.sum(),
+          spilled.sum(),
+          dropped.sum(),
+          delivered.sum(),
+          retries.sum(),
+          deadLettered.sum(),
+          oldest != null ? Math.max(0, now - oldest.createdAtMillis()) : 0,
+          maxLagMillis.get());
+    }
+
+    // After the scheduler has terminated.
+    void close() {
+      if (spill == null) {
+        return;
+      }
+      try {
+        for (Batch batch : unacknowledged) {
+          for (OrderEvent event : batch.events()) {
+            spill.append(event);
+          }
+        }
+        List<OrderEvent> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        for (OrderEvent event : queued) {
+          spill.append(event);
+        }
+        spill.close();
+      } catch (IOException e) {
+        log.error("Could not spill pending events for partner {}", id, e);
+      }
+    }
+  }
+
+  private record Batch(String id, List<OrderEvent> events, int attempt) {}
+
+  /** A published checkout waiting to be encoded on the dispatcher's thread. */
+  private record Pending(String type, CheckoutResponse checkout) {}
+
+  /**
+   * Dispatcher tuning; see the {@code ucp.webhooks.*} properties.
+   *
+   * @param spillDir directory for spill and dead-letter files, or {@code null} to keep events in
+   *     memory only
+   */
+  public record Settings(
+      int queueCapacity,
+      Path spillDir,
+      int batchSize,
+      Duration linger,
+      int maxInFlight,
+      int maxAttempts,
+      Duration initialBackoff,
+      Duration maxBackoff,
+      Duration requestTimeout,
+      int deadLetterSize) {}
+
+  /**
+   * Point-in-time state of one partner. {@code queued} and {@code spillBacklog} are the current
+   * queue depths; {@code oldestQueuedMillis} is the age of the oldest event waiting in memory, and
+   * {@code maxLagMillis} the longest time from publication to acknowledged delivery so far.
+   */
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record Stats(
+      String partnerId,
+      int queued,
+      long spillBacklog,
+      int inFlight,
+      long published,
+      long spilled,
+      long dropped,
+      long delivered,
+      long retries,
+      long deadLettered,
+      long oldestQueuedMillis,
+      long maxLagMillis) {}
+
+  /** An event that could not be delivered to {@code partnerId}, with the last failure. */
+  public record DeadLetter(String partnerId, OrderEvent event, String reason) {}
+}
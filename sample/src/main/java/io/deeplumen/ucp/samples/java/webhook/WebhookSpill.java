@@ -0,0 +1,106 @@
+package io.deeplumen.ucp.samples.java.webhook;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File-backed FIFO of events that did not fit into a partner's in-memory queue.
+ *
+ * <p>Records are {@code [int length][event]} appended at the end of the file and consumed from a
+ * read offset; once the reader catches up the file is truncated to zero. Writes go to the page
+ * cache without {@code fsync}. The read offset is not persisted, so after a restart the whole file
+ * is delivered again: delivery is at least once and partners deduplicate on the event id. A record
+ * cut short by a crash is dropped when the file is reopened.
+ *
+ * <p>File access is guarded by a {@link ReentrantLock}, not {@code synchronized}, so a virtual
+ * thread blocked in file I/O does not pin its carrier.
+ */
+final class WebhookSpill implements AutoCloseable {
+  private final ReentrantLock lock = new ReentrantLock();
+  private final RandomAccessFile file;
+  private long readOffset;
+  private long writeOffset;
+  private volatile long size;
+
+  WebhookSpill(Path path) throws IOException {
+    this.file = new RandomAccessFile(path.toFile(), "rw");
+    long length = file.length();
+    long offset = 0;
+    while (offset + Integer.BYTES <= length) {
+      file.seek(offset);
+      int recordLength = file.readInt();
+      if (recordLength < 0 || offset + Integer.BYTES + recordLength > length) {
+        break;
+      }
+      offset += Integer.BYTES + recordLength;
+      size++;
+    }
+    file.setLength(offset);
+    this.writeOffset = offset;
+  }
+
+  void append(OrderEvent event) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + event.json().length);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(0);
+    event.writeTo(out);
+    byte[] record = bytes.toByteArray();
+    ByteBuffer.wrap(record).putInt(0, record.length - Integer.BYTES);
+    lock.lock();
+    try {
+      file.seek(writeOffset);
+      file.write(record);
+      writeOffset += record.length;
+      size++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Removes and returns up to {@code max} of the oldest events. */
+  List<OrderEvent> poll(int max) throws IOException {
+    lock.lock();
+    try {
+      List<OrderEvent> events = new ArrayList<>(Math.min(max, (int) Math.min(size, 1024)));
+      while (events.size() < max && readOffset < writeOffset) {
+        file.seek(readOffset);
+        byte[] record = new byte[file.readInt()];
+        file.readFully(record);
+        readOffset += Integer.BYTES + record.length;
+        size--;
+        events.add(OrderEvent.readFrom(new DataInputStream(new ByteArrayInputStream(record))));
+      }
+      if (readOffset == writeOffset && readOffset > 0) {
+        file.setLength(0);
+        readOffset = 0;
+        writeOffset = 0;
+      }
+      return events;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  long size() {
+    return size;
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      file.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
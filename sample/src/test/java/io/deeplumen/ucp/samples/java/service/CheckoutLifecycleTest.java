@@ -0,0 +1,87 @@
+package io.deeplumen.ucp.samples.java.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.samples.java.inventory.InventoryLedger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+/** A completed checkout stays closed: later changes get 409 and its stock is sold only once. */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CheckoutLifecycleTest {
+  private static final String PRODUCT = "bouquet_roses";
+
+  @Autowired private MockMvc mvc;
+  @Autowired private InventoryLedger inventory;
+  @Autowired private ObjectMapper mapper;
+
+  @Test
+  void patchAfterCompleteDoesNotReopenTheCheckout() throws Exception {
+    String id = create(2);
+    mvc.perform(post("/checkout-sessions/{id}/complete", id)).andExpect(status().isOk());
+    long committed = inventory.stats().committedUnits();
+    long available = inventory.available(PRODUCT);
+
+    mvc.perform(
+            patch("/checkout-sessions/{id}", id)
+                .contentType("application/merge-patch+json")
+                .content("{\"line_items\": {\"item_1\": {\"quantity\": 3}}}"))
+        .andExpect(status().isConflict());
+    mvc.perform(post("/checkout-sessions/{id}/complete", id)).andExpect(status().isConflict());
+
+    mvc.perform(get("/checkout-sessions/{id}", id))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("completed"))
+        .andExpect(jsonPath("$.line_items[0].quantity").value(2));
+    assertEquals(committed, inventory.stats().committedUnits());
+    assertEquals(available, inventory.available(PRODUCT));
+  }
+
+  @Test
+  void completedCheckoutCannotBeChangedOrCanceled() throws Exception {
+    String id = create(1);
+    mvc.perform(post("/checkout-sessions/{id}/complete", id)).andExpect(status().isOk());
+    long available = inventory.available(PRODUCT);
+
+    mvc.perform(
+            post("/checkout-sessions/{id}/mint-instrument", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+        .andExpect(status().isConflict());
+    mvc.perform(post("/checkout-sessions/{id}/cancel", id)).andExpect(status().isConflict());
+
+    mvc.perform(get("/checkout-sessions/{id}", id))
+        .andExpect(jsonPath("$.status").value("completed"));
+    assertEquals(available, inventory.available(PRODUCT));
+  }
+
+  private String create(int quantity) throws Exception {
+    String body =
+        "{\"currency\": \"USD\", \"line_items\": [{\"item\": {\"id\": \""
+            + PRODUCT
+            + "\"}, \"quantity\": "
+            + quantity
+            + "}]}";
+    byte[] response =
+        mvc.perform(
+                post("/checkout-sessions").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+    JsonNode checkout = mapper.readTree(response);
+    return checkout.get("id").asText();
+  }
+}
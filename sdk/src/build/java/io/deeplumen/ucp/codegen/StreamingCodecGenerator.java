@@ -0,0 +1,834 @@
+package io.deeplumen.ucp.codegen;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates streaming Jackson serializers and deserializers for the compiled UCP models.
+ *
+ * <p>Runs after {@code compile} in the {@code streaming-codecs} profile, with the SDK's compiled
+ * classes and dependencies on the classpath. Each model is introspected through Jackson's own
+ * {@link BeanDescription}, so property names, order, inclusion and ignored members match the
+ * reflective {@code BeanSerializer}/{@code BeanDeserializer}. For every supported model it emits a
+ * {@code <Model>Codec} with a {@code Serializer} that writes pre-encoded field names and a {@code
+ * Deserializer} that dispatches on the field name with a string {@code switch} (compiled by javac
+ * to a switch on the precomputed name hashes), plus a {@code UcpModelsModule} registering all of
+ * them. The sources are compiled straight into the SDK's output directory.
+ *
+ * <p>Models using Jackson features the generated code does not reproduce (custom formats,
+ * polymorphism, creators, non-trivial inclusion rules, ...) are skipped and keep the reflective
+ * path.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * java -cp <classes>:<deps> StreamingCodecGenerator.java \
+ *     <classes-dir> <sources-dir> <model-package> <codec-package> [release]
+ * }</pre>
+ */
+public final class StreamingCodecGenerator {
+  private static final String GENERATED_BY = StreamingCodecGenerator.class.getName();
+
+  // Jackson annotations whose effect is fully captured by the introspected properties.
+  private static final Set<String> HANDLED_ANNOTATIONS =
+      Set.of(
+          "com.fasterxml.jackson.annotation.JsonProperty",
+          "com.fasterxml.jackson.annotation.JsonPropertyDescription",
+          "com.fasterxml.jackson.annotation.JsonPropertyOrder",
+          "com.fasterxml.jackson.annotation.JsonInclude",
+          "com.fasterxml.jackson.annotation.JsonIgnore",
+          "com.fasterxml.jackson.annotation.JsonAnyGetter",
+          "com.fasterxml.jackson.annotation.JsonAnySetter");
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final Path sources;
+  private final String modelPackage;
+  private final String codecPackage;
+
+  private StreamingCodecGenerator(Path sources, String modelPackage, String codecPackage) {
+    this.sources = sources;
+    this.modelPackage = modelPackage;
+    this.codecPackage = codecPackage;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 4) {
+      System.err.println(
+          "usage: StreamingCodecGenerator <classes-dir> <sources-dir> <model-package>"
+              + " <codec-package> [release]");
+      System.exit(2);
+    }
+    Path classes = Path.of(args[0]);
+    String release = args.length > 4 ? args[4] : "17";
+    StreamingCodecGenerator generator =
+        new StreamingCodecGenerator(Path.of(args[1]), args[2], args[3]);
+
+    List<Path> generated = generator.generate(generator.scan(classes));
+    compile(generated, classes, release);
+  }
+
+  private List<Class<?>> scan(Path classes) throws IOException, ClassNotFoundException {
+    Path root = classes.resolve(modelPackage.replace('.', '/'));
+    if (!Files.isDirectory(root)) {
+      throw new IllegalStateException("No compiled models under " + root);
+    }
+    List<String> names;
+    try (Stream<Path> files = Files.walk(root)) {
+      names =
+          files
+              .filter(f -> f.toString().endsWith(".class"))
+              .map(f -> classes.relativize(f).toString())
+              .map(f -> f.substring(0, f.length() - ".class".length()).replace('/', '.'))
+              .filter(n -> !n.endsWith("package-info"))
+              .sorted()
+              .collect(Collectors.toList());
+    }
+    ClassLoader loader = StreamingCodecGenerator.class.getClassLoader();
+    List<Class<?>> models = new ArrayList<>();
+    for (String name : names) {
+      Class<?> type = Class.forName(name, false, loader);
+      int modifiers = type.getModifiers();
+      if (type.isEnum()
+          || type.isInterface()
+          || type.isAnonymousClass()
+          || type.isLocalClass()
+          || type.isSynthetic()
+          || !Modifier.isPublic(modifiers)
+          || Modifier.isAbstract(modifiers)
+          || (type.isMemberClass() && !Modifier.isStatic(modifiers))) {
+        continue;
+      }
+      models.add(type);
+    }
+    return models;
+  }
+
+  private List<Path> generate(List<Class<?>> models) throws IOException {
+    List<Path> written = new ArrayList<>();
+    List<String[]> registered = new ArrayList<>();
+    int skipped = 0;
+    for (Class<?> model : models) {
+      Model m;
+      try {
+        m = introspect(model);
+      } catch (Unsupported e) {
+        System.out.println(
+            "[streaming-codecs] reflective: " + model.getName() + " (" + e.getMessage() + ")");
+        skipped++;
+        continue;
+      }
+      written.add(write(m.codecPackage, m.codecName, emitCodec(m)));
+      registered.add(new String[] {sourceName(model), m.codecPackage + "." + m.codecName});
+    }
+    written.add(write(codecPackage, "CodecSupport", emitSupport()));
+    written.add(write(codecPackage, "UcpModelsModule", emitModule(registered)));
+    System.out.println(
+        "[streaming-codecs] generated "
+            + registered.size()
+            + " codecs, "
+            + skipped
+            + " reflective");
+    return written;
+  }
+
+  private Path write(String pkg, String simpleName, String source) throws IOException {
+    Path file = sources.resolve(pkg.replace('.', '/')).resolve(simpleName + ".java");
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, source, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private static void compile(List<Path> files, Path classes, String release) throws IOException {
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    if (javac == null) {
+      throw new IllegalStateException("streaming-codecs needs a JDK, not a JRE");
+    }
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fm =
+        javac.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+      List<String> options =
+          List.of(
+              "--release",
+              release,
+              "-classpath",
+              System.getProperty("java.class.path"),
+              "-d",
+              classes.toString(),
+              "-nowarn");
+      boolean ok =
+          javac
+              .getTask(null, fm, diagnostics, options, null, fm.getJavaFileObjectsFromPaths(files))
+              .call();
+      if (!ok) {
+        diagnostics.getDiagnostics().forEach(d -> System.err.println(d));
+        throw new IllegalStateException("Generated codecs failed to compile");
+      }
+    }
+  }
+
+  // ---------------------------------------------------------------- introspection
+
+  private Model introspect(Class<?> type) {
+    if (type.getTypeParameters().length > 0) {
+      throw new Unsupported("generic type");
+    }
+    try {
+      if (!Modifier.isPublic(type.getConstructor().getModifiers())) {
+        throw new Unsupported("no public no-arg constructor");
+      }
+    } catch (NoSuchMethodException e) {
+      throw new Unsupported("no public no-arg constructor");
+    }
+    checkAnnotations(type, type);
+
+    JavaType javaType = mapper.constructType(type);
+    BeanDescription ser = mapper.getSerializationConfig().introspect(javaType);
+    BeanDescription deser = mapper.getDeserializationConfig().introspect(javaType);
+    if (deser.findJsonValueAccessor() != null || ser.findJsonValueAccessor() != null) {
+      throw new Unsupported("@JsonValue");
+    }
+
+    JsonInclude.Value classInclusion = ser.findPropertyInclusion(JsonInclude.Value.empty());
+    List<Getter> getters = new ArrayList<>();
+    for (BeanPropertyDefinition prop : ser.findProperties()) {
+      checkAnnotations(type, prop);
+      AnnotatedMethod getter = prop.getGetter();
+      if (getter == null) {
+        throw new Unsupported("field-only property " + prop.getName());
+      }
+      JsonInclude.Include include =
+          classInclusion.withOverrides(prop.findInclusion()).getValueInclusion();
+      boolean skipNulls;
+      if (include == JsonInclude.Include.NON_NULL) {
+        skipNulls = true;
+      } else if (include == JsonInclude.Include.ALWAYS) {
+        skipNulls = false;
+      } else {
+        throw new Unsupported("inclusion " + include + " on " + prop.getName());
+      }
+      getters.add(
+          new Getter(
+              prop.getName(),
+              getter.getName(),
+              getter.getAnnotated().getGenericReturnType(),
+              skipNulls));
+    }
+
+    List<Setter> setters = new ArrayList<>();
+    for (BeanPropertyDefinition prop : deser.findProperties()) {
+      checkAnnotations(type, prop);
+      if (prop.hasConstructorParameter()) {
+        throw new Unsupported("creator property " + prop.getName());
+      }
+      AnnotatedMethod setter = prop.getSetter();
+      if (setter == null) {
+        if (prop.hasField()) {
+          throw new Unsupported("field-only property " + prop.getName());
+        }
+        // Getter-only properties (read-only) are skipped by Jackson as well.
+        continue;
+      }
+      Type valueType = setter.getAnnotated().getGenericParameterTypes()[0];
+      setters.add(
+          new Setter(
+              prop.getName(),
+              setter.getName(),
+              valueType,
+              mapper.constructType(valueType).toCanonical()));
+    }
+
+    String anyGetter = null;
+    AnnotatedMember anyGetterMember = ser.findAnyGetter();
+    if (anyGetterMember != null) {
+      if (!(anyGetterMember instanceof AnnotatedMethod)
+          || !Map.class.isAssignableFrom(anyGetterMember.getRawType())) {
+        throw new Unsupported("any-getter is not a Map-returning method");
+      }
+      anyGetter = anyGetterMember.getName();
+    }
+    Setter anySetter = null;
+    AnnotatedMember anySetterMember = deser.findAnySetterAccessor();
+    if (anySetterMember != null) {
+      if (!(anySetterMember instanceof AnnotatedMethod method) || method.getParameterCount() != 2) {
+        throw new Unsupported("any-setter is not a two-argument method");
+      }
+      Type valueType = method.getAnnotated().getGenericParameterTypes()[1];
+      anySetter =
+          new Setter(
+              null, method.getName(), valueType, mapper.constructType(valueType).toCanonical());
+    }
+
+    Set<String> ignored = new LinkedHashSet<>(deser.getIgnoredPropertyNames());
+    setters.forEach(s -> ignored.remove(s.json));
+
+    String relative =
+        type.getPackageName().equals(modelPackage)
+            ? ""
+            : type.getPackageName().substring(modelPackage.length());
+    String codecName =
+        type.getName().substring(type.getPackageName().length() + 1).replace('$', '_') + "Codec";
+    return new Model(
+        type, codecPackage + relative, codecName, getters, setters, anyGetter, anySetter, ignored);
+  }
+
+  private void checkAnnotations(Class<?> type, BeanPropertyDefinition prop) {
+    for (AnnotatedMember member :
+        new AnnotatedMember[] {prop.getField(), prop.getGetter(), prop.getSetter()}) {
+      if (member != null && member.getAnnotated() != null) {
+        checkAnnotations(type, member.getAnnotated());
+      }
+    }
+  }
+
+  private static void checkAnnotations(Class<?> type, AnnotatedElement element) {
+    for (Annotation annotation : element.getAnnotations()) {
+      String name = annotation.annotationType().getName();
+      boolean jackson =
+          name.startsWith("com.fasterxml.jackson.")
+              || annotation
+                  .annotationType()
+                  .isAnnotationPresent(
+                      com.fasterxml.jackson.annotation.JacksonAnnotationsInside.class);
+      if (jackson && !HANDLED_ANNOTATIONS.contains(name)) {
+        throw new Unsupported("@" + annotation.annotationType().getSimpleName() + " on " + element);
+      }
+    }
+  }
+
+  // ---------------------------------------------------------------- emission
+
+  private String emitCodec(Model m) {
+    String model = sourceName(m.type);
+    StringBuilder out = new StringBuilder(8192);
+    header(out, m.codecPackage, "from " + m.type.getName());
+    out.append("import com.fasterxml.jackson.core.JsonGenerator;\n")
+        .append("import com.fasterxml.jackson.core.JsonParser;\n")
+        .append("import com.fasterxml.jackson.core.JsonToken;\n")
+        .append("import com.fasterxml.jackson.core.io.SerializedString;\n")
+        .append("import com.fasterxml.jackson.databind.BeanProperty;\n")
+        .append("import com.fasterxml.jackson.databind.DeserializationContext;\n")
+        .append("import com.fasterxml.jackson.databind.JsonDeserializer;\n")
+        .append("import com.fasterxml.jackson.databind.SerializerProvider;\n")
+        .append("import com.fasterxml.jackson.databind.deser.ContextualDeserializer;\n")
+        .append("import com.fasterxml.jackson.databind.deser.std.StdDeserializer;\n")
+        .append("import com.fasterxml.jackson.databind.ser.std.StdSerializer;\n");
+    if (!m.codecPackage.equals(codecPackage)) {
+      out.append("import ").append(codecPackage).append(".CodecSupport;\n");
+    }
+    out.append("import java.io.IOException;\n\n");
+
+    out.append("/** Streaming codec for {@link ").append(model).append("}. */\n");
+    generatedAnnotation(out);
+    out.append("public final class ").append(m.codecName).append(" {\n");
+    for (int i = 0; i < m.getters.size(); i++) {
+      out.append("  private static final SerializedString N")
+          .append(i)
+          .append(" = new SerializedString(")
+          .append(literal(m.getters.get(i).json))
+          .append(");\n");
+    }
+    out.append("\n  private ").append(m.codecName).append("() {}\n\n");
+
+    // Serializer
+    out.append("  public static final class Serializer extends StdSerializer<")
+        .append(model)
+        .append("> {\n")
+        .append("    public Serializer() {\n")
+        .append("      super(")
+        .append(model)
+        .append(".class);\n")
+        .append("    }\n\n")
+        .append("    @Override\n")
+        .append("    public void serialize(")
+        .append(model)
+        .append(" bean, JsonGenerator gen, SerializerProvider provider)\n")
+        .append("        throws IOException {\n")
+        .append("      gen.writeStartObject(bean);\n");
+    for (int i = 0; i < m.getters.size(); i++) {
+      emitWrite(out, m.getters.get(i), i);
+    }
+    if (m.anyGetter != null) {
+      out.append("      CodecSupport.writeAny(bean.")
+          .append(m.anyGetter)
+          .append("(), gen, provider);\n");
+    }
+    out.append("      gen.writeEndObject();\n").append("    }\n").append("  }\n\n");
+
+    // Deserializer
+    out.append("  public static final class Deserializer extends StdDeserializer<")
+        .append(model)
+        .append(">\n      implements ContextualDeserializer {\n");
+    for (int i = 0; i < m.setters.size(); i++) {
+      out.append("    private final CodecSupport.ValueReader r")
+          .append(i)
+          .append(" =\n        new CodecSupport.ValueReader(")
+          .append(literal(m.setters.get(i).canonicalType))
+          .append(");\n");
+    }
+    if (m.anySetter != null) {
+      out.append(
+              "    private final CodecSupport.ValueReader any =\n"
+                  + "        new CodecSupport.ValueReader(")
+          .append(literal(m.anySetter.canonicalType))
+          .append(");\n");
+    }
+    out.append("    private final boolean contextual;\n\n")
+        .append("    public Deserializer() {\n")
+        .append("      this(false);\n")
+        .append("    }\n\n")
+        .append("    private Deserializer(boolean contextual) {\n")
+        .append("      super(")
+        .append(model)
+        .append(".class);\n")
+        .append("      this.contextual = contextual;\n")
+        .append("    }\n\n")
+        .append("    @Override\n")
+        .append(
+            "    public JsonDeserializer<?> createContextual(DeserializationContext ctxt,"
+                + " BeanProperty property) {\n")
+        .append(
+            "      // Value readers cache deserializers of the mapper that contextualizes this"
+                + " instance.\n")
+        .append("      return contextual ? this : new Deserializer(true);\n")
+        .append("    }\n\n")
+        .append("    @Override\n")
+        .append(
+            "    public Boolean supportsUpdate(com.fasterxml.jackson.databind.DeserializationConfig"
+                + " config) {\n")
+        .append("      return Boolean.TRUE;\n")
+        .append("    }\n\n")
+        .append("    @Override\n")
+        .append("    public ")
+        .append(model)
+        .append(" deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {\n")
+        .append("      if (!CodecSupport.atObject(p)) {\n")
+        .append("        return (")
+        .append(model)
+        .append(") ctxt.handleUnexpectedToken(")
+        .append(model)
+        .append(".class, p);\n")
+        .append("      }\n")
+        .append("      return deserialize(p, ctxt, new ")
+        .append(model)
+        .append("());\n")
+        .append("    }\n\n")
+        .append("    @Override\n")
+        .append("    @SuppressWarnings(\"unchecked\")\n")
+        .append("    public ")
+        .append(model)
+        .append(" deserialize(JsonParser p, DeserializationContext ctxt, ")
+        .append(model)
+        .append(" bean)\n")
+        .append("        throws IOException {\n")
+        .append(
+            "      for (String name = CodecSupport.firstName(p); name != null; name ="
+                + " p.nextFieldName()) {\n")
+        .append("        JsonToken t = p.nextToken();\n")
+        .append("        switch (name) {\n");
+    for (int i = 0; i < m.setters.size(); i++) {
+      Setter s = m.setters.get(i);
+      out.append("          case ")
+          .append(literal(s.json))
+          .append(":\n")
+          .append("            bean.")
+          .append(s.method)
+          .append("(")
+          .append(readExpression(s, "r" + i))
+          .append(");\n")
+          .append("            break;\n");
+    }
+    for (String name : m.ignored) {
+      out.append("          case ")
+          .append(literal(name))
+          .append(":\n")
+          .append("            CodecSupport.ignore(p, ctxt, bean, name);\n")
+          .append("            break;\n");
+    }
+    out.append("          default:\n");
+    if (m.anySetter != null) {
+      out.append("            bean.")
+          .append(m.anySetter.method)
+          .append("(name, (")
+          .append(sourceName(m.anySetter.type))
+          .append(") any.read(p, ctxt));\n");
+    } else {
+      out.append("            ctxt.handleUnknownProperty(p, this, bean, name);\n");
+    }
+    out.append("        }\n")
+        .append("      }\n")
+        .append("      return bean;\n")
+        .append("    }\n")
+        .append("  }\n")
+        .append("}\n");
+    return out.toString();
+  }
+
+  private static void emitWrite(StringBuilder out, Getter g, int i) {
+    String value = "v" + i;
+    out.append("      ")
+        .append(sourceName(g.type))
+        .append(" ")
+        .append(value)
+        .append(" = bean.")
+        .append(g.method)
+        .append("();\n");
+    String write = writeStatement(g.type, value);
+    if (g.type instanceof Class<?> c && c.isPrimitive()) {
+      out.append("      gen.writeFieldName(N")
+          .append(i)
+          .append(");\n")
+          .append("      ")
+          .append(write)
+          .append("\n");
+      return;
+    }
+    if (g.skipNulls) {
+      out.append("      if (")
+          .append(value)
+          .append(" != null) {\n")
+          .append("        gen.writeFieldName(N")
+          .append(i)
+          .append(");\n")
+          .append("        ")
+          .append(write)
+          .append("\n")
+          .append("      }\n");
+    } else {
+      out.append("      gen.writeFieldName(N")
+          .append(i)
+          .append(");\n")
+          .append("      if (")
+          .append(value)
+          .append(" == null) {\n")
+          .append("        provider.defaultSerializeNull(gen);\n")
+          .append("      } else {\n")
+          .append("        ")
+          .append(write)
+          .append("\n")
+          .append("      }\n");
+    }
+  }
+
+  private static String writeStatement(Type type, String value) {
+    if (type == String.class) {
+      return "gen.writeString(" + value + ");";
+    }
+    if (type == Integer.class || type == int.class) {
+      return "gen.writeNumber((int) " + value + ");";
+    }
+    if (type == Long.class || type == long.class) {
+      return "gen.writeNumber((long) " + value + ");";
+    }
+    if (type == Double.class || type == double.class) {
+      return "gen.writeNumber((double) " + value + ");";
+    }
+    if (type == Boolean.class || type == boolean.class) {
+      return "gen.writeBoolean(" + value + ");";
+    }
+    return "CodecSupport.writeValue(" + value + ", gen, provider);";
+  }
+
+  private static String readExpression(Setter s, String reader) {
+    String cast = "(" + sourceName(boxed(s.type)) + ") " + reader + ".read(p, ctxt)";
+    if (s.type == String.class) {
+      return "t == JsonToken.VALUE_STRING ? p.getText() : " + cast;
+    }
+    if (s.type == Integer.class) {
+      return "t == JsonToken.VALUE_NUMBER_INT ? Integer.valueOf(p.getIntValue()) : " + cast;
+    }
+    if (s.type == Long.class) {
+      return "t == JsonToken.VALUE_NUMBER_INT ? Long.valueOf(p.getLongValue()) : " + cast;
+    }
+    if (s.type == Double.class) {
+      return "t == JsonToken.VALUE_NUMBER_FLOAT ? Double.valueOf(p.getDoubleValue()) : " + cast;
+    }
+    if (s.type == Boolean.class) {
+      return "t == JsonToken.VALUE_TRUE\n                ? Boolean.TRUE\n"
+          + "                : t == JsonToken.VALUE_FALSE ? Boolean.FALSE : "
+          + cast;
+    }
+    return cast;
+  }
+
+  private String emitSupport() {
+    StringBuilder out = new StringBuilder(4096);
+    header(out, codecPackage, "");
+    out.append("import com.fasterxml.jackson.core.JsonGenerator;\n")
+        .append("import com.fasterxml.jackson.core.JsonParser;\n")
+        .append("import com.fasterxml.jackson.core.JsonToken;\n")
+        .append("import com.fasterxml.jackson.databind.DeserializationContext;\n")
+        .append("import com.fasterxml.jackson.databind.DeserializationFeature;\n")
+        .append("import com.fasterxml.jackson.databind.JsonDeserializer;\n")
+        .append("import com.fasterxml.jackson.databind.SerializerProvider;\n")
+        .append("import com.fasterxml.jackson.databind.exc.IgnoredPropertyException;\n")
+        .append("import java.io.IOException;\n")
+        .append("import java.util.Map;\n\n")
+        .append("/** Runtime helpers shared by the generated codecs. */\n");
+    generatedAnnotation(out);
+    out.append("public final class CodecSupport {\n")
+        .append("  private CodecSupport() {}\n\n")
+        .append(
+            "  /** True when {@code p} is positioned where a bean deserializer may start reading."
+                + " */\n")
+        .append("  public static boolean atObject(JsonParser p) {\n")
+        .append("    return p.hasToken(JsonToken.START_OBJECT)\n")
+        .append("        || p.hasToken(JsonToken.FIELD_NAME)\n")
+        .append("        || p.hasToken(JsonToken.END_OBJECT);\n")
+        .append("  }\n\n")
+        .append(
+            "  /** Returns the first member name of the current object, or {@code null} if it is"
+                + " empty. */\n")
+        .append("  public static String firstName(JsonParser p) throws IOException {\n")
+        .append("    if (p.hasToken(JsonToken.START_OBJECT)) {\n")
+        .append("      return p.nextFieldName();\n")
+        .append("    }\n")
+        .append("    return p.hasToken(JsonToken.FIELD_NAME) ? p.currentName() : null;\n")
+        .append("  }\n\n")
+        .append(
+            "  /** Skips an ignored member, failing when {@code FAIL_ON_IGNORED_PROPERTIES} is on."
+                + " */\n")
+        .append(
+            "  public static void ignore(JsonParser p, DeserializationContext ctxt, Object bean,"
+                + " String name)\n")
+        .append("      throws IOException {\n")
+        .append("    if (ctxt.isEnabled(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES)) {\n")
+        .append("      throw IgnoredPropertyException.from(p, bean, name, null);\n")
+        .append("    }\n")
+        .append("    p.skipChildren();\n")
+        .append("  }\n\n")
+        .append(
+            "  /** Writes a non-scalar value with the provider's cached serializer for its runtime"
+                + " type. */\n")
+        .append(
+            "  public static void writeValue(Object value, JsonGenerator gen, SerializerProvider"
+                + " provider)\n")
+        .append("      throws IOException {\n")
+        .append(
+            "    provider.findTypedValueSerializer(value.getClass(), true, null).serialize(value,"
+                + " gen, provider);\n")
+        .append("  }\n\n")
+        .append(
+            "  /** Writes the entries of an any-getter map as members of the current object. */\n")
+        .append(
+            "  public static void writeAny(Map<String, ?> values, JsonGenerator gen,"
+                + " SerializerProvider provider)\n")
+        .append("      throws IOException {\n")
+        .append("    if (values == null || values.isEmpty()) {\n")
+        .append("      return;\n")
+        .append("    }\n")
+        .append("    for (Map.Entry<String, ?> e : values.entrySet()) {\n")
+        .append("      gen.writeFieldName(e.getKey());\n")
+        .append("      Object value = e.getValue();\n")
+        .append("      if (value == null) {\n")
+        .append("        provider.defaultSerializeNull(gen);\n")
+        .append("      } else {\n")
+        .append("        writeValue(value, gen, provider);\n")
+        .append("      }\n")
+        .append("    }\n")
+        .append("  }\n\n")
+        .append("  /**\n")
+        .append(
+            "   * Reads one member value with a deserializer resolved on first use, so recursive"
+                + " models do\n")
+        .append("   * not recurse while their codecs are being contextualized.\n")
+        .append("   */\n")
+        .append("  public static final class ValueReader {\n")
+        .append("    private final String type;\n")
+        .append("    private volatile JsonDeserializer<Object> deserializer;\n\n")
+        .append("    public ValueReader(String canonicalType) {\n")
+        .append("      this.type = canonicalType;\n")
+        .append("    }\n\n")
+        .append(
+            "    public Object read(JsonParser p, DeserializationContext ctxt) throws IOException"
+                + " {\n")
+        .append("      JsonDeserializer<Object> d = deserializer;\n")
+        .append("      if (d == null) {\n")
+        .append(
+            "        d = ctxt.findRootValueDeserializer("
+                + "ctxt.getTypeFactory().constructFromCanonical(type));\n")
+        .append("        deserializer = d;\n")
+        .append("      }\n")
+        .append(
+            "      return p.hasToken(JsonToken.VALUE_NULL) ? d.getNullValue(ctxt) :"
+                + " d.deserialize(p, ctxt);\n")
+        .append("    }\n")
+        .append("  }\n")
+        .append("}\n");
+    return out.toString();
+  }
+
+  private String emitModule(List<String[]> registered) {
+    StringBuilder out = new StringBuilder(8192);
+    header(out, codecPackage, "");
+    out.append("import com.fasterxml.jackson.databind.module.SimpleModule;\n\n")
+        .append("/**\n")
+        .append(
+            " * Registers the generated streaming serializers and deserializers for the UCP"
+                + " models.\n")
+        .append(" *\n")
+        .append(" * <p>Usage:\n")
+        .append(" *\n")
+        .append(" * <pre>{@code\n")
+        .append(
+            " * ObjectMapper mapper = new ObjectMapper().registerModule(new UcpModelsModule());\n")
+        .append(" * }</pre>\n")
+        .append(" */\n");
+    generatedAnnotation(out);
+    out.append("public final class UcpModelsModule extends SimpleModule {\n")
+        .append("  private static final long serialVersionUID = 1L;\n\n")
+        .append("  /** Number of models with a generated codec. */\n")
+        .append("  public static final int MODELS = ")
+        .append(registered.size())
+        .append(";\n\n")
+        .append("  public UcpModelsModule() {\n")
+        .append("    super(\"ucp-models-streaming\");\n");
+    for (String[] r : registered) {
+      out.append("    addSerializer(")
+          .append(r[0])
+          .append(".class, new ")
+          .append(r[1])
+          .append(".Serializer());\n")
+          .append("    addDeserializer(")
+          .append(r[0])
+          .append(".class, new ")
+          .append(r[1])
+          .append(".Deserializer());\n");
+    }
+    out.append("  }\n").append("}\n");
+    return out.toString();
+  }
+
+  private static void header(StringBuilder out, String pkg, String origin) {
+    out.append("// Generated by ").append(GENERATED_BY);
+    if (!origin.isEmpty()) {
+      out.append(' ').append(origin);
+    }
+    out.append(". Do not edit.\n").append("package ").append(pkg).append(";\n\n");
+  }
+
+  private static void generatedAnnotation(StringBuilder out) {
+    out.append("@javax.annotation.processing.Generated(\"").append(GENERATED_BY).append("\")\n");
+  }
+
+  private static Type boxed(Type type) {
+    if (!(type instanceof Class<?> c) || !c.isPrimitive()) {
+      return type;
+    }
+    if (c == int.class) {
+      return Integer.class;
+    }
+    if (c == long.class) {
+      return Long.class;
+    }
+    if (c == double.class) {
+      return Double.class;
+    }
+    if (c == boolean.class) {
+      return Boolean.class;
+    }
+    if (c == float.class) {
+      return Float.class;
+    }
+    if (c == short.class) {
+      return Short.class;
+    }
+    if (c == byte.class) {
+      return Byte.class;
+    }
+    return Character.class;
+  }
+
+  /** Java source spelling of {@code type}, with canonical (dotted) names for nested classes. */
+  private static String sourceName(Type type) {
+    if (type instanceof Class<?> c) {
+      return c.isArray() ? sourceName(c.getComponentType()) + "[]" : c.getCanonicalName();
+    }
+    if (type instanceof ParameterizedType p) {
+      return sourceName(p.getRawType())
+          + Stream.of(p.getActualTypeArguments())
+              .map(StreamingCodecGenerator::sourceName)
+              .collect(Collectors.joining(", ", "<", ">"));
+    }
+    if (type instanceof GenericArrayType a) {
+      return sourceName(a.getGenericComponentType()) + "[]";
+    }
+    if (type instanceof WildcardType w) {
+      if (w.getLowerBounds().length > 0) {
+        return "? super " + sourceName(w.getLowerBounds()[0]);
+      }
+      Type upper = w.getUpperBounds()[0];
+      return upper == Object.class ? "?" : "? extends " + sourceName(upper);
+    }
+    throw new Unsupported("type " + type.getTypeName());
+  }
+
+  private static String literal(String value) {
+    StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+    for (char c : value.toCharArray()) {
+      switch (c) {
+        case '"' -> out.append("\\\"");
+        case '\\' -> out.append("\\\\");
+        case '\n' -> out.append("\\n");
+        case '\r' -> out.append("\\r");
+        case '\t' -> out.append("\\t");
+        default -> {
+          if (c < 0x20 || c > 0x7e) {
+            out.append(String.format("\\u%04x", (int) c));
+          } else {
+            out.append(c);
+          }
+        }
+      }
+    }
+    return out.append('"').toString();
+  }
+
+  private record Getter(String json, String method, Type type, boolean skipNulls) {}
+
+  private record Setter(String json, String method, Type type, String canonicalType) {}
+
+  private record Model(
+      Class<?> type,
+      String codecPackage,
+      String codecName,
+      List<Getter> getters,
+      List<Setter> setters,
+      String anyGetter,
+      Setter anySetter,
+      Set<String> ignored) {}
+
+  /** Thrown when a model relies on Jackson features the generated code does not reproduce. */
+  private static final class Unsupported extends RuntimeException {
+    Unsupported(String message) {
+      super(message, null, false, false);
+    }
+  }
+}
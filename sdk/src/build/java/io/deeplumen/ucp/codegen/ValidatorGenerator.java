@@ -0,0 +1,944 @@
+package io.deeplumen.ucp.codegen;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates plain-Java schema validators for the compiled UCP models.
+ *
+ * <p>Runs after {@code compile}, with the SDK's compiled classes and dependencies on the classpath.
+ * The constraints are the ones jsonschema2pojo carries over from the UCP JSON Schemas as Jakarta
+ * Bean Validation annotations ({@code @NotNull} for {@code required}, {@code @Size} for the length
+ * and item bounds, {@code @Pattern}, {@code @DecimalMin}/{@code @DecimalMax} and so on); member
+ * names, JSON types and enum values come from the models' Jackson {@link BeanDescription}. For
+ * every supported model it emits a {@code <Model>Validator} whose typed {@code validate} calls the
+ * getters and whose streaming {@code validate} walks a {@code JsonParser} with a string {@code
+ * switch} on member names, plus a {@code UcpModelValidators} registry. The sources are compiled
+ * straight into the SDK's output directory.
+ *
+ * <p>Models carrying constraints the generated code does not reproduce (class-level constraints,
+ * {@code @Pattern} flags, constraint annotations other than the above, ...) are skipped and have no
+ * validator; references to them from other models are not descended into.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * java -cp <classes>:<deps> ValidatorGenerator.java \
+ *     <classes-dir> <sources-dir> <model-package> <validator-package> [release]
+ * }</pre>
+ */
+public final class ValidatorGenerator {
+  private static final String GENERATED_BY = ValidatorGenerator.class.getName();
+  private static final String CONSTRAINTS = "jakarta.validation.constraints.";
+
+  // Constraints the generated code checks; jakarta.validation.Valid only marks cascading, which
+  // the generated code does for every nested model.
+  private static final Set<String> HANDLED_CONSTRAINTS =
+      Set.of("NotNull", "Size", "Pattern", "DecimalMin", "DecimalMax", "Min", "Max", "Email");
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final Path sources;
+  private final String modelPackage;
+  private final String validatorPackage;
+  private Map<Class<?>, Model> generated = Map.of();
+  private int locals;
+
+  private ValidatorGenerator(Path sources, String modelPackage, String validatorPackage) {
+    this.sources = sources;
+    this.modelPackage = modelPackage;
+    this.validatorPackage = validatorPackage;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 4) {
+      System.err.println(
+          "usage: ValidatorGenerator <classes-dir> <sources-dir> <model-package>"
+              + " <validator-package> [release]");
+      System.exit(2);
+    }
+    Path classes = Path.of(args[0]);
+    String release = args.length > 4 ? args[4] : "17";
+    ValidatorGenerator generator = new ValidatorGenerator(Path.of(args[1]), args[2], args[3]);
+
+    List<Path> generated = generator.generate(generator.scan(classes));
+    compile(generated, classes, release);
+  }
+
+  private List<Class<?>> scan(Path classes) throws IOException, ClassNotFoundException {
+    Path root = classes.resolve(modelPackage.replace('.', '/'));
+    if (!Files.isDirectory(root)) {
+      throw new IllegalStateException("No compiled models under " + root);
+    }
+    List<String> names;
+    try (Stream<Path> files = Files.walk(root)) {
+      names =
+          files
+              .filter(f -> f.toString().endsWith(".class"))
+              .map(f -> classes.relativize(f).toString())
+              .map(f -> f.substring(0, f.length() - ".class".length()).replace('/', '.'))
+              .filter(n -> !n.endsWith("package-info"))
+              .sorted()
+              .collect(Collectors.toList());
+    }
+    ClassLoader loader = ValidatorGenerator.class.getClassLoader();
+    List<Class<?>> models = new ArrayList<>();
+    for (String name : names) {
+      Class<?> type = Class.forName(name, false, loader);
+      int modifiers = type.getModifiers();
+      if (type.isEnum()
+          || type.isInterface()
+          || type.isAnonymousClass()
+          || type.isLocalClass()
+          || type.isSynthetic()
+          || !Modifier.isPublic(modifiers)
+          || Modifier.isAbstract(modifiers)
+          || (type.isMemberClass() && !Modifier.isStatic(modifiers))) {
+        continue;
+      }
+      models.add(type);
+    }
+    return models;
+  }
+
+  private List<Path> generate(List<Class<?>> models) throws IOException {
+    Set<Class<?>> candidates = Set.copyOf(models);
+    Map<Class<?>, Model> supported = new LinkedHashMap<>();
+    int skipped = 0;
+    for (Class<?> model : models) {
+      try {
+        supported.put(model, introspect(model, candidates));
+      } catch (Unsupported e) {
+        System.out.println(
+            "[validators] skipped: " + model.getName() + " (" + e.getMessage() + ")");
+        skipped++;
+      }
+    }
+    generated = supported;
+
+    List<Path> written = new ArrayList<>();
+    for (Model m : supported.values()) {
+      written.add(write(m.validatorPackage, m.validatorName, emitValidator(m)));
+    }
+    written.add(write(validatorPackage, "UcpModelValidators", emitRegistry(supported.values())));
+    System.out.println(
+        "[validators] generated " + supported.size() + " validators, " + skipped + " skipped");
+    return written;
+  }
+
+  private Path write(String pkg, String simpleName, String source) throws IOException {
+    Path file = sources.resolve(pkg.replace('.', '/')).resolve(simpleName + ".java");
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, source, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private static void compile(List<Path> files, Path classes, String release) throws IOException {
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    if (javac == null) {
+      throw new IllegalStateException("validator generation needs a JDK, not a JRE");
+    }
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fm =
+        javac.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+      List<String> options =
+          List.of(
+              "--release",
+              release,
+              "-classpath",
+              System.getProperty("java.class.path"),
+              "-d",
+              classes.toString(),
+              "-nowarn");
+      boolean ok =
+          javac
+              .getTask(null, fm, diagnostics, options, null, fm.getJavaFileObjectsFromPaths(files))
+              .call();
+      if (!ok) {
+        diagnostics.getDiagnostics().forEach(d -> System.err.println(d));
+        throw new IllegalStateException("Generated validators failed to compile");
+      }
+    }
+  }
+
+  // ---------------------------------------------------------------- introspection
+
+  private Model introspect(Class<?> type, Set<Class<?>> candidates) {
+    if (type.getTypeParameters().length > 0) {
+      throw new Unsupported("generic type");
+    }
+    for (Annotation annotation : type.getAnnotations()) {
+      if (isConstraint(annotation)) {
+        throw new Unsupported("class-level @" + annotation.annotationType().getSimpleName());
+      }
+    }
+
+    BeanDescription ser = mapper.getSerializationConfig().introspect(mapper.constructType(type));
+    List<Property> properties = new ArrayList<>();
+    for (BeanPropertyDefinition prop : ser.findProperties()) {
+      AnnotatedMethod getter = prop.getGetter();
+      Type valueType =
+          getter != null
+              ? getter.getAnnotated().getGenericReturnType()
+              : prop.hasField() ? prop.getField().getAnnotated().getGenericType() : Object.class;
+      Kind kind = kind(valueType, candidates);
+      Property p = new Property(prop.getName(), getter == null ? null : getter.getName(), kind);
+      for (AnnotatedMember member :
+          new AnnotatedMember[] {prop.getField(), prop.getGetter(), prop.getSetter()}) {
+        if (member != null && member.getAnnotated() != null) {
+          for (Annotation annotation : member.getAnnotated().getAnnotations()) {
+            constrain(p, annotation);
+          }
+        }
+      }
+      properties.add(p);
+    }
+
+    String relative =
+        type.getPackageName().equals(modelPackage)
+            ? ""
+            : type.getPackageName().substring(modelPackage.length());
+    String validatorName =
+        type.getName().substring(type.getPackageName().length() + 1).replace('$', '_')
+            + "Validator";
+    return new Model(type, validatorPackage + relative, validatorName, properties);
+  }
+
+  private Kind kind(Type type, Set<Class<?>> candidates) {
+    if (type instanceof WildcardType w) {
+      return kind(w.getUpperBounds()[0], candidates);
+    }
+    Class<?> raw =
+        type instanceof Class<?> c
+            ? c
+            : type instanceof ParameterizedType p ? (Class<?>) p.getRawType() : Object.class;
+    if (raw == String.class) {
+      return new Kind(Tag.STRING, type, null, null);
+    }
+    if (raw == Integer.class
+        || raw == int.class
+        || raw == Long.class
+        || raw == long.class
+        || raw == Short.class
+        || raw == short.class
+        || raw == Byte.class
+        || raw == byte.class
+        || raw == BigInteger.class) {
+      return new Kind(Tag.INTEGER, type, null, null);
+    }
+    if (raw == Double.class
+        || raw == double.class
+        || raw == Float.class
+        || raw == float.class
+        || raw == BigDecimal.class
+        || raw == Number.class) {
+      return new Kind(Tag.NUMBER, type, null, null);
+    }
+    if (raw == Boolean.class || raw == boolean.class) {
+      return new Kind(Tag.BOOLEAN, type, null, null);
+    }
+    if (raw == URI.class) {
+      return new Kind(Tag.URI, type, null, null);
+    }
+    if (raw.isEnum()) {
+      List<String> values = new ArrayList<>();
+      for (Object constant : raw.getEnumConstants()) {
+        JsonNode value = mapper.valueToTree(constant);
+        if (!value.isTextual()) {
+          return new Kind(Tag.ANY, type, null, null);
+        }
+        values.add(value.textValue());
+      }
+      return new Kind(Tag.ENUM, type, values, null);
+    }
+    if (Collection.class.isAssignableFrom(raw) && type instanceof ParameterizedType p) {
+      return new Kind(Tag.ARRAY, type, null, kind(p.getActualTypeArguments()[0], candidates));
+    }
+    if (candidates.contains(raw)) {
+      return new Kind(Tag.MODEL, type, null, null);
+    }
+    return new Kind(Tag.ANY, type, null, null);
+  }
+
+  private static boolean isConstraint(Annotation annotation) {
+    return annotation.annotationType().getName().startsWith(CONSTRAINTS)
+        || annotation.annotationType().isAnnotationPresent(jakarta.validation.Constraint.class);
+  }
+
+  private static void constrain(Property p, Annotation annotation) {
+    if (!isConstraint(annotation)) {
+      return;
+    }
+    String name = annotation.annotationType().getName();
+    String simple = annotation.annotationType().getSimpleName();
+    if (!name.equals(CONSTRAINTS + simple) || !HANDLED_CONSTRAINTS.contains(simple)) {
+      throw new Unsupported("@" + simple + " on " + p.json);
+    }
+    if (((Class<?>[]) attribute(annotation, "groups")).length > 0) {
+      throw new Unsupported("@" + simple + " with groups on " + p.json);
+    }
+    Tag tag = p.kind.tag;
+    switch (simple) {
+      case "NotNull" -> p.required = true;
+      case "Size" -> {
+        if (tag != Tag.STRING && tag != Tag.ARRAY) {
+          throw new Unsupported("@Size on " + tag + " " + p.json);
+        }
+        int min = (Integer) attribute(annotation, "min");
+        int max = (Integer) attribute(annotation, "max");
+        p.minSize = min > 0 ? min : null;
+        p.maxSize = max < Integer.MAX_VALUE ? max : null;
+      }
+      case "Pattern", "Email" -> {
+        if (tag != Tag.STRING) {
+          throw new Unsupported("@" + simple + " on " + tag + " " + p.json);
+        }
+        if (((Object[]) attribute(annotation, "flags")).length > 0) {
+          throw new Unsupported("@" + simple + " flags on " + p.json);
+        }
+        String regexp = (String) attribute(annotation, "regexp");
+        if (simple.equals("Pattern")) {
+          p.pattern = regexp;
+        } else if (!regexp.equals(".*")) {
+          throw new Unsupported("@Email regexp on " + p.json);
+        } else {
+          p.email = true;
+        }
+      }
+      default -> {
+        if (tag != Tag.INTEGER && tag != Tag.NUMBER) {
+          throw new Unsupported("@" + simple + " on " + tag + " " + p.json);
+        }
+        boolean lower = simple.endsWith("Min");
+        String text = String.valueOf(attribute(annotation, "value"));
+        boolean inclusive =
+            !simple.startsWith("Decimal") || (Boolean) attribute(annotation, "inclusive");
+        double value;
+        try {
+          value = new BigDecimal(text).doubleValue();
+        } catch (NumberFormatException e) {
+          throw new Unsupported("@" + simple + "(\"" + text + "\") on " + p.json);
+        }
+        if (Double.isInfinite(value)) {
+          throw new Unsupported("@" + simple + "(\"" + text + "\") on " + p.json);
+        }
+        Bound bound = new Bound(value, text, inclusive);
+        if (lower) {
+          p.min = bound;
+        } else {
+          p.max = bound;
+        }
+      }
+    }
+  }
+
+  private static Object attribute(Annotation annotation, String name) {
+    try {
+      return annotation.annotationType().getMethod(name).invoke(annotation);
+    } catch (ReflectiveOperationException e) {
+      throw new Unsupported("@" + annotation.annotationType().getSimpleName() + " without " + name);
+    }
+  }
+
+  // ---------------------------------------------------------------- emission
+
+  private String emitValidator(Model m) {
+    String model = sourceName(m.type);
+    locals = 0;
+    StringBuilder out = new StringBuilder(8192);
+    header(out, m.validatorPackage, "from " + m.type.getName());
+    out.append("import com.fasterxml.jackson.core.JsonParser;\n")
+        .append("import com.fasterxml.jackson.core.JsonToken;\n")
+        .append("import io.deeplumen.ucp.validation.ModelValidator;\n")
+        .append("import io.deeplumen.ucp.validation.ValidatorSupport;\n")
+        .append("import io.deeplumen.ucp.validation.Violations;\n")
+        .append("import java.io.IOException;\n")
+        .append("import java.util.regex.Pattern;\n\n");
+
+    out.append("/** Schema validator for {@link ").append(model).append("}. */\n");
+    generatedAnnotation(out);
+    out.append("public final class ")
+        .append(m.validatorName)
+        .append(" implements ModelValidator<")
+        .append(model)
+        .append("> {\n")
+        .append("  public static final ")
+        .append(m.validatorName)
+        .append(" INSTANCE = new ")
+        .append(m.validatorName)
+        .append("();\n");
+    for (int i = 0; i < m.properties.size(); i++) {
+      String pattern = m.properties.get(i).pattern;
+      if (pattern != null) {
+        out.append("  private static final Pattern P")
+            .append(i)
+            .append(" = Pattern.compile(")
+            .append(literal(pattern))
+            .append(");\n");
+      }
+    }
+    out.append("\n  private ")
+        .append(m.validatorName)
+        .append("() {}\n\n")
+        .append("  @Override\n")
+        .append("  public Class<")
+        .append(model)
+        .append("> type() {\n")
+        .append("    return ")
+        .append(model)
+        .append(".class;\n")
+        .append("  }\n\n");
+
+    // Bound models
+    out.append("  @Override\n")
+        .append("  public void validate(")
+        .append(model)
+        .append(" value, Violations violations) {\n");
+    for (int i = 0; i < m.properties.size(); i++) {
+      emitTyped(out, m.properties.get(i), i);
+    }
+    out.append("  }\n\n");
+
+    // Streaming
+    out.append("  @Override\n")
+        .append(
+            "  public void validate(JsonParser p, Violations violations) throws IOException {\n")
+        .append("    if (!p.hasToken(JsonToken.START_OBJECT)) {\n")
+        .append("      violations.add(\"must be an object\");\n")
+        .append("      p.skipChildren();\n")
+        .append("      return;\n")
+        .append("    }\n");
+    for (int i = 0; i < m.properties.size(); i++) {
+      if (m.properties.get(i).required) {
+        out.append("    boolean r").append(i).append(" = false;\n");
+      }
+    }
+    out.append(
+            "    for (String name = p.nextFieldName(); name != null; name = p.nextFieldName()) {\n")
+        .append("      JsonToken t = p.nextToken();\n")
+        .append("      switch (name) {\n");
+    for (int i = 0; i < m.properties.size(); i++) {
+      emitParsedMember(out, m.properties.get(i), i);
+    }
+    out.append("        default:\n")
+        .append("          p.skipChildren();\n")
+        .append("      }\n")
+        .append("    }\n");
+    for (int i = 0; i < m.properties.size(); i++) {
+      Property prop = m.properties.get(i);
+      if (prop.required) {
+        out.append("    if (!r")
+            .append(i)
+            .append(") {\n")
+            .append("      violations.add(")
+            .append(literal(prop.json))
+            .append(", \"is required\");\n")
+            .append("    }\n");
+      }
+    }
+    out.append("  }\n").append("}\n");
+    return out.toString();
+  }
+
+  private void emitTyped(StringBuilder out, Property prop, int i) {
+    Kind kind = resolve(prop.kind);
+    List<String> checks = new ArrayList<>();
+    String value = "v" + i;
+    String add = "violations.add(" + literal(prop.json) + ", ";
+    switch (kind.tag) {
+      case STRING -> {
+        if (prop.minSize != null || prop.maxSize != null) {
+          String n = local("n");
+          checks.add("int " + n + " = ValidatorSupport.codePoints(" + value + ");");
+          sizeChecks(checks, prop, n, add, "length must be", "");
+        }
+        stringChecks(checks, prop, i, value, add);
+      }
+      case INTEGER, NUMBER -> {
+        if (prop.min != null || prop.max != null) {
+          String d = local("d");
+          boolean primitive = kind.type instanceof Class<?> c && c.isPrimitive();
+          checks.add(
+              "double "
+                  + d
+                  + " = "
+                  + (primitive ? "(double) " + value : value + ".doubleValue()")
+                  + ";");
+          boundChecks(checks, prop, d, add);
+        }
+      }
+      case ARRAY -> {
+        if (prop.minSize != null || prop.maxSize != null) {
+          sizeChecks(checks, prop, value + ".size()", add, "must have", " items");
+        }
+        if (walksBound(kind.element)) {
+          checks.add("violations.enter(" + literal(prop.json) + ");");
+          elementsTyped(checks, kind.element, value);
+          checks.add("violations.exit();");
+        }
+      }
+      case MODEL -> {
+        checks.add("violations.enter(" + literal(prop.json) + ");");
+        checks.add(validatorRef(kind) + ".validate(" + value + ", violations);");
+        checks.add("violations.exit();");
+      }
+      default -> {}
+    }
+    if (prop.getter == null || (checks.isEmpty() && !prop.required)) {
+      return;
+    }
+    out.append("    ")
+        .append(sourceName(kind.type))
+        .append(' ')
+        .append(value)
+        .append(" = value.")
+        .append(prop.getter)
+        .append("();\n");
+    if (kind.type instanceof Class<?> c && c.isPrimitive()) {
+      checks.forEach(line -> out.append("    ").append(line).append('\n'));
+      return;
+    }
+    if (prop.required) {
+      out.append("    if (")
+          .append(value)
+          .append(" == null) {\n")
+          .append("      ")
+          .append(add)
+          .append("\"is required\");\n")
+          .append("    }");
+      if (checks.isEmpty()) {
+        out.append('\n');
+        return;
+      }
+      out.append(" else {\n");
+    } else {
+      out.append("    if (").append(value).append(" != null) {\n");
+    }
+    checks.forEach(line -> out.append(line.isEmpty() ? "" : "      ").append(line).append('\n'));
+    out.append("    }\n");
+  }
+
+  /** Descends into the elements of a bound collection, one nesting level per call. */
+  private void elementsTyped(List<String> lines, Kind element, String collection) {
+    String index = local("i");
+    String e = local("e");
+    lines.add("int " + index + " = 0;");
+    lines.add("for (" + sourceName(element.type) + " " + e + " : " + collection + ") {");
+    lines.add("  if (" + e + " != null) {");
+    lines.add("    violations.enter(" + index + ");");
+    if (element.tag == Tag.MODEL) {
+      lines.add("    " + validatorRef(element) + ".validate(" + e + ", violations);");
+    } else {
+      List<String> nested = new ArrayList<>();
+      elementsTyped(nested, resolve(element.element), e);
+      nested.forEach(line -> lines.add("    " + line));
+    }
+    lines.add("    violations.exit();");
+    lines.add("  }");
+    lines.add("  " + index + "++;");
+    lines.add("}");
+  }
+
+  private void emitParsedMember(StringBuilder out, Property prop, int i) {
+    Kind kind = resolve(prop.kind);
+    List<String> checks = new ArrayList<>();
+    parsed(checks, kind, prop, i, "t", "violations.add(" + literal(prop.json) + ", ");
+    if (!prop.required && checks.isEmpty()) {
+      return;
+    }
+    String indent = "          ";
+    out.append("        case ").append(literal(prop.json)).append(":\n");
+    if (prop.required) {
+      out.append(indent)
+          .append('r')
+          .append(i)
+          .append(" = true;\n")
+          .append(indent)
+          .append("if (t == JsonToken.VALUE_NULL) {\n")
+          .append(indent)
+          .append("  violations.add(")
+          .append(literal(prop.json))
+          .append(", \"must not be null\");\n")
+          .append(indent)
+          .append("} else {\n");
+    } else {
+      out.append(indent).append("if (t != JsonToken.VALUE_NULL) {\n");
+    }
+    if (checks.isEmpty()) {
+      checks.add("p.skipChildren();");
+    }
+    checks.forEach(line -> out.append(indent).append("  ").append(line).append('\n'));
+    out.append(indent).append("}\n").append(indent).append("break;\n");
+  }
+
+  /**
+   * Checks the value at token {@code token} against {@code kind} and, for members, the constraints
+   * of {@code prop}; {@code prop} is null for array elements. Leaves the parser on the value's last
+   * token. Adds nothing for values the validators do not constrain.
+   */
+  private void parsed(
+      List<String> lines, Kind kind, Property prop, int i, String token, String add) {
+    switch (kind.tag) {
+      case STRING, URI, ENUM -> {
+        List<String> checks = new ArrayList<>();
+        if (kind.tag == Tag.URI) {
+          checks.add("if (!ValidatorSupport.isUri(p.getText())) {");
+          checks.add("  " + add + "\"must be a URI\");");
+          checks.add("}");
+        } else if (kind.tag == Tag.ENUM) {
+          checks.add("switch (p.getText()) {");
+          for (String value : kind.values) {
+            checks.add("  case " + literal(value) + ":");
+          }
+          checks.add("    break;");
+          checks.add("  default:");
+          checks.add("    " + add + literal("must be one of " + kind.values) + ");");
+          checks.add("}");
+        } else if (prop != null) {
+          boolean text = prop.pattern != null || prop.email;
+          String s = text ? local("s") : null;
+          if (text) {
+            checks.add("String " + s + " = p.getText();");
+          }
+          if (prop.minSize != null || prop.maxSize != null) {
+            String n = local("n");
+            checks.add("int " + n + " = ValidatorSupport.codePoints(" + (text ? s : "p") + ");");
+            sizeChecks(checks, prop, n, add, "length must be", "");
+          }
+          if (text) {
+            stringChecks(checks, prop, i, s, add);
+          }
+        }
+        typeCheck(lines, token + " != JsonToken.VALUE_STRING", add, "a string", checks);
+      }
+      case INTEGER, NUMBER -> {
+        List<String> checks = new ArrayList<>();
+        if (prop != null && (prop.min != null || prop.max != null)) {
+          String d = local("d");
+          checks.add("double " + d + " = p.getDoubleValue();");
+          boundChecks(checks, prop, d, add);
+        }
+        if (kind.tag == Tag.INTEGER) {
+          typeCheck(lines, token + " != JsonToken.VALUE_NUMBER_INT", add, "an integer", checks);
+        } else {
+          typeCheck(
+              lines,
+              token
+                  + " != JsonToken.VALUE_NUMBER_INT && "
+                  + token
+                  + " != JsonToken.VALUE_NUMBER_FLOAT",
+              add,
+              "a number",
+              checks);
+        }
+      }
+      case BOOLEAN -> typeCheck(
+          lines,
+          token + " != JsonToken.VALUE_TRUE && " + token + " != JsonToken.VALUE_FALSE",
+          add,
+          "a boolean",
+          List.of());
+      case MODEL -> {
+        if (prop != null) {
+          lines.add("violations.enter(" + literal(prop.json) + ");");
+        }
+        lines.add(validatorRef(kind) + ".validate(p, violations);");
+        if (prop != null) {
+          lines.add("violations.exit();");
+        }
+      }
+      case ARRAY -> {
+        List<String> checks = new ArrayList<>();
+        String n = local("n");
+        String e = local("e");
+        Kind element = resolve(kind.element);
+        List<String> elementChecks = new ArrayList<>();
+        parsed(elementChecks, element, null, i, e, "violations.add(");
+        if (prop != null && !elementChecks.isEmpty()) {
+          checks.add("violations.enter(" + literal(prop.json) + ");");
+        }
+        checks.add("int " + n + " = 0;");
+        checks.add(
+            "for (JsonToken "
+                + e
+                + " = p.nextToken(); "
+                + e
+                + " != JsonToken.END_ARRAY; "
+                + e
+                + " = p.nextToken()) {");
+        if (elementChecks.isEmpty()) {
+          checks.add("  p.skipChildren();");
+        } else {
+          checks.add("  violations.enter(" + n + ");");
+          elementChecks.forEach(line -> checks.add("  " + line));
+          checks.add("  violations.exit();");
+        }
+        checks.add("  " + n + "++;");
+        checks.add("}");
+        if (prop != null && !elementChecks.isEmpty()) {
+          checks.add("violations.exit();");
+        }
+        if (prop != null && (prop.minSize != null || prop.maxSize != null)) {
+          sizeChecks(checks, prop, n, add, "must have", " items");
+        }
+        typeCheck(lines, token + " != JsonToken.START_ARRAY", add, "an array", checks);
+      }
+      default -> {}
+    }
+  }
+
+  private static void typeCheck(
+      List<String> lines, String mismatch, String add, String type, List<String> checks) {
+    lines.add("if (" + mismatch + ") {");
+    lines.add("  " + add + literal("must be " + type) + ");");
+    lines.add("  p.skipChildren();");
+    if (checks.isEmpty()) {
+      lines.add("}");
+      return;
+    }
+    lines.add("} else {");
+    checks.forEach(line -> lines.add("  " + line));
+    lines.add("}");
+  }
+
+  private static void sizeChecks(
+      List<String> lines, Property prop, String size, String add, String what, String unit) {
+    if (prop.minSize != null) {
+      lines.add("if (" + size + " < " + prop.minSize + ") {");
+      lines.add("  " + add + literal(what + " at least " + prop.minSize + unit) + ");");
+      lines.add("}");
+    }
+    if (prop.maxSize != null) {
+      lines.add("if (" + size + " > " + prop.maxSize + ") {");
+      lines.add("  " + add + literal(what + " at most " + prop.maxSize + unit) + ");");
+      lines.add("}");
+    }
+  }
+
+  private static void stringChecks(
+      List<String> lines, Property prop, int i, String value, String add) {
+    if (prop.pattern != null) {
+      lines.add("if (!P" + i + ".matcher(" + value + ").find()) {");
+      lines.add("  " + add + literal("must match " + prop.pattern) + ");");
+      lines.add("}");
+    }
+    if (prop.email) {
+      lines.add("if (!ValidatorSupport.isEmail(" + value + ")) {");
+      lines.add("  " + add + "\"must be an email address\");");
+      lines.add("}");
+    }
+  }
+
+  private static void boundChecks(List<String> lines, Property prop, String value, String add) {
+    if (prop.min != null) {
+      lines.add("if (" + value + (prop.min.inclusive ? " < " : " <= ") + prop.min.value + ") {");
+      lines.add(
+          "  "
+              + add
+              + literal("must be " + (prop.min.inclusive ? ">= " : "> ") + prop.min.text)
+              + ");");
+      lines.add("}");
+    }
+    if (prop.max != null) {
+      lines.add("if (" + value + (prop.max.inclusive ? " > " : " >= ") + prop.max.value + ") {");
+      lines.add(
+          "  "
+              + add
+              + literal("must be " + (prop.max.inclusive ? "<= " : "< ") + prop.max.text)
+              + ");");
+      lines.add("}");
+    }
+  }
+
+  /** Whether validating a bound value of this kind has to look inside it. */
+  private boolean walksBound(Kind kind) {
+    Kind resolved = resolve(kind);
+    return resolved.tag == Tag.MODEL || (resolved.tag == Tag.ARRAY && walksBound(resolved.element));
+  }
+
+  /** Treats references to models without a generated validator as unconstrained values. */
+  private Kind resolve(Kind kind) {
+    if (kind.tag == Tag.MODEL && !generated.containsKey(raw(kind.type))) {
+      return new Kind(Tag.ANY, kind.type, null, null);
+    }
+    return kind;
+  }
+
+  private String validatorRef(Kind kind) {
+    Model target = generated.get(raw(kind.type));
+    return target.validatorPackage + "." + target.validatorName + ".INSTANCE";
+  }
+
+  private String local(String prefix) {
+    return prefix + locals++;
+  }
+
+  private String emitRegistry(Collection<Model> models) {
+    StringBuilder out = new StringBuilder(8192);
+    header(out, validatorPackage, "");
+    out.append("import io.deeplumen.ucp.validation.ModelValidator;\n")
+        .append("import java.util.HashMap;\n")
+        .append("import java.util.Map;\n")
+        .append("import java.util.function.Supplier;\n\n")
+        .append(
+            "/** The generated schema validators by model type, loaded by {@code UcpValidators}."
+                + " */\n");
+    generatedAnnotation(out);
+    out.append("public final class UcpModelValidators\n")
+        .append("    implements Supplier<Map<Class<?>, ModelValidator<?>>> {\n")
+        .append("  /** Number of models with a generated validator. */\n")
+        .append("  public static final int MODELS = ")
+        .append(models.size())
+        .append(";\n\n")
+        .append("  @Override\n")
+        .append("  public Map<Class<?>, ModelValidator<?>> get() {\n")
+        .append("    Map<Class<?>, ModelValidator<?>> validators = new HashMap<>();\n");
+    for (Model m : models) {
+      out.append("    validators.put(")
+          .append(sourceName(m.type))
+          .append(".class, ")
+          .append(m.validatorPackage)
+          .append('.')
+          .append(m.validatorName)
+          .append(".INSTANCE);\n");
+    }
+    out.append("    return Map.copyOf(validators);\n").append("  }\n").append("}\n");
+    return out.toString();
+  }
+
+  private static void header(StringBuilder out, String pkg, String origin) {
+    out.append("// Generated by ").append(GENERATED_BY);
+    if (!origin.isEmpty()) {
+      out.append(' ').append(origin);
+    }
+    out.append(". Do not edit.\n").append("package ").append(pkg).append(";\n\n");
+  }
+
+  private static void generatedAnnotation(StringBuilder out) {
+    out.append("@javax.annotation.processing.Generated(\"").append(GENERATED_BY).append("\")\n");
+  }
+
+  private static Class<?> raw(Type type) {
+    if (type instanceof ParameterizedType p) {
+      return (Class<?>) p.getRawType();
+    }
+    return type instanceof Class<?> c ? c : Object.class;
+  }
+
+  /** Java source spelling of {@code type}, with canonical (dotted) names for nested classes. */
+  private static String sourceName(Type type) {
+    if (type instanceof Class<?> c) {
+      return c.isArray() ? sourceName(c.getComponentType()) + "[]" : c.getCanonicalName();
+    }
+    if (type instanceof ParameterizedType p) {
+      return sourceName(p.getRawType())
+          + Stream.of(p.getActualTypeArguments())
+              .map(ValidatorGenerator::sourceName)
+              .collect(Collectors.joining(", ", "<", ">"));
+    }
+    if (type instanceof WildcardType w) {
+      if (w.getLowerBounds().length > 0) {
+        return "? super " + sourceName(w.getLowerBounds()[0]);
+      }
+      Type upper = w.getUpperBounds()[0];
+      return upper == Object.class ? "?" : "? extends " + sourceName(upper);
+    }
+    throw new Unsupported("type " + type.getTypeName());
+  }
+
+  private static String literal(String value) {
+    StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+    for (char c : value.toCharArray()) {
+      switch (c) {
+        case '"' -> out.append("\\\"");
+        case '\\' -> out.append("\\\\");
+        case '\n' -> out.append("\\n");
+        case '\r' -> out.append("\\r");
+        case '\t' -> out.append("\\t");
+        default -> {
+          if (c < 0x20 || c > 0x7e) {
+            out.append(String.format("\\u%04x", (int) c));
+          } else {
+            out.append(c);
+          }
+        }
+      }
+    }
+    return out.append('"').toString();
+  }
+
+  private enum Tag {
+    STRING,
+    INTEGER,
+    NUMBER,
+    BOOLEAN,
+    URI,
+    ENUM,
+    ARRAY,
+    MODEL,
+    ANY
+  }
+
+  /** JSON shape of a member or element: its Java type, enum values and array element kind. */
+  private record Kind(Tag tag, Type type, List<String> values, Kind element) {}
+
+  private record Bound(double value, String text, boolean inclusive) {}
+
+  /** A member and the schema constraints collected from its annotations. */
+  private static final class Property {
+    final String json;
+    final String getter;
+    final Kind kind;
+    boolean required;
+    Integer minSize;
+    Integer maxSize;
+    String pattern;
+    boolean email;
+    Bound min;
+    Bound max;
+
+    Property(String json, String getter, Kind kind) {
+      this.json = json;
+      this.getter = getter;
+      this.kind = kind;
+    }
+  }
+
+  private record Model(
+      Class<?> type, String validatorPackage, String validatorName, List<Property> properties) {}
+
+  /** Thrown when a model carries constraints the generated code does not reproduce. */
+  private static final class Unsupported extends RuntimeException {
+    Unsupported(String message) {
+      super(message, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package io.deeplumen.ucp.client;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutUpdateRequest;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One entry of a {@link UcpClient#batch batch} call.
+ *
+ * <p>Create and update operations get their own {@code idempotency_key}, so a batch that is sent
+ * again after a failure does not apply them twice.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * List<BatchOperation> ops =
+ *     List.of(
+ *         BatchOperation.create("a", createRequest),
+ *         BatchOperation.update("b", checkoutId, updateRequest),
+ *         BatchOperation.get("c", otherCheckoutId));
+ * }</pre>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchOperation(
+    @JsonProperty("id") String id,
+    @JsonProperty("op") String op,
+    @JsonProperty("checkout_id") String checkoutId,
+    @JsonProperty("idempotency_key") String idempotencyKey,
+    @JsonProperty("body") Object body) {
+
+  public BatchOperation {
+    Objects.requireNonNull(id, "id is required");
+    Objects.requireNonNull(op, "op is required");
+  }
+
+  public static BatchOperation create(String id, CheckoutCreateRequest request) {
+    return new BatchOperation(id, "create", null, UUID.randomUUID().toString(), request);
+  }
+
+  public static BatchOperation update(
+      String id, String checkoutId, CheckoutUpdateRequest request) {
+    Objects.requireNonNull(checkoutId, "checkoutId is required");
+    return new BatchOperation(id, "update", checkoutId, UUID.randomUUID().toString(), request);
+  }
+
+  public static BatchOperation get(String id, String checkoutId) {
+    Objects.requireNonNull(checkoutId, "checkoutId is required");
+    return new BatchOperation(id, "get", checkoutId, null, null);
+  }
+}
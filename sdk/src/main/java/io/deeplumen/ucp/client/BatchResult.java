@@ -0,0 +1,20 @@
+package io.deeplumen.ucp.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+
+/**
+ * Outcome of one {@link BatchOperation}, matched to it by {@code id}. {@code checkout} is present
+ * when the operation succeeded; failed operations carry only their HTTP status.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BatchResult(
+    @JsonProperty("id") String id,
+    @JsonProperty("status") int status,
+    @JsonProperty("body") CheckoutResponse checkout) {
+
+  public boolean isSuccess() {
+    return status >= 200 && status < 300;
+  }
+}
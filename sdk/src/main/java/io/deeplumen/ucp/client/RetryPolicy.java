@@ -0,0 +1,61 @@
+package io.deeplumen.ucp.client;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How {@link UcpClient} retries a call.
+ *
+ * <p>A call is attempted at most {@code maxAttempts} times. Connection failures, timeouts and the
+ * statuses 429, 502, 503 and 504 are retried; other responses are returned as they are. The wait
+ * before attempt {@code n + 1} is drawn uniformly from the upper half of {@code initialBackoff *
+ * 2^(n-1)}, capped at {@code maxBackoff}, so a fleet of clients does not retry in lockstep. A
+ * {@code Retry-After} header in seconds replaces the computed wait, again capped at {@code
+ * maxBackoff}.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * RetryPolicy retry = new RetryPolicy(4, Duration.ofMillis(50), Duration.ofSeconds(1));
+ * }</pre>
+ */
+public record RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+
+  public RetryPolicy {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be positive");
+    }
+    Objects.requireNonNull(initialBackoff, "initialBackoff is required");
+    Objects.requireNonNull(maxBackoff, "maxBackoff is required");
+  }
+
+  /** Three attempts, 100 ms initial backoff, at most 2 s between attempts. */
+  public static RetryPolicy defaults() {
+    return new RetryPolicy(3, Duration.ofMillis(100), Duration.ofSeconds(2));
+  }
+
+  /** A single attempt. */
+  public static RetryPolicy none() {
+    return new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+  }
+
+  /** Whether a response with {@code statusCode} is worth another attempt. */
+  public boolean retryable(int statusCode) {
+    return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+  }
+
+  /** Wait in milliseconds before the attempt after {@code attempt} (1-based). */
+  long backoffMillis(int attempt, long retryAfterSeconds) {
+    long max = maxBackoff.toMillis();
+    if (retryAfterSeconds >= 0) {
+      return Math.min(max, retryAfterSeconds * 1000);
+    }
+    long ceiling = initialBackoff.toMillis() << Math.min(attempt - 1, 30);
+    ceiling = Math.min(max, ceiling < 0 ? max : ceiling);
+    if (ceiling <= 1) {
+      return ceiling;
+    }
+    return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+  }
+}
@@ -0,0 +1,636 @@
+package io.deeplumen.ucp.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.deeplumen.ucp.concurrent.VirtualThreads;
+import io.deeplumen.ucp.helpers.UcpCapabilities;
+import io.deeplumen.ucp.helpers.UcpHeaders;
+import io.deeplumen.ucp.helpers.UcpRoutes;
+import io.deeplumen.ucp.json.UcpJson;
+import io.deeplumen.ucp.json.WireFormat;
+import io.deeplumen.ucp.metrics.Tags;
+import io.deeplumen.ucp.metrics.UcpMetrics;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutCreateRequest;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutResponse;
+import io.deeplumen.ucp.models.schemas.shopping.CheckoutUpdateRequest;
+import io.deeplumen.ucp.signing.RequestSigner;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Non-blocking client for the UCP checkout REST binding.
+ *
+ * <p>All calls return a {@link CompletableFuture} and go through one JDK {@link HttpClient} that
+ * prefers HTTP/2, so concurrent calls to a merchant share its connections. Create one client per
+ * merchant and share it; it is thread-safe. Request models are written to bytes with the shared
+ * {@link UcpJson} writers and responses are bound from the received bytes with its readers, with no
+ * intermediate {@code String} or tree.
+ *
+ * <p>Every call carries a fresh {@code Request-Id} and every mutating call a fresh {@code
+ * Idempotency-Key}. The request, headers included, is built once and resent as-is on retry, so a
+ * retried create or complete is de-duplicated by the merchant rather than applied twice; see {@link
+ * RetryPolicy} for what is retried. Non-2xx responses complete the future with {@link
+ * UcpClientException}.
+ *
+ * <p>Bodies are JSON unless {@link Builder#wireFormat} selects CBOR or Smile. The client then sends
+ * bodies in that format and asks for it in {@code Accept}, still accepting JSON from merchants
+ * that only speak JSON; responses are decoded by their {@code Content-Type}. Batches always use
+ * JSON.
+ *
+ * <p>With {@link Builder#metrics}, every call is timed per route template and outcome ({@code
+ * 2xx}, {@code 4xx}, {@code 5xx} or {@code error}) from the first attempt to the final response.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * UcpClient client =
+ *     UcpClient.builder(URI.create("https://merchant.example"))
+ *         .agentProfile("https://agent.example/profile.json", "2026-01-11")
+ *         .requestTimeout(Duration.ofSeconds(5))
+ *         .build();
+ * client.createCheckout(request)
+ *     .thenCompose(checkout -> client.completeCheckout(checkout.getId(), payment))
+ *     .thenAccept(done -> log.info("order {}", done.getOrder().getId()));
+ * }</pre>
+ */
+public final class UcpClient implements AutoCloseable {
+  private static final String JSON = "application/json";
+  private static final String NDJSON = "application/x-ndjson";
+  // Stand-in for the checkout id in the route templates that tag metrics.
+  private static final String ROUTE_ID = "{id}";
+  private static final String SESSION_ROUTE = UcpRoutes.checkoutSessionById(ROUTE_ID);
+  private static final String COMPLETE_ROUTE = UcpRoutes.checkoutSessionComplete(ROUTE_ID);
+  private static final String CANCEL_ROUTE = UcpRoutes.checkoutSessionCancel(ROUTE_ID);
+
+  private final String baseUrl;
+  private final HttpClient http;
+  private final UcpJson json;
+  // Codec for request bodies and the Accept header asking for its format.
+  private final UcpJson wire;
+  private final String accept;
+  private final Duration requestTimeout;
+  private final RetryPolicy retry;
+  private final Map<String, String> headers;
+  private final RequestSigner signer;
+  private final Executor delayExecutor;
+  private final ExecutorService ownedExecutor;
+  private final UcpMetrics metrics;
+  private final Tags metricTags;
+  private final ConcurrentHashMap<String, UcpMetrics.Timer> timers = new ConcurrentHashMap<>();
+
+  private UcpClient(Builder b) {
+    String base = b.baseUri.toString();
+    this.baseUrl = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+    this.json = b.json != null ? b.json : UcpJson.create(new ObjectMapper());
+    this.wire = json.forFormat(b.wireFormat);
+    this.accept =
+        b.wireFormat == WireFormat.JSON ? JSON : b.wireFormat.mediaType() + ", " + JSON + ";q=0.5";
+    this.requestTimeout = b.requestTimeout;
+    this.retry = b.retry;
+    this.headers = Map.copyOf(b.headers);
+    this.signer = b.signer;
+    this.metrics = b.metrics;
+    this.metricTags =
+        Tags.of(
+            UcpMetrics.VERSION,
+            UcpHeaders.agentVersion(headers.get(UcpHeaders.UCP_AGENT)).orElse(null),
+            UcpMetrics.CAPABILITY,
+            UcpCapabilities.SHOPPING_CHECKOUT);
+    this.ownedExecutor =
+        b.virtualThreads ? VirtualThreads.newThreadPerTaskExecutor("ucp-client-") : null;
+    Executor executor = ownedExecutor != null ? ownedExecutor : b.executor;
+    if (b.httpClient != null) {
+      this.http = b.httpClient;
+    } else {
+      HttpClient.Builder builder =
+          HttpClient.newBuilder()
+              .version(HttpClient.Version.HTTP_2)
+              .connectTimeout(b.connectTimeout)
+              .followRedirects(HttpClient.Redirect.NORMAL);
+      if (executor != null) {
+        builder.executor(executor);
+      }
+      this.http = builder.build();
+    }
+    this.delayExecutor = executor != null ? executor : this.http.executor().orElse(null);
+  }
+
+  public static Builder builder(URI baseUri) {
+    return new Builder(baseUri);
+  }
+
+  /** Fetches the merchant's discovery profile from {@link UcpRoutes#WELL_KNOWN_UCP}. */
+  public CompletableFuture<JsonNode> discovery() {
+    return call(
+        "GET", UcpRoutes.WELL_KNOWN_UCP, UcpRoutes.WELL_KNOWN_UCP, null, UcpJson::readTree);
+  }
+
+  public CompletableFuture<CheckoutResponse> createCheckout(CheckoutCreateRequest request) {
+    return call(
+        "POST",
+        UcpRoutes.CHECKOUT_SESSIONS,
+        UcpRoutes.CHECKOUT_SESSIONS,
+        request,
+        reader(CheckoutResponse.class));
+  }
+
+  public CompletableFuture<CheckoutResponse> getCheckout(String checkoutId) {
+    return call(
+        "GET",
+        SESSION_ROUTE,
+        UcpRoutes.checkoutSessionById(checkoutId),
+        null,
+        reader(CheckoutResponse.class));
+  }
+
+  public CompletableFuture<CheckoutResponse> updateCheckout(
+      String checkoutId, CheckoutUpdateRequest request) {
+    return call(
+        "PUT",
+        SESSION_ROUTE,
+        UcpRoutes.checkoutSessionById(checkoutId),
+        request,
+        reader(CheckoutResponse.class));
+  }
+
+  /**
+   * Completes a checkout. {@code payment} is the completion body, e.g. a node holding {@code
+   * payment_data} and {@code risk_signals}, or any object the client's mapper can write.
+   */
+  public CompletableFuture<CheckoutResponse> completeCheckout(String checkoutId, Object payment) {
+    return call(
+        "POST",
+        COMPLETE_ROUTE,
+        UcpRoutes.checkoutSessionComplete(checkoutId),
+        payment != null ? payment : Map.of(),
+        reader(CheckoutResponse.class));
+  }
+
+  public CompletableFuture<CheckoutResponse> cancelCheckout(String checkoutId) {
+    return call(
+        "POST",
+        CANCEL_ROUTE,
+        UcpRoutes.checkoutSessionCancel(checkoutId),
+        Map.of(),
+        reader(CheckoutResponse.class));
+  }
+
+  /**
+   * Sends many create, update and get operations in one request to {@link
+   * UcpRoutes#CHECKOUT_SESSIONS_BATCH}. The merchant runs them in parallel and streams one result
+   * per operation back as each completes; {@code onResult} is called for every result in arrival
+   * order, on one thread at a time. The returned future completes when the stream ends.
+   *
+   * <p>The batch is retried like any other call only until the first result has been delivered; a
+   * stream that breaks later fails the future, and the operations without a result can be sent
+   * again safely because creates and updates carry their own idempotency keys.
+   */
+  public CompletableFuture<Void> batch(
+      List<BatchOperation> operations, Consumer<BatchResult> onResult) {
+    Objects.requireNonNull(onResult, "onResult is required");
+    String path = UcpRoutes.CHECKOUT_SESSIONS_BATCH;
+    HttpRequest request;
+    try {
+      request =
+          request("POST", path, Map.of("operations", List.copyOf(operations)), json, NDJSON);
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(new UncheckedIOException(e));
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    long start = System.nanoTime();
+    ObjectReader reader = json.reader(BatchResult.class);
+    AtomicBoolean delivered = new AtomicBoolean();
+    HttpResponse.BodyHandler<byte[]> handler =
+        info ->
+            info.statusCode() == 200
+                ? HttpResponse.BodySubscribers.fromSubscriber(
+                    new NdjsonSubscriber(
+                        line -> {
+                          delivered.set(true);
+                          onResult.accept(reader.readValue(line));
+                        }),
+                    NdjsonSubscriber::finish)
+                : HttpResponse.BodySubscribers.ofByteArray();
+    return timed(
+        "POST",
+        path,
+        start,
+        attempt(request, handler, () -> !delivered.get(), 1)
+            .thenAccept(
+                response -> {
+                  int status = response.statusCode();
+                  if (status != 200) {
+                    throw new UcpClientException("POST", path, status, response.body());
+                  }
+                }));
+  }
+
+  /** The codec used for request and response bodies. */
+  public UcpJson json() {
+    return json;
+  }
+
+  /** Shuts down the virtual-thread executor, if this client created one. */
+  @Override
+  public void close() {
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+    }
+  }
+
+  private <T> CompletableFuture<T> call(
+      String method, String route, String path, Object body, BodyReader<T> reader) {
+    long start = System.nanoTime();
+    HttpRequest request;
+    try {
+      request = request(method, path, body, wire, accept);
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(new UncheckedIOException(e));
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return timed(
+        method,
+        route,
+        start,
+        attempt(request, HttpResponse.BodyHandlers.ofByteArray(), () -> true, 1)
+            .thenApply(
+                response -> {
+                  int status = response.statusCode();
+                  if (status < 200 || status >= 300) {
+                    throw new UcpClientException(method, path, status, response.body());
+                  }
+                  String contentType = response.headers().firstValue("Content-Type").orElse(null);
+                  try {
+                    return reader.read(
+                        json.forFormat(WireFormat.forContentType(contentType)), response.body());
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                }));
+  }
+
+  private <T> CompletableFuture<T> timed(
+      String method, String route, long startNanos, CompletableFuture<T> call) {
+    if (metrics == UcpMetrics.noop()) {
+      return call;
+    }
+    return call.whenComplete(
+        (result, error) -> {
+          String outcome;
+          if (error == null) {
+            outcome = "2xx";
+          } else if (unwrap(error) instanceof UcpClientException e) {
+            outcome = (e.statusCode() / 100) + "xx";
+          } else {
+            outcome = "error";
+          }
+          String key = method + ' ' + route + ' ' + outcome;
+          timers
+              .computeIfAbsent(
+                  key,
+                  ignored ->
+                      metrics.timer(
+                          UcpMetrics.CLIENT_REQUESTS,
+                          metricTags
+                              .and(UcpMetrics.METHOD, method)
+                              .and(UcpMetrics.ROUTE, route)
+                              .and(UcpMetrics.OUTCOME, outcome)))
+              .record(System.nanoTime() - startNanos);
+        });
+  }
+
+  private HttpRequest request(
+      String method, String path, Object body, UcpJson codec, String accept) throws IOException {
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(requestTimeout)
+            .header("Accept", accept)
+            .header(UcpHeaders.REQUEST_ID, UUID.randomUUID().toString());
+    headers.forEach(builder::header);
+    if (body == null) {
+      return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+    }
+    byte[] bytes = codec.write(body);
+    if (signer != null) {
+      builder.setHeader(UcpHeaders.REQUEST_SIGNATURE, signer.sign(bytes));
+    }
+    return builder
+        .header("Content-Type", codec.format().mediaType())
+        .header(UcpHeaders.IDEMPOTENCY_KEY, UUID.randomUUID().toString())
+        .method(method, HttpRequest.BodyPublishers.ofByteArray(bytes))
+        .build();
+  }
+
+  private <B> CompletableFuture<HttpResponse<B>> attempt(
+      HttpRequest request,
+      HttpResponse.BodyHandler<B> handler,
+      BooleanSupplier retryAllowed,
+      int attempt) {
+    return http.sendAsync(request, handler)
+        .handle(
+            (response, error) -> {
+              boolean again =
+                  attempt < retry.maxAttempts()
+                      && retryAllowed.getAsBoolean()
+                      && (error != null
+                          ? retryable(error)
+                          : retry.retryable(response.statusCode()));
+              if (!again) {
+                return error != null
+                    ? CompletableFuture.<HttpResponse<B>>failedFuture(unwrap(error))
+                    : CompletableFuture.completedFuture(response);
+              }
+              long delay =
+                  retry.backoffMillis(attempt, response != null ? retryAfter(response) : -1);
+              Executor delayed =
+                  delayExecutor != null
+                      ? CompletableFuture.delayedExecutor(
+                          delay, TimeUnit.MILLISECONDS, delayExecutor)
+                      : CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+              return CompletableFuture.supplyAsync(() -> null, delayed)
+                  .thenCompose(ignored -> attempt(request, handler, retryAllowed, attempt + 1));
+            })
+        .thenCompose(Function.identity());
+  }
+
+  private <T> BodyReader<T> reader(Class<T> type) {
+    return (codec, body) -> codec.read(body, type);
+  }
+
+  private static boolean retryable(Throwable error) {
+    return unwrap(error) instanceof IOException;
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error;
+  }
+
+  private static long retryAfter(HttpResponse<?> response) {
+    return response
+        .headers()
+        .firstValue("Retry-After")
+        .map(
+            value -> {
+              try {
+                return Math.max(0, Long.parseLong(value.trim()));
+              } catch (NumberFormatException e) {
+                return -1L;
+              }
+            })
+        .orElse(-1L);
+  }
+
+  @FunctionalInterface
+  private interface BodyReader<T> {
+    T read(UcpJson codec, byte[] body) throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface LineHandler {
+    void accept(byte[] line) throws IOException;
+  }
+
+  /**
+   * Splits a streamed body into {@code \n}-terminated lines without decoding them to text. A line
+   * that cannot be handled stops delivery; the rest of the body is drained and {@link #finish}
+   * rethrows the failure.
+   */
+  private static final class NdjsonSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+    private final LineHandler handler;
+    private Flow.Subscription subscription;
+    private byte[] pending = new byte[8192];
+    private int length;
+    private Exception failure;
+
+    NdjsonSubscriber(LineHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+      if (failure == null) {
+        try {
+          for (ByteBuffer buffer : buffers) {
+            split(buffer);
+          }
+        } catch (IOException | RuntimeException e) {
+          failure = e;
+        }
+      }
+      subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      // Surfaced by the HTTP client through the response future.
+    }
+
+    @Override
+    public void onComplete() {
+      if (failure == null) {
+        try {
+          emit();
+        } catch (IOException | RuntimeException e) {
+          failure = e;
+        }
+      }
+    }
+
+    byte[] finish() {
+      if (failure instanceof IOException e) {
+        throw new UncheckedIOException(e);
+      } else if (failure != null) {
+        throw (RuntimeException) failure;
+      }
+      return null;
+    }
+
+    private void split(ByteBuffer buffer) throws IOException {
+      while (buffer.hasRemaining()) {
+        byte b = buffer.get();
+        if (b == '\n') {
+          emit();
+        } else {
+          if (length == pending.length) {
+            pending = Arrays.copyOf(pending, length * 2);
+          }
+          pending[length++] = b;
+        }
+      }
+    }
+
+    private void emit() throws IOException {
+      int end = length;
+      length = 0;
+      if (end > 0 && !isBlank(pending, end)) {
+        handler.accept(Arrays.copyOf(pending, end));
+      }
+    }
+
+    private static boolean isBlank(byte[] bytes, int length) {
+      for (int i = 0; i < length; i++) {
+        if (bytes[i] != ' ' && bytes[i] != '\r' && bytes[i] != '\t') {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  public static final class Builder {
+    private final URI baseUri;
+    private HttpClient httpClient;
+    private UcpJson json;
+    private Executor executor;
+    private boolean virtualThreads;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private RetryPolicy retry = RetryPolicy.defaults();
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private RequestSigner signer;
+    private UcpMetrics metrics = UcpMetrics.noop();
+    private WireFormat wireFormat = WireFormat.JSON;
+
+    private Builder(URI baseUri) {
+      this.baseUri = Objects.requireNonNull(baseUri, "baseUri is required");
+    }
+
+    /**
+     * Sends {@code UCP-Agent: profile="profileUrl"; version="version"} with every call; {@code
+     * version} may be {@code null}.
+     */
+    public Builder agentProfile(String profileUrl, String version) {
+      return header(UcpHeaders.UCP_AGENT, UcpHeaders.ucpAgent(profileUrl, version));
+    }
+
+    public Builder apiKey(String apiKey) {
+      return header(UcpHeaders.API_KEY, apiKey);
+    }
+
+    /** Adds a header sent with every call, replacing an earlier value for the same name. */
+    public Builder header(String name, String value) {
+      headers.put(
+          Objects.requireNonNull(name, "name is required"),
+          Objects.requireNonNull(value, "value is required"));
+      return this;
+    }
+
+    /**
+     * Records call latencies into {@code metrics}, tagged with the {@code UCP-Agent} version. Pass
+     * a codec built with {@link UcpJson#withMetrics} to {@link #json} to time bodies as well.
+     */
+    public Builder metrics(UcpMetrics metrics) {
+      this.metrics = Objects.requireNonNull(metrics, "metrics is required");
+      return this;
+    }
+
+    /** Signs every request body into a {@code Request-Signature} header. */
+    public Builder signer(RequestSigner signer) {
+      this.signer = Objects.requireNonNull(signer, "signer is required");
+      return this;
+    }
+
+    /**
+     * Uses {@code httpClient} instead of creating one, e.g. to share a connection pool between
+     * clients for several merchants. Connect timeout and executor settings are then ignored.
+     */
+    public Builder httpClient(HttpClient httpClient) {
+      this.httpClient = Objects.requireNonNull(httpClient, "httpClient is required");
+      return this;
+    }
+
+    /** Codec for bodies; defaults to {@code UcpJson.create(new ObjectMapper())}. */
+    public Builder json(UcpJson json) {
+      this.json = Objects.requireNonNull(json, "json is required");
+      return this;
+    }
+
+    /**
+     * Format for request bodies and the preferred response format; defaults to {@link
+     * WireFormat#JSON}. {@link #build()} throws {@link UnsupportedOperationException} when the
+     * format's Jackson module is not on the class path.
+     */
+    public Builder wireFormat(WireFormat wireFormat) {
+      this.wireFormat = Objects.requireNonNull(wireFormat, "wireFormat is required");
+      return this;
+    }
+
+    /** Executor for the HTTP client's asynchronous work and dependent stages. */
+    public Builder executor(Executor executor) {
+      this.executor = Objects.requireNonNull(executor, "executor is required");
+      return this;
+    }
+
+    /**
+     * Runs the HTTP client's asynchronous work on a virtual thread per task, shut down by {@link
+     * UcpClient#close()}. Requires Java 21; {@link #build()} throws {@link
+     * UnsupportedOperationException} on older runtimes.
+     */
+    public Builder virtualThreads(boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+      return this;
+    }
+
+    public Builder connectTimeout(Duration connectTimeout) {
+      this.connectTimeout = requirePositive(connectTimeout, "connectTimeout");
+      return this;
+    }
+
+    /** Deadline for each attempt, from sending the request to receiving the full response. */
+    public Builder requestTimeout(Duration requestTimeout) {
+      this.requestTimeout = requirePositive(requestTimeout, "requestTimeout");
+      return this;
+    }
+
+    public Builder retry(RetryPolicy retry) {
+      this.retry = Objects.requireNonNull(retry, "retry is required");
+      return this;
+    }
+
+    public UcpClient build() {
+      return new UcpClient(this);
+    }
+
+    private static Duration requirePositive(Duration value, String name) {
+      Objects.requireNonNull(value, name + " is required");
+      if (value.isZero() || value.isNegative()) {
+        throw new IllegalArgumentException(name + " must be positive");
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package io.deeplumen.ucp.client;
+
+import java.nio.charset.StandardCharsets;
+
+/** Raised (through the returned future) when a UCP endpoint answers with a non-2xx status. */
+public class UcpClientException extends RuntimeException {
+  private static final int MAX_MESSAGE_BODY = 512;
+
+  private final int statusCode;
+  private final byte[] body;
+
+  public UcpClientException(String method, String path, int statusCode, byte[] body) {
+    super(method + " " + path + " returned HTTP " + statusCode + excerpt(body));
+    this.statusCode = statusCode;
+    this.body = body != null ? body : new byte[0];
+  }
+
+  public int statusCode() {
+    return statusCode;
+  }
+
+  /** Raw response body; empty when the response had none. */
+  public byte[] body() {
+    return body.clone();
+  }
+
+  private static String excerpt(byte[] body) {
+    if (body == null || body.length == 0) {
+      return "";
+    }
+    int length = Math.min(body.length, MAX_MESSAGE_BODY);
+    return ": " + new String(body, 0, length, StandardCharsets.UTF_8);
+  }
+}
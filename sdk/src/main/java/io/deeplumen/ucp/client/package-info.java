@@ -0,0 +1,9 @@
+/**
+ * Asynchronous HTTP client for UCP merchant endpoints.
+ *
+ * <p>{@link io.deeplumen.ucp.client.UcpClient} calls the checkout REST binding over one shared JDK
+ * {@code HttpClient}, binds bodies straight to and from the generated models through {@link
+ * io.deeplumen.ucp.json.UcpJson}, and retries failed attempts with the same {@code
+ * Idempotency-Key} according to a {@link io.deeplumen.ucp.client.RetryPolicy}.
+ */
+package io.deeplumen.ucp.client;
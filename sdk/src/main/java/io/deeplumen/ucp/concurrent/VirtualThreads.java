@@ -0,0 +1,108 @@
+package io.deeplumen.ucp.concurrent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads on Java 21 and later, looked up reflectively so that callers compiled for Java 17
+ * can opt in without a separate build.
+ *
+ * <p>Code that runs on virtual threads should guard blocking I/O with {@link
+ * java.util.concurrent.locks.ReentrantLock} rather than {@code synchronized}: a virtual thread that
+ * blocks while holding a monitor stays pinned to its carrier thread, so a few slow calls under a
+ * monitor can stall every other virtual thread.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * ExecutorService executor =
+ *     VirtualThreads.isAvailable()
+ *         ? VirtualThreads.newThreadPerTaskExecutor("order-sync-")
+ *         : Executors.newFixedThreadPool(32);
+ * }</pre>
+ */
+public final class VirtualThreads {
+  // Thread.ofVirtual(), Thread.Builder.name(String, long), Thread.Builder.factory() and
+  // Executors.newThreadPerTaskExecutor(ThreadFactory); all null before Java 21.
+  private static final MethodHandle OF_VIRTUAL;
+  private static final MethodHandle NAME;
+  private static final MethodHandle FACTORY;
+  private static final MethodHandle PER_TASK_EXECUTOR;
+
+  static {
+    MethodHandle ofVirtual = null;
+    MethodHandle name = null;
+    MethodHandle factory = null;
+    MethodHandle perTaskExecutor = null;
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      Class<?> builder = Class.forName("java.lang.Thread$Builder");
+      Class<?> ofVirtualBuilder = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      ofVirtual =
+          lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualBuilder));
+      name =
+          lookup.findVirtual(
+              builder, "name", MethodType.methodType(builder, String.class, long.class));
+      factory = lookup.findVirtual(builder, "factory", MethodType.methodType(ThreadFactory.class));
+      perTaskExecutor =
+          lookup.findStatic(
+              Executors.class,
+              "newThreadPerTaskExecutor",
+              MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+    } catch (ReflectiveOperationException e) {
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    NAME = name;
+    FACTORY = factory;
+    PER_TASK_EXECUTOR = perTaskExecutor;
+  }
+
+  private VirtualThreads() {}
+
+  /** Whether the running JVM supports virtual threads. */
+  public static boolean isAvailable() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * A factory of virtual threads named {@code prefix0}, {@code prefix1}, ...
+   *
+   * @throws UnsupportedOperationException before Java 21
+   */
+  public static ThreadFactory factory(String prefix) {
+    Objects.requireNonNull(prefix, "prefix is required");
+    requireAvailable();
+    try {
+      Object builder = NAME.invoke(OF_VIRTUAL.invoke(), prefix, 0L);
+      return (ThreadFactory) FACTORY.invoke(builder);
+    } catch (Throwable e) {
+      throw new IllegalStateException("cannot create a virtual thread factory", e);
+    }
+  }
+
+  /**
+   * An executor that starts a new virtual thread, named after {@code prefix}, for every task.
+   *
+   * @throws UnsupportedOperationException before Java 21
+   */
+  public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+    ThreadFactory factory = factory(prefix);
+    try {
+      return (ExecutorService) PER_TASK_EXECUTOR.invoke(factory);
+    } catch (Throwable e) {
+      throw new IllegalStateException("cannot create a virtual-thread executor", e);
+    }
+  }
+
+  private static void requireAvailable() {
+    if (OF_VIRTUAL == null) {
+      throw new UnsupportedOperationException("virtual threads require Java 21 or later");
+    }
+  }
+}
@@ -0,0 +1,7 @@
+/**
+ * Threading helpers shared by the SDK and applications built on it.
+ *
+ * <p>{@link io.deeplumen.ucp.concurrent.VirtualThreads} gives access to Java 21 virtual threads
+ * while the SDK itself is compiled for and runs on Java 17.
+ */
+package io.deeplumen.ucp.concurrent;
@@ -1,5 +1,9 @@
 package io.deeplumen.ucp.helpers;
 
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * UCP-related HTTP header names.
  *
@@ -22,4 +26,54 @@ public final class UcpHeaders {
   public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
   public static final String REQUEST_ID = "Request-Id";
   public static final String API_KEY = "X-API-Key";
+
+  private static final Pattern PROFILE_PARAMETER =
+      Pattern.compile("profile=\"([^\"]+)\"|profile=([^;]+)");
+  // Anchored to a parameter boundary so a "version=" inside the profile URL does not match.
+  private static final Pattern VERSION_PARAMETER =
+      Pattern.compile("(?:^|;)\\s*version=(?:\"([^\"]+)\"|([^;]+))");
+
+  /**
+   * Formats a {@code UCP-Agent} header value, {@code profile="profileUrl"; version="version"}. The
+   * version parameter is omitted when {@code version} is {@code null}.
+   */
+  public static String ucpAgent(String profileUrl, String version) {
+    String profile = "profile=\"" + profileUrl + "\"";
+    return version == null ? profile : profile + "; version=\"" + version + "\"";
+  }
+
+  /**
+   * Extracts the {@code profile} parameter from a {@code UCP-Agent} header value, accepting both
+   * quoted and unquoted forms.
+   */
+  public static Optional<String> agentProfileUrl(String ucpAgentHeader) {
+    return parameter(PROFILE_PARAMETER, ucpAgentHeader);
+  }
+
+  /**
+   * Extracts the {@code version} parameter from a {@code UCP-Agent} header value, accepting both
+   * quoted and unquoted forms.
+   */
+  public static Optional<String> agentVersion(String ucpAgentHeader) {
+    return parameter(VERSION_PARAMETER, ucpAgentHeader);
+  }
+
+  private static Optional<String> parameter(Pattern pattern, String ucpAgentHeader) {
+    if (ucpAgentHeader == null) {
+      return Optional.empty();
+    }
+    Matcher matcher = pattern.matcher(ucpAgentHeader);
+    if (!matcher.find()) {
+      return Optional.empty();
+    }
+    String quoted = matcher.group(1);
+    if (quoted != null && !quoted.isBlank()) {
+      return Optional.of(quoted);
+    }
+    String unquoted = matcher.group(2);
+    if (unquoted != null && !unquoted.isBlank()) {
+      return Optional.of(unquoted.trim());
+    }
+    return Optional.empty();
+  }
 }
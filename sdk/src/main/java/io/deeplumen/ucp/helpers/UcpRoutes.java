@@ -20,6 +20,8 @@ public final class UcpRoutes {
 
   public static final String CHECKOUT_SESSIONS = "/checkout-sessions";
 
+  public static final String CHECKOUT_SESSIONS_BATCH = CHECKOUT_SESSIONS + ":batch";
+
   public static String checkoutSessionById(String checkoutId) {
     return CHECKOUT_SESSIONS + "/" + checkoutId;
   }
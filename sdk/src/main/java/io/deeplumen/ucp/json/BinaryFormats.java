@@ -0,0 +1,34 @@
+package io.deeplumen.ucp.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Factories for the binary {@link WireFormat}s. Only this class links against the optional data
+ * format modules, so it is loaded on the first binary codec and never when they are absent.
+ *
+ * <p>UCP documents repeat the same member names many times (every line item, total and handler
+ * carries the same keys), so both encodings are set up to write a repeated name once and refer
+ * back to it: CBOR through the stringref extension (tags 256 and 25), Smile through its shared
+ * name and short-value back-references. On the reading side each factory keeps one root symbol
+ * table that its parsers share, so a codec reused across requests decodes known member names
+ * without allocating them again.
+ */
+final class BinaryFormats {
+  private BinaryFormats() {}
+
+  static JsonFactory factory(WireFormat format) {
+    return switch (format) {
+      case CBOR -> CBORFactory.builder().enable(CBORGenerator.Feature.STRINGREF).build();
+      case SMILE ->
+          SmileFactory.builder()
+              .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+              .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+              .build();
+      case JSON -> throw new IllegalArgumentException("JSON is not a binary format");
+    };
+  }
+}
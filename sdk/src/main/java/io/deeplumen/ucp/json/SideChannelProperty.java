@@ -0,0 +1,137 @@
+package io.deeplumen.ucp.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.PropertyMetadata;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.NullValueProvider;
+import com.fasterxml.jackson.databind.deser.SettableAnyProperty;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.std.JsonNodeDeserializer;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.Set;
+
+/**
+ * Deserializer property that reads a side-channel member as a {@link JsonNode} and hands it to the
+ * bean's any-setter.
+ *
+ * <p>Without it the any-setter would receive the member as untyped maps and lists, which {@link
+ * UcpJson} would then have to convert into a tree a second time.
+ */
+final class SideChannelProperty extends SettableBeanProperty {
+  private final SettableAnyProperty anySetter;
+  private final AnnotatedMember anySetterMember;
+
+  @SuppressWarnings("unchecked")
+  private SideChannelProperty(
+      String name,
+      DeserializationConfig config,
+      SettableAnyProperty anySetter,
+      AnnotatedMember anySetterMember) {
+    super(
+        PropertyName.construct(name),
+        config.constructType(JsonNode.class),
+        PropertyMetadata.STD_OPTIONAL,
+        (JsonDeserializer<Object>)
+            (JsonDeserializer<?>) JsonNodeDeserializer.getDeserializer(JsonNode.class));
+    this.anySetter = anySetter;
+    this.anySetterMember = anySetterMember;
+  }
+
+  private SideChannelProperty(
+      SideChannelProperty src, JsonDeserializer<?> deser, NullValueProvider nullProvider) {
+    super(src, deser, nullProvider);
+    this.anySetter = src.anySetter;
+    this.anySetterMember = src.anySetterMember;
+  }
+
+  private SideChannelProperty(SideChannelProperty src, PropertyName name) {
+    super(src, name);
+    this.anySetter = src.anySetter;
+    this.anySetterMember = src.anySetterMember;
+  }
+
+  @Override
+  public SettableBeanProperty withValueDeserializer(JsonDeserializer<?> deser) {
+    return deser == _valueDeserializer ? this : new SideChannelProperty(this, deser, _nullProvider);
+  }
+
+  @Override
+  public SettableBeanProperty withName(PropertyName name) {
+    return new SideChannelProperty(this, name);
+  }
+
+  @Override
+  public SettableBeanProperty withNullProvider(NullValueProvider nullProvider) {
+    return new SideChannelProperty(this, _valueDeserializer, nullProvider);
+  }
+
+  @Override
+  public AnnotatedMember getMember() {
+    // Deserializer construction inspects member annotations (aliases etc.); the any-setter has none
+    // that apply here.
+    return anySetterMember;
+  }
+
+  @Override
+  public <A extends Annotation> A getAnnotation(Class<A> annotation) {
+    return null;
+  }
+
+  @Override
+  public void deserializeAndSet(JsonParser p, DeserializationContext ctxt, Object instance)
+      throws IOException {
+    set(instance, deserialize(p, ctxt));
+  }
+
+  @Override
+  public Object deserializeSetAndReturn(JsonParser p, DeserializationContext ctxt, Object instance)
+      throws IOException {
+    set(instance, deserialize(p, ctxt));
+    return instance;
+  }
+
+  @Override
+  public void set(Object instance, Object value) throws IOException {
+    anySetter.set(instance, getName(), value);
+  }
+
+  @Override
+  public Object setAndReturn(Object instance, Object value) throws IOException {
+    set(instance, value);
+    return instance;
+  }
+
+  /** Adds a {@link SideChannelProperty} for each name to every bean that has an any-setter. */
+  static final class Modifier extends BeanDeserializerModifier {
+    private final Set<String> names;
+
+    Modifier(Set<String> names) {
+      this.names = names;
+    }
+
+    @Override
+    public BeanDeserializerBuilder updateBuilder(
+        DeserializationConfig config, BeanDescription description, BeanDeserializerBuilder builder) {
+      SettableAnyProperty anySetter = builder.getAnySetter();
+      AnnotatedMember member = description.findAnySetterAccessor();
+      if (anySetter == null || member == null) {
+        return builder;
+      }
+      for (String name : names) {
+        if (builder.findProperty(PropertyName.construct(name)) == null) {
+          builder.addProperty(new SideChannelProperty(name, config, anySetter, member));
+        }
+      }
+      return builder;
+    }
+  }
+}
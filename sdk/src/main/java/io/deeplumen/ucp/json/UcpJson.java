@@ -0,0 +1,416 @@
+package io.deeplumen.ucp.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.deeplumen.ucp.metrics.Tags;
+import io.deeplumen.ucp.metrics.UcpMetrics;
+import io.deeplumen.ucp.validation.UcpValidators;
+import io.deeplumen.ucp.validation.Violation;
+import io.deeplumen.ucp.validation.Violations;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codec for generated UCP models with pre-built readers and writers per type.
+ *
+ * <p>{@link ObjectReader} and {@link ObjectWriter} instances are created once per model class and
+ * reused; both are immutable and thread-safe, so lookups skip the root-type resolution {@code
+ * ObjectMapper.readValue}/{@code writeValueAsBytes} repeat on every call. Readers and writers
+ * work on a copy of the mapper taken when the codec is created, so configure the mapper first.
+ *
+ * <p>{@link #readRequest} binds a request body directly into the model and captures side-channel
+ * members (for example {@link #PLATFORM_PROFILE}) during the same parse. Generated models collect
+ * unknown members through their {@code additionalProperties} any-setter; side-channel members
+ * registered with {@link #create(ObjectMapper, String...)} are parsed directly into a {@link
+ * JsonNode} on their way into that map, and the codec moves them out afterwards, so the body is
+ * never materialized as a full tree. Types without an any-setter fall back to splitting the
+ * top-level members while streaming, buffering only the model's members.
+ *
+ * <p>When the SDK is built with the {@code streaming-codecs} profile, the generated {@code
+ * UcpModelsModule} is registered on the codec's mapper, replacing reflective bean (de)serialization
+ * of the models with generated streaming code. {@link #streamingCodecs()} exposes the module for
+ * other mappers.
+ *
+ * <p>{@link #withMetrics} returns a codec over the same readers and writers that times reads as
+ * {@code deserialize} and writes as {@code serialize} operations.
+ *
+ * <p>{@link #validate} checks a body against the generated schema validators before it is bound.
+ *
+ * <p>Codecs read and write JSON. {@link #forFormat} returns a sibling codec for CBOR or Smile with
+ * the same mapper configuration, side-channel members and metrics; siblings are created once per
+ * format and keep their own readers and writers. JSON stays the default, so binary formats are only
+ * used where a caller asks for them, e.g. through {@link WireFormat#negotiate}.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * UcpJson json = UcpJson.create(mapper);
+ * UcpJson.Bound<CheckoutCreateRequest> req =
+ *     json.readRequest(body, CheckoutCreateRequest.class, UcpJson.PLATFORM_PROFILE);
+ * JsonNode platformProfile = req.field(UcpJson.PLATFORM_PROFILE);
+ * byte[] out = json.write(checkoutService.createCheckout(platformProfile, req.value()));
+ * }</pre>
+ */
+public final class UcpJson {
+  /** Inline platform profile that some platforms send alongside a checkout request. */
+  public static final String PLATFORM_PROFILE = "_platform_profile";
+
+  private static final String STREAMING_CODECS = "io.deeplumen.ucp.codec.UcpModelsModule";
+
+  private final ObjectMapper mapper;
+  private final WireFormat format;
+  private final Map<Class<?>, Binding> bindings;
+  private final Map<Class<?>, ObjectWriter> writers;
+  // Codecs for every format with the same configuration and metrics as this one, this one included.
+  private final Map<WireFormat, UcpJson> formats;
+  // The untimed codec this one shares its mapper with, and the metrics it adds; null when untimed.
+  private final UcpJson untimed;
+  private final UcpMetrics metrics;
+  private final UcpMetrics.Timer serializeTimer;
+  private final UcpMetrics.Timer deserializeTimer;
+
+  private UcpJson(ObjectMapper mapper, Set<String> sideChannelFields) {
+    this(
+        mapper
+            .copy()
+            .registerModule(
+                new SimpleModule("ucp-side-channel")
+                    .setDeserializerModifier(new SideChannelProperty.Modifier(sideChannelFields))),
+        WireFormat.JSON,
+        new ConcurrentHashMap<>());
+    streamingCodecs().ifPresent(this.mapper::registerModule);
+  }
+
+  private UcpJson(ObjectMapper mapper, WireFormat format, Map<WireFormat, UcpJson> formats) {
+    this.mapper = mapper;
+    this.format = format;
+    this.bindings = new ConcurrentHashMap<>();
+    this.writers = new ConcurrentHashMap<>();
+    this.formats = formats;
+    this.untimed = null;
+    this.metrics = null;
+    this.serializeTimer = UcpMetrics.noop().timer(UcpMetrics.OPERATIONS, Tags.empty());
+    this.deserializeTimer = serializeTimer;
+  }
+
+  private UcpJson(UcpJson codec, UcpMetrics metrics, Map<WireFormat, UcpJson> formats) {
+    this.mapper = codec.mapper;
+    this.format = codec.format;
+    this.bindings = codec.bindings;
+    this.writers = codec.writers;
+    this.formats = formats;
+    this.untimed = codec.untimed != null ? codec.untimed : codec;
+    this.metrics = metrics;
+    this.serializeTimer =
+        metrics.timer(
+            UcpMetrics.OPERATIONS, Tags.of(UcpMetrics.OPERATION, UcpMetrics.SERIALIZE));
+    this.deserializeTimer =
+        metrics.timer(
+            UcpMetrics.OPERATIONS, Tags.of(UcpMetrics.OPERATION, UcpMetrics.DESERIALIZE));
+  }
+
+  /**
+   * Returns a new instance of the generated streaming codec module, or empty when the SDK was built
+   * without the {@code streaming-codecs} profile.
+   */
+  public static Optional<Module> streamingCodecs() {
+    Class<?> type;
+    try {
+      type = Class.forName(STREAMING_CODECS, true, UcpJson.class.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of((Module) type.getDeclaredConstructor().newInstance());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Cannot instantiate " + STREAMING_CODECS, e);
+    }
+  }
+
+  /** Creates a codec over a copy of {@code mapper} that captures {@link #PLATFORM_PROFILE}. */
+  public static UcpJson create(ObjectMapper mapper) {
+    return create(mapper, PLATFORM_PROFILE);
+  }
+
+  /**
+   * Creates a codec over a copy of {@code mapper}. Members named in {@code sideChannelFields} are
+   * read straight into {@link JsonNode}s when they appear in a model with additional properties.
+   */
+  public static UcpJson create(ObjectMapper mapper, String... sideChannelFields) {
+    Objects.requireNonNull(mapper, "mapper is required");
+    UcpJson codec = new UcpJson(mapper, Set.of(sideChannelFields));
+    codec.formats.put(WireFormat.JSON, codec);
+    return codec;
+  }
+
+  /**
+   * Returns a codec that shares this one's mapper, readers and writers and records the time spent
+   * in {@link #read}, {@link #readTree}, {@link #readRequest} and {@link #write} into {@code
+   * metrics}. Readers and writers obtained through {@link #reader} and {@link #writer} are not
+   * timed.
+   */
+  public UcpJson withMetrics(UcpMetrics metrics) {
+    Objects.requireNonNull(metrics, "metrics is required");
+    UcpJson codec = new UcpJson(this, metrics, new ConcurrentHashMap<>());
+    codec.formats.put(format, codec);
+    return codec;
+  }
+
+  /**
+   * Returns the codec for {@code format}: this one for its own format, otherwise a sibling over a
+   * copy of the mapper with that format's factory, created on first use and cached. Siblings share
+   * this codec's side-channel members and metrics.
+   *
+   * @throws UnsupportedOperationException if the data format module for {@code format} is not on
+   *     the class path
+   */
+  public UcpJson forFormat(WireFormat format) {
+    Objects.requireNonNull(format, "format is required");
+    UcpJson codec = formats.get(format);
+    if (codec != null) {
+      return codec;
+    }
+    if (!format.isAvailable()) {
+      String module = "jackson-dataformat-" + format.name().toLowerCase(Locale.ROOT);
+      throw new UnsupportedOperationException(format.mediaType() + " needs " + module);
+    }
+    return formats.computeIfAbsent(
+        format,
+        f ->
+            untimed != null
+                ? new UcpJson(untimed.forFormat(f), metrics, formats)
+                : new UcpJson(mapper.copyWith(BinaryFormats.factory(f)), f, formats));
+  }
+
+  /** The format this codec reads and writes. */
+  public WireFormat format() {
+    return format;
+  }
+
+  public ObjectMapper mapper() {
+    return mapper;
+  }
+
+  /** Returns the shared reader for {@code type}. */
+  public ObjectReader reader(Class<?> type) {
+    return binding(type).reader;
+  }
+
+  /** Returns the shared writer for {@code type}. */
+  public ObjectWriter writer(Class<?> type) {
+    return writers.computeIfAbsent(type, mapper::writerFor);
+  }
+
+  public <T> T read(byte[] json, Class<T> type) throws IOException {
+    long start = deserializeTimer.start();
+    try {
+      return binding(type).reader.readValue(json);
+    } finally {
+      deserializeTimer.stop(start);
+    }
+  }
+
+  public JsonNode readTree(byte[] json) throws IOException {
+    long start = deserializeTimer.start();
+    try {
+      return mapper.readTree(json);
+    } finally {
+      deserializeTimer.stop(start);
+    }
+  }
+
+  public byte[] write(Object value) throws IOException {
+    long start = serializeTimer.start();
+    try {
+      if (value == null) {
+        return mapper.writeValueAsBytes(null);
+      }
+      return writer(value.getClass()).writeValueAsBytes(value);
+    } finally {
+      serializeTimer.stop(start);
+    }
+  }
+
+  /**
+   * Checks {@code body} against the schema constraints of {@code type} with its generated
+   * validator (see {@link UcpValidators}), streaming over the document in this codec's format
+   * without binding it. Returns the violations, at most one in {@link Violations.Mode#FAIL_FAST}.
+   * An empty or absent body has none, as {@link #readRequest} binds it to {@code null}.
+   *
+   * @throws IllegalArgumentException if the SDK was built without a validator for {@code type}
+   * @throws IOException if the body is not well-formed
+   */
+  public List<Violation> validate(byte[] body, Class<?> type, Violations.Mode mode)
+      throws IOException {
+    if (body == null || body.length == 0) {
+      return List.of();
+    }
+    try (JsonParser parser = mapper.createParser(body)) {
+      return UcpValidators.validate(parser, type, mode);
+    }
+  }
+
+  /**
+   * Re-encodes a document in this codec's format as {@code target}, token by token and without
+   * binding it to a model. Returns {@code body} itself when the formats are the same.
+   */
+  public byte[] transcode(byte[] body, WireFormat target) throws IOException {
+    if (target == format) {
+      return body;
+    }
+    ObjectMapper out = forFormat(target).mapper;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length);
+    try (JsonParser parser = mapper.createParser(body);
+        JsonGenerator generator = out.createGenerator(bytes)) {
+      if (parser.nextToken() != null) {
+        generator.copyCurrentStructure(parser);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Binds {@code body} to {@code type} and captures the top-level members named in {@code
+   * sideChannelFields}. Captured members are removed from the model's additional properties. An
+   * empty or absent body yields a {@link Bound} with a {@code null} value.
+   */
+  public <T> Bound<T> readRequest(byte[] body, Class<T> type, String... sideChannelFields)
+      throws IOException {
+    if (body == null || body.length == 0) {
+      return new Bound<>(null, Map.of());
+    }
+    long start = deserializeTimer.start();
+    try {
+      Binding binding = binding(type);
+      if (sideChannelFields.length == 0) {
+        return new Bound<>(binding.reader.readValue(body), Map.of());
+      }
+      if (binding.additionalProperties != null) {
+        T value = binding.reader.readValue(body);
+        return new Bound<>(value, extract(value, binding.additionalProperties, sideChannelFields));
+      }
+      return splitAndRead(body, binding, sideChannelFields);
+    } finally {
+      deserializeTimer.stop(start);
+    }
+  }
+
+  private Map<String, JsonNode> extract(
+      Object value, AnnotatedMember additionalProperties, String[] fields) {
+    if (value == null || !(additionalProperties.getValue(value) instanceof Map<?, ?> extra)) {
+      return Map.of();
+    }
+    if (extra.isEmpty()) {
+      return Map.of();
+    }
+    Map<String, JsonNode> captured = null;
+    for (String field : fields) {
+      if (!extra.containsKey(field)) {
+        continue;
+      }
+      Object raw = extra.remove(field);
+      if (captured == null) {
+        captured = new HashMap<>(4);
+      }
+      JsonNode node;
+      if (raw instanceof JsonNode tree) {
+        node = tree;
+      } else {
+        node = raw == null ? NullNode.getInstance() : mapper.valueToTree(raw);
+      }
+      captured.put(field, node);
+    }
+    return captured == null ? Map.of() : Collections.unmodifiableMap(captured);
+  }
+
+  private <T> Bound<T> splitAndRead(byte[] body, Binding binding, String[] fields)
+      throws IOException {
+    try (JsonParser parser = mapper.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return new Bound<>(binding.reader.readValue(parser), Map.of());
+      }
+      Map<String, JsonNode> captured = null;
+      TokenBuffer buffer = new TokenBuffer(parser);
+      buffer.writeStartObject();
+      for (String name; (name = parser.nextFieldName()) != null; ) {
+        parser.nextToken();
+        if (contains(fields, name)) {
+          if (captured == null) {
+            captured = new HashMap<>(4);
+          }
+          captured.put(name, mapper.readTree(parser));
+        } else {
+          buffer.writeFieldName(name);
+          buffer.copyCurrentStructure(parser);
+        }
+      }
+      buffer.writeEndObject();
+      try (JsonParser buffered = buffer.asParser(mapper)) {
+        T value = binding.reader.readValue(buffered);
+        return new Bound<>(value, captured == null ? Map.of() : Collections.unmodifiableMap(captured));
+      }
+    }
+  }
+
+  private Binding binding(Class<?> type) {
+    return bindings.computeIfAbsent(type, this::newBinding);
+  }
+
+  private Binding newBinding(Class<?> type) {
+    JavaType javaType = mapper.constructType(type);
+    AnnotatedMember anySetter =
+        mapper.getDeserializationConfig().introspect(javaType).findAnySetterAccessor();
+    AnnotatedMember anyGetter =
+        mapper.getSerializationConfig().introspect(javaType).findAnyGetter();
+    return new Binding(mapper.readerFor(javaType), anySetter != null ? anyGetter : null);
+  }
+
+  private static boolean contains(String[] fields, String name) {
+    for (String field : fields) {
+      if (field.equals(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** A bound model plus the side-channel members captured while reading it. */
+  public record Bound<T>(T value, Map<String, JsonNode> sideChannel) {
+
+    /** Returns the captured member {@code name}, or {@code null} when the body did not have it. */
+    public JsonNode field(String name) {
+      return sideChannel.get(name);
+    }
+  }
+
+  private static final class Binding {
+    final ObjectReader reader;
+    // Getter of the map the any-setter fills; null when the type has no any-setter.
+    final AnnotatedMember additionalProperties;
+
+    Binding(ObjectReader reader, AnnotatedMember additionalProperties) {
+      this.reader = reader;
+      this.additionalProperties = additionalProperties;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package io.deeplumen.ucp.json;
+
+import java.util.Locale;
+
+/**
+ * Encodings a {@link UcpJson} codec can read and write, identified by their media type.
+ *
+ * <p>JSON is the protocol's wire format and always available. CBOR and Smile are binary encodings
+ * of the same data model for callers that negotiate them, typically services talking to each other;
+ * they need {@code jackson-dataformat-cbor} and {@code jackson-dataformat-smile}, which the SDK
+ * declares as optional dependencies.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * UcpJson in = json.forFormat(WireFormat.forContentType(request.getContentType()));
+ * UcpJson out = json.forFormat(WireFormat.negotiate(request.getHeader("Accept")));
+ * }</pre>
+ */
+public enum WireFormat {
+  JSON("application/json", null),
+  CBOR("application/cbor", "com.fasterxml.jackson.dataformat.cbor.CBORFactory"),
+  SMILE("application/x-jackson-smile", "com.fasterxml.jackson.dataformat.smile.SmileFactory");
+
+  private final String mediaType;
+  private final boolean available;
+
+  WireFormat(String mediaType, String factoryClass) {
+    this.mediaType = mediaType;
+    this.available = factoryClass == null || present(factoryClass);
+  }
+
+  public String mediaType() {
+    return mediaType;
+  }
+
+  /** Whether the Jackson data format module for this format is on the class path. */
+  public boolean isAvailable() {
+    return available;
+  }
+
+  /**
+   * Returns the format named by a {@code Content-Type} header, ignoring parameters. A missing or
+   * unrecognized type is read as {@link #JSON}. The result may not be {@linkplain #isAvailable()
+   * available}.
+   */
+  public static WireFormat forContentType(String contentType) {
+    if (contentType == null) {
+      return JSON;
+    }
+    int semicolon = contentType.indexOf(';');
+    String type = (semicolon < 0 ? contentType : contentType.substring(0, semicolon)).trim();
+    for (WireFormat format : values()) {
+      if (format.mediaType.equalsIgnoreCase(type)) {
+        return format;
+      }
+    }
+    return JSON;
+  }
+
+  /**
+   * Picks the available format with the highest quality in an {@code Accept} header; ties go to
+   * the range listed first, and wildcards stand for {@link #JSON}. Returns {@link #JSON} when the
+   * header is missing or accepts none of the formats, so callers that ask for nothing in particular
+   * keep getting JSON.
+   */
+  public static WireFormat negotiate(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return JSON;
+    }
+    WireFormat best = JSON;
+    double bestQuality = 0;
+    for (String range : accept.split(",")) {
+      int semicolon = range.indexOf(';');
+      String type =
+          (semicolon < 0 ? range : range.substring(0, semicolon)).trim().toLowerCase(Locale.ROOT);
+      double quality = semicolon < 0 ? 1 : quality(range.substring(semicolon + 1));
+      if (quality <= bestQuality) {
+        continue;
+      }
+      WireFormat format =
+          type.equals("*/*") || type.equals("application/*") ? JSON : forMediaType(type);
+      if (format != null && format.available) {
+        best = format;
+        bestQuality = quality;
+      }
+    }
+    return best;
+  }
+
+  private static WireFormat forMediaType(String type) {
+    for (WireFormat format : values()) {
+      if (format.mediaType.equals(type)) {
+        return format;
+      }
+    }
+    return null;
+  }
+
+  private static double quality(String parameters) {
+    for (String parameter : parameters.split(";")) {
+      int eq = parameter.indexOf('=');
+      if (eq > 0 && parameter.substring(0, eq).trim().equalsIgnoreCase("q")) {
+        try {
+          return Double.parseDouble(parameter.substring(eq + 1).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  private static boolean present(String className) {
+    try {
+      Class.forName(className, false, WireFormat.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+}
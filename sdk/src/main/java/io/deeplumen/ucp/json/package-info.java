@@ -0,0 +1,10 @@
+/**
+ * JSON codec for generated UCP models.
+ *
+ * <p>{@link io.deeplumen.ucp.json.UcpJson} holds pre-built, thread-safe Jackson readers and writers
+ * per model type and binds request bodies straight into the typed model, capturing side-channel
+ * members such as {@code _platform_profile} in the same pass instead of parsing into a tree first.
+ * {@link io.deeplumen.ucp.json.WireFormat} names the optional binary encodings (CBOR, Smile) a
+ * codec can switch to for callers that negotiate them.
+ */
+package io.deeplumen.ucp.json;
@@ -0,0 +1,172 @@
+package io.deeplumen.ucp.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link UcpMetrics} kept in process: counters are {@link LongAdder}s and timers {@link
+ * LatencyHistogram}s, both lock-free, in a concurrent map keyed by name and tags.
+ *
+ * <p>{@link #timers()} and {@link #counters()} return point-in-time views for custom exporters;
+ * {@link #dump(Appendable)} writes them as text, one meter per line, sorted by name and tags:
+ *
+ * <pre>
+ * ucp.operations{operation=pricing} count=1200 mean=18.4us p50=16.1us p90=25.0us p99=61.4us ...
+ * ucp.profiles.cache{result=hit} 1187
+ * </pre>
+ *
+ * <p>Meters are never removed, so tag values should come from small, known sets.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * InMemoryMetrics metrics = new InMemoryMetrics();
+ * UcpJson json = UcpJson.create(mapper).withMetrics(metrics);
+ * ...
+ * System.out.print(metrics.dump());
+ * }</pre>
+ */
+public final class InMemoryMetrics implements UcpMetrics {
+  private static final Comparator<Id> ORDER =
+      Comparator.comparing(Id::name).thenComparing(id -> id.tags().toString());
+
+  private final ConcurrentHashMap<Id, HistogramTimer> timers = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Id, AdderCounter> counters = new ConcurrentHashMap<>();
+
+  @Override
+  public Timer timer(String name, Tags tags) {
+    Id id = new Id(name, tags);
+    HistogramTimer timer = timers.get(id);
+    return timer != null ? timer : timers.computeIfAbsent(id, ignored -> new HistogramTimer());
+  }
+
+  @Override
+  public Counter counter(String name, Tags tags) {
+    Id id = new Id(name, tags);
+    AdderCounter counter = counters.get(id);
+    return counter != null ? counter : counters.computeIfAbsent(id, ignored -> new AdderCounter());
+  }
+
+  /** Snapshots of all timers, sorted by name and tags. */
+  public List<TimerSnapshot> timers() {
+    List<TimerSnapshot> out = new ArrayList<>(timers.size());
+    timers.forEach(
+        (id, timer) ->
+            out.add(new TimerSnapshot(id.name(), id.tags(), timer.histogram.snapshot())));
+    out.sort(Comparator.comparing(TimerSnapshot::id, ORDER));
+    return out;
+  }
+
+  /** Current values of all counters, sorted by name and tags. */
+  public List<CounterSnapshot> counters() {
+    List<CounterSnapshot> out = new ArrayList<>(counters.size());
+    counters.forEach(
+        (id, counter) -> out.add(new CounterSnapshot(id.name(), id.tags(), counter.adder.sum())));
+    out.sort(Comparator.comparing(CounterSnapshot::id, ORDER));
+    return out;
+  }
+
+  /** Writes every timer, then every counter, as one line of text each. */
+  public void dump(Appendable out) throws IOException {
+    for (TimerSnapshot timer : timers()) {
+      LatencyHistogram.Snapshot s = timer.histogram();
+      out.append(timer.name())
+          .append(timer.tags().toString())
+          .append(" count=")
+          .append(Long.toString(s.count()))
+          .append(" mean=")
+          .append(duration(s.mean()))
+          .append(" p50=")
+          .append(duration(s.valueAtPercentile(50)))
+          .append(" p90=")
+          .append(duration(s.valueAtPercentile(90)))
+          .append(" p99=")
+          .append(duration(s.valueAtPercentile(99)))
+          .append(" max=")
+          .append(duration(s.max()))
+          .append('\n');
+    }
+    for (CounterSnapshot counter : counters()) {
+      out.append(counter.name())
+          .append(counter.tags().toString())
+          .append(' ')
+          .append(Long.toString(counter.value()))
+          .append('\n');
+    }
+  }
+
+  /** {@link #dump(Appendable)} into a string. */
+  public String dump() {
+    StringBuilder out = new StringBuilder();
+    try {
+      dump(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toString();
+  }
+
+  private static String duration(double nanos) {
+    if (nanos < 1_000) {
+      return String.format(Locale.ROOT, "%.0fns", nanos);
+    }
+    if (nanos < 1_000_000) {
+      return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+    }
+    if (nanos < 1_000_000_000) {
+      return String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+    }
+    return String.format(Locale.ROOT, "%.2fs", nanos / 1e9);
+  }
+
+  private record Id(String name, Tags tags) {
+    Id {
+      Objects.requireNonNull(name, "name is required");
+      Objects.requireNonNull(tags, "tags is required");
+    }
+  }
+
+  /** A timer's name, tags and distribution in nanoseconds. */
+  public record TimerSnapshot(String name, Tags tags, LatencyHistogram.Snapshot histogram) {
+    private Id id() {
+      return new Id(name, tags);
+    }
+  }
+
+  /** A counter's name, tags and value. */
+  public record CounterSnapshot(String name, Tags tags, long value) {
+    private Id id() {
+      return new Id(name, tags);
+    }
+  }
+
+  private static final class HistogramTimer implements Timer {
+    final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Override
+    public void record(long durationNanos) {
+      histogram.record(durationNanos);
+    }
+  }
+
+  private static final class AdderCounter implements Counter {
+    final LongAdder adder = new LongAdder();
+
+    @Override
+    public void increment() {
+      adder.increment();
+    }
+
+    @Override
+    public void add(long amount) {
+      adder.add(amount);
+    }
+  }
+}
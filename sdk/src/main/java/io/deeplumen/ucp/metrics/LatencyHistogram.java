@@ -0,0 +1,126 @@
+package io.deeplumen.ucp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative {@code long} values, typically nanoseconds, with HDR-style
+ * log-linear buckets.
+ *
+ * <p>Values below 64 get a bucket each. Above that, every power of two is split into 32 buckets of
+ * equal width, so a recorded value is known to within about 3% of itself. Values above 2<sup>43
+ * </sup>-1 (about 2.4 hours in nanoseconds) land in the last bucket; the exact maximum is tracked
+ * separately. Recording is one {@code incrementAndGet} on the value's bucket plus two {@link
+ * LongAdder} updates, and never blocks; {@link #snapshot()} may run concurrently with recording
+ * and sees each value either completely or not at all in the bucket counts.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 42;
+  private static final long MAX_TRACKABLE = (1L << (MAX_EXPONENT + 1)) - 1;
+  private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /** Records {@code value}; negative values are recorded as zero. */
+  public void record(long value) {
+    long v = Math.max(0, value);
+    counts.incrementAndGet(index(Math.min(v, MAX_TRACKABLE)));
+    count.increment();
+    sum.add(v);
+    long current = max.get();
+    while (v > current && !max.compareAndSet(current, v)) {
+      current = max.get();
+    }
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  /** Copies the current distribution. */
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+      total += copy[i];
+    }
+    return new Snapshot(copy, total, sum.sum(), max.get());
+  }
+
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /** Largest value that maps to bucket {@code index}. */
+  static long highestEquivalent(int index) {
+    if (index < 2 * SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  /** A point-in-time copy of a {@link LatencyHistogram}. */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    private Snapshot(long[] counts, long count, long sum, long max) {
+      this.counts = counts;
+      this.count = count;
+      this.sum = sum;
+      this.max = max;
+    }
+
+    public long count() {
+      return count;
+    }
+
+    public long sum() {
+      return sum;
+    }
+
+    public long max() {
+      return max;
+    }
+
+    public double mean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * The value at {@code percentile} (0 to 100): the highest value equivalent to the bucket
+     * holding that rank, capped at the recorded maximum. Zero for an empty snapshot.
+     */
+    public long valueAtPercentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      double p = Math.min(100, Math.max(0, percentile));
+      long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(highestEquivalent(i), max);
+        }
+      }
+      return max;
+    }
+  }
+}
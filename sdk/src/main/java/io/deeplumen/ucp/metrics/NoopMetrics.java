@@ -0,0 +1,41 @@
+package io.deeplumen.ucp.metrics;
+
+/** {@link UcpMetrics#noop()}: one shared timer and counter whose methods do nothing. */
+final class NoopMetrics implements UcpMetrics {
+  static final NoopMetrics INSTANCE = new NoopMetrics();
+
+  private static final Timer TIMER =
+      new Timer() {
+        @Override
+        public long start() {
+          return 0;
+        }
+
+        @Override
+        public void stop(long startNanos) {}
+
+        @Override
+        public void record(long durationNanos) {}
+      };
+
+  private static final Counter COUNTER =
+      new Counter() {
+        @Override
+        public void increment() {}
+
+        @Override
+        public void add(long amount) {}
+      };
+
+  private NoopMetrics() {}
+
+  @Override
+  public Timer timer(String name, Tags tags) {
+    return TIMER;
+  }
+
+  @Override
+  public Counter counter(String name, Tags tags) {
+    return COUNTER;
+  }
+}
@@ -0,0 +1,110 @@
+package io.deeplumen.ucp.metrics;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Immutable set of {@code key=value} tags identifying a meter, kept sorted by key so that the same
+ * tags given in any order are equal. A {@code null} value is stored as {@code "none"}.
+ */
+public final class Tags {
+  private static final Tags EMPTY = new Tags(new String[0]);
+
+  // Alternating keys and values, sorted by key.
+  private final String[] pairs;
+  private final int hash;
+
+  private Tags(String[] pairs) {
+    this.pairs = pairs;
+    this.hash = Arrays.hashCode(pairs);
+  }
+
+  public static Tags empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Tags from alternating keys and values, e.g. {@code Tags.of("route", "/x", "method", "GET")}.
+   * A key given twice keeps its last value.
+   */
+  public static Tags of(String... keyValues) {
+    if (keyValues.length % 2 != 0) {
+      throw new IllegalArgumentException("keyValues must alternate keys and values");
+    }
+    Tags tags = EMPTY;
+    for (int i = 0; i < keyValues.length; i += 2) {
+      tags = tags.and(keyValues[i], keyValues[i + 1]);
+    }
+    return tags;
+  }
+
+  /** These tags plus {@code key=value}, replacing an existing value for {@code key}. */
+  public Tags and(String key, String value) {
+    Objects.requireNonNull(key, "key is required");
+    String v = value != null ? value : "none";
+    int n = size();
+    int i = 0;
+    while (i < n && pairs[2 * i].compareTo(key) < 0) {
+      i++;
+    }
+    String[] next;
+    if (i < n && pairs[2 * i].equals(key)) {
+      if (pairs[2 * i + 1].equals(v)) {
+        return this;
+      }
+      next = pairs.clone();
+    } else {
+      next = new String[pairs.length + 2];
+      System.arraycopy(pairs, 0, next, 0, 2 * i);
+      System.arraycopy(pairs, 2 * i, next, 2 * i + 2, pairs.length - 2 * i);
+      next[2 * i] = key;
+    }
+    next[2 * i + 1] = v;
+    return new Tags(next);
+  }
+
+  public int size() {
+    return pairs.length / 2;
+  }
+
+  public String key(int index) {
+    return pairs[2 * index];
+  }
+
+  public String value(int index) {
+    return pairs[2 * index + 1];
+  }
+
+  /** The value for {@code key}, or {@code null}. */
+  public String get(String key) {
+    for (int i = 0; i < pairs.length; i += 2) {
+      if (pairs[i].equals(key)) {
+        return pairs[i + 1];
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof Tags other && hash == other.hash && Arrays.equals(pairs, other.pairs);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  /** {@code {key=value,key=value}}. */
+  @Override
+  public String toString() {
+    StringBuilder out = new StringBuilder("{");
+    for (int i = 0; i < pairs.length; i += 2) {
+      if (i > 0) {
+        out.append(',');
+      }
+      out.append(pairs[i]).append('=').append(pairs[i + 1]);
+    }
+    return out.append('}').toString();
+  }
+}
@@ -0,0 +1,93 @@
+package io.deeplumen.ucp.metrics;
+
+/**
+ * Source of the timers and counters that SDK components and servers record into.
+ *
+ * <p>Meters are identified by a name and {@link Tags}; asking twice for the same identity returns
+ * a meter that records into the same series. Lookups may cost a map access, so hot paths look a
+ * meter up once and keep it. Implementations must be thread-safe, and so must their meters.
+ *
+ * <p>The default, {@link #noop()}, hands out shared meters whose methods are empty and whose
+ * {@link Timer#start()} does not read the clock. Where it is the only implementation in use the
+ * JIT inlines those calls to nothing, so instrumented code costs nothing until metrics are turned
+ * on.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * UcpMetrics metrics = new InMemoryMetrics();
+ * UcpMetrics.Timer pricing =
+ *     metrics.timer(UcpMetrics.OPERATIONS, Tags.of(UcpMetrics.OPERATION, UcpMetrics.PRICING));
+ * long start = pricing.start();
+ * PricedCart cart = pricingEngine.price(lines);
+ * pricing.stop(start);
+ * }</pre>
+ */
+public interface UcpMetrics {
+  /** Timer of inbound HTTP requests, tagged with route, method, status, version and capability. */
+  String SERVER_REQUESTS = "ucp.server.requests";
+
+  /** Timer of {@code UcpClient} calls, tagged with route, outcome, version and capability. */
+  String CLIENT_REQUESTS = "ucp.client.requests";
+
+  /** Timer of internal operations, tagged with {@link #OPERATION}. */
+  String OPERATIONS = "ucp.operations";
+
+  /** Counter of platform profile cache lookups, tagged with {@link #RESULT}. */
+  String PROFILE_CACHE = "ucp.profiles.cache";
+
+  String ROUTE = "route";
+  String METHOD = "method";
+  String STATUS = "status";
+  String OUTCOME = "outcome";
+  String OPERATION = "operation";
+  String RESULT = "result";
+
+  /** Tag with the UCP protocol version the caller declared, e.g. {@code 2026-01-11}. */
+  String VERSION = "version";
+
+  /** Tag with the capability a route or call belongs to, e.g. {@code dev.ucp.shopping.checkout}. */
+  String CAPABILITY = "capability";
+
+  String SERIALIZE = "serialize";
+  String DESERIALIZE = "deserialize";
+  String NEGOTIATE = "negotiate";
+  String SESSION_LOOKUP = "session_lookup";
+  String PRICING = "pricing";
+  String PROFILE_FETCH = "profile_fetch";
+
+  /** Returns the timer for {@code name} and {@code tags}. */
+  Timer timer(String name, Tags tags);
+
+  /** Returns the counter for {@code name} and {@code tags}. */
+  Counter counter(String name, Tags tags);
+
+  /** Metrics that record nothing. */
+  static UcpMetrics noop() {
+    return NoopMetrics.INSTANCE;
+  }
+
+  /** Records durations in nanoseconds. */
+  interface Timer {
+    /** Returns a start mark to pass to {@link #stop}. */
+    default long start() {
+      return System.nanoTime();
+    }
+
+    /** Records the time elapsed since {@code startNanos}, a value returned by {@link #start}. */
+    default void stop(long startNanos) {
+      record(System.nanoTime() - startNanos);
+    }
+
+    void record(long durationNanos);
+  }
+
+  /** A monotonically increasing count. */
+  interface Counter {
+    default void increment() {
+      add(1);
+    }
+
+    void add(long amount);
+  }
+}
@@ -0,0 +1,11 @@
+/**
+ * Instrumentation SPI for SDK and server hot paths.
+ *
+ * <p>{@link io.deeplumen.ucp.metrics.UcpMetrics} hands out timers and counters by name and {@link
+ * io.deeplumen.ucp.metrics.Tags}. SDK components take an instance through their builders or
+ * factories and default to {@link io.deeplumen.ucp.metrics.UcpMetrics#noop()}, whose meters do
+ * nothing. {@link io.deeplumen.ucp.metrics.InMemoryMetrics} is the built-in exporter, with
+ * lock-free counters and {@link io.deeplumen.ucp.metrics.LatencyHistogram}s and a plain-text
+ * dump; other backends, such as Micrometer, plug in by implementing the interface.
+ */
+package io.deeplumen.ucp.metrics;
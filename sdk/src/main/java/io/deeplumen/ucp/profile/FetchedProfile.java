@@ -0,0 +1,18 @@
+package io.deeplumen.ucp.profile;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A fetched profile document together with its freshness lifetime.
+ *
+ * <p>{@code maxAge} is {@code null} when the origin did not say how long the profile may be cached,
+ * in which case the resolver falls back to its default TTL. {@link Duration#ZERO} means the
+ * profile must not be cached.
+ */
+public record FetchedProfile(JsonNode profile, Duration maxAge) {
+  public FetchedProfile {
+    Objects.requireNonNull(profile, "profile is required");
+  }
+}
@@ -0,0 +1,214 @@
+package io.deeplumen.ucp.profile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link ProfileFetcher} backed by the JDK {@link HttpClient}.
+ *
+ * <p>Requests are sent with {@link HttpClient#sendAsync} so no caller thread waits on the network.
+ * The connect deadline is a property of the client and the read deadline is applied per request.
+ * Bodies are capped at {@code maxBodyBytes}: a larger {@code Content-Length} fails the fetch before
+ * the body is read, and a body that grows past the cap fails it as soon as it does, so a hostile
+ * profile URL cannot make the server buffer an unbounded response. Freshness is taken from the
+ * response {@code Cache-Control} header.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * ProfileFetcher fetcher =
+ *     HttpProfileFetcher.create(Duration.ofSeconds(1), Duration.ofSeconds(2), new ObjectMapper());
+ * }</pre>
+ */
+public final class HttpProfileFetcher implements ProfileFetcher {
+  /** Largest profile body read by default, 1 MiB. */
+  public static final long DEFAULT_MAX_BODY_BYTES = 1 << 20;
+
+  private final HttpClient client;
+  private final ObjectMapper mapper;
+  private final Duration readTimeout;
+  private final long maxBodyBytes;
+
+  public HttpProfileFetcher(HttpClient client, ObjectMapper mapper, Duration readTimeout) {
+    this(client, mapper, readTimeout, DEFAULT_MAX_BODY_BYTES);
+  }
+
+  public HttpProfileFetcher(
+      HttpClient client, ObjectMapper mapper, Duration readTimeout, long maxBodyBytes) {
+    this.client = Objects.requireNonNull(client, "client is required");
+    this.mapper = Objects.requireNonNull(mapper, "mapper is required");
+    this.readTimeout = Objects.requireNonNull(readTimeout, "readTimeout is required");
+    if (maxBodyBytes < 1) {
+      throw new IllegalArgumentException("maxBodyBytes must be positive");
+    }
+    this.maxBodyBytes = maxBodyBytes;
+  }
+
+  public static HttpProfileFetcher create(
+      Duration connectTimeout, Duration readTimeout, ObjectMapper mapper) {
+    return create(connectTimeout, readTimeout, DEFAULT_MAX_BODY_BYTES, mapper);
+  }
+
+  public static HttpProfileFetcher create(
+      Duration connectTimeout, Duration readTimeout, long maxBodyBytes, ObjectMapper mapper) {
+    HttpClient client =
+        HttpClient.newBuilder()
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    return new HttpProfileFetcher(client, mapper, readTimeout, maxBodyBytes);
+  }
+
+  @Override
+  public CompletableFuture<FetchedProfile> fetch(URI uri) {
+    String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : null;
+    if (!"https".equals(scheme) && !"http".equals(scheme)) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException("Unsupported profile URL scheme: " + uri));
+    }
+    HttpRequest request =
+        HttpRequest.newBuilder(uri)
+            .timeout(readTimeout)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+    return client
+        .sendAsync(
+            request,
+            info ->
+                new BoundedBody(
+                    info.headers().firstValueAsLong("Content-Length").orElse(-1), maxBodyBytes))
+        .thenApply(this::toProfile);
+  }
+
+  private FetchedProfile toProfile(HttpResponse<byte[]> response) {
+    int status = response.statusCode();
+    if (status < 200 || status >= 300) {
+      throw new IllegalStateException(
+          "Profile fetch returned HTTP " + status + " for " + response.uri());
+    }
+    try {
+      return new FetchedProfile(mapper.readTree(response.body()), maxAge(response.headers()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the freshness lifetime from {@code Cache-Control}: {@code max-age} when present, zero
+   * for {@code no-store}/{@code no-cache}, or {@code null} when the header says nothing.
+   */
+  static Duration maxAge(HttpHeaders headers) {
+    Duration maxAge = null;
+    for (String value : headers.allValues("Cache-Control")) {
+      for (String directive : value.split(",")) {
+        String d = directive.trim().toLowerCase(Locale.ROOT);
+        if (d.equals("no-store") || d.equals("no-cache")) {
+          return Duration.ZERO;
+        }
+        if (d.startsWith("max-age=")) {
+          try {
+            maxAge = Duration.ofSeconds(Math.max(0, Long.parseLong(unquote(d.substring(8)))));
+          } catch (NumberFormatException e) {
+            return Duration.ZERO;
+          }
+        }
+      }
+    }
+    return maxAge;
+  }
+
+  private static String unquote(String value) {
+    return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+        ? value.substring(1, value.length() - 1)
+        : value;
+  }
+
+  /** Collects a body of at most {@code limit} bytes, cancelling the response once it is over. */
+  private static final class BoundedBody implements HttpResponse.BodySubscriber<byte[]> {
+    private final long declaredLength;
+    private final long limit;
+    private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private Flow.Subscription subscription;
+    private long received;
+
+    BoundedBody(long declaredLength, long limit) {
+      this.declaredLength = declaredLength;
+      this.limit = limit;
+    }
+
+    @Override
+    public CompletionStage<byte[]> getBody() {
+      return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (declaredLength > limit) {
+        tooLarge(declaredLength);
+      } else {
+        subscription.request(Long.MAX_VALUE);
+      }
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+      if (body.isDone()) {
+        return;
+      }
+      for (ByteBuffer item : items) {
+        received += item.remaining();
+        chunks.add(item);
+      }
+      if (received > limit) {
+        tooLarge(received);
+      }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      chunks.clear();
+      body.completeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+      if (body.isDone()) {
+        return;
+      }
+      byte[] bytes = new byte[(int) received];
+      int offset = 0;
+      for (ByteBuffer chunk : chunks) {
+        int length = chunk.remaining();
+        chunk.get(bytes, offset, length);
+        offset += length;
+      }
+      chunks.clear();
+      body.complete(bytes);
+    }
+
+    private void tooLarge(long length) {
+      subscription.cancel();
+      chunks.clear();
+      body.completeExceptionally(
+          new IOException("Profile body of " + length + " bytes exceeds " + limit + " bytes"));
+    }
+  }
+}
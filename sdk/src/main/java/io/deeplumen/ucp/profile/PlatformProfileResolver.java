@@ -0,0 +1,307 @@
+package io.deeplumen.ucp.profile;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.deeplumen.ucp.metrics.Tags;
+import io.deeplumen.ucp.metrics.UcpMetrics;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking, cached resolver for platform profiles referenced by {@code UCP-Agent}.
+ *
+ * <ul>
+ *   <li>Profiles are cached in a bounded LRU map for the {@code Cache-Control} lifetime reported by
+ *       the fetcher (capped by {@code maxTtl}), or {@code defaultTtl} when none is given.
+ *   <li>Concurrent requests for the same URL share a single in-flight fetch.
+ *   <li>Failures are cached for {@code negativeTtl} so a broken platform host is not hammered.
+ *   <li>Every fetch is bounded by a hard deadline regardless of the fetcher implementation.
+ *   <li>With {@link Builder#metrics}, fetches are timed as {@code profile_fetch} operations and
+ *       lookups are counted as cache hits, misses and joins of an in-flight fetch.
+ * </ul>
+ *
+ * <p>Returned profile trees are shared between callers and must be treated as read-only.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * PlatformProfileResolver resolver =
+ *     PlatformProfileResolver.builder().readTimeout(Duration.ofSeconds(2)).build();
+ * UcpHeaders.agentProfileUrl(ucpAgentHeader)
+ *     .map(resolver::resolve)
+ *     .orElse(CompletableFuture.completedFuture(null));
+ * }</pre>
+ */
+public final class PlatformProfileResolver {
+  private final ProfileFetcher fetcher;
+  private final long deadlineNanos;
+  private final long defaultTtlNanos;
+  private final long maxTtlNanos;
+  private final long negativeTtlNanos;
+  private final Map<String, Entry> cache;
+  private final ConcurrentHashMap<String, CompletableFuture<JsonNode>> inFlight =
+      new ConcurrentHashMap<>();
+  private final UcpMetrics.Timer fetchTimer;
+  private final UcpMetrics.Counter hits;
+  private final UcpMetrics.Counter misses;
+  private final UcpMetrics.Counter joins;
+
+  private PlatformProfileResolver(Builder builder) {
+    this.fetcher =
+        builder.fetcher != null
+            ? builder.fetcher
+            : HttpProfileFetcher.create(
+                builder.connectTimeout,
+                builder.readTimeout,
+                builder.maxProfileBytes,
+                builder.mapper);
+    this.deadlineNanos = builder.connectTimeout.plus(builder.readTimeout).toNanos();
+    this.defaultTtlNanos = builder.defaultTtl.toNanos();
+    this.maxTtlNanos = builder.maxTtl.toNanos();
+    this.negativeTtlNanos = builder.negativeTtl.toNanos();
+    UcpMetrics metrics = builder.metrics;
+    this.fetchTimer =
+        metrics.timer(
+            UcpMetrics.OPERATIONS, Tags.of(UcpMetrics.OPERATION, UcpMetrics.PROFILE_FETCH));
+    this.hits = metrics.counter(UcpMetrics.PROFILE_CACHE, Tags.of(UcpMetrics.RESULT, "hit"));
+    this.misses = metrics.counter(UcpMetrics.PROFILE_CACHE, Tags.of(UcpMetrics.RESULT, "miss"));
+    this.joins = metrics.counter(UcpMetrics.PROFILE_CACHE, Tags.of(UcpMetrics.RESULT, "join"));
+    int maxEntries = builder.maxEntries;
+    this.cache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+          }
+        };
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Resolves the profile at {@code profileUrl}. The future fails with {@link
+   * ProfileResolutionException} when the profile cannot be fetched or parsed in time.
+   */
+  public CompletableFuture<JsonNode> resolve(String profileUrl) {
+    Objects.requireNonNull(profileUrl, "profileUrl is required");
+    Entry entry = lookup(profileUrl, System.nanoTime());
+    if (entry != null) {
+      hits.increment();
+      return entry.failure != null
+          ? CompletableFuture.failedFuture(entry.failure)
+          : CompletableFuture.completedFuture(entry.profile);
+    }
+    CompletableFuture<JsonNode> promise = new CompletableFuture<>();
+    CompletableFuture<JsonNode> existing = inFlight.putIfAbsent(profileUrl, promise);
+    if (existing != null) {
+      joins.increment();
+      return existing.copy();
+    }
+    misses.increment();
+    start(profileUrl, promise);
+    return promise.copy();
+  }
+
+  /** Drops any cached profile or failure for {@code profileUrl}. */
+  public void invalidate(String profileUrl) {
+    synchronized (cache) {
+      cache.remove(profileUrl);
+    }
+  }
+
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  private void start(String profileUrl, CompletableFuture<JsonNode> promise) {
+    long startNanos = fetchTimer.start();
+    CompletableFuture<FetchedProfile> fetch;
+    try {
+      fetch = fetcher.fetch(URI.create(profileUrl));
+    } catch (RuntimeException e) {
+      fetch = CompletableFuture.failedFuture(e);
+    }
+    fetch
+        .orTimeout(deadlineNanos, TimeUnit.NANOSECONDS)
+        .whenComplete(
+            (fetched, error) -> {
+              fetchTimer.stop(startNanos);
+              long now = System.nanoTime();
+              if (error == null) {
+                long ttl = ttlNanos(fetched.maxAge());
+                if (ttl > 0) {
+                  store(profileUrl, new Entry(fetched.profile(), null, now + ttl));
+                }
+                inFlight.remove(profileUrl, promise);
+                promise.complete(fetched.profile());
+              } else {
+                ProfileResolutionException failure = failure(profileUrl, error);
+                if (negativeTtlNanos > 0) {
+                  store(profileUrl, new Entry(null, failure, now + negativeTtlNanos));
+                }
+                inFlight.remove(profileUrl, promise);
+                promise.completeExceptionally(failure);
+              }
+            });
+  }
+
+  private long ttlNanos(Duration maxAge) {
+    if (maxAge == null) {
+      return defaultTtlNanos;
+    }
+    return Math.min(maxAge.toNanos(), maxTtlNanos);
+  }
+
+  private Entry lookup(String profileUrl, long now) {
+    synchronized (cache) {
+      Entry entry = cache.get(profileUrl);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAtNanos - now <= 0) {
+        cache.remove(profileUrl);
+        return null;
+      }
+      return entry;
+    }
+  }
+
+  private void store(String profileUrl, Entry entry) {
+    synchronized (cache) {
+      cache.put(profileUrl, entry);
+    }
+  }
+
+  private static ProfileResolutionException failure(String profileUrl, Throwable error) {
+    Throwable cause = error;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof ProfileResolutionException resolution) {
+      return resolution;
+    }
+    String message =
+        cause instanceof TimeoutException || cause instanceof CancellationException
+            ? "Timed out resolving platform profile " + profileUrl
+            : "Failed to resolve platform profile " + profileUrl;
+    return new ProfileResolutionException(profileUrl, message, cause);
+  }
+
+  private static final class Entry {
+    final JsonNode profile;
+    final ProfileResolutionException failure;
+    final long expiresAtNanos;
+
+    Entry(JsonNode profile, ProfileResolutionException failure, long expiresAtNanos) {
+      this.profile = profile;
+      this.failure = failure;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
+
+  /** Builder for {@link PlatformProfileResolver}. All settings have conservative defaults. */
+  public static final class Builder {
+    private ProfileFetcher fetcher;
+    private ObjectMapper mapper = new ObjectMapper();
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration readTimeout = Duration.ofSeconds(2);
+    private Duration defaultTtl = Duration.ofMinutes(5);
+    private Duration maxTtl = Duration.ofHours(1);
+    private Duration negativeTtl = Duration.ofSeconds(30);
+    private int maxEntries = 1024;
+    private long maxProfileBytes = HttpProfileFetcher.DEFAULT_MAX_BODY_BYTES;
+    private UcpMetrics metrics = UcpMetrics.noop();
+
+    private Builder() {}
+
+    /** Replaces the default JDK {@code HttpClient} transport, e.g. with a local stand-in. */
+    public Builder fetcher(ProfileFetcher fetcher) {
+      this.fetcher = fetcher;
+      return this;
+    }
+
+    /** Mapper used by the default transport to parse profiles. */
+    public Builder mapper(ObjectMapper mapper) {
+      this.mapper = Objects.requireNonNull(mapper, "mapper is required");
+      return this;
+    }
+
+    public Builder connectTimeout(Duration connectTimeout) {
+      this.connectTimeout = requirePositive(connectTimeout, "connectTimeout");
+      return this;
+    }
+
+    public Builder readTimeout(Duration readTimeout) {
+      this.readTimeout = requirePositive(readTimeout, "readTimeout");
+      return this;
+    }
+
+    /** Lifetime for profiles served without {@code Cache-Control: max-age}. */
+    public Builder defaultTtl(Duration defaultTtl) {
+      this.defaultTtl = Objects.requireNonNull(defaultTtl, "defaultTtl is required");
+      return this;
+    }
+
+    /** Upper bound applied to {@code max-age} values announced by platform hosts. */
+    public Builder maxTtl(Duration maxTtl) {
+      this.maxTtl = Objects.requireNonNull(maxTtl, "maxTtl is required");
+      return this;
+    }
+
+    /** How long a failed fetch is remembered; {@link Duration#ZERO} disables negative caching. */
+    public Builder negativeTtl(Duration negativeTtl) {
+      this.negativeTtl = Objects.requireNonNull(negativeTtl, "negativeTtl is required");
+      return this;
+    }
+
+    public Builder maxEntries(int maxEntries) {
+      if (maxEntries < 1) {
+        throw new IllegalArgumentException("maxEntries must be positive");
+      }
+      this.maxEntries = maxEntries;
+      return this;
+    }
+
+    /** Largest profile body the default transport reads; larger profiles fail to resolve. */
+    public Builder maxProfileBytes(long maxProfileBytes) {
+      if (maxProfileBytes < 1) {
+        throw new IllegalArgumentException("maxProfileBytes must be positive");
+      }
+      this.maxProfileBytes = maxProfileBytes;
+      return this;
+    }
+
+    /** Where fetch times and cache lookups are recorded; nothing is recorded by default. */
+    public Builder metrics(UcpMetrics metrics) {
+      this.metrics = Objects.requireNonNull(metrics, "metrics is required");
+      return this;
+    }
+
+    public PlatformProfileResolver build() {
+      return new PlatformProfileResolver(this);
+    }
+
+    private static Duration requirePositive(Duration value, String name) {
+      Objects.requireNonNull(value, name + " is required");
+      if (value.isZero() || value.isNegative()) {
+        throw new IllegalArgumentException(name + " must be positive");
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package io.deeplumen.ucp.profile;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport used by {@link PlatformProfileResolver} to load a profile document.
+ *
+ * <p>Implementations must not block the calling thread. A local stand-in for tests can simply
+ * return a completed future:
+ *
+ * <pre>{@code
+ * ProfileFetcher fetcher =
+ *     uri -> CompletableFuture.completedFuture(new FetchedProfile(profileNode, Duration.ofMinutes(5)));
+ * }</pre>
+ */
+@FunctionalInterface
+public interface ProfileFetcher {
+
+  CompletableFuture<FetchedProfile> fetch(URI uri);
+}
@@ -0,0 +1,15 @@
+package io.deeplumen.ucp.profile;
+
+/** Raised (through the returned future) when a platform profile cannot be resolved. */
+public class ProfileResolutionException extends RuntimeException {
+  private final String profileUrl;
+
+  public ProfileResolutionException(String profileUrl, String message, Throwable cause) {
+    super(message, cause);
+    this.profileUrl = profileUrl;
+  }
+
+  public String profileUrl() {
+    return profileUrl;
+  }
+}
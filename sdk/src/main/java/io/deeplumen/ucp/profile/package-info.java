@@ -0,0 +1,10 @@
+/**
+ * Resolution of platform profiles referenced by the {@code UCP-Agent} header.
+ *
+ * <p>{@link io.deeplumen.ucp.profile.PlatformProfileResolver} fetches profiles asynchronously with
+ * hard deadlines, caches them according to {@code Cache-Control}, and de-duplicates concurrent
+ * fetches of the same URL. The transport is pluggable through {@link
+ * io.deeplumen.ucp.profile.ProfileFetcher}; {@link io.deeplumen.ucp.profile.HttpProfileFetcher} is
+ * the JDK {@code HttpClient} based default.
+ */
+package io.deeplumen.ucp.profile;
@@ -0,0 +1,137 @@
+package io.deeplumen.ucp.signing;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.util.Base64;
+
+/** JWS algorithms accepted for {@code Request-Signature}, with their curve and JCA names. */
+enum JwsAlgorithm {
+  ES256("SHA256withECDSAinP1363Format", "P-256", "secp256r1", 32),
+  ES384("SHA384withECDSAinP1363Format", "P-384", "secp384r1", 48);
+
+  final String curve;
+  final ECParameterSpec parameters;
+  /** Bytes per coordinate; signatures are {@code r || s}, twice this long. */
+  final int fieldSize;
+
+  private final ThreadLocal<Signature> signatures;
+
+  JwsAlgorithm(String jcaName, String curve, String curveOid, int fieldSize) {
+    this.curve = curve;
+    this.fieldSize = fieldSize;
+    try {
+      AlgorithmParameters params = AlgorithmParameters.getInstance("EC");
+      params.init(new ECGenParameterSpec(curveOid));
+      this.parameters = params.getParameterSpec(ECParameterSpec.class);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("EC curve " + curveOid + " is not available", e);
+    }
+    // Signature lookups go through the provider list; keep one instance per thread instead.
+    this.signatures =
+        ThreadLocal.withInitial(
+            () -> {
+              try {
+                return Signature.getInstance(jcaName);
+              } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(jcaName + " is not available", e);
+              }
+            });
+  }
+
+  static JwsAlgorithm of(String name) {
+    for (JwsAlgorithm algorithm : values()) {
+      if (algorithm.name().equals(name)) {
+        return algorithm;
+      }
+    }
+    return null;
+  }
+
+  static JwsAlgorithm forCurve(String curve) {
+    for (JwsAlgorithm algorithm : values()) {
+      if (algorithm.curve.equals(curve)) {
+        return algorithm;
+      }
+    }
+    return null;
+  }
+
+  /** This thread's {@link Signature} for the algorithm; callers must init it before use. */
+  Signature signature() {
+    return signatures.get();
+  }
+
+  /** Whether {@code (x, y)} lies on this algorithm's curve. */
+  boolean onCurve(BigInteger x, BigInteger y) {
+    BigInteger p = ((ECFieldFp) parameters.getCurve().getField()).getP();
+    if (x.signum() < 0 || y.signum() < 0 || x.compareTo(p) >= 0 || y.compareTo(p) >= 0) {
+      return false;
+    }
+    BigInteger a = parameters.getCurve().getA();
+    BigInteger b = parameters.getCurve().getB();
+    BigInteger left = y.multiply(y).mod(p);
+    BigInteger right = x.pow(3).add(a.multiply(x)).add(b).mod(p);
+    return left.equals(right);
+  }
+
+  /**
+   * Feeds the JWS signing input to {@code signature}: {@code prefix} (the protected header segment
+   * and its dot) followed by the payload, either base64url-encoded on the fly or, for unencoded
+   * payloads, as the raw bytes.
+   */
+  static void update(Signature signature, byte[] prefix, byte[] body, boolean base64Payload)
+      throws SignatureException {
+    signature.update(prefix);
+    if (body == null || body.length == 0) {
+      return;
+    }
+    if (!base64Payload) {
+      signature.update(body);
+      return;
+    }
+    try (OutputStream encoded =
+        Base64.getUrlEncoder().withoutPadding().wrap(new SignatureOutputStream(signature))) {
+      encoded.write(body);
+    } catch (IOException e) {
+      if (e.getCause() instanceof SignatureException cause) {
+        throw cause;
+      }
+      throw new SignatureException(e);
+    }
+  }
+
+  /** Adapts {@link Signature#update} to an {@link OutputStream} for the base64url encoder. */
+  private static final class SignatureOutputStream extends OutputStream {
+    private final Signature signature;
+
+    SignatureOutputStream(Signature signature) {
+      this.signature = signature;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      try {
+        signature.update((byte) b);
+      } catch (SignatureException e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      try {
+        signature.update(b, off, len);
+      } catch (SignatureException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,234 @@
+package io.deeplumen.ucp.signing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Verifies {@code Request-Signature} headers: detached compact JWS ({@code header..signature})
+ * over the raw request body, signed with a key from the sender's profile {@code signing_keys}.
+ *
+ * <p>The signing input is built from the bytes exactly as received. For the default encoded
+ * payload the body is base64url-encoded in chunks straight into the {@link Signature}; with {@code
+ * "b64": false} (RFC 7797) the raw bytes are used as they are. Nothing is parsed or re-serialized.
+ * Public keys are parsed once per distinct key through {@link SigningKeys}, protected headers once
+ * per distinct header segment, and every thread keeps its own {@link Signature} instances.
+ *
+ * <p>{@link #verifyAsync} runs on the configured executor, so a server can start verification as
+ * soon as the profile is known and bind the body on the request thread in the meantime.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * RequestSignatureVerifier verifier = RequestSignatureVerifier.builder().build();
+ * CompletableFuture<String> verified =
+ *     verifier.verifyAsync(signatureHeader, body, resolver.resolve(profileUrl));
+ * CheckoutCreateRequest request = json.readRequest(body, CheckoutCreateRequest.class, ...);
+ * verified.join(); // throws SignatureVerificationException (wrapped) if the signature is bad
+ * }</pre>
+ */
+public final class RequestSignatureVerifier {
+  private static final JsonFactory JSON = new JsonFactory();
+
+  private final SigningKeys keys;
+  private final Executor executor;
+  private final int maxHeaders;
+  private final ConcurrentHashMap<String, Header> headers = new ConcurrentHashMap<>();
+
+  private RequestSignatureVerifier(Builder builder) {
+    this.keys = builder.keys != null ? builder.keys : new SigningKeys(builder.maxKeys);
+    this.executor = builder.executor;
+    this.maxHeaders = builder.maxKeys;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Verifies {@code signature} over {@code body} with a key from {@code profile} and returns the
+   * key id that signed it.
+   *
+   * @throws SignatureVerificationException if the signature is missing, malformed, names an unknown
+   *     key or algorithm, or does not match the body
+   */
+  public String verify(String signature, byte[] body, JsonNode profile) {
+    if (signature == null || signature.isBlank()) {
+      throw new SignatureVerificationException("missing Request-Signature");
+    }
+    int first = signature.indexOf('.');
+    int second = first < 0 ? -1 : signature.indexOf('.', first + 1);
+    if (first <= 0 || second < 0 || signature.indexOf('.', second + 1) >= 0) {
+      throw new SignatureVerificationException("Request-Signature is not a compact JWS");
+    }
+    if (second != first + 1) {
+      throw new SignatureVerificationException("Request-Signature must have a detached payload");
+    }
+    Header header = header(signature.substring(0, first));
+    SigningKeys.Entry key = keys.lookup(profile, header.kid);
+    if (key.algorithm != header.algorithm) {
+      throw new SignatureVerificationException(
+          "key \"" + header.kid + "\" cannot verify " + header.algorithm);
+    }
+    byte[] signatureBytes;
+    try {
+      signatureBytes = Base64.getUrlDecoder().decode(signature.substring(second + 1));
+    } catch (IllegalArgumentException e) {
+      throw new SignatureVerificationException("Request-Signature is not base64url", e);
+    }
+    if (signatureBytes.length != 2 * header.algorithm.fieldSize) {
+      throw new SignatureVerificationException("Request-Signature has the wrong length");
+    }
+    boolean valid;
+    try {
+      Signature verifier = header.algorithm.signature();
+      verifier.initVerify(key.key);
+      JwsAlgorithm.update(verifier, header.signingPrefix, body, header.base64Payload);
+      valid = verifier.verify(signatureBytes);
+    } catch (GeneralSecurityException e) {
+      throw new SignatureVerificationException("Request-Signature cannot be verified", e);
+    }
+    if (!valid) {
+      throw new SignatureVerificationException("Request-Signature does not match the body");
+    }
+    return header.kid;
+  }
+
+  /** {@link #verify} on the verifier's executor. */
+  public CompletableFuture<String> verifyAsync(String signature, byte[] body, JsonNode profile) {
+    return CompletableFuture.supplyAsync(() -> verify(signature, body, profile), executor);
+  }
+
+  /**
+   * {@link #verify} on the verifier's executor as soon as {@code profile} resolves; a failed
+   * profile fails the returned future the same way.
+   */
+  public CompletableFuture<String> verifyAsync(
+      String signature, byte[] body, CompletableFuture<JsonNode> profile) {
+    return profile.thenApplyAsync(resolved -> verify(signature, body, resolved), executor);
+  }
+
+  public SigningKeys keys() {
+    return keys;
+  }
+
+  private Header header(String segment) {
+    Header header = headers.get(segment);
+    if (header != null) {
+      return header;
+    }
+    header = parseHeader(segment);
+    if (headers.size() >= maxHeaders) {
+      headers.clear();
+    }
+    headers.put(segment, header);
+    return header;
+  }
+
+  private static Header parseHeader(String segment) {
+    String alg = null;
+    String kid = null;
+    boolean base64Payload = true;
+    boolean b64Critical = false;
+    try (JsonParser parser = JSON.createParser(Base64.getUrlDecoder().decode(segment))) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new SignatureVerificationException("JWS header is not a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        switch (field) {
+          case "alg" -> alg = parser.getValueAsString();
+          case "kid" -> kid = parser.getValueAsString();
+          case "b64" -> base64Payload = value != JsonToken.VALUE_FALSE;
+          case "crit" -> {
+            if (value != JsonToken.START_ARRAY) {
+              throw new SignatureVerificationException("JWS \"crit\" must be an array");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+              if (!"b64".equals(parser.getValueAsString())) {
+                throw new SignatureVerificationException(
+                    "unsupported critical JWS header " + parser.getValueAsString());
+              }
+              b64Critical = true;
+            }
+          }
+          default -> parser.skipChildren();
+        }
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      throw new SignatureVerificationException("JWS header cannot be parsed", e);
+    }
+    JwsAlgorithm algorithm = JwsAlgorithm.of(alg);
+    if (algorithm == null) {
+      throw new SignatureVerificationException("unsupported JWS algorithm " + alg);
+    }
+    if (kid == null) {
+      throw new SignatureVerificationException("JWS header has no \"kid\"");
+    }
+    if (!base64Payload && !b64Critical) {
+      throw new SignatureVerificationException("\"b64\": false must be listed in \"crit\"");
+    }
+    byte[] prefix = (segment + '.').getBytes(StandardCharsets.US_ASCII);
+    return new Header(algorithm, kid, base64Payload, prefix);
+  }
+
+  private static final class Header {
+    final JwsAlgorithm algorithm;
+    final String kid;
+    final boolean base64Payload;
+    final byte[] signingPrefix;
+
+    Header(JwsAlgorithm algorithm, String kid, boolean base64Payload, byte[] signingPrefix) {
+      this.algorithm = algorithm;
+      this.kid = kid;
+      this.base64Payload = base64Payload;
+      this.signingPrefix = signingPrefix;
+    }
+  }
+
+  /** Builder for {@link RequestSignatureVerifier}. */
+  public static final class Builder {
+    private SigningKeys keys;
+    private int maxKeys = 1024;
+    private Executor executor = ForkJoinPool.commonPool();
+
+    private Builder() {}
+
+    /** Shares a key cache, e.g. between verifiers for requests and webhooks. */
+    public Builder keys(SigningKeys keys) {
+      this.keys = Objects.requireNonNull(keys, "keys is required");
+      return this;
+    }
+
+    /** Bound of the key cache (when not shared) and of the protected-header cache. */
+    public Builder maxKeys(int maxKeys) {
+      if (maxKeys < 1) {
+        throw new IllegalArgumentException("maxKeys must be positive");
+      }
+      this.maxKeys = maxKeys;
+      return this;
+    }
+
+    /** Executor for {@link #verifyAsync}; defaults to the common pool. */
+    public Builder executor(Executor executor) {
+      this.executor = Objects.requireNonNull(executor, "executor is required");
+      return this;
+    }
+
+    public RequestSignatureVerifier build() {
+      return new RequestSignatureVerifier(this);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package io.deeplumen.ucp.signing;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Produces {@code Request-Signature} values that {@link RequestSignatureVerifier} accepts: a
+ * detached compact JWS over the body bytes, signed with an EC key whose public half is published
+ * under {@code kid} in the signer's profile {@code signing_keys}.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * RequestSigner signer = RequestSigner.create("platform_2026", privateKey);
+ * request.header(UcpHeaders.REQUEST_SIGNATURE, signer.sign(body));
+ * }</pre>
+ */
+public final class RequestSigner {
+  private final JwsAlgorithm algorithm;
+  private final PrivateKey key;
+  private final String headerSegment;
+  private final byte[] signingPrefix;
+
+  private RequestSigner(JwsAlgorithm algorithm, String kid, PrivateKey key) {
+    this.algorithm = algorithm;
+    this.key = key;
+    String header = "{\"alg\":\"" + algorithm.name() + "\",\"kid\":\"" + escape(kid) + "\"}";
+    this.headerSegment =
+        Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(header.getBytes(StandardCharsets.UTF_8));
+    this.signingPrefix = (headerSegment + '.').getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /** A signer for a P-256 ({@code ES256}) or P-384 ({@code ES384}) private key. */
+  public static RequestSigner create(String kid, PrivateKey key) {
+    Objects.requireNonNull(kid, "kid is required");
+    Objects.requireNonNull(key, "key is required");
+    if (key instanceof ECPrivateKey ec) {
+      for (JwsAlgorithm algorithm : JwsAlgorithm.values()) {
+        if (algorithm.parameters.getCurve().equals(ec.getParams().getCurve())) {
+          return new RequestSigner(algorithm, kid, key);
+        }
+      }
+    }
+    throw new IllegalArgumentException("only P-256 and P-384 EC keys are supported");
+  }
+
+  /** Signs {@code body} (which may be empty) and returns {@code header..signature}. */
+  public String sign(byte[] body) {
+    try {
+      Signature signer = algorithm.signature();
+      signer.initSign(key);
+      JwsAlgorithm.update(signer, signingPrefix, body, true);
+      return headerSegment
+          + ".."
+          + Base64.getUrlEncoder().withoutPadding().encodeToString(signer.sign());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("cannot sign request", e);
+    }
+  }
+
+  private static String escape(String value) {
+    StringBuilder out = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        out.append('\\').append(c);
+      } else if (c < 0x20) {
+        out.append(String.format("\\u%04x", (int) c));
+      } else {
+        out.append(c);
+      }
+    }
+    return out.toString();
+  }
+}
@@ -0,0 +1,13 @@
+package io.deeplumen.ucp.signing;
+
+/** Raised when a {@code Request-Signature} is missing, malformed, or does not verify. */
+public class SignatureVerificationException extends RuntimeException {
+
+  public SignatureVerificationException(String message) {
+    super(message);
+  }
+
+  public SignatureVerificationException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
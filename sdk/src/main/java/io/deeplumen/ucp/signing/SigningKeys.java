@@ -0,0 +1,183 @@
+package io.deeplumen.ucp.signing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Public keys from the {@code signing_keys} JWK set of platform and business profiles, parsed once.
+ *
+ * <p>Keys are cached by key id together with the key material itself, so two profiles that
+ * happen to reuse a {@code kid} never share an entry, and a rotated key with the same id is parsed
+ * afresh. Lookups scan the profile's (short) key list for the id and then hit the cache; only
+ * unseen keys pay for base64url decoding, curve validation and {@link KeyFactory}. When the cache
+ * reaches {@code maxEntries} it is cleared and refills from the next requests.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * SigningKeys keys = new SigningKeys(1024);
+ * PublicKey key = keys.find(platformProfile, "platform_2026");
+ *
+ * // Publishing a locally generated key in a profile:
+ * KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+ * generator.initialize(new ECGenParameterSpec("secp256r1"));
+ * KeyPair pair = generator.generateKeyPair();
+ * profile.putArray("signing_keys").add(SigningKeys.toJwk("k1", (ECPublicKey) pair.getPublic()));
+ * }</pre>
+ */
+public final class SigningKeys {
+  /** Profile member holding the JWK set. */
+  public static final String PROFILE_FIELD = "signing_keys";
+
+  private final ConcurrentHashMap<Jwk, Entry> cache = new ConcurrentHashMap<>();
+  private final int maxEntries;
+  private final LongAdder parsed = new LongAdder();
+
+  public SigningKeys(int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Returns the public key with {@code kid} from {@code profile}'s {@code signing_keys}.
+   *
+   * @throws SignatureVerificationException if the profile has no such key or it is not a valid
+   *     P-256 or P-384 EC key
+   */
+  public PublicKey find(JsonNode profile, String kid) {
+    return lookup(profile, kid).key;
+  }
+
+  /** Number of keys parsed so far, including re-parses after the cache was cleared. */
+  public long parsedCount() {
+    return parsed.sum();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  /** Encodes {@code key} as a public JWK with {@code kid}, for a profile's {@code signing_keys}. */
+  public static ObjectNode toJwk(String kid, ECPublicKey key) {
+    JwsAlgorithm algorithm = null;
+    for (JwsAlgorithm candidate : JwsAlgorithm.values()) {
+      if (candidate.parameters.getCurve().equals(key.getParams().getCurve())) {
+        algorithm = candidate;
+      }
+    }
+    if (algorithm == null) {
+      throw new IllegalArgumentException("only P-256 and P-384 keys are supported");
+    }
+    Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+    ObjectNode jwk = JsonNodeFactory.instance.objectNode();
+    jwk.put("kid", kid);
+    jwk.put("kty", "EC");
+    jwk.put("crv", algorithm.curve);
+    jwk.put("x", base64.encodeToString(unsigned(key.getW().getAffineX(), algorithm.fieldSize)));
+    jwk.put("y", base64.encodeToString(unsigned(key.getW().getAffineY(), algorithm.fieldSize)));
+    jwk.put("use", "sig");
+    jwk.put("alg", algorithm.name());
+    return jwk;
+  }
+
+  /** The cached key and the algorithm implied by its curve. */
+  Entry lookup(JsonNode profile, String kid) {
+    JsonNode node = profile != null ? findNode(profile.get(PROFILE_FIELD), kid) : null;
+    if (node == null) {
+      throw new SignatureVerificationException("profile has no signing key \"" + kid + "\"");
+    }
+    Jwk jwk =
+        new Jwk(
+            kid,
+            node.path("kty").asText(),
+            node.path("crv").asText(),
+            node.path("x").asText(),
+            node.path("y").asText());
+    Entry entry = cache.get(jwk);
+    if (entry != null) {
+      return entry;
+    }
+    entry = parse(jwk);
+    if (cache.size() >= maxEntries) {
+      cache.clear();
+    }
+    Entry existing = cache.putIfAbsent(jwk, entry);
+    return existing != null ? existing : entry;
+  }
+
+  private static JsonNode findNode(JsonNode keys, String kid) {
+    if (keys == null || !keys.isArray()) {
+      return null;
+    }
+    for (JsonNode key : keys) {
+      if (kid.equals(key.path("kid").asText(null))) {
+        return key;
+      }
+    }
+    return null;
+  }
+
+  private Entry parse(Jwk jwk) {
+    JwsAlgorithm algorithm = JwsAlgorithm.forCurve(jwk.crv());
+    if (!"EC".equals(jwk.kty()) || algorithm == null) {
+      throw new SignatureVerificationException(
+          "signing key \"" + jwk.kid() + "\" is not a P-256 or P-384 EC key");
+    }
+    try {
+      Base64.Decoder base64 = Base64.getUrlDecoder();
+      byte[] x = base64.decode(jwk.x());
+      byte[] y = base64.decode(jwk.y());
+      BigInteger affineX = new BigInteger(1, x);
+      BigInteger affineY = new BigInteger(1, y);
+      if (x.length != algorithm.fieldSize
+          || y.length != algorithm.fieldSize
+          || !algorithm.onCurve(affineX, affineY)) {
+        throw new SignatureVerificationException(
+            "signing key \"" + jwk.kid() + "\" is not a point on " + algorithm.curve);
+      }
+      PublicKey key =
+          KeyFactory.getInstance("EC")
+              .generatePublic(
+                  new ECPublicKeySpec(new ECPoint(affineX, affineY), algorithm.parameters));
+      parsed.increment();
+      return new Entry(key, algorithm);
+    } catch (IllegalArgumentException | GeneralSecurityException e) {
+      throw new SignatureVerificationException(
+          "signing key \"" + jwk.kid() + "\" cannot be parsed", e);
+    }
+  }
+
+  private static byte[] unsigned(BigInteger value, int length) {
+    // toByteArray() may add a sign byte or drop leading zeros; JWK coordinates are fixed-width.
+    byte[] bytes = value.toByteArray();
+    byte[] out = new byte[length];
+    int copy = Math.min(bytes.length, length);
+    System.arraycopy(bytes, bytes.length - copy, out, length - copy, copy);
+    return out;
+  }
+
+  private record Jwk(String kid, String kty, String crv, String x, String y) {}
+
+  static final class Entry {
+    final PublicKey key;
+    final JwsAlgorithm algorithm;
+
+    Entry(PublicKey key, JwsAlgorithm algorithm) {
+      this.key = key;
+      this.algorithm = algorithm;
+    }
+  }
+}
@@ -0,0 +1,10 @@
+/**
+ * Request signing and verification for the {@code Request-Signature} header.
+ *
+ * <p>{@link io.deeplumen.ucp.signing.RequestSignatureVerifier} checks detached JWS signatures
+ * (ES256, ES384) over raw body bytes against the {@code signing_keys} of the sender's profile,
+ * with parsed keys cached in {@link io.deeplumen.ucp.signing.SigningKeys}. {@link
+ * io.deeplumen.ucp.signing.RequestSigner} produces such signatures, e.g. for clients or for tests
+ * with locally generated keys.
+ */
+package io.deeplumen.ucp.signing;
@@ -0,0 +1,374 @@
+package io.deeplumen.ucp.typed;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Capability negotiation between a business capability set and a platform capability list.
+ *
+ * <p>The business set is indexed once by name and its {@code extends} references are resolved into a
+ * parent graph. A capability is negotiated when the platform declares the same name and version,
+ * and, for extensions, when its parent was negotiated as well (transitively). Extensions whose
+ * parent is unknown to the business are never negotiated.
+ *
+ * <p>Results are memoized by a hash of the platform's {@code (name, version)} pairs. A repeated
+ * negotiation with an identical platform list is answered from the memo table: the hash and the
+ * collision check read the platform entries in place and the shared {@link Result} is returned, so
+ * no lists or maps are built. Instances are immutable and safe for concurrent use.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * CapabilityNegotiator negotiator =
+ *     CapabilityNegotiator.of(businessProfile.path("ucp").path("capabilities"));
+ * CapabilityNegotiator.Result result =
+ *     negotiator.negotiate(platformProfile.path("ucp").path("capabilities"));
+ * for (CapabilityRef cap : result.capabilities()) {
+ *   System.out.println(cap.name() + "@" + cap.version());
+ * }
+ * }</pre>
+ */
+public final class CapabilityNegotiator {
+  private static final int MEMO_SIZE = 64;
+
+  private final CapabilityRef[] refs;
+  private final Object[] raw;
+  private final int[] parents;
+  private final int[] topologicalOrder;
+  private final Map<String, Integer> indexByName;
+  private final AtomicReferenceArray<Memo> memo = new AtomicReferenceArray<>(MEMO_SIZE);
+
+  private CapabilityNegotiator(List<CapabilityRef> refs, List<Object> raw) {
+    int n = refs.size();
+    this.refs = refs.toArray(new CapabilityRef[0]);
+    this.raw = raw.toArray();
+    this.indexByName = new HashMap<>(n * 2);
+    for (int i = 0; i < n; i++) {
+      indexByName.putIfAbsent(this.refs[i].name(), i);
+    }
+    this.parents = new int[n];
+    for (int i = 0; i < n; i++) {
+      String parent = this.refs[i].extendsName();
+      if (parent == null || parent.isBlank()) {
+        parents[i] = -1;
+      } else {
+        Integer idx = indexByName.get(parent);
+        parents[i] = idx != null && idx != i ? idx : -2;
+      }
+    }
+    this.topologicalOrder = topologicalOrder(parents);
+  }
+
+  /**
+   * Builds a negotiator from raw business capabilities ({@code Map}, {@code JsonNode} or {@link
+   * CapabilityRef} entries). Entries that are not capability references are ignored.
+   */
+  public static CapabilityNegotiator of(List<?> businessCapabilities) {
+    List<CapabilityRef> refs = new ArrayList<>();
+    List<Object> raw = new ArrayList<>();
+    if (businessCapabilities != null) {
+      for (Object value : businessCapabilities) {
+        CapabilityRef.tryFrom(value)
+            .ifPresent(
+                ref -> {
+                  refs.add(ref);
+                  raw.add(value);
+                });
+      }
+    }
+    return new CapabilityNegotiator(refs, raw);
+  }
+
+  /** Builds a negotiator from a JSON array of business capabilities. */
+  public static CapabilityNegotiator of(JsonNode businessCapabilities) {
+    List<JsonNode> values = new ArrayList<>();
+    if (businessCapabilities != null && businessCapabilities.isArray()) {
+      businessCapabilities.forEach(values::add);
+    }
+    return of(values);
+  }
+
+  /** Negotiates against a JSON array of platform capabilities. */
+  public Result negotiate(JsonNode platformCapabilities) {
+    if (platformCapabilities == null || !platformCapabilities.isArray()) {
+      return negotiate(PlatformList.EMPTY);
+    }
+    return negotiate(new JsonPlatformList(platformCapabilities));
+  }
+
+  /**
+   * Negotiates against raw platform capabilities ({@code Map}, {@code JsonNode} or {@link
+   * CapabilityRef} entries).
+   */
+  public Result negotiate(List<?> platformCapabilities) {
+    if (platformCapabilities == null) {
+      return negotiate(PlatformList.EMPTY);
+    }
+    return negotiate(new RawPlatformList(platformCapabilities));
+  }
+
+  private Result negotiate(PlatformList platform) {
+    long hash = hash(platform);
+    int slot = (int) (hash ^ (hash >>> 32)) & (MEMO_SIZE - 1);
+    Memo cached = memo.get(slot);
+    if (cached != null && cached.matches(hash, platform)) {
+      return cached.result;
+    }
+    Result result = compute(platform);
+    memo.set(slot, Memo.of(hash, platform, result));
+    return result;
+  }
+
+  private Result compute(PlatformList platform) {
+    int n = refs.length;
+    boolean[] negotiated = new boolean[n];
+    for (int i = 0, size = platform.size(); i < size; i++) {
+      String name = platform.name(i);
+      String version = platform.version(i);
+      if (name == null || version == null) {
+        continue;
+      }
+      Integer idx = indexByName.get(name);
+      if (idx != null && version.equals(refs[idx].version())) {
+        negotiated[idx] = true;
+      }
+    }
+    for (int i : topologicalOrder) {
+      int parent = parents[i];
+      if (parent == -2 || (parent >= 0 && !negotiated[parent])) {
+        negotiated[i] = false;
+      }
+    }
+    List<CapabilityRef> caps = new ArrayList<>();
+    List<Object> rawCaps = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      if (negotiated[i]) {
+        caps.add(refs[i]);
+        rawCaps.add(raw[i]);
+      }
+    }
+    return new Result(Collections.unmodifiableList(caps), Collections.unmodifiableList(rawCaps));
+  }
+
+  private static long hash(PlatformList platform) {
+    long h = 0x9E3779B97F4A7C15L;
+    for (int i = 0, size = platform.size(); i < size; i++) {
+      String name = platform.name(i);
+      String version = platform.version(i);
+      h = mix(h ^ (name == null ? 0 : name.hashCode()));
+      h = mix(h ^ (version == null ? 0 : version.hashCode()));
+    }
+    return mix(h ^ platform.size());
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+    z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return z ^ (z >>> 33);
+  }
+
+  /** Orders capability indexes so that every parent precedes its extensions; cycles are cut. */
+  private static int[] topologicalOrder(int[] parents) {
+    int n = parents.length;
+    int[] depth = new int[n];
+    for (int i = 0; i < n; i++) {
+      int d = 0;
+      int p = parents[i];
+      while (p >= 0 && d <= n) {
+        d++;
+        p = parents[p];
+      }
+      if (d > n) {
+        parents[i] = -2;
+        d = 0;
+      }
+      depth[i] = d;
+    }
+    Integer[] order = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Integer.compare(depth[a], depth[b]));
+    int[] result = new int[n];
+    for (int i = 0; i < n; i++) {
+      result[i] = order[i];
+    }
+    return result;
+  }
+
+  /** Outcome of a negotiation, in business declaration order. Shared between callers. */
+  public static final class Result {
+    private final List<CapabilityRef> capabilities;
+    private final List<Object> raw;
+
+    private Result(List<CapabilityRef> capabilities, List<Object> raw) {
+      this.capabilities = capabilities;
+      this.raw = raw;
+    }
+
+    /** Negotiated capabilities as typed references. */
+    public List<CapabilityRef> capabilities() {
+      return capabilities;
+    }
+
+    /**
+     * The business' original capability entries (as passed to {@link #of(List)}) for every
+     * negotiated capability, preserving fields such as {@code spec} and {@code schema}.
+     */
+    public List<Object> raw() {
+      return raw;
+    }
+
+    public boolean contains(String capabilityName) {
+      for (CapabilityRef cap : capabilities) {
+        if (cap.name().equals(capabilityName)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class Memo {
+    final long hash;
+    final String[] names;
+    final String[] versions;
+    final Result result;
+
+    private Memo(long hash, String[] names, String[] versions, Result result) {
+      this.hash = hash;
+      this.names = names;
+      this.versions = versions;
+      this.result = result;
+    }
+
+    static Memo of(long hash, PlatformList platform, Result result) {
+      int size = platform.size();
+      String[] names = new String[size];
+      String[] versions = new String[size];
+      for (int i = 0; i < size; i++) {
+        names[i] = platform.name(i);
+        versions[i] = platform.version(i);
+      }
+      return new Memo(hash, names, versions, result);
+    }
+
+    boolean matches(long otherHash, PlatformList platform) {
+      if (hash != otherHash || names.length != platform.size()) {
+        return false;
+      }
+      for (int i = 0; i < names.length; i++) {
+        if (!Objects.equals(names[i], platform.name(i))
+            || !Objects.equals(versions[i], platform.version(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /** Allocation-free positional access to platform capability names and versions. */
+  private interface PlatformList {
+    PlatformList EMPTY =
+        new PlatformList() {
+          @Override
+          public int size() {
+            return 0;
+          }
+
+          @Override
+          public String name(int i) {
+            throw new IndexOutOfBoundsException(i);
+          }
+
+          @Override
+          public String version(int i) {
+            throw new IndexOutOfBoundsException(i);
+          }
+        };
+
+    int size();
+
+    String name(int i);
+
+    String version(int i);
+  }
+
+  private static final class JsonPlatformList implements PlatformList {
+    private final JsonNode array;
+
+    JsonPlatformList(JsonNode array) {
+      this.array = array;
+    }
+
+    @Override
+    public int size() {
+      return array.size();
+    }
+
+    @Override
+    public String name(int i) {
+      return text(array.get(i), "name");
+    }
+
+    @Override
+    public String version(int i) {
+      return text(array.get(i), "version");
+    }
+
+    private static String text(JsonNode node, String field) {
+      JsonNode value = node != null ? node.get(field) : null;
+      return value != null ? value.textValue() : null;
+    }
+  }
+
+  private static final class RawPlatformList implements PlatformList {
+    private final List<?> values;
+
+    RawPlatformList(List<?> values) {
+      this.values = values;
+    }
+
+    @Override
+    public int size() {
+      return values.size();
+    }
+
+    @Override
+    public String name(int i) {
+      Object value = values.get(i);
+      if (value instanceof CapabilityRef ref) {
+        return ref.name();
+      }
+      return field(value, "name");
+    }
+
+    @Override
+    public String version(int i) {
+      Object value = values.get(i);
+      if (value instanceof CapabilityRef ref) {
+        return ref.version();
+      }
+      return field(value, "version");
+    }
+
+    private static String field(Object value, String field) {
+      if (value instanceof Map<?, ?> map) {
+        Object v = map.get(field);
+        return v instanceof String s ? s : null;
+      }
+      if (value instanceof JsonNode node) {
+        JsonNode v = node.get(field);
+        return v != null ? v.textValue() : null;
+      }
+      return null;
+    }
+  }
+}
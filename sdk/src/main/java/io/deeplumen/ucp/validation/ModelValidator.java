@@ -0,0 +1,30 @@
+package io.deeplumen.ucp.validation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+
+/**
+ * Checks one model type against its schema constraints. Implementations are generated at build time
+ * and are stateless; obtain them from {@link UcpValidators}.
+ *
+ * <p>Both methods report into a {@link Violations}, which either collects every violation or stops
+ * at the first by throwing {@link ValidationException}. Nested models are validated by their own
+ * validators, with the path tracked in {@code violations}.
+ */
+public interface ModelValidator<T> {
+
+  Class<T> type();
+
+  /** Validates a bound model through its getters. */
+  void validate(T value, Violations violations);
+
+  /**
+   * Validates the value at the parser's current token without binding it, checking member types,
+   * required members, enum values, lengths, patterns, ranges and array sizes. Unknown members are
+   * skipped. On return the parser is at the last token of the value, as after {@link
+   * JsonParser#skipChildren()}.
+   *
+   * @throws IOException if the input is not well-formed
+   */
+  void validate(JsonParser parser, Violations violations) throws IOException;
+}
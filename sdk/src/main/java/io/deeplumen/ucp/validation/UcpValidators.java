@@ -0,0 +1,113 @@
+package io.deeplumen.ucp.validation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The generated {@link ModelValidator}s, by model type.
+ *
+ * <p>The SDK build emits a validator per model from the constraint annotations jsonschema2pojo
+ * derives from the UCP JSON Schemas ({@code required}, {@code minLength}/{@code maxLength}, {@code
+ * pattern}, {@code minimum}/{@code maximum}, {@code minItems}/{@code maxItems}) plus the member
+ * types and enum values of the models. The validators call getters and parser methods directly;
+ * the registry below is the only class loaded reflectively, once.
+ *
+ * <p>Patterns are matched anywhere in the value, as JSON Schema specifies, and lengths count code
+ * points.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * List<Violation> violations =
+ *     json.validate(body, CheckoutCreateRequest.class, Violations.Mode.COLLECT_ALL);
+ * if (!violations.isEmpty()) {
+ *   return ResponseEntity.badRequest().body(violations);
+ * }
+ * }</pre>
+ */
+public final class UcpValidators {
+  private static final String GENERATED =
+      "io.deeplumen.ucp.validation.generated.UcpModelValidators";
+  private static final Map<Class<?>, ModelValidator<?>> VALIDATORS = load();
+
+  private UcpValidators() {}
+
+  /** Whether the SDK was built with generated validators. */
+  public static boolean isAvailable() {
+    return !VALIDATORS.isEmpty();
+  }
+
+  /** Returns the validator for {@code type}, or empty when the build generated none for it. */
+  @SuppressWarnings("unchecked")
+  public static <T> Optional<ModelValidator<T>> forType(Class<T> type) {
+    return Optional.ofNullable((ModelValidator<T>) VALIDATORS.get(type));
+  }
+
+  /**
+   * Validates a bound model. Returns the violations, at most one in {@link
+   * Violations.Mode#FAIL_FAST}; empty when {@code value} is valid.
+   *
+   * @throws IllegalArgumentException if there is no validator for the model's type
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> List<Violation> validate(T value, Violations.Mode mode) {
+    ModelValidator<T> validator = (ModelValidator<T>) require(value.getClass());
+    Violations violations = new Violations(mode);
+    try {
+      validator.validate(value, violations);
+    } catch (ValidationException e) {
+      return e.violations();
+    }
+    return violations.list();
+  }
+
+  /**
+   * Validates the document at the parser's current token, or at its next token when it has none
+   * yet, as {@code type}.
+   *
+   * @throws IllegalArgumentException if there is no validator for {@code type}
+   * @throws IOException if the input is not well-formed
+   */
+  public static List<Violation> validate(JsonParser parser, Class<?> type, Violations.Mode mode)
+      throws IOException {
+    ModelValidator<?> validator = require(type);
+    if (!parser.hasCurrentToken() && parser.nextToken() == null) {
+      return List.of(new Violation("", "must not be empty"));
+    }
+    Violations violations = new Violations(mode);
+    try {
+      validator.validate(parser, violations);
+    } catch (ValidationException e) {
+      return e.violations();
+    }
+    return violations.list();
+  }
+
+  private static ModelValidator<?> require(Class<?> type) {
+    ModelValidator<?> validator = VALIDATORS.get(type);
+    if (validator == null) {
+      throw new IllegalArgumentException("No generated validator for " + type.getName());
+    }
+    return validator;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<Class<?>, ModelValidator<?>> load() {
+    Class<?> type;
+    try {
+      type = Class.forName(GENERATED, true, UcpValidators.class.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return Map.of();
+    }
+    try {
+      Object registry = type.getDeclaredConstructor().newInstance();
+      return ((Supplier<Map<Class<?>, ModelValidator<?>>>) registry).get();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Cannot instantiate " + GENERATED, e);
+    }
+  }
+}
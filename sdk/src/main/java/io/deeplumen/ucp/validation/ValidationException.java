@@ -0,0 +1,31 @@
+package io.deeplumen.ucp.validation;
+
+import java.util.List;
+
+/**
+ * Thrown for a payload that violates its schema. In {@link Violations.Mode#FAIL_FAST} it is thrown
+ * at the first violation to stop validation early, so it carries no stack trace.
+ */
+public class ValidationException extends RuntimeException {
+  private final List<Violation> violations;
+
+  public ValidationException(List<Violation> violations) {
+    super(message(violations), null, false, false);
+    this.violations = List.copyOf(violations);
+  }
+
+  public List<Violation> violations() {
+    return violations;
+  }
+
+  private static String message(List<Violation> violations) {
+    StringBuilder out = new StringBuilder("invalid payload: ");
+    for (int i = 0; i < violations.size(); i++) {
+      if (i > 0) {
+        out.append("; ");
+      }
+      out.append(violations.get(i));
+    }
+    return out.toString();
+  }
+}
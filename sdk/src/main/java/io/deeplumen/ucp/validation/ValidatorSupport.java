@@ -0,0 +1,37 @@
+package io.deeplumen.ucp.validation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/** Checks shared by the generated validators. Not meant to be called directly. */
+public final class ValidatorSupport {
+  private ValidatorSupport() {}
+
+  /** Length in code points of the parser's current string token, without materializing it. */
+  public static int codePoints(JsonParser parser) throws IOException {
+    return Character.codePointCount(
+        parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+  }
+
+  public static int codePoints(String value) {
+    return value.codePointCount(0, value.length());
+  }
+
+  /** Whether {@code value} is a syntactically valid URI reference. */
+  public static boolean isUri(String value) {
+    try {
+      new URI(value);
+      return true;
+    } catch (URISyntaxException e) {
+      return false;
+    }
+  }
+
+  /** A single {@code @} with something on both sides, as lenient as JSON Schema's {@code email}. */
+  public static boolean isEmail(String value) {
+    int at = value.indexOf('@');
+    return at > 0 && at < value.length() - 1 && value.indexOf('@', at + 1) < 0;
+  }
+}
@@ -0,0 +1,13 @@
+package io.deeplumen.ucp.validation;
+
+/**
+ * One failed constraint. {@code pointer} is a JSON Pointer (RFC 6901) to the offending member,
+ * e.g. {@code /line_items/2/quantity}; it is empty for the document itself.
+ */
+public record Violation(String pointer, String message) {
+
+  @Override
+  public String toString() {
+    return (pointer.isEmpty() ? "/" : pointer) + ": " + message;
+  }
+}
@@ -0,0 +1,131 @@
+package io.deeplumen.ucp.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Sink for the violations of one validation run, and the path of the member being validated.
+ *
+ * <p>Generated validators {@link #enter} members and array elements as they descend, so the path
+ * costs two array writes per level; the JSON Pointer is only built when a violation is added. Not
+ * thread-safe; use one instance per run.
+ */
+public final class Violations {
+
+  /** Whether validation stops at the first violation or reports all of them. */
+  public enum Mode {
+    /** Throw {@link ValidationException} from the first {@link #add}. */
+    FAIL_FAST,
+    /** Record every violation and keep validating. */
+    COLLECT_ALL
+  }
+
+  private final Mode mode;
+  private List<Violation> violations = List.of();
+  // Path segments: a member name, or null with the array index in indices.
+  private String[] names = new String[16];
+  private int[] indices = new int[16];
+  private int depth;
+
+  public Violations(Mode mode) {
+    this.mode = Objects.requireNonNull(mode, "mode is required");
+  }
+
+  public Mode mode() {
+    return mode;
+  }
+
+  /** Descends into object member {@code name}. */
+  public void enter(String name) {
+    push(name, -1);
+  }
+
+  /** Descends into array element {@code index}. */
+  public void enter(int index) {
+    push(null, index);
+  }
+
+  /** Returns to the enclosing value. */
+  public void exit() {
+    names[--depth] = null;
+  }
+
+  /** Adds a violation of the current value. */
+  public void add(String message) {
+    add(null, message);
+  }
+
+  /**
+   * Adds a violation of member {@code name} of the current object, or of the current value when
+   * {@code name} is {@code null}.
+   *
+   * @throws ValidationException in {@link Mode#FAIL_FAST}
+   */
+  public void add(String name, String message) {
+    Violation violation = new Violation(pointer(name), message);
+    if (mode == Mode.FAIL_FAST) {
+      throw new ValidationException(List.of(violation));
+    }
+    if (violations.isEmpty()) {
+      violations = new ArrayList<>(4);
+    }
+    violations.add(violation);
+  }
+
+  public boolean isEmpty() {
+    return violations.isEmpty();
+  }
+
+  /** The violations collected so far, in the order they were found. */
+  public List<Violation> list() {
+    return List.copyOf(violations);
+  }
+
+  /** Throws {@link ValidationException} with every collected violation, if there are any. */
+  public void throwIfAny() {
+    if (!violations.isEmpty()) {
+      throw new ValidationException(violations);
+    }
+  }
+
+  private void push(String name, int index) {
+    if (depth == names.length) {
+      names = Arrays.copyOf(names, depth * 2);
+      indices = Arrays.copyOf(indices, depth * 2);
+    }
+    names[depth] = name;
+    indices[depth] = index;
+    depth++;
+  }
+
+  private String pointer(String name) {
+    StringBuilder out = new StringBuilder(32);
+    for (int i = 0; i < depth; i++) {
+      out.append('/');
+      if (names[i] != null) {
+        escape(names[i], out);
+      } else {
+        out.append(indices[i]);
+      }
+    }
+    if (name != null) {
+      escape(name, out.append('/'));
+    }
+    return out.toString();
+  }
+
+  private static void escape(String name, StringBuilder out) {
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c == '~') {
+        out.append("~0");
+      } else if (c == '/') {
+        out.append("~1");
+      } else {
+        out.append(c);
+      }
+    }
+  }
+}
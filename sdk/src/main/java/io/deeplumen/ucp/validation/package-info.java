@@ -0,0 +1,10 @@
+/**
+ * Schema validation of UCP payloads without reflection.
+ *
+ * <p>The SDK build generates one {@link io.deeplumen.ucp.validation.ModelValidator} per model from
+ * the constraints that jsonschema2pojo carries over from the UCP JSON Schemas. A validator checks a
+ * bound model through its getters, or a document straight from a streaming {@code JsonParser} so
+ * that invalid bodies are rejected before they are bound. {@link
+ * io.deeplumen.ucp.validation.UcpValidators} looks the validators up by model type.
+ */
+package io.deeplumen.ucp.validation;